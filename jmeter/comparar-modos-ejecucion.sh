@@ -0,0 +1,72 @@
+#!/bin/bash
+
+# Compara el modo de ejecución plataforma vs. virtual de usuario-service
+# ejecutando el mismo plan de JMeter contra cada modo.
+#
+# Uso: ./jmeter/comparar-modos-ejecucion.sh [hilos] [duracion_segundos]
+# Requiere el stack levantado con docker-compose (oracle, config-server, service-registry).
+
+set -euo pipefail
+
+HILOS=${1:-400}
+DURACION=${2:-180}
+JRE_VIRTUAL=${JRE_VIRTUAL:-eclipse-temurin:21-jre}
+DIR=$(cd "$(dirname "$0")" && pwd)
+RESULTADOS="$DIR/resultados/$(date +%Y%m%d-%H%M%S)"
+RED=$(docker network ls --format '{{.Name}}' | grep 'tech-stack$' | head -1)
+
+mkdir -p "$RESULTADOS"
+
+esperar_servicio() {
+    for _ in $(seq 1 60); do
+        if curl -sf http://localhost:8081/actuator/health >/dev/null; then
+            return 0
+        fi
+        sleep 5
+    done
+    echo "❌ usuario-service no respondió a tiempo"
+    exit 1
+}
+
+metricas_pool() {
+    curl -s http://localhost:8081/actuator/prometheus \
+        | grep -E '^hikaricp_connections_(active|pending|max|acquire_seconds_(count|sum|max))' \
+        > "$1" || true
+}
+
+for MODO in plataforma virtual; do
+    echo "🚀 Modo $MODO: reconstruyendo usuario-service..."
+    if [ "$MODO" = "virtual" ]; then
+        JRE_IMAGE=$JRE_VIRTUAL EJECUCION_MODO=$MODO docker-compose up -d --build usuario-service
+    else
+        EJECUCION_MODO=$MODO docker-compose up -d --build usuario-service
+    fi
+    esperar_servicio
+
+    echo "📈 Ejecutando carga: $HILOS hilos durante ${DURACION}s"
+    docker run --rm --network "$RED" -v "$DIR:/jmeter" -w /jmeter justb4/jmeter:latest \
+        -n -t usuarios-carga.jmx \
+        -Jhost=usuario-service -Jpuerto=8081 -Jhilos="$HILOS" -Jduracion="$DURACION" \
+        -l "resultados/$(basename "$RESULTADOS")/$MODO.jtl" \
+        -e -o "resultados/$(basename "$RESULTADOS")/$MODO-reporte"
+
+    metricas_pool "$RESULTADOS/$MODO-pool.txt"
+done
+
+echo ""
+echo "📊 Resumen (throughput y latencias sobre todas las solicitudes)"
+for MODO in plataforma virtual; do
+    awk -F, -v modo="$MODO" 'NR > 1 {
+            n++; total += $2; if ($8 != "true") errores++
+            if (inicio == 0 || $1 < inicio) inicio = $1
+            if ($1 + $2 > fin) fin = $1 + $2
+            lat[n] = $2
+        }
+        END {
+            asort(lat)
+            printf "%-10s solicitudes=%d  req/s=%.1f  media=%.1fms  p95=%dms  p99=%dms  errores=%d\n",
+                modo, n, n / ((fin - inicio) / 1000), total / n, lat[int(n * 0.95)], lat[int(n * 0.99)], errores
+        }' "$RESULTADOS/$MODO.jtl"
+done
+echo ""
+echo "Métricas del pool de conexiones y reportes HTML en $RESULTADOS"
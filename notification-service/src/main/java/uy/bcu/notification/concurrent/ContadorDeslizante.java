@@ -0,0 +1,99 @@
+package uy.bcu.notification.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Contador de eventos en una ventana deslizante: un buffer circular de casilleros
+ * de duración fija donde solo se conservan los últimos.
+ *
+ * Cada casillero usa LongAdder, así los hilos que registran eventos a la vez no
+ * compiten por una misma celda. Un casillero se reutiliza (se pone en cero) cuando
+ * llega el primer evento de un período más nuevo; un evento cuyo casillero ya se
+ * reutilizó para un período posterior se ignora. La suma de una ventana incluye
+ * el casillero en curso, por lo que su precisión es la duración de un casillero.
+ */
+public class ContadorDeslizante {
+
+    private static final long SIN_PERIODO = Long.MIN_VALUE;
+
+    private final LongSupplier reloj;
+    private final long origen;
+    private final long nanosPorCasillero;
+    private final Casillero[] casilleros;
+
+    /**
+     * @param resolucion duración de cada casillero
+     * @param cantidad   casilleros que se conservan, incluido el actual
+     */
+    public ContadorDeslizante(Duration resolucion, int cantidad) {
+        this(resolucion, cantidad, System::nanoTime);
+    }
+
+    /**
+     * @param reloj fuente de tiempo en nanosegundos (System.nanoTime salvo en pruebas)
+     */
+    ContadorDeslizante(Duration resolucion, int cantidad, LongSupplier reloj) {
+        this.reloj = reloj;
+        this.origen = reloj.getAsLong();
+        this.nanosPorCasillero = resolucion.toNanos();
+        this.casilleros = new Casillero[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            casilleros[i] = new Casillero();
+        }
+    }
+
+    public void incrementar() {
+        Casillero casillero = casilleroVigente(claveActual());
+        if (casillero != null) {
+            casillero.cuenta.increment();
+        }
+    }
+
+    /**
+     * Eventos de la última ventana (hasta el alcance del contador)
+     */
+    public long sumaUltimos(Duration ventana) {
+        long cantidad = Math.min(Math.max(1, -Math.floorDiv(-ventana.toNanos(), nanosPorCasillero)), casilleros.length);
+        long minima = claveActual() - cantidad + 1;
+        long suma = 0;
+        for (Casillero casillero : casilleros) {
+            if (casillero.clave >= minima) {
+                suma += casillero.cuenta.sum();
+            }
+        }
+        return suma;
+    }
+
+    /** Ventana más larga que puede sumar el contador */
+    public Duration alcance() {
+        return Duration.ofNanos(nanosPorCasillero * casilleros.length);
+    }
+
+    private Casillero casilleroVigente(long clave) {
+        Casillero casillero = casilleros[(int) (clave % casilleros.length)];
+        if (casillero.clave != clave) {
+            synchronized (casillero) {
+                // Otro hilo ya pasó el casillero a un período posterior al de este evento
+                if (casillero.clave > clave) {
+                    return null;
+                }
+                if (casillero.clave < clave) {
+                    casillero.cuenta.reset();
+                    casillero.clave = clave;
+                }
+            }
+        }
+        return casillero;
+    }
+
+    private long claveActual() {
+        return (reloj.getAsLong() - origen) / nanosPorCasillero;
+    }
+
+    private static final class Casillero {
+        private volatile long clave = SIN_PERIODO;
+        private final LongAdder cuenta = new LongAdder();
+    }
+}
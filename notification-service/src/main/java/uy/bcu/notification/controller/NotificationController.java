@@ -5,16 +5,32 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import uy.bcu.notification.dto.NotificationCreateDTO;
-import uy.bcu.notification.dto.NotificationDTO;
+import uy.bcu.notification.dto.NotificationEstadisticasDTO;
+import uy.bcu.notification.dto.NotificationPaginaDTO;
+import uy.bcu.notification.dto.NotificationLoteDTO;
+import uy.bcu.notification.dto.TrabajoLoteDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+import uy.bcu.notification.service.DespachoNotificaciones;
+import uy.bcu.notification.service.EnvioMasivoService;
+import uy.bcu.notification.service.EstadisticasNotificaciones;
+import uy.bcu.notification.service.HistorialService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,51 +41,193 @@ import java.util.Map;
 @Tag(name = "Notificaciones", description = "API para gestión de notificaciones (Email, SMS, Push)")
 public class NotificationController {
 
+    private static final String ESTADO_PENDIENTE = "PENDIENTE";
+    private static final String RETRY_AFTER_SEGUNDOS = "5";
+
+    private final DespachoNotificaciones despacho;
+    private final EnvioMasivoService envioMasivoService;
+    private final HistorialService historialService;
+    private final EstadisticasNotificaciones estadisticas;
+    private final ObjectProvider<Registration> replica;
+
+    public NotificationController(DespachoNotificaciones despacho, EnvioMasivoService envioMasivoService,
+                                  HistorialService historialService, EstadisticasNotificaciones estadisticas,
+                                  ObjectProvider<Registration> replica) {
+        this.despacho = despacho;
+        this.envioMasivoService = envioMasivoService;
+        this.historialService = historialService;
+        this.estadisticas = estadisticas;
+        this.replica = replica;
+    }
+
     @PostMapping("/email")
     @Operation(
         summary = "Enviar notificación por email",
-        description = "Envía una notificación por correo electrónico"
+        description = "Encola una notificación por correo electrónico; el envío se hace en segundo plano"
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notificación aceptada"),
+        @ApiResponse(responseCode = "503", description = "Cola de email llena, reintentar más tarde")
+    })
     public ResponseEntity<Map<String, Object>> enviarEmail(@Valid @RequestBody NotificationCreateDTO notification) {
-        return ResponseEntity.ok(Map.of(
-            "id", 123L,
-            "tipo", "EMAIL",
-            "estado", "ENVIADO",
-            "timestamp", LocalDateTime.now()
-        ));
+        return encolar(Canal.EMAIL, notification);
+    }
+
+    @PostMapping("/email/lote")
+    @Operation(
+        summary = "Enviar notificaciones por email en lote",
+        description = "Encola varias notificaciones por email recibidas en una sola llamada"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notificaciones aceptadas"),
+        @ApiResponse(responseCode = "503", description = "Cola de email llena, reintentar más tarde")
+    })
+    public ResponseEntity<Map<String, Object>> enviarEmails(@Valid @RequestBody NotificationLoteDTO lote) {
+        try {
+            int recibidas = despacho.encolarLote(Canal.EMAIL, lote.getNotificaciones());
+            return ResponseEntity.accepted().body(Map.of(
+                "tipo", Canal.EMAIL.name(),
+                "recibidas", recibidas,
+                "estado", ESTADO_PENDIENTE,
+                "timestamp", LocalDateTime.now()
+            ));
+        } catch (IllegalStateException e) {
+            return colaLlena();
+        }
     }
 
     @PostMapping("/sms")
-    @Operation(summary = "Enviar SMS", description = "Envía una notificación por SMS")
+    @Operation(summary = "Enviar SMS", description = "Encola una notificación por SMS")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notificación aceptada"),
+        @ApiResponse(responseCode = "503", description = "Cola de SMS llena, reintentar más tarde")
+    })
     public ResponseEntity<Map<String, Object>> enviarSMS(@Valid @RequestBody NotificationCreateDTO notification) {
-        return ResponseEntity.ok(Map.of(
-            "id", 124L,
-            "tipo", "SMS",
-            "estado", "ENVIADO",
-            "timestamp", LocalDateTime.now()
-        ));
+        return encolar(Canal.SMS, notification);
+    }
+
+    @PostMapping("/push")
+    @Operation(summary = "Enviar notificación push", description = "Encola una notificación push")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notificación aceptada"),
+        @ApiResponse(responseCode = "503", description = "Cola de push llena, reintentar más tarde")
+    })
+    public ResponseEntity<Map<String, Object>> enviarPush(@Valid @RequestBody NotificationCreateDTO notification) {
+        return encolar(Canal.PUSH, notification);
+    }
+
+    @PostMapping(value = "/lote", consumes = "application/x-ndjson")
+    @Operation(
+        summary = "Envío masivo con plantilla",
+        description = "Recibe un destinatario por línea (NDJSON) con los valores de las variables de la plantilla; "
+            + "el renderizado y el envío se hacen en segundo plano. El avance se consulta en la URL del "
+            + "encabezado Location, que apunta a la réplica que ejecuta el trabajo"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Envío masivo iniciado"),
+        @ApiResponse(responseCode = "400", description = "Plantilla inexistente o inválida"),
+        @ApiResponse(responseCode = "503", description = "Demasiados envíos masivos en curso, reintentar más tarde")
+    })
+    public ResponseEntity<TrabajoLoteDTO> enviarMasivo(
+            @Parameter(description = "ID de la plantilla (notificaciones.plantillas.<id>)", required = true)
+            @RequestParam String plantilla,
+            InputStream destinatarios) throws IOException {
+        try {
+            TrabajoLoteDTO trabajo = envioMasivoService.iniciar(plantilla, destinatarios);
+            return ResponseEntity.accepted()
+                .location(ubicacionTrabajo(trabajo.getId()))
+                .body(trabajo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return colaLlena();
+        }
+    }
+
+    @GetMapping("/lote/{id}")
+    @Operation(
+        summary = "Avance de un envío masivo",
+        description = "El trabajo solo existe en la réplica que lo recibió: consultar la URL del encabezado "
+            + "Location devuelto al iniciarlo y no la del gateway, que puede balancear a otra réplica"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Avance del envío"),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado, ya purgado o de otra réplica")
+    })
+    public ResponseEntity<TrabajoLoteDTO> obtenerEnvioMasivo(
+            @Parameter(description = "ID del trabajo") @PathVariable String id) {
+        return envioMasivoService.obtener(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/historial")
-    @Operation(summary = "Historial de notificaciones")
-    public ResponseEntity<List<NotificationDTO>> obtenerHistorial(
-            @Parameter(description = "Filtrar por tipo") @RequestParam(required = false) String tipo) {
-
-        List<NotificationDTO> notificaciones = Arrays.asList(
-            new NotificationDTO(1L, "EMAIL", "Bienvenida", "ENVIADO", LocalDateTime.now()),
-            new NotificationDTO(2L, "SMS", "Código de verificación", "ENVIADO", LocalDateTime.now())
-        );
-        return ResponseEntity.ok(notificaciones);
+    @Operation(
+        summary = "Historial de notificaciones",
+        description = "Resultado de los envíos, del más reciente al más antiguo, paginado por cursor. "
+            + "Acotar el rango de fechas limita la consulta a las particiones diarias de ese rango"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página del historial obtenida exitosamente",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = NotificationPaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Filtro, cursor o límite inválido")
+    })
+    public ResponseEntity<NotificationPaginaDTO> obtenerHistorial(
+            @Parameter(description = "Filtrar por tipo (EMAIL, SMS, PUSH)") @RequestParam(required = false) String tipo,
+            @Parameter(description = "Filtrar por estado (ENVIADO, ERROR)") @RequestParam(required = false) String estado,
+            @Parameter(description = "Envíos desde esta fecha (inclusive)", example = "2023-10-15T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Envíos hasta esta fecha (exclusive)", example = "2023-10-15T11:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad máxima de notificaciones por página (máx. " + HistorialService.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + HistorialService.LIMITE_POR_DEFECTO) int limite) {
+        try {
+            return ResponseEntity.ok(historialService.obtenerHistorial(tipo, estado, desde, hasta, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/estadisticas")
-    @Operation(summary = "Estadísticas de notificaciones")
-    public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
-        return ResponseEntity.ok(Map.of(
-            "emailsEnviados", 1542,
-            "smsEnviados", 324,
-            "pushEnviadas", 892,
-            "tasaExito", 98.5
-        ));
+    @Operation(
+        summary = "Estadísticas de notificaciones",
+        description = "Enviadas y descartadas por canal en las ventanas de 1m, 5m, 1h y 24h, con su tasa de éxito"
+    )
+    public ResponseEntity<NotificationEstadisticasDTO> obtenerEstadisticas() {
+        return ResponseEntity.ok(estadisticas.obtenerEstadisticas());
+    }
+
+    private ResponseEntity<Map<String, Object>> encolar(Canal canal, NotificationCreateDTO notification) {
+        try {
+            Notificacion encolada = despacho.encolar(canal, notification);
+            return ResponseEntity.accepted().body(Map.of(
+                "id", encolada.getId(),
+                "tipo", canal.name(),
+                "estado", ESTADO_PENDIENTE,
+                "timestamp", LocalDateTime.now()
+            ));
+        } catch (IllegalStateException e) {
+            return colaLlena();
+        }
+    }
+
+    /**
+     * URL de seguimiento de un envío masivo. Los trabajos viven en la memoria de la
+     * réplica que los recibió, así que se apunta a esa réplica y no al gateway, que
+     * podría balancear la consulta a otra y responder 404. Sin registro en Eureka
+     * (por ejemplo, en pruebas locales) se devuelve la ruta relativa.
+     */
+    private URI ubicacionTrabajo(String id) {
+        String ruta = "/api/notificaciones/lote/" + id;
+        Registration registro = replica.getIfAvailable();
+        return registro != null ? registro.getUri().resolve(ruta) : URI.create(ruta);
+    }
+
+    private static <T> ResponseEntity<T> colaLlena() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS)
+            .build();
     }
 }
@@ -0,0 +1,40 @@
+package uy.bcu.notification.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Una línea del envío masivo: destinatario y valores de las variables de la plantilla
+ */
+@Schema(description = "Destinatario de un envío masivo (una línea NDJSON)")
+public class DestinatarioLoteDTO {
+
+    @Schema(description = "Email o número de teléfono del destinatario", example = "usuario@ejemplo.com", required = true)
+    private String destinatario;
+
+    @Schema(description = "Valores de las variables de la plantilla", example = "{\"nombre\": \"Ana\"}")
+    private Map<String, String> variables;
+
+    @Schema(description = "Identificador del aviso en el servicio de origen; un reenvío repite la referencia",
+           example = "campania-42-usuario-7")
+    private String referencia;
+
+    // Constructores
+    public DestinatarioLoteDTO() {}
+
+    public DestinatarioLoteDTO(String destinatario, Map<String, String> variables) {
+        this.destinatario = destinatario;
+        this.variables = variables;
+    }
+
+    // Getters y Setters
+    public String getDestinatario() { return destinatario; }
+    public void setDestinatario(String destinatario) { this.destinatario = destinatario; }
+
+    public Map<String, String> getVariables() { return variables; }
+    public void setVariables(Map<String, String> variables) { this.variables = variables; }
+
+    public String getReferencia() { return referencia; }
+    public void setReferencia(String referencia) { this.referencia = referencia; }
+}
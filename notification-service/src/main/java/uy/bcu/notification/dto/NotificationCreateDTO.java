@@ -26,6 +26,10 @@ public class NotificationCreateDTO {
            allowableValues = {"BAJA", "NORMAL", "ALTA", "URGENTE"})
     private String prioridad = "NORMAL";
 
+    @Schema(description = "Identificador del aviso en el servicio de origen; un reenvío repite la referencia",
+           example = "pedidos-outbox-42")
+    private String referencia;
+
     // Constructores
     public NotificationCreateDTO() {}
 
@@ -47,4 +51,7 @@ public class NotificationCreateDTO {
 
     public String getPrioridad() { return prioridad; }
     public void setPrioridad(String prioridad) { this.prioridad = prioridad; }
+
+    public String getReferencia() { return referencia; }
+    public void setReferencia(String referencia) { this.referencia = referencia; }
 }
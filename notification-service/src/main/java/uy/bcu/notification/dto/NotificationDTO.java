@@ -18,6 +18,9 @@ public class NotificationDTO {
            allowableValues = {"EMAIL", "SMS", "PUSH"})
     private String tipo;
 
+    @Schema(description = "Email o número de teléfono del destinatario", example = "usuario@ejemplo.com")
+    private String destinatario;
+
     @Schema(description = "Asunto o título de la notificación", example = "Bienvenido al sistema")
     private String asunto;
 
@@ -29,6 +32,12 @@ public class NotificationDTO {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime fechaEnvio;
 
+    @Schema(description = "Intentos de envío realizados", example = "1")
+    private int intentos;
+
+    @Schema(description = "Motivo del último error (solo en estado ERROR)", example = "Destinatario rechazado")
+    private String error;
+
     // Constructores
     public NotificationDTO() {}
 
@@ -40,6 +49,14 @@ public class NotificationDTO {
         this.fechaEnvio = fechaEnvio;
     }
 
+    public NotificationDTO(Long id, String tipo, String destinatario, String asunto, String estado,
+                           LocalDateTime fechaEnvio, int intentos, String error) {
+        this(id, tipo, asunto, estado, fechaEnvio);
+        this.destinatario = destinatario;
+        this.intentos = intentos;
+        this.error = error;
+    }
+
     // Getters y Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -47,6 +64,9 @@ public class NotificationDTO {
     public String getTipo() { return tipo; }
     public void setTipo(String tipo) { this.tipo = tipo; }
 
+    public String getDestinatario() { return destinatario; }
+    public void setDestinatario(String destinatario) { this.destinatario = destinatario; }
+
     public String getAsunto() { return asunto; }
     public void setAsunto(String asunto) { this.asunto = asunto; }
 
@@ -55,4 +75,10 @@ public class NotificationDTO {
 
     public LocalDateTime getFechaEnvio() { return fechaEnvio; }
     public void setFechaEnvio(LocalDateTime fechaEnvio) { this.fechaEnvio = fechaEnvio; }
+
+    public int getIntentos() { return intentos; }
+    public void setIntentos(int intentos) { this.intentos = intentos; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
 }
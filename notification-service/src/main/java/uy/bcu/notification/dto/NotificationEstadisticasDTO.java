@@ -0,0 +1,59 @@
+package uy.bcu.notification.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Schema(description = "Estadísticas de envío en ventanas deslizantes, mantenidas en memoria desde el inicio del servicio")
+public class NotificationEstadisticasDTO {
+
+    @Schema(description = "Emails enviados en las últimas 24 horas", example = "1542")
+    private long emailsEnviados;
+
+    @Schema(description = "SMS enviados en las últimas 24 horas", example = "324")
+    private long smsEnviados;
+
+    @Schema(description = "Notificaciones push enviadas en las últimas 24 horas", example = "892")
+    private long pushEnviadas;
+
+    @Schema(description = "Porcentaje de envíos exitosos en las últimas 24 horas (null si no hubo envíos)", example = "98.5")
+    private Double tasaExito;
+
+    @Schema(description = "Resultados por ventana (1m, 5m, 1h, 24h) y por canal, más el TOTAL de todos los canales")
+    private Map<String, Map<String, ResultadoVentanaDTO>> ventanas;
+
+    @Schema(description = "Momento en que se calcularon las estadísticas")
+    private LocalDateTime fecha;
+
+    // Constructores
+    public NotificationEstadisticasDTO() {}
+
+    public NotificationEstadisticasDTO(long emailsEnviados, long smsEnviados, long pushEnviadas, Double tasaExito,
+                                       Map<String, Map<String, ResultadoVentanaDTO>> ventanas, LocalDateTime fecha) {
+        this.emailsEnviados = emailsEnviados;
+        this.smsEnviados = smsEnviados;
+        this.pushEnviadas = pushEnviadas;
+        this.tasaExito = tasaExito;
+        this.ventanas = ventanas;
+        this.fecha = fecha;
+    }
+
+    // Getters y Setters
+    public long getEmailsEnviados() { return emailsEnviados; }
+    public void setEmailsEnviados(long emailsEnviados) { this.emailsEnviados = emailsEnviados; }
+
+    public long getSmsEnviados() { return smsEnviados; }
+    public void setSmsEnviados(long smsEnviados) { this.smsEnviados = smsEnviados; }
+
+    public long getPushEnviadas() { return pushEnviadas; }
+    public void setPushEnviadas(long pushEnviadas) { this.pushEnviadas = pushEnviadas; }
+
+    public Double getTasaExito() { return tasaExito; }
+    public void setTasaExito(Double tasaExito) { this.tasaExito = tasaExito; }
+
+    public Map<String, Map<String, ResultadoVentanaDTO>> getVentanas() { return ventanas; }
+    public void setVentanas(Map<String, Map<String, ResultadoVentanaDTO>> ventanas) { this.ventanas = ventanas; }
+
+    public LocalDateTime getFecha() { return fecha; }
+    public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
+}
@@ -0,0 +1,35 @@
+package uy.bcu.notification.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO para recibir varias notificaciones en una sola llamada
+ */
+@Schema(description = "Lote de notificaciones a enviar")
+public class NotificationLoteDTO {
+
+    public static final int TAMANIO_MAXIMO = 1000;
+
+    @Valid
+    @NotEmpty(message = "El lote debe incluir al menos una notificación")
+    @Size(max = TAMANIO_MAXIMO, message = "El lote no puede superar " + TAMANIO_MAXIMO + " notificaciones")
+    @Schema(description = "Notificaciones del lote", required = true)
+    private List<NotificationCreateDTO> notificaciones;
+
+    // Constructores
+    public NotificationLoteDTO() {}
+
+    public NotificationLoteDTO(List<NotificationCreateDTO> notificaciones) {
+        this.notificaciones = notificaciones;
+    }
+
+    // Getters y Setters
+    public List<NotificationCreateDTO> getNotificaciones() { return notificaciones; }
+    public void setNotificaciones(List<NotificationCreateDTO> notificaciones) { this.notificaciones = notificaciones; }
+}
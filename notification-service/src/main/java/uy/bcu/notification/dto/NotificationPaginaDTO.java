@@ -0,0 +1,36 @@
+package uy.bcu.notification.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Página del historial de notificaciones con cursor para continuar el recorrido")
+public class NotificationPaginaDTO {
+
+    @Schema(description = "Notificaciones de la página, de la más reciente a la más antigua")
+    private List<NotificationDTO> notificaciones;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente (null si no hay más)")
+    private String siguienteCursor;
+
+    @Schema(description = "Indica si existen más notificaciones después de esta página", example = "true")
+    private boolean hayMas;
+
+    // Constructores
+    public NotificationPaginaDTO() {}
+
+    public NotificationPaginaDTO(List<NotificationDTO> notificaciones, String siguienteCursor, boolean hayMas) {
+        this.notificaciones = notificaciones;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = hayMas;
+    }
+
+    // Getters y Setters
+    public List<NotificationDTO> getNotificaciones() { return notificaciones; }
+    public void setNotificaciones(List<NotificationDTO> notificaciones) { this.notificaciones = notificaciones; }
+
+    public String getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(String siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+}
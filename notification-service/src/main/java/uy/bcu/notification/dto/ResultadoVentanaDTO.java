@@ -0,0 +1,36 @@
+package uy.bcu.notification.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultados de envío de un canal en una ventana de tiempo")
+public class ResultadoVentanaDTO {
+
+    @Schema(description = "Notificaciones enviadas", example = "1542")
+    private long enviadas;
+
+    @Schema(description = "Notificaciones descartadas tras fallar", example = "23")
+    private long errores;
+
+    @Schema(description = "Porcentaje de envíos exitosos (null si no hubo envíos)", example = "98.5")
+    private Double tasaExito;
+
+    // Constructores
+    public ResultadoVentanaDTO() {}
+
+    public ResultadoVentanaDTO(long enviadas, long errores) {
+        this.enviadas = enviadas;
+        this.errores = errores;
+        long total = enviadas + errores;
+        this.tasaExito = total > 0 ? Math.round(enviadas * 1000.0 / total) / 10.0 : null;
+    }
+
+    // Getters y Setters
+    public long getEnviadas() { return enviadas; }
+    public void setEnviadas(long enviadas) { this.enviadas = enviadas; }
+
+    public long getErrores() { return errores; }
+    public void setErrores(long errores) { this.errores = errores; }
+
+    public Double getTasaExito() { return tasaExito; }
+    public void setTasaExito(Double tasaExito) { this.tasaExito = tasaExito; }
+}
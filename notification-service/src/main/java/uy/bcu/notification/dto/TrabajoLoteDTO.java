@@ -0,0 +1,94 @@
+package uy.bcu.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el avance de un envío masivo
+ */
+@Schema(description = "Avance de un envío masivo")
+public class TrabajoLoteDTO {
+
+    @Schema(description = "ID del trabajo", example = "5f0c2d1e-8a7b-4c3d-9e2f-1a2b3c4d5e6f")
+    private String id;
+
+    @Schema(description = "Plantilla usada", example = "bienvenida")
+    private String plantilla;
+
+    @Schema(description = "Canal de envío", example = "EMAIL", allowableValues = {"EMAIL", "SMS", "PUSH"})
+    private String canal;
+
+    @Schema(description = "Estado del trabajo", example = "EN_CURSO",
+           allowableValues = {"EN_CURSO", "COMPLETADO", "ERROR"})
+    private String estado;
+
+    @Schema(description = "Destinatarios leídos hasta el momento", example = "120000")
+    private long leidos;
+
+    @Schema(description = "Notificaciones renderizadas y encoladas para su envío", example = "119990")
+    private long encolados;
+
+    @Schema(description = "Destinatarios descartados (línea inválida, variable faltante o cola llena)", example = "10")
+    private long fallidos;
+
+    @Schema(description = "Último error registrado", example = "Línea 57: Falta la variable nombre")
+    private String ultimoError;
+
+    @Schema(description = "Inicio del trabajo", example = "2023-10-15T10:30:00")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fin del trabajo (vacío mientras está en curso)", example = "2023-10-15T10:32:10")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fin;
+
+    // Constructores
+    public TrabajoLoteDTO() {}
+
+    public TrabajoLoteDTO(String id, String plantilla, String canal, String estado, long leidos, long encolados,
+                          long fallidos, String ultimoError, LocalDateTime inicio, LocalDateTime fin) {
+        this.id = id;
+        this.plantilla = plantilla;
+        this.canal = canal;
+        this.estado = estado;
+        this.leidos = leidos;
+        this.encolados = encolados;
+        this.fallidos = fallidos;
+        this.ultimoError = ultimoError;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    // Getters y Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getPlantilla() { return plantilla; }
+    public void setPlantilla(String plantilla) { this.plantilla = plantilla; }
+
+    public String getCanal() { return canal; }
+    public void setCanal(String canal) { this.canal = canal; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public long getLeidos() { return leidos; }
+    public void setLeidos(long leidos) { this.leidos = leidos; }
+
+    public long getEncolados() { return encolados; }
+    public void setEncolados(long encolados) { this.encolados = encolados; }
+
+    public long getFallidos() { return fallidos; }
+    public void setFallidos(long fallidos) { this.fallidos = fallidos; }
+
+    public String getUltimoError() { return ultimoError; }
+    public void setUltimoError(String ultimoError) { this.ultimoError = ultimoError; }
+
+    public LocalDateTime getInicio() { return inicio; }
+    public void setInicio(LocalDateTime inicio) { this.inicio = inicio; }
+
+    public LocalDateTime getFin() { return fin; }
+    public void setFin(LocalDateTime fin) { this.fin = fin; }
+}
@@ -0,0 +1,28 @@
+package uy.bcu.notification.model;
+
+import java.util.Locale;
+
+/**
+ * Canales de envío de notificaciones; cada uno tiene su propio pool de envío
+ */
+public enum Canal {
+    EMAIL,
+    SMS,
+    PUSH;
+
+    /** Nombre del canal en la configuración (notificaciones.despacho.email...) */
+    public String clave() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @throws IllegalArgumentException si el valor no es un canal conocido
+     */
+    public static Canal desde(String valor) {
+        try {
+            return Canal.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Canal no soportado: " + valor);
+        }
+    }
+}
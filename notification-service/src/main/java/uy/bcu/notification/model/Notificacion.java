@@ -0,0 +1,53 @@
+package uy.bcu.notification.model;
+
+/**
+ * Notificación aceptada y pendiente de envío en un canal
+ */
+public class Notificacion {
+
+    private final long id;
+    private final Canal canal;
+    private final String destinatario;
+    private final String asunto;
+    private final String mensaje;
+    private final String prioridad;
+    private final String referencia;
+
+    // Envíos fallidos hasta el momento
+    private int intentos;
+    // System.nanoTime() del último ingreso a la cola del canal
+    private long encolada;
+
+    public Notificacion(long id, Canal canal, String destinatario, String asunto, String mensaje,
+                        String prioridad, String referencia) {
+        this.id = id;
+        this.canal = canal;
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.mensaje = mensaje;
+        this.prioridad = prioridad;
+        this.referencia = referencia;
+    }
+
+    public long getId() { return id; }
+
+    public Canal getCanal() { return canal; }
+
+    public String getDestinatario() { return destinatario; }
+
+    public String getAsunto() { return asunto; }
+
+    public String getMensaje() { return mensaje; }
+
+    public String getPrioridad() { return prioridad; }
+
+    public String getReferencia() { return referencia; }
+
+    public int getIntentos() { return intentos; }
+
+    public int registrarIntentoFallido() { return ++intentos; }
+
+    public long getEncolada() { return encolada; }
+
+    public void setEncolada(long encolada) { this.encolada = encolada; }
+}
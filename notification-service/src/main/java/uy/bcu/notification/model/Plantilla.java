@@ -0,0 +1,116 @@
+package uy.bcu.notification.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla de notificación ya compilada.
+ *
+ * El asunto y el mensaje se analizan una sola vez: quedan separados en tramos de
+ * texto fijo y nombres de variable ({{nombre}}), y renderizar es solo concatenar
+ * los tramos con los valores de cada destinatario. Es inmutable y puede usarse
+ * desde varios hilos a la vez.
+ */
+public final class Plantilla {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+
+    private final String id;
+    private final Canal canal;
+    private final Texto asunto;
+    private final Texto mensaje;
+
+    private Plantilla(String id, Canal canal, Texto asunto, Texto mensaje) {
+        this.id = id;
+        this.canal = canal;
+        this.asunto = asunto;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el mensaje falta o alguna variable no está cerrada
+     */
+    public static Plantilla compilar(String id, Canal canal, String asunto, String mensaje) {
+        if (mensaje == null || mensaje.isBlank()) {
+            throw new IllegalArgumentException("La plantilla " + id + " no tiene mensaje");
+        }
+        return new Plantilla(id, canal, asunto != null ? Texto.compilar(id, asunto) : null, Texto.compilar(id, mensaje));
+    }
+
+    public String getId() { return id; }
+
+    public Canal getCanal() { return canal; }
+
+    /**
+     * @return el asunto con las variables reemplazadas, o null si la plantilla no tiene asunto
+     * @throws IllegalArgumentException si falta alguna variable
+     */
+    public String renderizarAsunto(Map<String, String> variables) {
+        return asunto != null ? asunto.renderizar(variables) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException si falta alguna variable
+     */
+    public String renderizarMensaje(Map<String, String> variables) {
+        return mensaje.renderizar(variables);
+    }
+
+    /**
+     * Texto con variables: tramos fijos intercalados con nombres de variable
+     * (siempre un tramo fijo más que variables, posiblemente vacío)
+     */
+    private static final class Texto {
+
+        private final String[] tramos;
+        private final String[] variables;
+        private final int largoFijo;
+
+        private Texto(String[] tramos, String[] variables) {
+            this.tramos = tramos;
+            this.variables = variables;
+            int largo = 0;
+            for (String tramo : tramos) {
+                largo += tramo.length();
+            }
+            this.largoFijo = largo;
+        }
+
+        static Texto compilar(String plantilla, String texto) {
+            List<String> tramos = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int desde = 0;
+            int apertura;
+            while ((apertura = texto.indexOf(APERTURA, desde)) >= 0) {
+                int cierre = texto.indexOf(CIERRE, apertura + APERTURA.length());
+                if (cierre < 0) {
+                    throw new IllegalArgumentException("Variable sin cerrar en la plantilla " + plantilla
+                        + " (posición " + apertura + ")");
+                }
+                tramos.add(texto.substring(desde, apertura));
+                variables.add(texto.substring(apertura + APERTURA.length(), cierre).trim());
+                desde = cierre + CIERRE.length();
+            }
+            tramos.add(texto.substring(desde));
+            return new Texto(tramos.toArray(new String[0]), variables.toArray(new String[0]));
+        }
+
+        String renderizar(Map<String, String> valores) {
+            if (variables.length == 0) {
+                return tramos[0];
+            }
+            StringBuilder resultado = new StringBuilder(largoFijo + 16 * variables.length);
+            resultado.append(tramos[0]);
+            for (int i = 0; i < variables.length; i++) {
+                String valor = valores != null ? valores.get(variables[i]) : null;
+                if (valor == null) {
+                    throw new IllegalArgumentException("Falta la variable " + variables[i]);
+                }
+                resultado.append(valor).append(tramos[i + 1]);
+            }
+            return resultado.toString();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package uy.bcu.notification.model;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Resultado final del envío de una notificación (fila de appuser.notificaciones_historial)
+ */
+public class RegistroHistorial {
+
+    public enum Estado {
+        ENVIADO, ERROR;
+
+        /**
+         * @throws IllegalArgumentException si el valor no es un estado conocido
+         */
+        public static Estado desde(String valor) {
+            try {
+                return Estado.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Estado de notificación no válido: " + valor);
+            }
+        }
+    }
+
+    private Long id;
+    private final Canal canal;
+    private final Estado estado;
+    private final String destinatario;
+    private final String asunto;
+    private final String referencia;
+    private final int intentos;
+    private final String error;
+    private final LocalDateTime fechaEnvio;
+
+    public RegistroHistorial(Canal canal, Estado estado, String destinatario, String asunto, String referencia,
+                             int intentos, String error, LocalDateTime fechaEnvio) {
+        this.canal = canal;
+        this.estado = estado;
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.referencia = referencia;
+        this.intentos = intentos;
+        this.error = error;
+        this.fechaEnvio = fechaEnvio;
+    }
+
+    public Long getId() { return id; }
+
+    public void setId(Long id) { this.id = id; }
+
+    public Canal getCanal() { return canal; }
+
+    public Estado getEstado() { return estado; }
+
+    public String getDestinatario() { return destinatario; }
+
+    public String getAsunto() { return asunto; }
+
+    public String getReferencia() { return referencia; }
+
+    public int getIntentos() { return intentos; }
+
+    public String getError() { return error; }
+
+    public LocalDateTime getFechaEnvio() { return fechaEnvio; }
+}
@@ -0,0 +1,71 @@
+package uy.bcu.notification.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envío masivo en curso o terminado.
+ * Los contadores los actualizan en paralelo los hilos de renderizado.
+ */
+public class TrabajoLote {
+
+    public enum Estado { EN_CURSO, COMPLETADO, ERROR }
+
+    private final String id;
+    private final String plantilla;
+    private final Canal canal;
+    private final LocalDateTime inicio = LocalDateTime.now();
+
+    private final LongAdder leidos = new LongAdder();
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+
+    private volatile Estado estado = Estado.EN_CURSO;
+    private volatile String ultimoError;
+    private volatile LocalDateTime fin;
+
+    public TrabajoLote(String id, String plantilla, Canal canal) {
+        this.id = id;
+        this.plantilla = plantilla;
+        this.canal = canal;
+    }
+
+    public void registrarLeidos(int cantidad) { leidos.add(cantidad); }
+
+    public void registrarEncolado() { encolados.increment(); }
+
+    public void registrarFallo(String error) {
+        fallidos.increment();
+        ultimoError = error;
+    }
+
+    public void terminar(Estado estado, String error) {
+        if (error != null) {
+            this.ultimoError = error;
+        }
+        this.fin = LocalDateTime.now();
+        this.estado = estado;
+    }
+
+    public boolean isTerminado() { return estado != Estado.EN_CURSO; }
+
+    public String getId() { return id; }
+
+    public String getPlantilla() { return plantilla; }
+
+    public Canal getCanal() { return canal; }
+
+    public LocalDateTime getInicio() { return inicio; }
+
+    public long getLeidos() { return leidos.sum(); }
+
+    public long getEncolados() { return encolados.sum(); }
+
+    public long getFallidos() { return fallidos.sum(); }
+
+    public Estado getEstado() { return estado; }
+
+    public String getUltimoError() { return ultimoError; }
+
+    public LocalDateTime getFin() { return fin; }
+}
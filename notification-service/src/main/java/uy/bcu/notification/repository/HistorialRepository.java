@@ -0,0 +1,127 @@
+package uy.bcu.notification.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.RegistroHistorial;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso JDBC a appuser.notificaciones_historial (particionada por día).
+ * Todas las consultas filtran por fecha_envio para que Oracle lea solo las
+ * particiones del rango pedido.
+ */
+@Repository
+public class HistorialRepository {
+
+    private static final String INSERTAR =
+        "INSERT INTO appuser.notificaciones_historial "
+            + "(canal, estado, destinatario, asunto, referencia, intentos, error, fecha_envio) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public HistorialRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * Insertar registros en un solo batch JDBC
+     */
+    public void registrar(List<RegistroHistorial> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERTAR, registros, registros.size(), (ps, registro) -> {
+            ps.setString(1, registro.getCanal().name());
+            ps.setString(2, registro.getEstado().name());
+            ps.setString(3, recortar(registro.getDestinatario(), 200));
+            ps.setString(4, recortar(registro.getAsunto(), 200));
+            ps.setString(5, recortar(registro.getReferencia(), 100));
+            ps.setInt(6, registro.getIntentos());
+            ps.setString(7, recortar(registro.getError(), 500));
+            ps.setTimestamp(8, Timestamp.valueOf(registro.getFechaEnvio()));
+        });
+    }
+
+    /**
+     * Página del historial, del envío más reciente al más antiguo (keyset sobre fecha_envio, id)
+     *
+     * @param desde      inicio del rango (inclusive) o null
+     * @param hasta      fin del rango (exclusivo) o null
+     * @param fechaCursor fecha del último registro de la página anterior o null
+     * @param idCursor   ID del último registro de la página anterior
+     */
+    public List<RegistroHistorial> buscarPagina(Canal canal, RegistroHistorial.Estado estado,
+                                                LocalDateTime desde, LocalDateTime hasta,
+                                                LocalDateTime fechaCursor, Long idCursor, int limite) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, canal, estado, destinatario, asunto, referencia, intentos, error, fecha_envio "
+                + "FROM appuser.notificaciones_historial WHERE 1 = 1");
+        MapSqlParameterSource parametros = new MapSqlParameterSource();
+        if (canal != null) {
+            sql.append(" AND canal = :canal");
+            parametros.addValue("canal", canal.name());
+        }
+        if (estado != null) {
+            sql.append(" AND estado = :estado");
+            parametros.addValue("estado", estado.name());
+        }
+        if (desde != null) {
+            sql.append(" AND fecha_envio >= :desde");
+            parametros.addValue("desde", Timestamp.valueOf(desde), Types.TIMESTAMP);
+        }
+        if (hasta != null) {
+            sql.append(" AND fecha_envio < :hasta");
+            parametros.addValue("hasta", Timestamp.valueOf(hasta), Types.TIMESTAMP);
+        }
+        if (fechaCursor != null) {
+            // La condición sobre fecha_envio sola acota particiones y rango del índice; la segunda desempata por ID
+            sql.append(" AND fecha_envio <= :fechaCursor AND (fecha_envio < :fechaCursor OR id < :idCursor)");
+            parametros.addValue("fechaCursor", Timestamp.valueOf(fechaCursor), Types.TIMESTAMP);
+            parametros.addValue("idCursor", idCursor);
+        }
+        sql.append(" ORDER BY fecha_envio DESC, id DESC FETCH FIRST :limite ROWS ONLY");
+        parametros.addValue("limite", limite);
+
+        return namedJdbcTemplate.query(sql.toString(), parametros, (rs, fila) -> {
+            RegistroHistorial registro = new RegistroHistorial(Canal.valueOf(rs.getString("canal")),
+                RegistroHistorial.Estado.valueOf(rs.getString("estado")), rs.getString("destinatario"),
+                rs.getString("asunto"), rs.getString("referencia"), rs.getInt("intentos"), rs.getString("error"),
+                rs.getTimestamp("fecha_envio").toLocalDateTime());
+            registro.setId(rs.getLong("id"));
+            return registro;
+        });
+    }
+
+    /**
+     * Día del registro más antiguo (null si la tabla está vacía)
+     */
+    public LocalDate diaMasAntiguo() {
+        Timestamp minimo = jdbcTemplate.queryForObject(
+            "SELECT MIN(fecha_envio) FROM appuser.notificaciones_historial", Timestamp.class);
+        return minimo != null ? minimo.toLocalDateTime().toLocalDate() : null;
+    }
+
+    /**
+     * Borrar la partición con los registros del día dado (junto con sus índices locales)
+     */
+    public void borrarDia(LocalDate dia) {
+        // DDL: la fecha va como literal; proviene de la base, no del usuario
+        jdbcTemplate.execute("ALTER TABLE appuser.notificaciones_historial DROP PARTITION FOR (TIMESTAMP '"
+            + dia + " 00:00:00')");
+    }
+
+    private static String recortar(String valor, int largo) {
+        return valor != null && valor.length() > largo ? valor.substring(0, largo) : valor;
+    }
+}
@@ -0,0 +1,36 @@
+package uy.bcu.notification.sender;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * Sesión SMTP ya conectada y autenticada, tomada de PoolConexionesSmtp.
+ * La usa un solo hilo a la vez: el que la tomó hasta que la devuelve.
+ */
+public final class ConexionSmtp {
+
+    private final Transport transport;
+    private long ultimoUso = System.nanoTime();
+    private int enviados;
+
+    ConexionSmtp(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Enviar un mensaje por esta sesión, sin volver a conectar ni autenticar
+     */
+    public void enviar(MimeMessage mensaje) throws MessagingException {
+        mensaje.saveChanges();
+        transport.sendMessage(mensaje, mensaje.getAllRecipients());
+        enviados++;
+        ultimoUso = System.nanoTime();
+    }
+
+    Transport getTransport() { return transport; }
+
+    long getUltimoUso() { return ultimoUso; }
+
+    int getEnviados() { return enviados; }
+}
@@ -0,0 +1,43 @@
+package uy.bcu.notification.sender;
+
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envío efectivo de una notificación por un canal.
+ * Se ejecuta en los hilos del pool del canal, nunca en el hilo de la solicitud HTTP.
+ */
+public interface EnvioCanal {
+
+    Canal canal();
+
+    /**
+     * Enviar la notificación; una excepción indica que el envío falló y puede reintentarse
+     *
+     * @throws IllegalArgumentException si la notificación no es válida para el canal (no se reintenta)
+     */
+    void enviar(Notificacion notificacion);
+
+    /**
+     * Enviar varias notificaciones tomadas juntas de la cola del canal.
+     * Por defecto se envían de a una; los canales que pueden reutilizar una misma
+     * sesión con el servidor para todo el lote lo sobrescriben.
+     *
+     * @return las notificaciones que fallaron con su error (IllegalArgumentException si no se reintenta)
+     */
+    default Map<Notificacion, RuntimeException> enviarLote(List<Notificacion> lote) {
+        Map<Notificacion, RuntimeException> fallos = new HashMap<>();
+        for (Notificacion notificacion : lote) {
+            try {
+                enviar(notificacion);
+            } catch (RuntimeException e) {
+                fallos.put(notificacion, e);
+            }
+        }
+        return fallos;
+    }
+}
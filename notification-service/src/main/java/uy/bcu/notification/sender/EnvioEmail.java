@@ -0,0 +1,108 @@
+package uy.bcu.notification.sender;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.MimeMessage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envío de emails por SMTP con la configuración de spring.mail.
+ * Cada lote se envía por una única sesión del PoolConexionesSmtp, sin volver a
+ * conectar ni autenticar entre mensajes.
+ */
+@Component
+public class EnvioEmail implements EnvioCanal {
+
+    private final JavaMailSender mailSender;
+    private final PoolConexionesSmtp conexiones;
+    private final String remitente;
+
+    public EnvioEmail(JavaMailSender mailSender,
+                      PoolConexionesSmtp conexiones,
+                      @Value("${notificaciones.email.remitente:${spring.mail.username}}") String remitente) {
+        this.mailSender = mailSender;
+        this.conexiones = conexiones;
+        this.remitente = remitente;
+    }
+
+    @Override
+    public Canal canal() {
+        return Canal.EMAIL;
+    }
+
+    @Override
+    public void enviar(Notificacion notificacion) {
+        RuntimeException fallo = enviarLote(List.of(notificacion)).get(notificacion);
+        if (fallo != null) {
+            throw fallo;
+        }
+    }
+
+    @Override
+    public Map<Notificacion, RuntimeException> enviarLote(List<Notificacion> lote) {
+        Map<Notificacion, RuntimeException> fallos = new HashMap<>();
+        ConexionSmtp conexion = null;
+        try {
+            for (Notificacion notificacion : lote) {
+                try {
+                    MimeMessage mensaje = crearMensaje(notificacion);
+                    if (conexion == null) {
+                        conexion = conexiones.tomar();
+                    }
+                    conexion.enviar(mensaje);
+                } catch (AddressException e) {
+                    fallos.put(notificacion, new IllegalArgumentException(
+                        "Email inválido para " + notificacion.getDestinatario(), e));
+                } catch (SendFailedException e) {
+                    // El servidor rechazó el envío pero la sesión sigue abierta para el resto del lote
+                    fallos.put(notificacion, rechazado(notificacion, e));
+                } catch (MessagingException e) {
+                    // Sesión caída (p. ej. cerrada por el servidor): se descarta y el próximo mensaje abre otra
+                    conexiones.descartar(conexion);
+                    conexion = null;
+                    fallos.put(notificacion, new MailSendException(
+                        "No se pudo enviar el email a " + notificacion.getDestinatario(), e));
+                }
+            }
+        } finally {
+            if (conexion != null) {
+                conexiones.devolver(conexion);
+            }
+        }
+        return fallos;
+    }
+
+    private MimeMessage crearMensaje(Notificacion notificacion) throws MessagingException {
+        MimeMessage mensaje = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensaje, "UTF-8");
+        helper.setFrom(remitente);
+        helper.setTo(notificacion.getDestinatario());
+        helper.setSubject(notificacion.getAsunto());
+        helper.setText(notificacion.getMensaje());
+        return mensaje;
+    }
+
+    /**
+     * Un destinatario rechazado de forma permanente no se reintenta; otros rechazos
+     * (límite de envíos, error temporal del servidor) sí
+     */
+    private static RuntimeException rechazado(Notificacion notificacion, SendFailedException e) {
+        boolean destinatarioInvalido = e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0
+            && (e.getValidUnsentAddresses() == null || e.getValidUnsentAddresses().length == 0);
+        if (destinatarioInvalido) {
+            return new IllegalArgumentException("Destinatario rechazado: " + notificacion.getDestinatario(), e);
+        }
+        return new MailSendException("El servidor rechazó el email a " + notificacion.getDestinatario(), e);
+    }
+}
@@ -0,0 +1,27 @@
+package uy.bcu.notification.sender;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+
+/**
+ * Envío de notificaciones push.
+ * Todavía no hay un proveedor integrado: el envío solo se registra en el log.
+ */
+@Component
+public class EnvioPush implements EnvioCanal {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvioPush.class);
+
+    @Override
+    public Canal canal() {
+        return Canal.PUSH;
+    }
+
+    @Override
+    public void enviar(Notificacion notificacion) {
+        logger.debug("PUSH {} a {}: {}", notificacion.getId(), notificacion.getDestinatario(), notificacion.getAsunto());
+    }
+}
@@ -0,0 +1,119 @@
+package uy.bcu.notification.sender;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.time.Duration;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Pool de sesiones SMTP autenticadas.
+ *
+ * Abrir una sesión cuesta varias idas y vueltas con el servidor (conexión TCP,
+ * EHLO, STARTTLS, EHLO, AUTH) antes del primer mensaje; JavaMailSender las abre y
+ * cierra en cada envío. Acá las sesiones se devuelven conectadas y se reutilizan.
+ *
+ * Se entrega primero la sesión devuelta más recientemente, que es la que menos
+ * probablemente cerró el servidor por inactividad. Las que superan la inactividad
+ * máxima o la cantidad de mensajes por sesión se cierran en lugar de reutilizarse.
+ * Una sesión que el servidor igual cerró falla al enviar y quien la tomó la descarta.
+ */
+@Component
+public class PoolConexionesSmtp {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolConexionesSmtp.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingDeque<ConexionSmtp> libres;
+    private final long inactividadMaxima;
+    private final int mensajesPorConexion;
+    private final Counter aperturas;
+
+    public PoolConexionesSmtp(JavaMailSenderImpl mailSender,
+                              MeterRegistry meterRegistry,
+                              @Value("${notificaciones.email.smtp.conexiones-libres:8}") int conexionesLibres,
+                              @Value("${notificaciones.email.smtp.inactividad-maxima:60s}") Duration inactividadMaxima,
+                              @Value("${notificaciones.email.smtp.mensajes-por-conexion:100}") int mensajesPorConexion) {
+        this.mailSender = mailSender;
+        this.libres = new LinkedBlockingDeque<>(conexionesLibres);
+        this.inactividadMaxima = inactividadMaxima.toNanos();
+        this.mensajesPorConexion = mensajesPorConexion;
+        this.aperturas = Counter.builder("notificaciones.smtp.conexiones.abiertas")
+            .description("Sesiones SMTP abiertas (conexión y autenticación completas)")
+            .register(meterRegistry);
+        Gauge.builder("notificaciones.smtp.conexiones.libres", libres, BlockingDeque::size)
+            .description("Sesiones SMTP conectadas esperando un envío")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Tomar una sesión libre o abrir una nueva
+     *
+     * @throws MessagingException si no se pudo conectar o autenticar con el servidor
+     */
+    public ConexionSmtp tomar() throws MessagingException {
+        ConexionSmtp conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            if (System.nanoTime() - conexion.getUltimoUso() < inactividadMaxima) {
+                return conexion;
+            }
+            cerrar(conexion);
+        }
+        return abrir();
+    }
+
+    /**
+     * Devolver una sesión que sigue sirviendo para nuevos envíos
+     */
+    public void devolver(ConexionSmtp conexion) {
+        if (conexion.getEnviados() >= mensajesPorConexion || !libres.offerFirst(conexion)) {
+            cerrar(conexion);
+        }
+    }
+
+    /**
+     * Cerrar una sesión que falló; no vuelve al pool
+     */
+    public void descartar(ConexionSmtp conexion) {
+        if (conexion != null) {
+            cerrar(conexion);
+        }
+    }
+
+    private ConexionSmtp abrir() throws MessagingException {
+        Session sesion = mailSender.getSession();
+        String protocolo = mailSender.getProtocol() != null ? mailSender.getProtocol()
+            : sesion.getProperty("mail.transport.protocol");
+        Transport transport = sesion.getTransport(protocolo != null ? protocolo : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        aperturas.increment();
+        return new ConexionSmtp(transport);
+    }
+
+    private void cerrar(ConexionSmtp conexion) {
+        try {
+            conexion.getTransport().close();
+        } catch (MessagingException e) {
+            logger.debug("Error al cerrar una sesión SMTP: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void cerrarTodas() {
+        ConexionSmtp conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            cerrar(conexion);
+        }
+    }
+}
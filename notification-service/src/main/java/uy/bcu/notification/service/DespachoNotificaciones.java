@@ -0,0 +1,343 @@
+package uy.bcu.notification.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import uy.bcu.notification.dto.NotificationCreateDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+import uy.bcu.notification.model.RegistroHistorial;
+import uy.bcu.notification.sender.EnvioCanal;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola de despacho de notificaciones.
+ *
+ * Aceptar una notificación solo la encola: el envío (SMTP, proveedor de SMS...)
+ * ocurre en hilos propios de cada canal, con cola acotada, así un canal lento no
+ * frena a los demás ni a quien llama. Con la cola del canal llena la notificación
+ * se rechaza enseguida en lugar de esperar. Cada hilo toma de la cola todo lo que
+ * haya esperando (hasta el tamaño de lote del canal) y lo envía junto, lo que en
+ * email significa una sola sesión SMTP por lote. Los envíos fallidos se reintentan
+ * con espera exponencial (con jitter) hasta un máximo de intentos. El resultado
+ * final de cada notificación (enviada o descartada) queda en el historial y en
+ * las estadísticas por ventana.
+ *
+ * Las notificaciones con referencia se aceptan una sola vez: un reenvío del mismo
+ * aviso (entrega al menos una vez del origen) se descarta si la referencia se vio
+ * entre las últimas recibidas.
+ *
+ * Métricas por canal: notificaciones.cola.tamanio, notificaciones.cola.espera,
+ * notificaciones.envio (por lote), notificaciones.enviadas{resultado},
+ * notificaciones.reintentos y notificaciones.descartadas{motivo}.
+ */
+@Service
+public class DespachoNotificaciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachoNotificaciones.class);
+
+    private static final int REFERENCIAS_RECORDADAS = 100_000;
+
+    private final Map<Canal, ColaCanal> colas = new EnumMap<>(Canal.class);
+    private final ScheduledExecutorService reintentos;
+    private final HistorialService historial;
+    private final EstadisticasNotificaciones estadisticas;
+    private final MeterRegistry meterRegistry;
+    private final int maximoIntentos;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private volatile boolean activo = true;
+    // Última notificación aceptada por referencia, para responder lo mismo a un reenvío
+    private final Map<String, Notificacion> referencias = new LinkedHashMap<String, Notificacion>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Notificacion> eldest) {
+            return size() > REFERENCIAS_RECORDADAS;
+        }
+    };
+
+    public DespachoNotificaciones(List<EnvioCanal> envios,
+                                  HistorialService historial,
+                                  EstadisticasNotificaciones estadisticas,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notificaciones.despacho.reintentos.maximo:5}") int maximoIntentos,
+                                  @Value("${notificaciones.despacho.reintentos.espera-inicial:1s}") Duration esperaInicial,
+                                  @Value("${notificaciones.despacho.reintentos.espera-maxima:5m}") Duration esperaMaxima) {
+        this.historial = historial;
+        this.estadisticas = estadisticas;
+        this.meterRegistry = meterRegistry;
+        this.maximoIntentos = maximoIntentos;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+        this.reintentos = Executors.newSingleThreadScheduledExecutor(runnable -> crearHilo(runnable, "notificaciones-reintentos"));
+
+        for (EnvioCanal envio : envios) {
+            Canal canal = envio.canal();
+            String prefijo = "notificaciones.despacho." + canal.clave();
+            int hilos = environment.getProperty(prefijo + ".hilos", Integer.class, 4);
+            int capacidad = environment.getProperty(prefijo + ".capacidad", Integer.class, 10_000);
+            int lote = environment.getProperty(prefijo + ".lote", Integer.class, 20);
+            ColaCanal cola = new ColaCanal(envio, hilos, capacidad, lote);
+            colas.put(canal, cola);
+
+            Gauge.builder("notificaciones.cola.tamanio", cola.pendientes, Collection::size)
+                .tag("canal", canal.name())
+                .description("Notificaciones esperando un hilo de envío")
+                .register(meterRegistry);
+            logger.info("Canal {}: {} hilos, cola de {}, lotes de hasta {}", canal, hilos, capacidad, lote);
+        }
+        colas.values().forEach(ColaCanal::iniciar);
+    }
+
+    private static Thread crearHilo(Runnable runnable, String nombre) {
+        Thread hilo = new Thread(runnable, nombre);
+        hilo.setDaemon(true);
+        return hilo;
+    }
+
+    /**
+     * Aceptar una notificación para enviarla en segundo plano
+     *
+     * @return la notificación encolada (o la ya aceptada con la misma referencia, sin volver a encolarla)
+     * @throws IllegalStateException si la cola del canal está llena
+     */
+    public Notificacion encolar(Canal canal, NotificationCreateDTO dto) {
+        try {
+            return encolar(canal, dto, Duration.ZERO);
+        } catch (InterruptedException e) {
+            // Sin espera solo ocurre si el hilo ya venía interrumpido
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al encolar en " + canal, e);
+        }
+    }
+
+    /**
+     * Aceptar una notificación esperando hasta "espera" a que haya lugar en la cola del canal.
+     * Lo usan los envíos masivos: prefieren frenar su lectura antes que perder notificaciones.
+     *
+     * @throws IllegalStateException si la cola siguió llena durante toda la espera
+     */
+    public Notificacion encolar(Canal canal, NotificationCreateDTO dto, Duration espera) throws InterruptedException {
+        Notificacion notificacion = new Notificacion(secuencia.incrementAndGet(), canal, dto.getDestinatario(),
+            dto.getAsunto(), dto.getMensaje(), dto.getPrioridad(), dto.getReferencia());
+        Notificacion anterior = registrarReferencia(notificacion);
+        if (anterior != null) {
+            meterRegistry.counter("notificaciones.duplicadas", "canal", canal.name()).increment();
+            return anterior;
+        }
+        boolean aceptada;
+        try {
+            aceptada = colas.get(canal).ofrecer(notificacion, espera.toNanos());
+        } catch (InterruptedException e) {
+            olvidarReferencia(notificacion);
+            throw e;
+        }
+        if (!aceptada) {
+            olvidarReferencia(notificacion);
+            meterRegistry.counter("notificaciones.rechazadas", "canal", canal.name()).increment();
+            throw new IllegalStateException("La cola de " + canal + " está llena");
+        }
+        return notificacion;
+    }
+
+    /**
+     * Aceptar un lote de notificaciones de un canal.
+     * Si la cola se llena a mitad del lote se informa el error; las ya aceptadas
+     * no se repiten cuando el lote se reenvía, siempre que traigan referencia.
+     *
+     * @return cantidad de notificaciones aceptadas
+     * @throws IllegalStateException si la cola del canal se llenó antes de aceptar todo el lote
+     */
+    public int encolarLote(Canal canal, List<NotificationCreateDTO> lote) {
+        lote.forEach(dto -> encolar(canal, dto));
+        return lote.size();
+    }
+
+    private void enviar(EnvioCanal envio, List<Notificacion> lote) {
+        Canal canal = envio.canal();
+        Timer espera = Timer.builder("notificaciones.cola.espera")
+            .tag("canal", canal.name())
+            .description("Tiempo entre la aceptación (o el reintento) y el inicio del envío")
+            .register(meterRegistry);
+        long inicio = System.nanoTime();
+        lote.forEach(notificacion -> espera.record(inicio - notificacion.getEncolada(), TimeUnit.NANOSECONDS));
+
+        Map<Notificacion, RuntimeException> fallos = envio.enviarLote(lote);
+        meterRegistry.timer("notificaciones.envio", "canal", canal.name())
+            .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        meterRegistry.counter("notificaciones.enviadas", "canal", canal.name(), "resultado", "ok")
+            .increment(lote.size() - fallos.size());
+        for (Notificacion notificacion : lote) {
+            RuntimeException error = fallos.get(notificacion);
+            if (error == null) {
+                historial.registrar(notificacion, RegistroHistorial.Estado.ENVIADO, null);
+                estadisticas.registrar(canal, RegistroHistorial.Estado.ENVIADO);
+                continue;
+            }
+            meterRegistry.counter("notificaciones.enviadas", "canal", canal.name(), "resultado", "error").increment();
+            if (error instanceof IllegalArgumentException) {
+                notificacion.registrarIntentoFallido();
+                descartar(notificacion, "invalida", error);
+            } else {
+                reintentar(notificacion, error);
+            }
+        }
+    }
+
+    private void reintentar(Notificacion notificacion, RuntimeException error) {
+        int intentos = notificacion.registrarIntentoFallido();
+        if (intentos >= maximoIntentos) {
+            descartar(notificacion, "intentos", error);
+            return;
+        }
+        long espera = Math.min(esperaInicial.toMillis() << Math.min(intentos - 1, 20), esperaMaxima.toMillis());
+        // Jitter: los reintentos de una misma caída del servidor no vuelven todos juntos
+        long conJitter = ThreadLocalRandom.current().nextLong(espera / 2, espera + 1);
+        meterRegistry.counter("notificaciones.reintentos", "canal", notificacion.getCanal().name()).increment();
+        logger.debug("Envío {} de la notificación {} falló, reintento en {} ms: {}",
+            intentos, notificacion.getId(), conJitter, error.getMessage());
+        try {
+            reintentos.schedule(() -> reencolar(notificacion), conJitter, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            descartar(notificacion, "detenido", error);
+        }
+    }
+
+    private void reencolar(Notificacion notificacion) {
+        try {
+            if (!colas.get(notificacion.getCanal()).ofrecer(notificacion, 0)) {
+                descartar(notificacion, "cola-llena", null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void descartar(Notificacion notificacion, String motivo, RuntimeException error) {
+        meterRegistry.counter("notificaciones.descartadas", "canal", notificacion.getCanal().name(),
+            "motivo", motivo).increment();
+        logger.warn("Notificación {} por {} a {} descartada ({}): {}", notificacion.getId(), notificacion.getCanal(),
+            notificacion.getDestinatario(), motivo, error != null ? error.getMessage() : "-");
+        historial.registrar(notificacion, RegistroHistorial.Estado.ERROR,
+            error != null ? motivo + ": " + error.getMessage() : motivo);
+        estadisticas.registrar(notificacion.getCanal(), RegistroHistorial.Estado.ERROR);
+    }
+
+    /**
+     * @return la notificación ya aceptada con la misma referencia, o null si es la primera
+     */
+    private Notificacion registrarReferencia(Notificacion notificacion) {
+        if (notificacion.getReferencia() == null) {
+            return null;
+        }
+        synchronized (referencias) {
+            return referencias.putIfAbsent(notificacion.getReferencia(), notificacion);
+        }
+    }
+
+    private void olvidarReferencia(Notificacion notificacion) {
+        if (notificacion.getReferencia() != null) {
+            synchronized (referencias) {
+                referencias.remove(notificacion.getReferencia(), notificacion);
+            }
+        }
+    }
+
+    /**
+     * Dejar de aceptar notificaciones y dar un margen para enviar las encoladas
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        reintentos.shutdownNow();
+        colas.values().forEach(cola -> cola.hilos.shutdown());
+        for (ColaCanal cola : colas.values()) {
+            if (!cola.hilos.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Se descartan {} notificaciones pendientes al detener el servicio", cola.pendientes.size());
+                cola.hilos.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Cola acotada de un canal con los hilos que la atienden
+     */
+    private final class ColaCanal {
+
+        private final EnvioCanal envio;
+        private final BlockingQueue<Notificacion> pendientes;
+        private final int cantidadHilos;
+        private final int tamanioLote;
+        private final ExecutorService hilos;
+
+        ColaCanal(EnvioCanal envio, int cantidadHilos, int capacidad, int tamanioLote) {
+            this.envio = envio;
+            this.pendientes = new ArrayBlockingQueue<>(capacidad);
+            this.cantidadHilos = cantidadHilos;
+            this.tamanioLote = tamanioLote;
+            AtomicInteger numero = new AtomicInteger();
+            String prefijo = "notificaciones-" + envio.canal().clave() + "-";
+            this.hilos = Executors.newFixedThreadPool(cantidadHilos,
+                runnable -> crearHilo(runnable, prefijo + numero.incrementAndGet()));
+        }
+
+        void iniciar() {
+            for (int i = 0; i < cantidadHilos; i++) {
+                hilos.execute(this::atender);
+            }
+        }
+
+        boolean ofrecer(Notificacion notificacion, long esperaNanos) throws InterruptedException {
+            notificacion.setEncolada(System.nanoTime());
+            return activo && pendientes.offer(notificacion, esperaNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void atender() {
+            List<Notificacion> lote = new ArrayList<>(tamanioLote);
+            while (activo || !pendientes.isEmpty()) {
+                try {
+                    Notificacion primera = pendientes.poll(1, TimeUnit.SECONDS);
+                    if (primera == null) {
+                        continue;
+                    }
+                    lote.add(primera);
+                    pendientes.drainTo(lote, tamanioLote - 1);
+                    enviar(envio, lote);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    logger.error("Error inesperado enviando {} notificaciones por {}", lote.size(), envio.canal(), e);
+                } finally {
+                    lote.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package uy.bcu.notification.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uy.bcu.notification.dto.DestinatarioLoteDTO;
+import uy.bcu.notification.dto.NotificationCreateDTO;
+import uy.bcu.notification.dto.TrabajoLoteDTO;
+import uy.bcu.notification.model.Plantilla;
+import uy.bcu.notification.model.TrabajoLote;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envíos masivos con plantilla.
+ *
+ * El cuerpo de la solicitud (un destinatario por línea, NDJSON) se copia a un
+ * archivo temporal y la solicitud termina enseguida con el ID del trabajo. Luego
+ * un hilo lee el archivo en bloques y los hilos de renderizado, en paralelo,
+ * interpretan cada línea, completan la plantilla (compilada una sola vez) y
+ * encolan la notificación en DespachoNotificaciones. Si la cola del canal está
+ * llena el renderizado espera a que se libere lugar, y la lectura se frena al
+ * tener demasiados bloques pendientes: la memoria usada no depende del tamaño del envío.
+ *
+ * El estado de los trabajos es local a cada réplica y se pierde al reiniciarla;
+ * por eso el controlador devuelve en Location la URL de la réplica que lo ejecuta.
+ */
+@Service
+public class EnvioMasivoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvioMasivoService.class);
+
+    private final PlantillaService plantillaService;
+    private final DespachoNotificaciones despacho;
+    private final ObjectReader lectorDestinatario;
+    private final ExecutorService lectores;
+    private final ExecutorService renderizado;
+    private final Semaphore trabajosDisponibles;
+    private final int tamanioBloque;
+    private final int bloquesEnCurso;
+    private final Duration esperaCola;
+    private final Duration retencion;
+    private final Counter encolados;
+    private final Counter fallidos;
+    private final ConcurrentMap<String, TrabajoLote> trabajos = new ConcurrentHashMap<>();
+
+    public EnvioMasivoService(PlantillaService plantillaService,
+                              DespachoNotificaciones despacho,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${notificaciones.masivo.hilos:4}") int hilos,
+                              @Value("${notificaciones.masivo.bloque:500}") int tamanioBloque,
+                              @Value("${notificaciones.masivo.trabajos-simultaneos:4}") int trabajosSimultaneos,
+                              @Value("${notificaciones.masivo.espera-cola:60s}") Duration esperaCola,
+                              @Value("${notificaciones.masivo.retencion:24h}") Duration retencion) {
+        this.plantillaService = plantillaService;
+        this.despacho = despacho;
+        this.lectorDestinatario = objectMapper.readerFor(DestinatarioLoteDTO.class);
+        this.lectores = Executors.newCachedThreadPool(fabricaHilos("notificaciones-masivo-lector-"));
+        this.renderizado = Executors.newFixedThreadPool(hilos, fabricaHilos("notificaciones-masivo-"));
+        this.trabajosDisponibles = new Semaphore(trabajosSimultaneos);
+        this.tamanioBloque = tamanioBloque;
+        this.bloquesEnCurso = 2 * hilos;
+        this.esperaCola = esperaCola;
+        this.retencion = retencion;
+        this.encolados = meterRegistry.counter("notificaciones.masivo.destinatarios", "resultado", "encolado");
+        this.fallidos = meterRegistry.counter("notificaciones.masivo.destinatarios", "resultado", "fallido");
+    }
+
+    private static ThreadFactory fabricaHilos(String prefijo) {
+        AtomicInteger numero = new AtomicInteger();
+        return runnable -> {
+            Thread hilo = new Thread(runnable, prefijo + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /**
+     * Iniciar un envío masivo con la plantilla indicada
+     *
+     * @param cuerpo un DestinatarioLoteDTO en JSON por línea
+     * @throws IllegalArgumentException si la plantilla no existe o no es válida
+     * @throws IllegalStateException    si ya hay demasiados envíos masivos en curso
+     * @throws IOException              si no se pudo recibir el cuerpo de la solicitud
+     */
+    public TrabajoLoteDTO iniciar(String plantillaId, InputStream cuerpo) throws IOException {
+        Plantilla plantilla = plantillaService.obtener(plantillaId);
+        purgarTerminados();
+        if (!trabajosDisponibles.tryAcquire()) {
+            throw new IllegalStateException("Hay demasiados envíos masivos en curso");
+        }
+
+        Path archivo = null;
+        long bytes;
+        try {
+            archivo = Files.createTempFile("notificaciones-lote-", ".ndjson");
+            bytes = Files.copy(cuerpo, archivo, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            trabajosDisponibles.release();
+            borrar(archivo);
+            throw e;
+        }
+
+        TrabajoLote trabajo = new TrabajoLote(UUID.randomUUID().toString(), plantilla.getId(), plantilla.getCanal());
+        trabajos.put(trabajo.getId(), trabajo);
+        Path recibido = archivo;
+        lectores.execute(() -> procesar(trabajo, plantilla, recibido));
+        logger.info("Envío masivo {} iniciado con la plantilla {} ({} bytes)", trabajo.getId(), plantilla.getId(), bytes);
+        return toDTO(trabajo);
+    }
+
+    public Optional<TrabajoLoteDTO> obtener(String id) {
+        return Optional.ofNullable(trabajos.get(id)).map(this::toDTO);
+    }
+
+    private void procesar(TrabajoLote trabajo, Plantilla plantilla, Path archivo) {
+        // Cada bloque toma un permiso al leerse y lo devuelve al terminar de encolarse
+        Semaphore pendientes = new Semaphore(bloquesEnCurso);
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            List<String> bloque = new ArrayList<>(tamanioBloque);
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                bloque.add(linea);
+                if (bloque.size() == tamanioBloque) {
+                    enviarBloque(trabajo, plantilla, bloque, pendientes);
+                    bloque = new ArrayList<>(tamanioBloque);
+                }
+            }
+            if (!bloque.isEmpty()) {
+                enviarBloque(trabajo, plantilla, bloque, pendientes);
+            }
+            pendientes.acquire(bloquesEnCurso);
+            trabajo.terminar(TrabajoLote.Estado.COMPLETADO, null);
+        } catch (IOException e) {
+            trabajo.terminar(TrabajoLote.Estado.ERROR, "No se pudo leer el lote: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            trabajo.terminar(TrabajoLote.Estado.ERROR, "Envío interrumpido");
+        } finally {
+            borrar(archivo);
+            trabajosDisponibles.release();
+        }
+        logger.info("Envío masivo {} terminado ({}): {} leídos, {} encolados, {} fallidos", trabajo.getId(),
+            trabajo.getEstado(), trabajo.getLeidos(), trabajo.getEncolados(), trabajo.getFallidos());
+    }
+
+    private void enviarBloque(TrabajoLote trabajo, Plantilla plantilla, List<String> bloque, Semaphore pendientes)
+            throws InterruptedException {
+        pendientes.acquire();
+        trabajo.registrarLeidos(bloque.size());
+        CompletableFuture.runAsync(() -> renderizarBloque(trabajo, plantilla, bloque), renderizado)
+            .whenComplete((resultado, error) -> {
+                pendientes.release();
+                if (error != null) {
+                    logger.error("Error inesperado en el envío masivo {}", trabajo.getId(), error);
+                }
+            });
+    }
+
+    private void renderizarBloque(TrabajoLote trabajo, Plantilla plantilla, List<String> bloque) {
+        for (String linea : bloque) {
+            DestinatarioLoteDTO destinatario;
+            try {
+                destinatario = lectorDestinatario.readValue(linea);
+            } catch (JsonProcessingException e) {
+                registrarFallo(trabajo, "Línea inválida: " + e.getOriginalMessage());
+                continue;
+            }
+            try {
+                if (destinatario.getDestinatario() == null || destinatario.getDestinatario().isBlank()) {
+                    throw new IllegalArgumentException("Línea sin destinatario");
+                }
+                NotificationCreateDTO notificacion = new NotificationCreateDTO(destinatario.getDestinatario(),
+                    plantilla.renderizarAsunto(destinatario.getVariables()),
+                    plantilla.renderizarMensaje(destinatario.getVariables()));
+                notificacion.setReferencia(destinatario.getReferencia());
+                despacho.encolar(plantilla.getCanal(), notificacion, esperaCola);
+                trabajo.registrarEncolado();
+                encolados.increment();
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                registrarFallo(trabajo, destinatario.getDestinatario() + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void registrarFallo(TrabajoLote trabajo, String error) {
+        trabajo.registrarFallo(error);
+        fallidos.increment();
+    }
+
+    private void purgarTerminados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        trabajos.values().removeIf(trabajo -> trabajo.isTerminado() && trabajo.getFin().isBefore(limite));
+    }
+
+    private static void borrar(Path archivo) {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el archivo temporal {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private TrabajoLoteDTO toDTO(TrabajoLote trabajo) {
+        return new TrabajoLoteDTO(trabajo.getId(), trabajo.getPlantilla(), trabajo.getCanal().name(),
+            trabajo.getEstado().name(), trabajo.getLeidos(), trabajo.getEncolados(), trabajo.getFallidos(),
+            trabajo.getUltimoError(), trabajo.getInicio(), trabajo.getFin());
+    }
+
+    @PreDestroy
+    void detener() {
+        lectores.shutdownNow();
+        renderizado.shutdownNow();
+    }
+}
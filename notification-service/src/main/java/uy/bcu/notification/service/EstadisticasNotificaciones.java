@@ -0,0 +1,137 @@
+package uy.bcu.notification.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import uy.bcu.notification.concurrent.ContadorDeslizante;
+import uy.bcu.notification.dto.NotificationEstadisticasDTO;
+import uy.bcu.notification.dto.ResultadoVentanaDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.RegistroHistorial;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estadísticas de envío en memoria: notificaciones enviadas y descartadas por canal
+ * en las últimas ventanas de 1m, 5m, 1h y 24h.
+ *
+ * Cada combinación de canal y resultado tiene dos contadores deslizantes: uno de
+ * casilleros de 5 segundos que cubre la última hora y otro de casilleros de un
+ * minuto para las 24 horas. Registrar un resultado no toma locks (salvo al pasar
+ * de casillero) ni accede a la base; los valores empiezan en cero al iniciar el servicio.
+ *
+ * Métricas: notificaciones.ventana.resultados{canal, resultado, ventana} y
+ * notificaciones.ventana.tasa.exito{canal, ventana} (NaN si no hubo envíos).
+ */
+@Service
+public class EstadisticasNotificaciones {
+
+    public static final String TOTAL = "TOTAL";
+
+    private static final Map<String, Duration> VENTANAS = new LinkedHashMap<>();
+    static {
+        VENTANAS.put("1m", Duration.ofMinutes(1));
+        VENTANAS.put("5m", Duration.ofMinutes(5));
+        VENTANAS.put("1h", Duration.ofHours(1));
+        VENTANAS.put("24h", Duration.ofHours(24));
+    }
+    private static final String VENTANA_DIARIA = "24h";
+
+    private final Map<Canal, Map<RegistroHistorial.Estado, Serie>> series = new EnumMap<>(Canal.class);
+
+    public EstadisticasNotificaciones(MeterRegistry meterRegistry) {
+        for (Canal canal : Canal.values()) {
+            Map<RegistroHistorial.Estado, Serie> porEstado = new EnumMap<>(RegistroHistorial.Estado.class);
+            for (RegistroHistorial.Estado estado : RegistroHistorial.Estado.values()) {
+                porEstado.put(estado, new Serie());
+            }
+            series.put(canal, porEstado);
+        }
+
+        for (Map.Entry<String, Duration> ventana : VENTANAS.entrySet()) {
+            for (Canal canal : Canal.values()) {
+                for (RegistroHistorial.Estado estado : RegistroHistorial.Estado.values()) {
+                    Serie serie = series.get(canal).get(estado);
+                    Gauge.builder("notificaciones.ventana.resultados", serie, s -> s.suma(ventana.getValue()))
+                        .tag("canal", canal.name())
+                        .tag("resultado", estado.name().toLowerCase(Locale.ROOT))
+                        .tag("ventana", ventana.getKey())
+                        .description("Notificaciones con resultado final en la ventana")
+                        .register(meterRegistry);
+                }
+                Gauge.builder("notificaciones.ventana.tasa.exito", this, e -> e.tasaExito(canal, ventana.getValue()))
+                    .tag("canal", canal.name())
+                    .tag("ventana", ventana.getKey())
+                    .description("Porcentaje de notificaciones enviadas sobre las terminadas en la ventana")
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Registrar el resultado final de una notificación
+     */
+    public void registrar(Canal canal, RegistroHistorial.Estado estado) {
+        series.get(canal).get(estado).incrementar();
+    }
+
+    public NotificationEstadisticasDTO obtenerEstadisticas() {
+        Map<String, Map<String, ResultadoVentanaDTO>> ventanas = new LinkedHashMap<>();
+        for (Map.Entry<String, Duration> ventana : VENTANAS.entrySet()) {
+            Map<String, ResultadoVentanaDTO> porCanal = new LinkedHashMap<>();
+            long enviadas = 0;
+            long errores = 0;
+            for (Canal canal : Canal.values()) {
+                ResultadoVentanaDTO resultado = resultado(canal, ventana.getValue());
+                porCanal.put(canal.name(), resultado);
+                enviadas += resultado.getEnviadas();
+                errores += resultado.getErrores();
+            }
+            porCanal.put(TOTAL, new ResultadoVentanaDTO(enviadas, errores));
+            ventanas.put(ventana.getKey(), porCanal);
+        }
+
+        Map<String, ResultadoVentanaDTO> diaria = ventanas.get(VENTANA_DIARIA);
+        return new NotificationEstadisticasDTO(
+            diaria.get(Canal.EMAIL.name()).getEnviadas(),
+            diaria.get(Canal.SMS.name()).getEnviadas(),
+            diaria.get(Canal.PUSH.name()).getEnviadas(),
+            diaria.get(TOTAL).getTasaExito(),
+            ventanas,
+            LocalDateTime.now());
+    }
+
+    private ResultadoVentanaDTO resultado(Canal canal, Duration ventana) {
+        Map<RegistroHistorial.Estado, Serie> porEstado = series.get(canal);
+        return new ResultadoVentanaDTO(porEstado.get(RegistroHistorial.Estado.ENVIADO).suma(ventana),
+            porEstado.get(RegistroHistorial.Estado.ERROR).suma(ventana));
+    }
+
+    private double tasaExito(Canal canal, Duration ventana) {
+        Double tasa = resultado(canal, ventana).getTasaExito();
+        return tasa != null ? tasa : Double.NaN;
+    }
+
+    /**
+     * Contadores de un canal y resultado: uno fino para la última hora y otro para el día
+     */
+    private static final class Serie {
+        private final ContadorDeslizante ultimaHora = new ContadorDeslizante(Duration.ofSeconds(5), 720);
+        private final ContadorDeslizante ultimoDia = new ContadorDeslizante(Duration.ofMinutes(1), 1440);
+
+        void incrementar() {
+            ultimaHora.incrementar();
+            ultimoDia.incrementar();
+        }
+
+        long suma(Duration ventana) {
+            ContadorDeslizante contador = ventana.compareTo(ultimaHora.alcance()) <= 0 ? ultimaHora : ultimoDia;
+            return contador.sumaUltimos(ventana);
+        }
+    }
+}
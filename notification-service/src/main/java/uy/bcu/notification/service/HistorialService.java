@@ -0,0 +1,205 @@
+package uy.bcu.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uy.bcu.notification.dto.NotificationDTO;
+import uy.bcu.notification.dto.NotificationPaginaDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+import uy.bcu.notification.model.RegistroHistorial;
+import uy.bcu.notification.repository.HistorialRepository;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Historial de notificaciones enviadas o descartadas.
+ *
+ * Los hilos de envío no escriben en la base: dejan el resultado en una cola en
+ * memoria y un único hilo lo inserta en batches cada pocos milisegundos. Si la base
+ * no responde el lote se reintenta en la siguiente pasada; mientras tanto la cola
+ * se llena y, una vez llena, los registros nuevos se descartan (y se cuentan) en
+ * lugar de frenar los envíos.
+ *
+ * La retención borra particiones diarias completas de la tabla.
+ */
+@Service
+public class HistorialService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistorialService.class);
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+    private static final String SEPARADOR_CURSOR = "|";
+
+    private final HistorialRepository historialRepository;
+    private final BlockingQueue<RegistroHistorial> pendientes;
+    private final int tamanioLote;
+    private final Duration retencion;
+    private final Counter escritos;
+    private final Counter descartados;
+
+    // Lote cuya inserción falló; se reintenta antes de tomar registros nuevos (solo lo usa el hilo programado)
+    private List<RegistroHistorial> loteFallido = List.of();
+
+    public HistorialService(HistorialRepository historialRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${notificaciones.historial.capacidad:100000}") int capacidad,
+                            @Value("${notificaciones.historial.lote:500}") int tamanioLote,
+                            @Value("${notificaciones.historial.retencion:90d}") Duration retencion) {
+        this.historialRepository = historialRepository;
+        this.pendientes = new ArrayBlockingQueue<>(capacidad);
+        this.tamanioLote = tamanioLote;
+        this.retencion = retencion;
+        this.escritos = meterRegistry.counter("notificaciones.historial.registros", "resultado", "escrito");
+        this.descartados = meterRegistry.counter("notificaciones.historial.registros", "resultado", "descartado");
+        Gauge.builder("notificaciones.historial.pendientes", pendientes, Collection::size)
+            .description("Resultados de envío esperando su inserción en el historial")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registrar el resultado final de una notificación; no bloquea ni accede a la base
+     */
+    public void registrar(Notificacion notificacion, RegistroHistorial.Estado estado, String error) {
+        // Notificacion cuenta los intentos fallidos; uno enviado suma el intento exitoso
+        int intentos = notificacion.getIntentos() + (estado == RegistroHistorial.Estado.ENVIADO ? 1 : 0);
+        RegistroHistorial registro = new RegistroHistorial(notificacion.getCanal(), estado,
+            notificacion.getDestinatario(), notificacion.getAsunto(), notificacion.getReferencia(), intentos, error,
+            LocalDateTime.now());
+        if (!pendientes.offer(registro)) {
+            descartados.increment();
+        }
+    }
+
+    /**
+     * Insertar los registros pendientes; mientras salgan lotes completos se sigue sin esperar
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.historial.intervalo-ms:500}")
+    public void escribirPendientes() {
+        List<RegistroHistorial> lote = loteFallido.isEmpty() ? tomarLote() : loteFallido;
+        while (!lote.isEmpty()) {
+            try {
+                historialRepository.registrar(lote);
+            } catch (DataAccessException e) {
+                loteFallido = lote;
+                logger.warn("No se pudieron guardar {} registros del historial ({} en cola): {}",
+                    lote.size(), pendientes.size(), e.getMessage());
+                return;
+            }
+            escritos.increment(lote.size());
+            loteFallido = List.of();
+            lote = lote.size() == tamanioLote ? tomarLote() : List.of();
+        }
+    }
+
+    private List<RegistroHistorial> tomarLote() {
+        List<RegistroHistorial> lote = new ArrayList<>(tamanioLote);
+        pendientes.drainTo(lote, tamanioLote);
+        return lote;
+    }
+
+    /**
+     * Borrar los días completos anteriores a la retención configurada
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.historial.purga-ms:3600000}")
+    public void purgarAntiguos() {
+        LocalDate limite = LocalDate.now().minusDays(retencion.toDays());
+        try {
+            LocalDate dia = historialRepository.diaMasAntiguo();
+            while (dia != null && dia.isBefore(limite)) {
+                historialRepository.borrarDia(dia);
+                logger.info("Borrada la partición del historial de notificaciones del {}", dia);
+                LocalDate siguiente = historialRepository.diaMasAntiguo();
+                if (dia.equals(siguiente)) {
+                    logger.warn("La partición del {} sigue con registros después de borrarla", dia);
+                    return;
+                }
+                dia = siguiente;
+            }
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo purgar el historial de notificaciones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtener una página del historial, opcionalmente filtrada por canal, estado y rango
+     * de fechas. Usa keyset pagination sobre (fecha_envio, id): el cursor codifica el
+     * último registro entregado.
+     *
+     * @throws IllegalArgumentException si el canal, el estado, el cursor o el límite no son válidos
+     */
+    public NotificationPaginaDTO obtenerHistorial(String tipo, String estado, LocalDateTime desde,
+                                                  LocalDateTime hasta, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        Canal canal = tipo != null ? Canal.desde(tipo) : null;
+        RegistroHistorial.Estado filtroEstado = estado != null ? RegistroHistorial.Estado.desde(estado) : null;
+        LocalDateTime fechaCursor = null;
+        Long idCursor = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Map.Entry<LocalDateTime, Long> clave = decodificarCursor(cursor);
+            fechaCursor = clave.getKey();
+            idCursor = clave.getValue();
+        }
+
+        // limite + 1: el registro sobrante indica que hay otra página y se descarta
+        List<RegistroHistorial> registros = historialRepository.buscarPagina(canal, filtroEstado, desde, hasta,
+            fechaCursor, idCursor, limite + 1);
+        boolean hayMas = registros.size() > limite;
+        List<RegistroHistorial> pagina = hayMas ? registros.subList(0, limite) : registros;
+
+        List<NotificationDTO> resultado = pagina.stream()
+            .map(r -> new NotificationDTO(r.getId(), r.getCanal().name(), r.getDestinatario(), r.getAsunto(),
+                r.getEstado().name(), r.getFechaEnvio(), r.getIntentos(), r.getError()))
+            .collect(Collectors.toList());
+        String siguienteCursor = hayMas ? codificarCursor(pagina.get(pagina.size() - 1)) : null;
+        return new NotificationPaginaDTO(resultado, siguienteCursor, hayMas);
+    }
+
+    private String codificarCursor(RegistroHistorial ultimo) {
+        String valor = ultimo.getFechaEnvio() + SEPARADOR_CURSOR + ultimo.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map.Entry<LocalDateTime, Long> decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR_CURSOR, 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return Map.entry(LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Guardar lo pendiente antes de detener el servicio
+     */
+    @PreDestroy
+    void detener() {
+        escribirPendientes();
+    }
+}
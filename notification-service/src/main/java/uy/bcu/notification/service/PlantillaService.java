@@ -0,0 +1,64 @@
+package uy.bcu.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Plantilla;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Plantillas de notificación definidas en la configuración
+ * (notificaciones.plantillas.<id>.canal / asunto / mensaje).
+ *
+ * Cada plantilla se compila la primera vez que se usa y queda en cache; si la
+ * configuración cambia (refresh del Config Server) la cache se vacía y las
+ * plantillas se vuelven a compilar con los textos nuevos.
+ */
+@Service
+public class PlantillaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantillaService.class);
+
+    private static final String PREFIJO = "notificaciones.plantillas.";
+
+    private final Environment environment;
+    private final ConcurrentMap<String, Plantilla> compiladas = new ConcurrentHashMap<>();
+
+    public PlantillaService(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * @throws IllegalArgumentException si la plantilla no existe o no es válida
+     */
+    public Plantilla obtener(String id) {
+        Plantilla plantilla = compiladas.get(id);
+        return plantilla != null ? plantilla : compiladas.computeIfAbsent(id, this::compilar);
+    }
+
+    private Plantilla compilar(String id) {
+        String prefijo = PREFIJO + id + ".";
+        String mensaje = environment.getProperty(prefijo + "mensaje");
+        if (mensaje == null) {
+            throw new IllegalArgumentException("Plantilla no encontrada: " + id);
+        }
+        Canal canal = Canal.desde(environment.getProperty(prefijo + "canal", Canal.EMAIL.name()));
+        Plantilla plantilla = Plantilla.compilar(id, canal, environment.getProperty(prefijo + "asunto"), mensaje);
+        logger.debug("Plantilla {} compilada para {}", id, canal);
+        return plantilla;
+    }
+
+    @EventListener
+    public void alCambiarConfiguracion(EnvironmentChangeEvent evento) {
+        if (evento.getKeys().stream().anyMatch(clave -> clave.startsWith(PREFIJO))) {
+            compiladas.clear();
+            logger.info("Configuración de plantillas modificada; se recompilarán al usarse");
+        }
+    }
+}
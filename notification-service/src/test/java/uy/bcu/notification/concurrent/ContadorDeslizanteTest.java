@@ -0,0 +1,143 @@
+package uy.bcu.notification.concurrent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContadorDeslizanteTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong reloj;
+    private ContadorDeslizante contador;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicLong(1_000 * SEGUNDO);
+        contador = new ContadorDeslizante(Duration.ofSeconds(1), 10, reloj::get);
+    }
+
+    @Test
+    void sumaUltimos_debeContarSoloLosCasillerosDeLaVentana() {
+        // Given
+        incrementar(3);
+        avanzar(2);
+        incrementar(2);
+        avanzar(1);
+        incrementar(1);
+
+        // Then
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(1))).isEqualTo(1);
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(2))).isEqualTo(3);
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(3))).isEqualTo(3);
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(4))).isEqualTo(6);
+    }
+
+    @Test
+    void sumaUltimos_debeRedondearLaVentanaACasillerosCompletos() {
+        // Given
+        incrementar(2);
+        avanzar(1);
+        incrementar(1);
+
+        // Then: 1,5 s abarca el casillero actual y el anterior
+        assertThat(contador.sumaUltimos(Duration.ofMillis(1_500))).isEqualTo(3);
+    }
+
+    @Test
+    void sumaUltimos_debeLimitarseAlAlcanceDelContador() {
+        // Given
+        incrementar(5);
+        avanzar(9);
+        incrementar(1);
+
+        // Then
+        assertThat(contador.alcance()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(contador.sumaUltimos(Duration.ofHours(1))).isEqualTo(6);
+
+        // When: el primer casillero sale de la ventana
+        avanzar(1);
+
+        // Then
+        assertThat(contador.sumaUltimos(Duration.ofHours(1))).isEqualTo(1);
+    }
+
+    @Test
+    void incrementar_debeReiniciarElCasilleroAlReutilizarlo() {
+        // Given
+        incrementar(4);
+
+        // When: la misma posición del buffer corresponde ahora a otro período
+        avanzar(10);
+        incrementar(1);
+
+        // Then
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(10))).isEqualTo(1);
+    }
+
+    @Test
+    void incrementar_debeIgnorarEventosDeUnPeriodoYaReemplazado() {
+        // Given: un hilo leyó el reloj justo antes de que el casillero pasara a un período nuevo
+        long lecturaAtrasada = reloj.get();
+        avanzar(10);
+        incrementar(1);
+
+        // When
+        long actual = reloj.getAndSet(lecturaAtrasada);
+        contador.incrementar();
+        reloj.set(actual);
+
+        // Then
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(1))).isEqualTo(1);
+    }
+
+    @Test
+    void incrementar_noDebePerderEventosConcurrentes() throws Exception {
+        // Given
+        int hilos = 8;
+        int porHilo = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        // When
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                for (int j = 0; j < porHilo; j++) {
+                    contador.incrementar();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(contador.sumaUltimos(Duration.ofSeconds(1))).isEqualTo((long) hilos * porHilo);
+    }
+
+    private void incrementar(int veces) {
+        for (int i = 0; i < veces; i++) {
+            contador.incrementar();
+        }
+    }
+
+    private void avanzar(int segundos) {
+        reloj.addAndGet(segundos * SEGUNDO);
+    }
+}
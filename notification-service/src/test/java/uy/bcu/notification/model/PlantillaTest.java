@@ -0,0 +1,91 @@
+package uy.bcu.notification.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PlantillaTest {
+
+    @Test
+    void renderizar_debeReemplazarCadaVariable() {
+        // Given
+        Plantilla plantilla = Plantilla.compilar("bienvenida", Canal.EMAIL, "Hola {{nombre}}",
+            "{{nombre}}, tu pedido {{ pedido }} está {{estado}}.");
+
+        // When
+        Map<String, String> variables = Map.of("nombre", "Ana", "pedido", "42", "estado", "listo");
+
+        // Then
+        assertThat(plantilla.renderizarAsunto(variables)).isEqualTo("Hola Ana");
+        assertThat(plantilla.renderizarMensaje(variables)).isEqualTo("Ana, tu pedido 42 está listo.");
+        assertThat(plantilla.getId()).isEqualTo("bienvenida");
+        assertThat(plantilla.getCanal()).isEqualTo(Canal.EMAIL);
+    }
+
+    @Test
+    void renderizar_debeAdmitirVariablesSeguidasYRepetidas() {
+        // Given
+        Plantilla plantilla = Plantilla.compilar("codigo", Canal.SMS, null, "{{a}}{{b}}-{{a}}");
+
+        // When / Then
+        assertThat(plantilla.renderizarMensaje(Map.of("a", "1", "b", "2"))).isEqualTo("12-1");
+    }
+
+    @Test
+    void renderizar_sinVariablesDebeDevolverElTextoTalCual() {
+        // Given: llaves sueltas que no abren una variable
+        Plantilla plantilla = Plantilla.compilar("fijo", Canal.PUSH, "Aviso", "Texto fijo con { y }} sueltas");
+
+        // When / Then: no hace falta mapa de variables
+        assertThat(plantilla.renderizarMensaje(null)).isEqualTo("Texto fijo con { y }} sueltas");
+        assertThat(plantilla.renderizarAsunto(Map.of())).isEqualTo("Aviso");
+    }
+
+    @Test
+    void renderizarAsunto_debeSerNullSiLaPlantillaNoTieneAsunto() {
+        // Given
+        Plantilla plantilla = Plantilla.compilar("sms", Canal.SMS, null, "Hola {{nombre}}");
+
+        // When / Then
+        assertThat(plantilla.renderizarAsunto(Map.of("nombre", "Ana"))).isNull();
+        assertThat(plantilla.renderizarAsunto(null)).isNull();
+    }
+
+    @Test
+    void renderizar_debeFallarSiFaltaUnaVariable() {
+        // Given
+        Plantilla plantilla = Plantilla.compilar("pedido", Canal.EMAIL, "Pedido {{pedido}}", "Hola {{nombre}}");
+
+        // When / Then
+        assertThatThrownBy(() -> plantilla.renderizarMensaje(Map.of("pedido", "42")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("nombre");
+        assertThatThrownBy(() -> plantilla.renderizarAsunto(null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("pedido");
+    }
+
+    @Test
+    void compilar_debeRechazarVariablesSinCerrar() {
+        // When / Then
+        assertThatThrownBy(() -> Plantilla.compilar("rota", Canal.EMAIL, null, "Hola {{nombre"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("rota")
+            .hasMessageContaining("posición 5");
+        assertThatThrownBy(() -> Plantilla.compilar("rota", Canal.EMAIL, "Pedido {{pedido", "Hola"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Variable sin cerrar");
+    }
+
+    @Test
+    void compilar_debeRechazarUnMensajeVacio() {
+        // When / Then
+        assertThatThrownBy(() -> Plantilla.compilar("vacia", Canal.EMAIL, "Asunto", null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Plantilla.compilar("vacia", Canal.EMAIL, "Asunto", "  "))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,169 @@
+package uy.bcu.notification.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.RegistroHistorial;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class HistorialRepositoryTest {
+
+    private static final String SELECT =
+        "SELECT id, canal, estado, destinatario, asunto, referencia, intentos, error, fecha_envio "
+            + "FROM appuser.notificaciones_historial WHERE 1 = 1";
+    private static final String ORDEN = " ORDER BY fecha_envio DESC, id DESC FETCH FIRST :limite ROWS ONLY";
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2024, 3, 8, 0, 0);
+    private static final LocalDateTime FECHA_CURSOR = LocalDateTime.of(2024, 3, 5, 10, 30, 15, 250_000_000);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private HistorialRepository historialRepository;
+
+    @BeforeEach
+    void setUp() {
+        historialRepository = new HistorialRepository(jdbcTemplate, namedJdbcTemplate);
+    }
+
+    private String sqlEjecutado(MapSqlParameterSource[] parametros) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> fuente = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedJdbcTemplate).query(sql.capture(), fuente.capture(), any(RowMapper.class));
+        parametros[0] = fuente.getValue();
+        return sql.getValue();
+    }
+
+    @Test
+    void buscarPagina_sinFiltrosDebeOrdenarYLimitarSolamente() {
+        // When
+        historialRepository.buscarPagina(null, null, null, null, null, null, 21);
+
+        // Then
+        MapSqlParameterSource[] parametros = new MapSqlParameterSource[1];
+        assertThat(sqlEjecutado(parametros)).isEqualTo(SELECT + ORDEN);
+        assertThat(parametros[0].getValues()).containsExactly(Map.entry("limite", 21));
+    }
+
+    @Test
+    void buscarPagina_conTodosLosFiltrosDebeArmarLaConsultaCompleta() {
+        // When
+        historialRepository.buscarPagina(Canal.EMAIL, RegistroHistorial.Estado.ERROR, DESDE, HASTA,
+            FECHA_CURSOR, 42L, 11);
+
+        // Then
+        MapSqlParameterSource[] parametros = new MapSqlParameterSource[1];
+        assertThat(sqlEjecutado(parametros)).isEqualTo(SELECT
+            + " AND canal = :canal"
+            + " AND estado = :estado"
+            + " AND fecha_envio >= :desde"
+            + " AND fecha_envio < :hasta"
+            + " AND fecha_envio <= :fechaCursor AND (fecha_envio < :fechaCursor OR id < :idCursor)"
+            + ORDEN);
+        assertThat(parametros[0].getValues()).containsOnly(
+            Map.entry("canal", "EMAIL"),
+            Map.entry("estado", "ERROR"),
+            Map.entry("desde", Timestamp.valueOf(DESDE)),
+            Map.entry("hasta", Timestamp.valueOf(HASTA)),
+            Map.entry("fechaCursor", Timestamp.valueOf(FECHA_CURSOR)),
+            Map.entry("idCursor", 42L),
+            Map.entry("limite", 11));
+        // las fechas van tipadas para que Oracle compare contra TIMESTAMP y pode particiones
+        assertThat(parametros[0].getSqlType("desde")).isEqualTo(Types.TIMESTAMP);
+        assertThat(parametros[0].getSqlType("hasta")).isEqualTo(Types.TIMESTAMP);
+        assertThat(parametros[0].getSqlType("fechaCursor")).isEqualTo(Types.TIMESTAMP);
+    }
+
+    @Test
+    void buscarPagina_debeIncluirCadaCondicionSoloConSuFiltro() {
+        // Cada bit de la combinación activa un filtro: canal, estado, desde, hasta, cursor
+        for (int combinacion = 0; combinacion < 32; combinacion++) {
+            boolean conCanal = (combinacion & 1) != 0;
+            boolean conEstado = (combinacion & 2) != 0;
+            boolean conDesde = (combinacion & 4) != 0;
+            boolean conHasta = (combinacion & 8) != 0;
+            boolean conCursor = (combinacion & 16) != 0;
+            clearInvocations(namedJdbcTemplate);
+
+            // When
+            historialRepository.buscarPagina(conCanal ? Canal.SMS : null,
+                conEstado ? RegistroHistorial.Estado.ENVIADO : null,
+                conDesde ? DESDE : null, conHasta ? HASTA : null,
+                conCursor ? FECHA_CURSOR : null, conCursor ? 7L : null, 5);
+
+            // Then: las condiciones aparecen en orden fijo y con parámetros solo si hay filtro
+            MapSqlParameterSource[] parametros = new MapSqlParameterSource[1];
+            String sql = sqlEjecutado(parametros);
+            StringBuilder esperado = new StringBuilder(SELECT);
+            Map<String, Object> valores = new HashMap<>();
+            if (conCanal) {
+                esperado.append(" AND canal = :canal");
+                valores.put("canal", "SMS");
+            }
+            if (conEstado) {
+                esperado.append(" AND estado = :estado");
+                valores.put("estado", "ENVIADO");
+            }
+            if (conDesde) {
+                esperado.append(" AND fecha_envio >= :desde");
+                valores.put("desde", Timestamp.valueOf(DESDE));
+            }
+            if (conHasta) {
+                esperado.append(" AND fecha_envio < :hasta");
+                valores.put("hasta", Timestamp.valueOf(HASTA));
+            }
+            if (conCursor) {
+                esperado.append(" AND fecha_envio <= :fechaCursor AND (fecha_envio < :fechaCursor OR id < :idCursor)");
+                valores.put("fechaCursor", Timestamp.valueOf(FECHA_CURSOR));
+                valores.put("idCursor", 7L);
+            }
+            esperado.append(ORDEN);
+            valores.put("limite", 5);
+
+            assertThat(sql).as("combinación %s", combinacion).isEqualTo(esperado.toString());
+            assertThat(parametros[0].getValues()).as("combinación %s", combinacion)
+                .containsExactlyInAnyOrderEntriesOf(valores);
+            // todo parámetro enlazado aparece en el SQL y viceversa
+            for (String nombre : parametros[0].getParameterNames()) {
+                assertThat(sql).as("combinación %s", combinacion).contains(":" + nombre);
+            }
+        }
+    }
+
+    @Test
+    void buscarPagina_noDebeInsertarValoresDelUsuarioEnElSql() {
+        // When
+        historialRepository.buscarPagina(Canal.PUSH, RegistroHistorial.Estado.ERROR, DESDE, HASTA,
+            FECHA_CURSOR, 99L, 3);
+
+        // Then
+        MapSqlParameterSource[] parametros = new MapSqlParameterSource[1];
+        String sql = sqlEjecutado(parametros);
+        assertThat(sql).doesNotContain("PUSH", "ERROR", "2024", "99");
+        verify(namedJdbcTemplate).query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class));
+    }
+}
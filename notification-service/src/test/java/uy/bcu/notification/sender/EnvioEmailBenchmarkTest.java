@@ -0,0 +1,205 @@
+package uy.bcu.notification.sender;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de throughput del envío de emails contra un servidor SMTP falso local.
+ *
+ * Compara el envío de a un mensaje con JavaMailSender (una sesión SMTP nueva por
+ * mensaje, como antes) con EnvioEmail enviando lotes por sesiones del pool. El
+ * servidor falso demora cada respuesta para simular la ida y vuelta de red, y la
+ * apertura de sesión para simular el costo de TCP + STARTTLS + AUTH.
+ */
+@Tag("benchmark")
+public class EnvioEmailBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvioEmailBenchmarkTest.class);
+
+    private static final int MENSAJES = 500;
+    private static final int TAMANIO_LOTE = 50;
+    private static final long APERTURA_SESION_MS = 20;
+    private static final long IDA_Y_VUELTA_MS = 1;
+
+    private ServidorSmtpFalso servidor;
+    private JavaMailSenderImpl mailSender;
+    private PoolConexionesSmtp conexiones;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = new ServidorSmtpFalso();
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        mailSender.setPort(servidor.getPuerto());
+        Properties propiedades = new Properties();
+        propiedades.put("mail.smtp.auth", "false");
+        mailSender.setJavaMailProperties(propiedades);
+
+        conexiones = new PoolConexionesSmtp(mailSender, new SimpleMeterRegistry(), 8, Duration.ofSeconds(60), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        conexiones.cerrarTodas();
+        servidor.close();
+    }
+
+    @Test
+    void lotesPorSesionReutilizada_debenEnviarMasMensajesPorSegundo() {
+        // Given
+        EnvioEmail envioEmail = new EnvioEmail(mailSender, conexiones, "benchmark@example.com");
+        List<Notificacion> notificaciones = new ArrayList<>(MENSAJES);
+        for (int i = 0; i < MENSAJES; i++) {
+            notificaciones.add(new Notificacion(i, Canal.EMAIL, "usuario" + i + "@example.com",
+                "Aviso " + i, "Mensaje de prueba " + i, "NORMAL", null));
+        }
+
+        // When
+        long inicio = System.nanoTime();
+        for (Notificacion notificacion : notificaciones) {
+            SimpleMailMessage mensaje = new SimpleMailMessage();
+            mensaje.setFrom("benchmark@example.com");
+            mensaje.setTo(notificacion.getDestinatario());
+            mensaje.setSubject(notificacion.getAsunto());
+            mensaje.setText(notificacion.getMensaje());
+            mailSender.send(mensaje);
+        }
+        double antes = porSegundo(MENSAJES, System.nanoTime() - inicio);
+        int sesionesAntes = servidor.sesiones.getAndSet(0);
+
+        inicio = System.nanoTime();
+        for (int desde = 0; desde < MENSAJES; desde += TAMANIO_LOTE) {
+            assertThat(envioEmail.enviarLote(notificaciones.subList(desde, desde + TAMANIO_LOTE))).isEmpty();
+        }
+        double despues = porSegundo(MENSAJES, System.nanoTime() - inicio);
+        int sesionesDespues = servidor.sesiones.get();
+
+        // Then
+        logger.info("Emails por segundo ({} mensajes): sesión por mensaje={} ({} sesiones), "
+                + "pool y lotes de {}={} ({} sesiones)",
+            MENSAJES, Math.round(antes), sesionesAntes, TAMANIO_LOTE, Math.round(despues), sesionesDespues);
+        assertThat(servidor.mensajes.get()).isEqualTo(2 * MENSAJES);
+        assertThat(sesionesDespues).isLessThan(sesionesAntes);
+        assertThat(despues).isGreaterThan(antes);
+    }
+
+    private static double porSegundo(int mensajes, long nanos) {
+        return mensajes * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * Servidor SMTP mínimo: acepta cualquier remitente y destinatario y descarta los mensajes
+     */
+    private static final class ServidorSmtpFalso implements AutoCloseable {
+
+        private final ServerSocket socket;
+        private final ExecutorService hilos = Executors.newCachedThreadPool();
+        private final AtomicInteger sesiones = new AtomicInteger();
+        private final AtomicInteger mensajes = new AtomicInteger();
+
+        ServidorSmtpFalso() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            hilos.execute(this::aceptar);
+        }
+
+        int getPuerto() {
+            return socket.getLocalPort();
+        }
+
+        private void aceptar() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket cliente = socket.accept();
+                    hilos.execute(() -> atender(cliente));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void atender(Socket cliente) {
+            try (cliente;
+                 BufferedReader entrada = new BufferedReader(
+                     new InputStreamReader(cliente.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer salida = new OutputStreamWriter(cliente.getOutputStream(), StandardCharsets.US_ASCII)) {
+                sesiones.incrementAndGet();
+                demorar(APERTURA_SESION_MS);
+                responder(salida, "220 localhost ESMTP");
+                String linea;
+                while ((linea = entrada.readLine()) != null) {
+                    demorar(IDA_Y_VUELTA_MS);
+                    String comando = linea.length() > 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                    switch (comando) {
+                        case "EHLO":
+                            responder(salida, "250-localhost\r\n250 8BITMIME");
+                            break;
+                        case "DATA":
+                            responder(salida, "354 Terminar con <CRLF>.<CRLF>");
+                            while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+                                // Se descarta el contenido
+                            }
+                            demorar(IDA_Y_VUELTA_MS);
+                            mensajes.incrementAndGet();
+                            responder(salida, "250 OK");
+                            break;
+                        case "QUIT":
+                            responder(salida, "221 Bye");
+                            return;
+                        default:
+                            responder(salida, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // El cliente cerró la conexión
+            }
+        }
+
+        private static void responder(Writer salida, String respuesta) throws IOException {
+            salida.write(respuesta + "\r\n");
+            salida.flush();
+        }
+
+        private static void demorar(long milisegundos) {
+            try {
+                Thread.sleep(milisegundos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            hilos.shutdownNow();
+        }
+    }
+}
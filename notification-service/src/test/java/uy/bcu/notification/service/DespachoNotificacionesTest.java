@@ -0,0 +1,299 @@
+package uy.bcu.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import uy.bcu.notification.dto.NotificationCreateDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+import uy.bcu.notification.model.RegistroHistorial;
+import uy.bcu.notification.sender.EnvioCanal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DespachoNotificacionesTest {
+
+    private static final Duration ESPERA_INICIAL = Duration.ofMillis(40);
+
+    @Mock
+    private HistorialService historial;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EstadisticasNotificaciones estadisticas;
+    private EnvioFalso envio;
+    private DespachoNotificaciones despacho;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        estadisticas = new EstadisticasNotificaciones(meterRegistry);
+        envio = new EnvioFalso();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        envio.liberar();
+        if (despacho != null) {
+            despacho.detener();
+        }
+    }
+
+    private void iniciar(int hilos, int capacidad, int lote, int maximoIntentos) {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("notificaciones.despacho.email.hilos", String.valueOf(hilos))
+            .withProperty("notificaciones.despacho.email.capacidad", String.valueOf(capacidad))
+            .withProperty("notificaciones.despacho.email.lote", String.valueOf(lote));
+        despacho = new DespachoNotificaciones(List.of(envio), historial, estadisticas, environment, meterRegistry,
+            maximoIntentos, ESPERA_INICIAL, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void encolar_debeEnviarEnSegundoPlanoYRegistrarElResultado() {
+        // Given
+        iniciar(2, 10, 20, 3);
+
+        // When
+        Notificacion notificacion = despacho.encolar(Canal.EMAIL, nueva("a@ejemplo.com", null));
+
+        // Then
+        verify(historial, timeout(2000)).registrar(notificacion, RegistroHistorial.Estado.ENVIADO, null);
+        assertThat(envio.intentos(notificacion)).isEqualTo(1);
+        esperarHasta(() -> estadisticas.obtenerEstadisticas().getEmailsEnviados() == 1);
+    }
+
+    @Test
+    void encolar_debeEnviarJuntasLasNotificacionesQueEsperanEnLaCola() {
+        // Given: un solo hilo, ocupado con la primera notificación
+        iniciar(1, 100, 5, 3);
+        envio.bloquear();
+        despacho.encolar(Canal.EMAIL, nueva("primera@ejemplo.com", null));
+        esperarHasta(() -> envio.lotes.size() == 1);
+
+        // When
+        for (int i = 0; i < 7; i++) {
+            despacho.encolar(Canal.EMAIL, nueva("n" + i + "@ejemplo.com", null));
+        }
+        envio.liberar();
+
+        // Then: las 7 que esperaban salen en lotes de hasta 5
+        esperarHasta(() -> envio.enviadas.get() == 8);
+        assertThat(envio.lotes).containsExactly(1, 5, 2);
+    }
+
+    @Test
+    void encolar_debeReintentarConEsperaCrecienteHastaEnviar() {
+        // Given: el servidor falla dos veces y luego acepta
+        iniciar(1, 10, 20, 5);
+        envio.comportamiento = n -> envio.intentos(n) <= 2 ? new IllegalStateException("SMTP no disponible") : null;
+
+        // When
+        Notificacion notificacion = despacho.encolar(Canal.EMAIL, nueva("a@ejemplo.com", null));
+
+        // Then
+        verify(historial, timeout(5000)).registrar(notificacion, RegistroHistorial.Estado.ENVIADO, null);
+        assertThat(envio.intentos(notificacion)).isEqualTo(3);
+        assertThat(notificacion.getIntentos()).isEqualTo(2);
+        assertThat(meterRegistry.get("notificaciones.reintentos").counter().count()).isEqualTo(2.0);
+
+        // Espera con jitter entre la mitad y el total de 40 ms y luego de 80 ms
+        List<Long> momentos = envio.momentos.get(notificacion.getId());
+        long primera = TimeUnit.NANOSECONDS.toMillis(momentos.get(1) - momentos.get(0));
+        long segunda = TimeUnit.NANOSECONDS.toMillis(momentos.get(2) - momentos.get(1));
+        assertThat(primera).isGreaterThanOrEqualTo(ESPERA_INICIAL.toMillis() / 2);
+        assertThat(segunda).isGreaterThanOrEqualTo(ESPERA_INICIAL.toMillis());
+    }
+
+    @Test
+    void encolar_debeDescartarTrasElMaximoDeIntentos() {
+        // Given
+        iniciar(1, 10, 20, 3);
+        envio.comportamiento = n -> new IllegalStateException("SMTP no disponible");
+
+        // When
+        Notificacion notificacion = despacho.encolar(Canal.EMAIL, nueva("a@ejemplo.com", null));
+
+        // Then
+        verify(historial, timeout(5000)).registrar(eq(notificacion), eq(RegistroHistorial.Estado.ERROR),
+            startsWith("intentos"));
+        assertThat(envio.intentos(notificacion)).isEqualTo(3);
+        assertThat(meterRegistry.get("notificaciones.descartadas").tag("motivo", "intentos").counter().count())
+            .isEqualTo(1.0);
+        esperarHasta(() -> estadisticas.obtenerEstadisticas().getVentanas().get("1m").get("EMAIL").getErrores() == 1);
+    }
+
+    @Test
+    void encolar_noDebeReintentarUnaNotificacionInvalida() {
+        // Given
+        iniciar(1, 10, 20, 5);
+        envio.comportamiento = n -> new IllegalArgumentException("Dirección inválida");
+
+        // When
+        Notificacion notificacion = despacho.encolar(Canal.EMAIL, nueva("invalida", null));
+
+        // Then
+        verify(historial, timeout(2000)).registrar(eq(notificacion), eq(RegistroHistorial.Estado.ERROR),
+            startsWith("invalida"));
+        assertThat(envio.intentos(notificacion)).isEqualTo(1);
+        assertThat(meterRegistry.find("notificaciones.reintentos").counter()).isNull();
+    }
+
+    @Test
+    void encolar_debeDevolverLaNotificacionYaAceptadaSiSeRepiteLaReferencia() {
+        // Given
+        iniciar(1, 10, 20, 3);
+        Notificacion primera = despacho.encolar(Canal.EMAIL, nueva("a@ejemplo.com", "pedidos-outbox-42"));
+
+        // When
+        Notificacion repetida = despacho.encolar(Canal.EMAIL, nueva("a@ejemplo.com", "pedidos-outbox-42"));
+
+        // Then
+        assertThat(repetida).isSameAs(primera);
+        verify(historial, timeout(2000)).registrar(primera, RegistroHistorial.Estado.ENVIADO, null);
+        assertThat(envio.enviadas.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("notificaciones.duplicadas").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void encolar_debeRechazarConLaColaLlenaYOlvidarLaReferencia() {
+        // Given: el hilo está ocupado y la cola, de capacidad 1, tiene una notificación esperando
+        iniciar(1, 1, 20, 3);
+        envio.bloquear();
+        despacho.encolar(Canal.EMAIL, nueva("primera@ejemplo.com", null));
+        esperarHasta(() -> envio.lotes.size() == 1);
+        despacho.encolar(Canal.EMAIL, nueva("segunda@ejemplo.com", null));
+
+        // When / Then
+        assertThatThrownBy(() -> despacho.encolar(Canal.EMAIL, nueva("tercera@ejemplo.com", "ref-3")))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("notificaciones.rechazadas").counter().count()).isEqualTo(1.0);
+        verify(historial, never()).registrar(any(), eq(RegistroHistorial.Estado.ERROR), any());
+
+        // Una vez liberada la cola, el reenvío con la misma referencia se acepta y se envía
+        envio.liberar();
+        esperarHasta(() -> envio.enviadas.get() == 2);
+        Notificacion reenviada = despacho.encolar(Canal.EMAIL, nueva("tercera@ejemplo.com", "ref-3"));
+        verify(historial, timeout(2000)).registrar(eq(reenviada), eq(RegistroHistorial.Estado.ENVIADO), isNull());
+    }
+
+    @Test
+    void encolarConEspera_debeEsperarLugarEnLaCola() throws Exception {
+        // Given
+        iniciar(1, 1, 20, 3);
+        envio.bloquear();
+        despacho.encolar(Canal.EMAIL, nueva("primera@ejemplo.com", null));
+        esperarHasta(() -> envio.lotes.size() == 1);
+        despacho.encolar(Canal.EMAIL, nueva("segunda@ejemplo.com", null));
+
+        // When: la cola se libera mientras se espera
+        Thread liberador = new Thread(() -> {
+            dormir(100);
+            envio.liberar();
+        });
+        liberador.start();
+        Notificacion tercera = despacho.encolar(Canal.EMAIL, nueva("tercera@ejemplo.com", null), Duration.ofSeconds(5));
+        liberador.join();
+
+        // Then
+        verify(historial, timeout(2000)).registrar(tercera, RegistroHistorial.Estado.ENVIADO, null);
+        assertThat(meterRegistry.find("notificaciones.rechazadas").counter()).isNull();
+    }
+
+    private static NotificationCreateDTO nueva(String destinatario, String referencia) {
+        NotificationCreateDTO dto = new NotificationCreateDTO(destinatario, "Asunto", "Mensaje");
+        dto.setReferencia(referencia);
+        return dto;
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime() - limite).as("tiempo de espera agotado").isNegative();
+            dormir(1);
+        }
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Canal de email en memoria: registra lotes e intentos y puede quedar bloqueado
+     * dentro de un envío para simular un servidor lento.
+     */
+    private static final class EnvioFalso implements EnvioCanal {
+
+        private final List<Integer> lotes = new CopyOnWriteArrayList<>();
+        private final Map<Long, List<Long>> momentos = new ConcurrentHashMap<>();
+        private final AtomicInteger enviadas = new AtomicInteger();
+        private volatile CountDownLatch bloqueo = new CountDownLatch(0);
+        // Error con el que falla cada intento (null si se envía)
+        private volatile Function<Notificacion, RuntimeException> comportamiento = n -> null;
+
+        void bloquear() {
+            bloqueo = new CountDownLatch(1);
+        }
+
+        void liberar() {
+            bloqueo.countDown();
+        }
+
+        int intentos(Notificacion notificacion) {
+            return momentos.getOrDefault(notificacion.getId(), List.of()).size();
+        }
+
+        @Override
+        public Canal canal() {
+            return Canal.EMAIL;
+        }
+
+        @Override
+        public Map<Notificacion, RuntimeException> enviarLote(List<Notificacion> lote) {
+            lotes.add(lote.size());
+            try {
+                bloqueo.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EnvioCanal.super.enviarLote(lote);
+        }
+
+        @Override
+        public void enviar(Notificacion notificacion) {
+            momentos.computeIfAbsent(notificacion.getId(), id -> new CopyOnWriteArrayList<>()).add(System.nanoTime());
+            RuntimeException error = comportamiento.apply(notificacion);
+            if (error != null) {
+                throw error;
+            }
+            enviadas.incrementAndGet();
+        }
+    }
+}
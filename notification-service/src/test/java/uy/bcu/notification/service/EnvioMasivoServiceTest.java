@@ -0,0 +1,238 @@
+package uy.bcu.notification.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uy.bcu.notification.dto.NotificationCreateDTO;
+import uy.bcu.notification.dto.TrabajoLoteDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Plantilla;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EnvioMasivoServiceTest {
+
+    private static final Duration ESPERA_COLA = Duration.ofSeconds(1);
+
+    @Mock
+    private PlantillaService plantillaService;
+
+    @Mock
+    private DespachoNotificaciones despacho;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EnvioMasivoService servicio;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(plantillaService.obtener("pedido"))
+            .thenReturn(Plantilla.compilar("pedido", Canal.EMAIL, "Pedido {{pedido}}", "Hola {{nombre}}"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (servicio != null) {
+            servicio.detener();
+        }
+    }
+
+    private void iniciar(int hilos, int bloque, int trabajosSimultaneos) {
+        servicio = new EnvioMasivoService(plantillaService, despacho, new ObjectMapper(), meterRegistry,
+            hilos, bloque, trabajosSimultaneos, ESPERA_COLA, Duration.ofHours(1));
+    }
+
+    private static InputStream lineas(String... lineas) {
+        return new ByteArrayInputStream(String.join("\n", lineas).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String destinatario(int numero) {
+        return "{\"destinatario\":\"cliente" + numero + "@bcu.gub.uy\",\"variables\":{\"nombre\":\"Cliente "
+            + numero + "\",\"pedido\":\"" + numero + "\"},\"referencia\":\"ref-" + numero + "\"}";
+    }
+
+    private TrabajoLoteDTO terminado(String id) {
+        esperarHasta(() -> !"EN_CURSO".equals(servicio.obtener(id).orElseThrow().getEstado()));
+        return servicio.obtener(id).orElseThrow();
+    }
+
+    private double destinatarios(String resultado) {
+        return meterRegistry.counter("notificaciones.masivo.destinatarios", "resultado", resultado).count();
+    }
+
+    @Test
+    void iniciar_debeRenderizarYEncolarCadaLinea() throws Exception {
+        // Given: bloques de 2 líneas; las líneas en blanco se ignoran
+        iniciar(2, 2, 4);
+
+        // When
+        TrabajoLoteDTO trabajo = servicio.iniciar("pedido",
+            lineas(destinatario(1), "", destinatario(2), "   ", destinatario(3)));
+
+        // Then
+        assertThat(trabajo.getEstado()).isEqualTo("EN_CURSO");
+        assertThat(trabajo.getPlantilla()).isEqualTo("pedido");
+        TrabajoLoteDTO resultado = terminado(trabajo.getId());
+        assertThat(resultado.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(resultado.getLeidos()).isEqualTo(3);
+        assertThat(resultado.getEncolados()).isEqualTo(3);
+        assertThat(resultado.getFallidos()).isZero();
+        assertThat(resultado.getFin()).isNotNull();
+
+        ArgumentCaptor<NotificationCreateDTO> notificaciones = ArgumentCaptor.forClass(NotificationCreateDTO.class);
+        verify(despacho, times(3)).encolar(eq(Canal.EMAIL), notificaciones.capture(), eq(ESPERA_COLA));
+        assertThat(notificaciones.getAllValues())
+            .extracting(NotificationCreateDTO::getDestinatario, NotificationCreateDTO::getAsunto,
+                NotificationCreateDTO::getMensaje, NotificationCreateDTO::getReferencia)
+            .contains(Tuple.tuple("cliente2@bcu.gub.uy", "Pedido 2", "Hola Cliente 2", "ref-2"));
+        assertThat(destinatarios("encolado")).isEqualTo(3.0);
+    }
+
+    @Test
+    void iniciar_debeContarLasLineasFallidasSinFrenarElTrabajo() throws Exception {
+        // Given: la cola de email sigue llena para cliente4
+        iniciar(1, 10, 4);
+        doAnswer(invocacion -> {
+            NotificationCreateDTO notificacion = invocacion.getArgument(1);
+            if (notificacion.getDestinatario().startsWith("cliente4")) {
+                throw new IllegalStateException("La cola de EMAIL está llena");
+            }
+            return null;
+        }).when(despacho).encolar(any(), any(), any());
+
+        // When
+        TrabajoLoteDTO trabajo = servicio.iniciar("pedido", lineas(
+            destinatario(1),
+            "{no es json",
+            "{\"variables\":{\"nombre\":\"Sin destinatario\",\"pedido\":\"2\"}}",
+            "{\"destinatario\":\"cliente3@bcu.gub.uy\",\"variables\":{\"nombre\":\"Sin pedido\"}}",
+            destinatario(4),
+            destinatario(5)));
+
+        // Then
+        TrabajoLoteDTO resultado = terminado(trabajo.getId());
+        assertThat(resultado.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(resultado.getLeidos()).isEqualTo(6);
+        assertThat(resultado.getEncolados()).isEqualTo(2);
+        assertThat(resultado.getFallidos()).isEqualTo(4);
+        assertThat(resultado.getUltimoError()).isNotNull();
+        assertThat(destinatarios("fallido")).isEqualTo(4.0);
+    }
+
+    @Test
+    void iniciar_debeFrenarLaLecturaMientrasLaColaEstaLlena() throws Exception {
+        // Given: un hilo de renderizado y bloques de una línea, así hay como máximo dos
+        // bloques leídos sin terminar; encolar se bloquea hasta liberar la cola
+        iniciar(1, 1, 4);
+        CountDownLatch colaLibre = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            colaLibre.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(despacho).encolar(any(), any(), any());
+        String[] cuerpo = IntStream.rangeClosed(1, 20).mapToObj(EnvioMasivoServiceTest::destinatario)
+            .toArray(String[]::new);
+
+        // When
+        TrabajoLoteDTO trabajo = servicio.iniciar("pedido", lineas(cuerpo));
+        esperarHasta(() -> servicio.obtener(trabajo.getId()).orElseThrow().getLeidos() == 2);
+        Thread.sleep(100);
+
+        // Then: la lectura no avanza más allá de los bloques en curso
+        assertThat(servicio.obtener(trabajo.getId()).orElseThrow().getLeidos()).isEqualTo(2);
+        assertThat(servicio.obtener(trabajo.getId()).orElseThrow().getEstado()).isEqualTo("EN_CURSO");
+
+        // When: se libera la cola
+        colaLibre.countDown();
+
+        // Then
+        TrabajoLoteDTO resultado = terminado(trabajo.getId());
+        assertThat(resultado.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(resultado.getLeidos()).isEqualTo(20);
+        assertThat(resultado.getEncolados()).isEqualTo(20);
+    }
+
+    @Test
+    void iniciar_debeRechazarTrabajosPorEncimaDelLimite() throws Exception {
+        // Given: un solo trabajo simultáneo, el primero queda esperando la cola
+        iniciar(1, 1, 1);
+        CountDownLatch colaLibre = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            colaLibre.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(despacho).encolar(any(), any(), any());
+        TrabajoLoteDTO primero = servicio.iniciar("pedido", lineas(destinatario(1)));
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.iniciar("pedido", lineas(destinatario(2))))
+            .isInstanceOf(IllegalStateException.class);
+
+        // When: al terminar el primero se libera el permiso
+        colaLibre.countDown();
+        terminado(primero.getId());
+
+        // Then
+        TrabajoLoteDTO segundo = servicio.iniciar("pedido", lineas(destinatario(2)));
+        assertThat(terminado(segundo.getId()).getEstado()).isEqualTo("COMPLETADO");
+    }
+
+    @Test
+    void iniciar_debeRechazarPlantillasInexistentes() throws Exception {
+        // Given
+        iniciar(1, 10, 1);
+        when(plantillaService.obtener("otra")).thenThrow(new IllegalArgumentException("Plantilla no encontrada: otra"));
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.iniciar("otra", lineas(destinatario(1))))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // Then: no se consumió el único permiso de trabajo
+        TrabajoLoteDTO trabajo = servicio.iniciar("pedido", lineas(destinatario(1)));
+        assertThat(terminado(trabajo.getId()).getEstado()).isEqualTo("COMPLETADO");
+    }
+
+    @Test
+    void obtener_debeDevolverVacioParaTrabajosDesconocidos() {
+        // Given
+        iniciar(1, 10, 1);
+
+        // When / Then
+        assertThat(servicio.obtener("no-existe")).isEmpty();
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime() - limite).as("tiempo de espera agotado").isNegative();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package uy.bcu.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uy.bcu.notification.dto.NotificationPaginaDTO;
+import uy.bcu.notification.model.Canal;
+import uy.bcu.notification.model.Notificacion;
+import uy.bcu.notification.model.RegistroHistorial;
+import uy.bcu.notification.repository.HistorialRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HistorialServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2024, 3, 10, 12, 0);
+
+    @Mock
+    private HistorialRepository historialRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private HistorialService historialService;
+
+    @BeforeEach
+    void setUp() {
+        iniciar(100, 2);
+    }
+
+    private void iniciar(int capacidad, int tamanioLote) {
+        meterRegistry = new SimpleMeterRegistry();
+        historialService = new HistorialService(historialRepository, meterRegistry, capacidad, tamanioLote,
+            Duration.ofDays(2));
+    }
+
+    private void registrar(String destinatario) {
+        Notificacion notificacion = new Notificacion(1L, Canal.EMAIL, destinatario, "Asunto", "Mensaje",
+            "NORMAL", "ref");
+        historialService.registrar(notificacion, RegistroHistorial.Estado.ENVIADO, null);
+    }
+
+    private double registros(String resultado) {
+        return meterRegistry.counter("notificaciones.historial.registros", "resultado", resultado).count();
+    }
+
+    private double pendientes() {
+        return meterRegistry.get("notificaciones.historial.pendientes").gauge().value();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<RegistroHistorial>> lotesInsertados(int llamadas) {
+        ArgumentCaptor<List<RegistroHistorial>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(historialRepository, times(llamadas)).registrar(lotes.capture());
+        return lotes.getAllValues();
+    }
+
+    private static List<String> destinatarios(List<RegistroHistorial> lote) {
+        List<String> destinatarios = new ArrayList<>();
+        lote.forEach(registro -> destinatarios.add(registro.getDestinatario()));
+        return destinatarios;
+    }
+
+    private static RegistroHistorial fila(long id, LocalDateTime fechaEnvio) {
+        RegistroHistorial registro = new RegistroHistorial(Canal.EMAIL, RegistroHistorial.Estado.ENVIADO,
+            "cliente" + id + "@bcu.gub.uy", "Asunto", "ref-" + id, 1, null, fechaEnvio);
+        registro.setId(id);
+        return registro;
+    }
+
+    private static String cursor(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void escribirPendientes_debeInsertarEnLotesHastaVaciarLaCola() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            registrar("cliente" + i);
+        }
+
+        // When
+        historialService.escribirPendientes();
+
+        // Then: lotes completos seguidos sin esperar a la próxima pasada
+        List<List<RegistroHistorial>> lotes = lotesInsertados(3);
+        assertThat(lotes).extracting(HistorialServiceTest::destinatarios).containsExactly(
+            List.of("cliente1", "cliente2"), List.of("cliente3", "cliente4"), List.of("cliente5"));
+        // el envío exitoso suma su intento a los fallidos (cero)
+        assertThat(lotes.get(0).get(0).getIntentos()).isEqualTo(1);
+        assertThat(registros("escrito")).isEqualTo(5.0);
+        assertThat(pendientes()).isZero();
+    }
+
+    @Test
+    void escribirPendientes_sinPendientesNoDebeAccederALaBase() {
+        // When
+        historialService.escribirPendientes();
+
+        // Then
+        verifyNoInteractions(historialRepository);
+    }
+
+    @Test
+    void escribirPendientes_debeReintentarElLoteFallidoAntesQueLosNuevos() {
+        // Given: la base falla en la primera pasada
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+            .doNothing()
+            .when(historialRepository).registrar(any());
+        registrar("cliente1");
+        registrar("cliente2");
+        historialService.escribirPendientes();
+        assertThat(registros("escrito")).isZero();
+
+        // When: llegan registros nuevos y la base vuelve
+        registrar("cliente3");
+        historialService.escribirPendientes();
+
+        // Then: se reintenta el mismo lote y después se toma el nuevo
+        List<List<RegistroHistorial>> lotes = lotesInsertados(3);
+        assertThat(lotes).extracting(HistorialServiceTest::destinatarios).containsExactly(
+            List.of("cliente1", "cliente2"), List.of("cliente1", "cliente2"), List.of("cliente3"));
+        assertThat(registros("escrito")).isEqualTo(3.0);
+        assertThat(pendientes()).isZero();
+    }
+
+    @Test
+    void escribirPendientes_debeConservarElLoteFallidoEntrePasadas() {
+        // Given: la base falla dos veces seguidas
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+            .doThrow(new DataAccessResourceFailureException("sin conexión"))
+            .doNothing()
+            .when(historialRepository).registrar(any());
+        registrar("cliente1");
+
+        // When
+        historialService.escribirPendientes();
+        registrar("cliente2");
+        historialService.escribirPendientes();
+        historialService.escribirPendientes();
+
+        // Then: el lote incompleto se escribe solo; cliente2 espera la próxima pasada
+        List<List<RegistroHistorial>> lotes = lotesInsertados(3);
+        assertThat(lotes).extracting(HistorialServiceTest::destinatarios)
+            .containsOnly(List.of("cliente1"));
+        assertThat(pendientes()).isEqualTo(1.0);
+
+        // When
+        historialService.escribirPendientes();
+
+        // Then
+        assertThat(registros("escrito")).isEqualTo(2.0);
+        assertThat(pendientes()).isZero();
+    }
+
+    @Test
+    void registrar_debeDescartarCuandoLaColaEstaLlena() {
+        // Given
+        iniciar(2, 10);
+
+        // When
+        registrar("cliente1");
+        registrar("cliente2");
+        registrar("cliente3");
+
+        // Then
+        assertThat(registros("descartado")).isEqualTo(1.0);
+        assertThat(pendientes()).isEqualTo(2.0);
+        verifyNoInteractions(historialRepository);
+    }
+
+    @Test
+    void purgarAntiguos_debeBorrarLosDiasAnterioresALaRetencion() {
+        // Given: retención de 2 días
+        LocalDate hoy = LocalDate.now();
+        when(historialRepository.diaMasAntiguo())
+            .thenReturn(hoy.minusDays(4), hoy.minusDays(3), hoy.minusDays(2));
+
+        // When
+        historialService.purgarAntiguos();
+
+        // Then: se borra día por día hasta el límite, que se conserva
+        InOrder orden = inOrder(historialRepository);
+        orden.verify(historialRepository).borrarDia(hoy.minusDays(4));
+        orden.verify(historialRepository).borrarDia(hoy.minusDays(3));
+        verify(historialRepository, never()).borrarDia(hoy.minusDays(2));
+        verify(historialRepository, times(3)).diaMasAntiguo();
+    }
+
+    @Test
+    void purgarAntiguos_debeCortarSiLaParticionNoSeBorra() {
+        // Given: el día más antiguo no cambia después de borrarlo
+        LocalDate viejo = LocalDate.now().minusDays(10);
+        when(historialRepository.diaMasAntiguo()).thenReturn(viejo);
+
+        // When
+        historialService.purgarAntiguos();
+
+        // Then: no se repite el DROP en un ciclo infinito
+        verify(historialRepository, times(1)).borrarDia(viejo);
+        verify(historialRepository, times(2)).diaMasAntiguo();
+    }
+
+    @Test
+    void purgarAntiguos_debeTerminarCuandoLaTablaQuedaVacia() {
+        // Given
+        LocalDate viejo = LocalDate.now().minusDays(10);
+        when(historialRepository.diaMasAntiguo()).thenReturn(viejo, (LocalDate) null);
+
+        // When
+        historialService.purgarAntiguos();
+
+        // Then
+        verify(historialRepository, times(1)).borrarDia(any());
+    }
+
+    @Test
+    void purgarAntiguos_debeIgnorarErroresDeLaBase() {
+        // Given
+        LocalDate viejo = LocalDate.now().minusDays(10);
+        when(historialRepository.diaMasAntiguo()).thenReturn(viejo);
+        doThrow(new DataAccessResourceFailureException("sin conexión")).when(historialRepository).borrarDia(viejo);
+
+        // When
+        historialService.purgarAntiguos();
+
+        // Then: se reintenta en la próxima ejecución programada
+        verify(historialRepository, times(1)).diaMasAntiguo();
+    }
+
+    @Test
+    void obtenerHistorial_debeDevolverUnCursorQueRetomaDesdeElUltimoRegistro() {
+        // Given: se pide una fila extra para saber si hay más
+        LocalDateTime ultimaFecha = AHORA.minusMinutes(1).withNano(123_000_000);
+        when(historialRepository.buscarPagina(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(3)))
+            .thenReturn(List.of(fila(30, AHORA), fila(29, ultimaFecha), fila(28, AHORA.minusMinutes(2))));
+
+        // When
+        NotificationPaginaDTO pagina = historialService.obtenerHistorial(null, null, null, null, null, 2);
+
+        // Then
+        assertThat(pagina.isHayMas()).isTrue();
+        assertThat(pagina.getNotificaciones()).extracting("id").containsExactly(30L, 29L);
+        assertThat(pagina.getSiguienteCursor()).isNotBlank().doesNotContain("=", "+", "/");
+
+        // When: la página siguiente usa el cursor devuelto
+        when(historialRepository.buscarPagina(isNull(), isNull(), isNull(), isNull(), eq(ultimaFecha), eq(29L),
+            eq(3))).thenReturn(List.of(fila(28, AHORA.minusMinutes(2))));
+        NotificationPaginaDTO siguiente = historialService.obtenerHistorial(null, null, null, null,
+            pagina.getSiguienteCursor(), 2);
+
+        // Then: última página
+        assertThat(siguiente.isHayMas()).isFalse();
+        assertThat(siguiente.getSiguienteCursor()).isNull();
+        assertThat(siguiente.getNotificaciones()).extracting("id").containsExactly(28L);
+    }
+
+    @Test
+    void obtenerHistorial_debePasarLosFiltrosAlRepositorio() {
+        // Given
+        LocalDateTime desde = AHORA.minusDays(1);
+        when(historialRepository.buscarPagina(eq(Canal.SMS), eq(RegistroHistorial.Estado.ERROR), eq(desde),
+            eq(AHORA), isNull(), isNull(), eq(21))).thenReturn(List.of());
+
+        // When
+        NotificationPaginaDTO pagina = historialService.obtenerHistorial("sms", "error", desde, AHORA, "  ",
+            HistorialService.LIMITE_POR_DEFECTO);
+
+        // Then
+        assertThat(pagina.getNotificaciones()).isEmpty();
+        assertThat(pagina.isHayMas()).isFalse();
+        assertThat(pagina.getSiguienteCursor()).isNull();
+    }
+
+    @Test
+    void obtenerHistorial_debeRechazarCursoresInvalidos() {
+        for (String invalido : List.of("no es base64!", cursor("sin-separador"), cursor("2024-03-10T12:00|abc"),
+                cursor("ayer|15"), cursor("|"))) {
+            assertThatThrownBy(() -> historialService.obtenerHistorial(null, null, null, null, invalido, 10))
+                .as(invalido)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+        }
+        verifyNoInteractions(historialRepository);
+    }
+
+    @Test
+    void obtenerHistorial_debeRechazarFiltrosOLimitesInvalidos() {
+        assertThatThrownBy(() -> historialService.obtenerHistorial(null, null, null, null, null, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historialService.obtenerHistorial(null, null, null, null, null,
+            HistorialService.LIMITE_MAXIMO + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historialService.obtenerHistorial("fax", null, null, null, null, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historialService.obtenerHistorial(null, "perdido", null, null, null, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(historialRepository, never()).buscarPagina(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+}
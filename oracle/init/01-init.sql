@@ -31,33 +31,190 @@ CREATE TABLE appuser.productos (
     descripcion CLOB,
     precio NUMBER(10,2) NOT NULL,
     stock NUMBER(10) DEFAULT 0,
-    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    fecha_modificacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE TABLE appuser.pedidos (
     id NUMBER(10) PRIMARY KEY,
     usuario_id NUMBER(10) NOT NULL,
     total NUMBER(12,2) NOT NULL,
-    estado VARCHAR2(50) DEFAULT 'PENDIENTE',
+    estado VARCHAR2(20) DEFAULT 'PENDIENTE' NOT NULL
+        CONSTRAINT ck_pedidos_estado CHECK (estado IN ('PENDIENTE', 'PROCESANDO', 'COMPLETADO', 'CANCELADO')),
     fecha_pedido TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    email_contacto VARCHAR2(100),
     CONSTRAINT fk_pedidos_usuario FOREIGN KEY (usuario_id) REFERENCES appuser.usuarios(id)
 );
 
--- Crear secuencias para autoincrementar
-CREATE SEQUENCE appuser.seq_usuarios START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE appuser.seq_productos START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE appuser.seq_pedidos START WITH 1 INCREMENT BY 1;
+CREATE TABLE appuser.pedido_items (
+    id NUMBER(12) PRIMARY KEY,
+    pedido_id NUMBER(10) NOT NULL,
+    producto_id NUMBER(10) NOT NULL,
+    nombre_producto VARCHAR2(200) NOT NULL,
+    cantidad NUMBER(10) NOT NULL CHECK (cantidad > 0),
+    precio_unitario NUMBER(10,2) NOT NULL,
+    CONSTRAINT fk_pedido_items_pedido FOREIGN KEY (pedido_id) REFERENCES appuser.pedidos(id)
+);
+
+-- Outbox de notificaciones de pedidos: cada aviso se inserta en la misma transacción
+-- que el pedido o su cambio de estado, y un relay lo envía luego a Notification Service.
+-- Sin FK a pedidos para poder purgar ambas tablas por separado. Los avisos que
+-- Notification Service rechaza o que agotan los intentos se descartan (fecha_descarte,
+-- con el último error) y se purgan como los enviados.
+CREATE TABLE appuser.pedidos_outbox (
+    id NUMBER(15) PRIMARY KEY,
+    pedido_id NUMBER(10) NOT NULL,
+    evento VARCHAR2(30) NOT NULL,
+    destinatario VARCHAR2(100) NOT NULL,
+    asunto VARCHAR2(200) NOT NULL,
+    mensaje VARCHAR2(1000) NOT NULL,
+    fecha_creacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    intentos NUMBER(5) DEFAULT 0 NOT NULL,
+    fecha_envio TIMESTAMP,
+    fecha_descarte TIMESTAMP,
+    error VARCHAR2(500)
+);
+
+-- Stock asignado a cada réplica de Product Service: unidades descontadas de
+-- productos.stock que la réplica todavía no devolvió ni se vendieron (su saldo en
+-- memoria, sus devoluciones pendientes y sus reservas). La réplica renueva vence_en
+-- periódicamente; si deja de hacerlo, otra réplica recupera la asignación.
+CREATE TABLE appuser.stock_asignaciones (
+    replica VARCHAR2(36) NOT NULL,
+    producto_id NUMBER(10) NOT NULL,
+    cantidad NUMBER(10) NOT NULL,
+    vence_en TIMESTAMP NOT NULL,
+    CONSTRAINT pk_stock_asignaciones PRIMARY KEY (replica, producto_id)
+);
+
+-- Reservas de stock. Cualquier réplica puede confirmarlas, liberarlas o vencerlas;
+-- replica queda en NULL cuando la asignación de la réplica que la creó fue recuperada.
+-- Las confirmadas se borran cuando se descuentan de la asignación.
+CREATE TABLE appuser.stock_reservas (
+    id VARCHAR2(36) PRIMARY KEY,
+    producto_id NUMBER(10) NOT NULL,
+    cantidad NUMBER(10) NOT NULL,
+    replica VARCHAR2(36),
+    estado VARCHAR2(12) DEFAULT 'PENDIENTE' NOT NULL,
+    expira_en TIMESTAMP NOT NULL,
+    CONSTRAINT ck_stock_reservas_estado CHECK (estado IN ('PENDIENTE', 'CONFIRMADA'))
+);
+
+-- Historial de notificaciones (resultado final de cada envío). Solo recibe inserts
+-- en batch y consultas por rango de fecha. Particionada por día (INTERVAL): Oracle
+-- crea la partición de cada día con su primer insert, las consultas con rango de
+-- fecha leen solo las particiones del rango y la retención borra días completos con
+-- DROP PARTITION en lugar de DELETE fila a fila. Sin PK ni índices globales, que
+-- obligarían a reconstruir o mantener el índice en cada DROP PARTITION; el ID sale
+-- de una secuencia.
+CREATE TABLE appuser.notificaciones_historial (
+    id NUMBER(19) NOT NULL,
+    canal VARCHAR2(10) NOT NULL,
+    estado VARCHAR2(10) NOT NULL,
+    destinatario VARCHAR2(200) NOT NULL,
+    asunto VARCHAR2(200),
+    referencia VARCHAR2(100),
+    intentos NUMBER(3) NOT NULL,
+    error VARCHAR2(500),
+    fecha_envio TIMESTAMP NOT NULL,
+    CONSTRAINT ck_notificaciones_historial_estado CHECK (estado IN ('ENVIADO', 'ERROR'))
+)
+PARTITION BY RANGE (fecha_envio) INTERVAL (NUMTODSINTERVAL(1, 'DAY'))
+(PARTITION p_inicial VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'));
+
+-- Paginación por cursor de usuarios activos (WHERE activo = 1 AND id > ? ORDER BY id)
+CREATE INDEX appuser.idx_usuarios_activo_id ON appuser.usuarios (activo, id);
+
+-- Reconciliación de estadísticas: usuarios creados en el día
+CREATE INDEX appuser.idx_usuarios_fecha_creacion ON appuser.usuarios (fecha_creacion);
+
+-- Búsqueda por prefijo de nombre (LOWER(nombre) LIKE 'jua%'), resuelta con range scan
+CREATE INDEX appuser.idx_usuarios_nombre_lower ON appuser.usuarios (LOWER(nombre), activo, id);
+
+-- Refresco incremental del catálogo de precios en memoria (WHERE fecha_modificacion >= ?)
+CREATE INDEX appuser.idx_productos_fecha_modificacion ON appuser.productos (fecha_modificacion);
+
+-- Asignaciones vencidas de réplicas caídas (WHERE vence_en < ?)
+CREATE INDEX appuser.idx_stock_asignaciones_vence ON appuser.stock_asignaciones (vence_en);
+
+-- Reservas pendientes vencidas (WHERE estado = 'PENDIENTE' AND expira_en < ?) y
+-- reservas de una réplica (confirmadas a liquidar, o todas al recuperarla)
+CREATE INDEX appuser.idx_stock_reservas_estado_expira ON appuser.stock_reservas (estado, expira_en);
+CREATE INDEX appuser.idx_stock_reservas_replica ON appuser.stock_reservas (replica, estado);
+
+-- Historial de pedidos por cursor (ORDER BY fecha_pedido DESC, id DESC).
+-- Cada filtro del historial tiene su índice con las columnas del orden al final,
+-- así Oracle recorre solo la página pedida sin ordenar ni leer el resto.
+CREATE INDEX appuser.idx_pedidos_usuario_fecha ON appuser.pedidos (usuario_id, fecha_pedido, id);
+CREATE INDEX appuser.idx_pedidos_estado_fecha ON appuser.pedidos (estado, fecha_pedido, id);
+CREATE INDEX appuser.idx_pedidos_fecha ON appuser.pedidos (fecha_pedido, id);
+
+-- Items de los pedidos de una página (WHERE pedido_id IN (...)); evita además
+-- bloquear la tabla hija completa al modificar pedidos
+CREATE INDEX appuser.idx_pedido_items_pedido ON appuser.pedido_items (pedido_id);
+
+-- Avisos pendientes del outbox: la expresión es NULL una vez enviado o descartado
+-- el aviso y Oracle no indexa entradas NULL, así el índice solo contiene los
+-- pendientes (en orden de ID) y no crece con el historial
+CREATE INDEX appuser.idx_pedidos_outbox_pendientes
+    ON appuser.pedidos_outbox (CASE WHEN fecha_envio IS NULL AND fecha_descarte IS NULL THEN id END);
+
+-- Purga de avisos ya enviados o descartados (WHERE fecha_envio < ? / fecha_descarte < ?)
+CREATE INDEX appuser.idx_pedidos_outbox_fecha_envio ON appuser.pedidos_outbox (fecha_envio);
+CREATE INDEX appuser.idx_pedidos_outbox_fecha_descarte ON appuser.pedidos_outbox (fecha_descarte);
+
+-- Historial de notificaciones por cursor (ORDER BY fecha_envio DESC, id DESC).
+-- Índices LOCAL (uno por partición): se borran junto con cada partición. Como en
+-- pedidos, cada filtro tiene su índice con las columnas del orden al final; "errores
+-- de SMS de la última hora" es un range scan sobre la partición del día.
+CREATE INDEX appuser.idx_notif_hist_canal_estado_fecha
+    ON appuser.notificaciones_historial (canal, estado, fecha_envio, id) LOCAL;
+CREATE INDEX appuser.idx_notif_hist_estado_fecha
+    ON appuser.notificaciones_historial (estado, fecha_envio, id) LOCAL;
+CREATE INDEX appuser.idx_notif_hist_fecha
+    ON appuser.notificaciones_historial (fecha_envio, id) LOCAL;
+
+-- Búsqueda por contenido de nombre con Oracle Text.
+-- El substring index permite consultas '%jua%' sin recorrer la tabla y
+-- BASE_LETTER hace que 'perez' encuentre 'Pérez'.
+GRANT CTXAPP TO appuser;
+GRANT EXECUTE ON CTXSYS.CTX_DDL TO appuser;
 
--- Crear triggers para autoincrementar
-CREATE OR REPLACE TRIGGER appuser.tr_usuarios_id
-    BEFORE INSERT ON appuser.usuarios
-    FOR EACH ROW
 BEGIN
-    IF :NEW.id IS NULL THEN
-        SELECT appuser.seq_usuarios.NEXTVAL INTO :NEW.id FROM DUAL;
-    END IF;
+    CTX_DDL.CREATE_PREFERENCE('appuser.usuarios_lexer', 'BASIC_LEXER');
+    CTX_DDL.SET_ATTRIBUTE('appuser.usuarios_lexer', 'BASE_LETTER', 'YES');
+    CTX_DDL.CREATE_PREFERENCE('appuser.usuarios_wordlist', 'BASIC_WORDLIST');
+    CTX_DDL.SET_ATTRIBUTE('appuser.usuarios_wordlist', 'SUBSTRING_INDEX', 'TRUE');
+    CTX_DDL.SET_ATTRIBUTE('appuser.usuarios_wordlist', 'PREFIX_INDEX', 'TRUE');
 END;
 
+-- SYNC (ON COMMIT) mantiene el índice al día con cada alta de usuario
+CREATE INDEX appuser.idx_usuarios_nombre_texto ON appuser.usuarios (nombre)
+    INDEXTYPE IS CTXSYS.CONTEXT
+    PARAMETERS ('LEXER appuser.usuarios_lexer WORDLIST appuser.usuarios_wordlist SYNC (ON COMMIT)');
+
+-- Crear secuencias para autoincrementar
+-- seq_usuarios avanza de a 50: Hibernate (optimizador pooled-lo) reserva un bloque
+-- de IDs por cada NEXTVAL, lo que permite insertar en batch sin un viaje por fila.
+-- El incremento debe coincidir con allocationSize en la entidad Usuario.
+CREATE SEQUENCE appuser.seq_usuarios START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE appuser.seq_productos START WITH 1 INCREMENT BY 1;
+-- Pedidos e items también se insertan en batch: incrementos iguales a allocationSize
+-- en las entidades Pedido y PedidoItem
+CREATE SEQUENCE appuser.seq_pedidos START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE appuser.seq_pedido_items START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE appuser.seq_pedidos_outbox START WITH 1 INCREMENT BY 1 CACHE 1000;
+CREATE SEQUENCE appuser.seq_notificaciones_historial START WITH 1 INCREMENT BY 1 CACHE 1000;
+
+-- Los inserts de usuarios fuera de la aplicación toman el ID por defecto de la
+-- columna; no se usa trigger para no ejecutar PL/SQL en cada fila de un batch
+ALTER TABLE appuser.usuarios MODIFY id DEFAULT appuser.seq_usuarios.NEXTVAL;
+ALTER TABLE appuser.pedidos MODIFY id DEFAULT appuser.seq_pedidos.NEXTVAL;
+ALTER TABLE appuser.pedido_items MODIFY id DEFAULT appuser.seq_pedido_items.NEXTVAL;
+ALTER TABLE appuser.pedidos_outbox MODIFY id DEFAULT appuser.seq_pedidos_outbox.NEXTVAL;
+ALTER TABLE appuser.notificaciones_historial MODIFY id DEFAULT appuser.seq_notificaciones_historial.NEXTVAL;
+
+-- Crear triggers para autoincrementar
 CREATE OR REPLACE TRIGGER appuser.tr_productos_id
     BEFORE INSERT ON appuser.productos
     FOR EACH ROW
@@ -67,15 +224,6 @@ BEGIN
     END IF;
 END;
 
-CREATE OR REPLACE TRIGGER appuser.tr_pedidos_id
-    BEFORE INSERT ON appuser.pedidos
-    FOR EACH ROW
-BEGIN
-    IF :NEW.id IS NULL THEN
-        SELECT appuser.seq_pedidos.NEXTVAL INTO :NEW.id FROM DUAL;
-    END IF;
-END;
-
 -- Insertar datos de ejemplo
 INSERT INTO appuser.usuarios (nombre, email) VALUES ('Juan Pérez', 'juan.perez@ejemplo.com');
 INSERT INTO appuser.usuarios (nombre, email) VALUES ('María García', 'maria.garcia@ejemplo.com');
@@ -90,8 +238,24 @@ VALUES ('Mouse Logitech', 'Mouse inalámbrico Logitech M705', 49.99, 100);
 INSERT INTO appuser.productos (nombre, descripcion, precio, stock)
 VALUES ('Teclado Mecánico', 'Teclado mecánico RGB', 129.99, 25);
 
-INSERT INTO appuser.pedidos (usuario_id, total, estado) VALUES (1, 949.98, 'COMPLETADO');
-INSERT INTO appuser.pedidos (usuario_id, total, estado) VALUES (2, 179.98, 'PENDIENTE');
+-- Los IDs de usuario no son consecutivos (la secuencia avanza por bloques)
+INSERT INTO appuser.pedidos (usuario_id, total, estado, email_contacto)
+SELECT id, 949.98, 'COMPLETADO', email FROM appuser.usuarios WHERE email = 'juan.perez@ejemplo.com';
+INSERT INTO appuser.pedidos (usuario_id, total, estado, email_contacto)
+SELECT id, 179.98, 'PENDIENTE', email FROM appuser.usuarios WHERE email = 'maria.garcia@ejemplo.com';
+
+INSERT INTO appuser.pedido_items (pedido_id, producto_id, nombre_producto, cantidad, precio_unitario)
+SELECT pe.id, pr.id, pr.nombre, 1, pr.precio
+FROM appuser.pedidos pe
+JOIN appuser.usuarios u ON u.id = pe.usuario_id
+JOIN appuser.productos pr ON pr.nombre IN ('Laptop Dell', 'Mouse Logitech')
+WHERE u.email = 'juan.perez@ejemplo.com';
+INSERT INTO appuser.pedido_items (pedido_id, producto_id, nombre_producto, cantidad, precio_unitario)
+SELECT pe.id, pr.id, pr.nombre, 1, pr.precio
+FROM appuser.pedidos pe
+JOIN appuser.usuarios u ON u.id = pe.usuario_id
+JOIN appuser.productos pr ON pr.nombre IN ('Mouse Logitech', 'Teclado Mecánico')
+WHERE u.email = 'maria.garcia@ejemplo.com';
 
 -- Crear vista para reportes
 CREATE OR REPLACE VIEW appuser.v_pedidos_detalle AS
@@ -0,0 +1,19 @@
+package uy.bcu.order.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import uy.bcu.order.dto.NotificacionLoteDTO;
+
+/**
+ * Cliente Feign de Notification Service
+ */
+@FeignClient(name = "notification-service", url = "${feign.client.config.notification-service.url:}")
+public interface NotificacionClient {
+
+    /**
+     * Enviar varias notificaciones por email en una sola llamada
+     */
+    @PostMapping("/api/notificaciones/email/lote")
+    void enviarEmails(@RequestBody NotificacionLoteDTO lote);
+}
@@ -0,0 +1,41 @@
+package uy.bcu.order.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import uy.bcu.order.dto.ConsultaProductosDTO;
+import uy.bcu.order.dto.ProductoDTO;
+import uy.bcu.order.dto.ReservaCreateDTO;
+import uy.bcu.order.dto.ReservaDTO;
+
+import java.util.List;
+
+/**
+ * Cliente Feign de Product Service.
+ * Los productos de un pedido se piden todos juntos: una solicitud por pedido,
+ * no una por producto.
+ */
+@FeignClient(name = "product-service", url = "${feign.client.config.product-service.url:}")
+public interface ProductoClient {
+
+    /**
+     * Obtener varios productos por ID; los inexistentes no vienen en la respuesta
+     */
+    @PostMapping("/api/productos/lote")
+    List<ProductoDTO> obtenerProductos(@RequestBody ConsultaProductosDTO consulta);
+
+    /**
+     * Reservar unidades de un producto (404 si no existe, 409 si no hay stock)
+     */
+    @PostMapping("/api/productos/reservas")
+    ReservaDTO reservar(@RequestBody ReservaCreateDTO reserva);
+
+    /**
+     * Liberar una reserva pendiente. Las reservas se confirman en la transacción del
+     * pedido (ReservaStockRepository), no por HTTP.
+     */
+    @DeleteMapping("/api/productos/reservas/{id}")
+    void liberarReserva(@PathVariable("id") String id);
+}
@@ -0,0 +1,19 @@
+package uy.bcu.order.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import uy.bcu.order.dto.UsuarioDTO;
+
+/**
+ * Cliente Feign de Usuario Service
+ */
+@FeignClient(name = "usuario-service", url = "${feign.client.config.usuario-service.url:}")
+public interface UsuarioClient {
+
+    /**
+     * Obtener un usuario activo; responde 404 si no existe o está desactivado
+     */
+    @GetMapping("/api/usuarios/{id}")
+    UsuarioDTO obtenerUsuario(@PathVariable("id") Long id);
+}
@@ -0,0 +1,154 @@
+package uy.bcu.order.concurrent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pedidos e importes acumulados por período de calendario (minuto, hora o día)
+ * en un buffer circular de tamaño fijo: solo se conservan los últimos períodos.
+ *
+ * Cada período usa LongAdder, así los registros concurrentes no compiten por una
+ * misma celda. Un casillero se reutiliza cuando llega el primer registro de un
+ * período más nuevo; los registros de períodos que ya salieron de la ventana se ignoran.
+ */
+public class SerieAcumulada {
+
+    private static final long SIN_PERIODO = Long.MIN_VALUE;
+
+    private final Supplier<LocalDateTime> reloj;
+    private final long segundosPorPeriodo;
+    private final ChronoUnit unidad;
+    private final Periodo[] periodos;
+
+    /**
+     * @param unidad   MINUTES, HOURS o DAYS
+     * @param cantidad períodos que se conservan, incluido el actual
+     */
+    public SerieAcumulada(ChronoUnit unidad, int cantidad) {
+        this(unidad, cantidad, LocalDateTime::now);
+    }
+
+    /**
+     * @param reloj fuente de la hora actual (LocalDateTime.now salvo en pruebas)
+     */
+    SerieAcumulada(ChronoUnit unidad, int cantidad, Supplier<LocalDateTime> reloj) {
+        if (unidad != ChronoUnit.MINUTES && unidad != ChronoUnit.HOURS && unidad != ChronoUnit.DAYS) {
+            throw new IllegalArgumentException("Unidad de período no soportada: " + unidad);
+        }
+        this.reloj = reloj;
+        this.unidad = unidad;
+        this.segundosPorPeriodo = unidad.getDuration().getSeconds();
+        this.periodos = new Periodo[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            periodos[i] = new Periodo();
+        }
+    }
+
+    /**
+     * Sumar (o restar, con valores negativos) pedidos e importe al período que contiene el instante
+     */
+    public void sumar(LocalDateTime instante, long pedidos, long centavos) {
+        Periodo periodo = periodoVigente(clave(instante));
+        if (periodo != null) {
+            periodo.pedidos.add(pedidos);
+            periodo.centavos.add(centavos);
+        }
+    }
+
+    /**
+     * Total de los períodos que empiezan en o después del período que contiene desde
+     */
+    public Total totalDesde(LocalDateTime desde) {
+        long minima = Math.max(clave(desde), claveActual() - periodos.length + 1);
+        long pedidos = 0;
+        long centavos = 0;
+        for (Periodo periodo : periodos) {
+            if (periodo.clave >= minima) {
+                pedidos += periodo.pedidos.sum();
+                centavos += periodo.centavos.sum();
+            }
+        }
+        return new Total(pedidos, centavos);
+    }
+
+    /**
+     * Valores actuales de los períodos de la ventana, por inicio de período
+     */
+    public Map<LocalDateTime, Total> instantanea() {
+        long minima = claveActual() - periodos.length + 1;
+        Map<LocalDateTime, Total> resultado = new HashMap<>();
+        for (Periodo periodo : periodos) {
+            long clave = periodo.clave;
+            if (clave >= minima) {
+                resultado.put(inicio(clave), new Total(periodo.pedidos.sum(), periodo.centavos.sum()));
+            }
+        }
+        return resultado;
+    }
+
+    /** Inicio del período más antiguo que conserva la serie */
+    public LocalDateTime inicioVentana() {
+        return inicio(claveActual() - periodos.length + 1);
+    }
+
+    private Periodo periodoVigente(long clave) {
+        if (clave <= claveActual() - periodos.length) {
+            return null;
+        }
+        Periodo periodo = periodos[(int) Math.floorMod(clave, (long) periodos.length)];
+        if (periodo.clave != clave) {
+            synchronized (periodo) {
+                if (periodo.clave > clave) {
+                    return null;
+                }
+                if (periodo.clave < clave) {
+                    periodo.pedidos.reset();
+                    periodo.centavos.reset();
+                    periodo.clave = clave;
+                }
+            }
+        }
+        return periodo;
+    }
+
+    private long claveActual() {
+        return clave(reloj.get());
+    }
+
+    private long clave(LocalDateTime instante) {
+        return Math.floorDiv(instante.truncatedTo(unidad).toEpochSecond(ZoneOffset.UTC), segundosPorPeriodo);
+    }
+
+    private LocalDateTime inicio(long clave) {
+        return LocalDateTime.ofEpochSecond(clave * segundosPorPeriodo, 0, ZoneOffset.UTC);
+    }
+
+    private static final class Periodo {
+        private volatile long clave = SIN_PERIODO;
+        private final LongAdder pedidos = new LongAdder();
+        private final LongAdder centavos = new LongAdder();
+    }
+
+    /**
+     * Cantidad de pedidos e importe en centavos
+     */
+    public static final class Total {
+
+        private final long pedidos;
+        private final long centavos;
+
+        public Total(long pedidos, long centavos) {
+            this.pedidos = pedidos;
+            this.centavos = centavos;
+        }
+
+        public long getPedidos() { return pedidos; }
+
+        public long getCentavos() { return centavos; }
+    }
+}
@@ -0,0 +1,83 @@
+package uy.bcu.order.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modo de ejecución de las solicitudes HTTP (propiedad ejecucion.modo).
+ *
+ * - plataforma (por defecto): pool fijo de hilos de Tomcat (server.tomcat.threads.max).
+ * - virtual: un hilo virtual por solicitud; la concurrencia hacia Oracle queda
+ *   acotada por el pool de conexiones y no por la cantidad de hilos.
+ *
+ * Los hilos virtuales requieren Java 21; en una JVM anterior se registra una
+ * advertencia y se siguen usando hilos de plataforma.
+ */
+@Configuration
+public class EjecucionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EjecucionConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "ejecucion.modo", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> hilosVirtualesTomcat() {
+        ExecutorService executor = crearExecutorVirtual();
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+                logger.info("Solicitudes HTTP atendidas con hilos virtuales");
+            }
+        };
+    }
+
+    /**
+     * Executor de las llamadas a otros servicios durante la creación de pedidos.
+     * En modo virtual cada llamada usa un hilo virtual; en modo plataforma, un pool
+     * acotado con cola: si se satura la llamada se rechaza (el pedido responde 503)
+     * en lugar de correr en el hilo de la solicitud, donde perdería el paralelismo y
+     * el timeout por dependencia.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService llamadasRemotasExecutor(
+            @Value("${ejecucion.modo:plataforma}") String modo,
+            @Value("${pedidos.llamadas-remotas.hilos:32}") int hilos) {
+        if ("virtual".equals(modo)) {
+            ExecutorService virtual = crearExecutorVirtual();
+            if (virtual != null) {
+                return virtual;
+            }
+        }
+        AtomicInteger numero = new AtomicInteger();
+        return new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(hilos * 10),
+            runnable -> new Thread(runnable, "pedidos-remoto-" + numero.incrementAndGet()),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Obtener Executors.newVirtualThreadPerTaskExecutor() por reflexión, para
+     * compilar con Java 11 y activarlo solo si la JVM lo soporta.
+     */
+    private static ExecutorService crearExecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            logger.warn("La JVM {} no soporta hilos virtuales; se usan hilos de plataforma",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
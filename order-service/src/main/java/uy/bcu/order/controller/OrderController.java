@@ -7,18 +7,25 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import uy.bcu.order.dto.CambioEstadoDTO;
 import uy.bcu.order.dto.OrderDTO;
 import uy.bcu.order.dto.OrderCreateDTO;
+import uy.bcu.order.dto.PedidoEstadisticasDTO;
+import uy.bcu.order.dto.PedidoEstadoLoteDTO;
+import uy.bcu.order.dto.PedidoEstadoLoteResultadoDTO;
+import uy.bcu.order.dto.PedidoPaginaDTO;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.service.OrderService;
+import uy.bcu.order.service.PedidoEstadisticasService;
+import uy.bcu.order.service.PedidoEstadoService;
+import uy.bcu.order.service.SobrecargaException;
+import uy.bcu.order.service.TiempoAgotadoException;
 
 import javax.validation.Valid;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Controlador REST para el microservicio de pedidos
@@ -29,29 +36,41 @@ import java.util.Map;
 @Tag(name = "Pedidos", description = "API para procesamiento y gestión de pedidos")
 public class OrderController {
 
+    private static final String RETRY_AFTER_SEGUNDOS = "1";
+
+    private final OrderService orderService;
+    private final PedidoEstadoService pedidoEstadoService;
+    private final PedidoEstadisticasService pedidoEstadisticasService;
+
+    public OrderController(OrderService orderService, PedidoEstadoService pedidoEstadoService,
+                           PedidoEstadisticasService pedidoEstadisticasService) {
+        this.orderService = orderService;
+        this.pedidoEstadoService = pedidoEstadoService;
+        this.pedidoEstadisticasService = pedidoEstadisticasService;
+    }
+
     @GetMapping
     @Operation(
         summary = "Obtener historial de pedidos",
-        description = "Retorna una lista de todos los pedidos con información de usuario y productos"
+        description = "Retorna una página de pedidos, del más reciente al más antiguo, con cursor para continuar"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de pedidos obtenida exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de pedidos obtenida exitosamente",
                     content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = OrderDTO.class)))
+                    schema = @Schema(implementation = PedidoPaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     })
-    public ResponseEntity<List<OrderDTO>> obtenerPedidos(
+    public ResponseEntity<PedidoPaginaDTO> obtenerPedidos(
             @Parameter(description = "Filtrar por usuario ID") @RequestParam(required = false) Long usuarioId,
-            @Parameter(description = "Filtrar por estado") @RequestParam(required = false) String estado) {
-
-        // Datos de ejemplo para demostrar la API
-        List<OrderDTO> pedidos = Arrays.asList(
-            new OrderDTO(1L, 1L, "Juan Pérez", new BigDecimal("299.99"), "COMPLETADO",
-                        LocalDateTime.now().minusDays(2), Arrays.asList("Laptop Dell", "Mouse")),
-            new OrderDTO(2L, 2L, "María García", new BigDecimal("159.99"), "PENDIENTE",
-                        LocalDateTime.now().minusHours(3), Arrays.asList("Teclado RGB"))
-        );
-
-        return ResponseEntity.ok(pedidos);
+            @Parameter(description = "Filtrar por estado") @RequestParam(required = false) String estado,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad máxima de pedidos por página (máx. " + OrderService.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + OrderService.LIMITE_POR_DEFECTO) int limite) {
+        try {
+            return ResponseEntity.ok(orderService.obtenerPedidos(usuarioId, estado, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -59,73 +78,131 @@ public class OrderController {
         summary = "Obtener pedido por ID",
         description = "Retorna los detalles completos de un pedido específico"
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pedido encontrado"),
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
+    })
     public ResponseEntity<OrderDTO> obtenerPedidoPorId(@PathVariable Long id) {
-        OrderDTO pedido = new OrderDTO(id, 1L, "Usuario Ejemplo", new BigDecimal("99.99"),
-                                      "PROCESANDO", LocalDateTime.now(), Arrays.asList("Producto 1"));
-        return ResponseEntity.ok(pedido);
+        return orderService.obtenerPedidoPorId(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     @Operation(
         summary = "Crear nuevo pedido",
-        description = "Procesa un nuevo pedido validando usuario, productos y stock disponible"
+        description = "Procesa un nuevo pedido validando usuario y productos y reservando su stock"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Pedido creado exitosamente"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos o stock insuficiente"),
-        @ApiResponse(responseCode = "404", description = "Usuario o producto no encontrado")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario o producto no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Stock insuficiente o una reserva venció antes de guardar el pedido"),
+        @ApiResponse(responseCode = "503", description = "Demasiados pedidos en curso; reintentar más tarde"),
+        @ApiResponse(responseCode = "504", description = "Usuario Service o Product Service no respondió a tiempo")
     })
     public ResponseEntity<OrderDTO> crearPedido(@Valid @RequestBody OrderCreateDTO orderCreateDTO) {
-        OrderDTO pedido = new OrderDTO(999L, orderCreateDTO.getUsuarioId(), "Usuario",
-                                      orderCreateDTO.getTotal(), "PENDIENTE", LocalDateTime.now(),
-                                      Arrays.asList("Productos del pedido"));
-        return ResponseEntity.status(HttpStatus.CREATED).body(pedido);
+        try {
+            OrderDTO pedido = orderService.crearPedido(orderCreateDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(pedido);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (SobrecargaException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS)
+                .build();
+        } catch (TiempoAgotadoException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
     }
 
     @PutMapping("/{id}/estado")
     @Operation(
         summary = "Actualizar estado del pedido",
-        description = "Cambia el estado de procesamiento del pedido"
+        description = "Cambia el estado del pedido: PENDIENTE → PROCESANDO → COMPLETADO, "
+            + "o CANCELADO desde PENDIENTE o PROCESANDO"
     )
-    public ResponseEntity<Map<String, Object>> actualizarEstado(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado actualizado"),
+        @ApiResponse(responseCode = "400", description = "Estado desconocido"),
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
+        @ApiResponse(responseCode = "409", description = "El estado actual del pedido no admite la transición")
+    })
+    public ResponseEntity<CambioEstadoDTO> actualizarEstado(
             @PathVariable Long id,
             @Parameter(description = "Nuevo estado del pedido")
             @RequestParam String estado) {
+        EstadoPedido nuevo;
+        try {
+            nuevo = EstadoPedido.desde(estado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return pedidoEstadoService.cambiarEstado(id, nuevo)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 
-        return ResponseEntity.ok(Map.of(
-            "pedidoId", id,
-            "estadoAnterior", "PENDIENTE",
-            "estadoNuevo", estado,
-            "fechaActualizacion", LocalDateTime.now()
-        ));
+    @PostMapping("/estado/lote")
+    @Operation(
+        summary = "Actualizar estado de un lote de pedidos",
+        description = "Pasa hasta " + PedidoEstadoLoteDTO.TAMANIO_MAXIMO + " pedidos a un mismo estado en una "
+            + "sola operación; informa por separado los pedidos inexistentes, los que no admiten la "
+            + "transición y los que cambiaron en paralelo"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote procesado"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos o estado desconocido")
+    })
+    public ResponseEntity<PedidoEstadoLoteResultadoDTO> actualizarEstadoEnLote(
+            @Valid @RequestBody PedidoEstadoLoteDTO dto) {
+        EstadoPedido nuevo;
+        try {
+            nuevo = EstadoPedido.desde(dto.getEstado());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(pedidoEstadoService.cambiarEstados(dto.getPedidoIds(), nuevo));
     }
 
     @GetMapping("/usuario/{usuarioId}")
     @Operation(
         summary = "Pedidos por usuario",
-        description = "Obtiene todos los pedidos de un usuario específico"
+        description = "Historial de pedidos de un usuario, del más reciente al más antiguo, paginado por cursor"
     )
-    public ResponseEntity<List<OrderDTO>> obtenerPedidosPorUsuario(@PathVariable Long usuarioId) {
-        List<OrderDTO> pedidos = Arrays.asList(
-            new OrderDTO(1L, usuarioId, "Usuario", new BigDecimal("199.99"), "COMPLETADO",
-                        LocalDateTime.now().minusDays(5), Arrays.asList("Producto A", "Producto B"))
-        );
-        return ResponseEntity.ok(pedidos);
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de pedidos obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
+    })
+    public ResponseEntity<PedidoPaginaDTO> obtenerPedidosPorUsuario(
+            @PathVariable Long usuarioId,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.LIMITE_POR_DEFECTO) int limite) {
+        try {
+            return ResponseEntity.ok(orderService.obtenerPedidos(usuarioId, null, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/estadisticas")
     @Operation(
         summary = "Estadísticas de pedidos",
-        description = "Métricas de rendimiento y estadísticas del procesamiento de pedidos"
+        description = "Pedidos por estado y ventas de la última hora, las últimas 24 horas, el día y el mes, "
+            + "mantenidas en memoria sin consultar la base"
     )
-    public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
-        return ResponseEntity.ok(Map.of(
-            "totalPedidos", 1245,
-            "pedidosPendientes", 23,
-            "pedidosCompletados", 1198,
-            "pedidosCancelados", 24,
-            "ventasHoy", new BigDecimal("15430.50"),
-            "ventasMes", new BigDecimal("342100.25")
-        ));
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = PedidoEstadisticasDTO.class)))
+    })
+    public ResponseEntity<PedidoEstadisticasDTO> obtenerEstadisticas() {
+        return ResponseEntity.ok(pedidoEstadisticasService.obtenerEstadisticas());
     }
 }
@@ -0,0 +1,43 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+@Schema(description = "Resultado del cambio de estado de un pedido")
+public class CambioEstadoDTO {
+
+    @Schema(description = "ID del pedido", example = "1")
+    private Long pedidoId;
+
+    @Schema(description = "Estado que tenía el pedido", example = "PENDIENTE")
+    private String estadoAnterior;
+
+    @Schema(description = "Estado actual del pedido", example = "PROCESANDO")
+    private String estadoNuevo;
+
+    @Schema(description = "Momento del cambio")
+    private LocalDateTime fechaActualizacion;
+
+    // Constructores
+    public CambioEstadoDTO() {}
+
+    public CambioEstadoDTO(Long pedidoId, String estadoAnterior, String estadoNuevo, LocalDateTime fechaActualizacion) {
+        this.pedidoId = pedidoId;
+        this.estadoAnterior = estadoAnterior;
+        this.estadoNuevo = estadoNuevo;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    // Getters y Setters
+    public Long getPedidoId() { return pedidoId; }
+    public void setPedidoId(Long pedidoId) { this.pedidoId = pedidoId; }
+
+    public String getEstadoAnterior() { return estadoAnterior; }
+    public void setEstadoAnterior(String estadoAnterior) { this.estadoAnterior = estadoAnterior; }
+
+    public String getEstadoNuevo() { return estadoNuevo; }
+    public void setEstadoNuevo(String estadoNuevo) { this.estadoNuevo = estadoNuevo; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
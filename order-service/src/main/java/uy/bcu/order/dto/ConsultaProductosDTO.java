@@ -0,0 +1,22 @@
+package uy.bcu.order.dto;
+
+import java.util.List;
+
+/**
+ * Cuerpo de la consulta por lote a Product Service (POST /api/productos/lote)
+ */
+public class ConsultaProductosDTO {
+
+    private List<Long> ids;
+
+    // Constructores
+    public ConsultaProductosDTO() {}
+
+    public ConsultaProductosDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
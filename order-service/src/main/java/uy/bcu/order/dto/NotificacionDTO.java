@@ -0,0 +1,41 @@
+package uy.bcu.order.dto;
+
+/**
+ * Notificación por email enviada a Notification Service
+ */
+public class NotificacionDTO {
+
+    private String destinatario;
+    private String asunto;
+    private String mensaje;
+    private String prioridad;
+    // Identifica el aviso en el origen; se repite si el aviso se reenvía
+    private String referencia;
+
+    // Constructores
+    public NotificacionDTO() {}
+
+    public NotificacionDTO(String destinatario, String asunto, String mensaje, String prioridad, String referencia) {
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.mensaje = mensaje;
+        this.prioridad = prioridad;
+        this.referencia = referencia;
+    }
+
+    // Getters y Setters
+    public String getDestinatario() { return destinatario; }
+    public void setDestinatario(String destinatario) { this.destinatario = destinatario; }
+
+    public String getAsunto() { return asunto; }
+    public void setAsunto(String asunto) { this.asunto = asunto; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+
+    public String getPrioridad() { return prioridad; }
+    public void setPrioridad(String prioridad) { this.prioridad = prioridad; }
+
+    public String getReferencia() { return referencia; }
+    public void setReferencia(String referencia) { this.referencia = referencia; }
+}
@@ -0,0 +1,22 @@
+package uy.bcu.order.dto;
+
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/notificaciones/email/lote en Notification Service
+ */
+public class NotificacionLoteDTO {
+
+    private List<NotificacionDTO> notificaciones;
+
+    // Constructores
+    public NotificacionLoteDTO() {}
+
+    public NotificacionLoteDTO(List<NotificacionDTO> notificaciones) {
+        this.notificaciones = notificaciones;
+    }
+
+    // Getters y Setters
+    public List<NotificacionDTO> getNotificaciones() { return notificaciones; }
+    public void setNotificaciones(List<NotificacionDTO> notificaciones) { this.notificaciones = notificaciones; }
+}
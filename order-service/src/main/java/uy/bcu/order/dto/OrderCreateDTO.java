@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -20,7 +21,8 @@ public class OrderCreateDTO {
 
     @Schema(description = "Lista de IDs de productos a incluir en el pedido", required = true)
     @NotEmpty(message = "Debe incluir al menos un producto")
-    private List<Long> productoIds;
+    @Size(max = 1000, message = "Un pedido no puede incluir más de 1000 productos")
+    private List<@NotNull Long> productoIds;
 
     @Schema(description = "Monto total del pedido", example = "299.99", accessMode = Schema.AccessMode.READ_ONLY)
     private BigDecimal total;
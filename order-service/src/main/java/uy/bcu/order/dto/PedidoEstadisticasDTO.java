@@ -0,0 +1,96 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Schema(description = "Estadísticas de pedidos mantenidas en memoria")
+public class PedidoEstadisticasDTO {
+
+    @Schema(description = "Pedidos registrados", example = "1245")
+    private long totalPedidos;
+
+    @Schema(description = "Pedidos por estado")
+    private Map<String, Long> pedidosPorEstado;
+
+    @Schema(description = "Pedidos pendientes", example = "23")
+    private long pedidosPendientes;
+
+    @Schema(description = "Pedidos completados", example = "1198")
+    private long pedidosCompletados;
+
+    @Schema(description = "Pedidos cancelados", example = "24")
+    private long pedidosCancelados;
+
+    @Schema(description = "Pedidos no cancelados del día", example = "57")
+    private long pedidosHoy;
+
+    @Schema(description = "Ventas de los últimos 60 minutos", example = "1250.00")
+    private BigDecimal ventasUltimaHora;
+
+    @Schema(description = "Ventas de las últimas 24 horas", example = "18320.75")
+    private BigDecimal ventasUltimas24Horas;
+
+    @Schema(description = "Ventas del día", example = "15430.50")
+    private BigDecimal ventasHoy;
+
+    @Schema(description = "Ventas del mes en curso", example = "342100.25")
+    private BigDecimal ventasMes;
+
+    @Schema(description = "Momento de la última reconciliación con la base de datos")
+    private LocalDateTime ultimaReconciliacion;
+
+    // Constructores
+    public PedidoEstadisticasDTO() {}
+
+    public PedidoEstadisticasDTO(Map<String, Long> pedidosPorEstado, long pedidosHoy, BigDecimal ventasUltimaHora,
+                                 BigDecimal ventasUltimas24Horas, BigDecimal ventasHoy, BigDecimal ventasMes,
+                                 LocalDateTime ultimaReconciliacion) {
+        this.pedidosPorEstado = pedidosPorEstado;
+        this.totalPedidos = pedidosPorEstado.values().stream().mapToLong(Long::longValue).sum();
+        this.pedidosPendientes = pedidosPorEstado.getOrDefault("PENDIENTE", 0L);
+        this.pedidosCompletados = pedidosPorEstado.getOrDefault("COMPLETADO", 0L);
+        this.pedidosCancelados = pedidosPorEstado.getOrDefault("CANCELADO", 0L);
+        this.pedidosHoy = pedidosHoy;
+        this.ventasUltimaHora = ventasUltimaHora;
+        this.ventasUltimas24Horas = ventasUltimas24Horas;
+        this.ventasHoy = ventasHoy;
+        this.ventasMes = ventasMes;
+        this.ultimaReconciliacion = ultimaReconciliacion;
+    }
+
+    // Getters y Setters
+    public long getTotalPedidos() { return totalPedidos; }
+    public void setTotalPedidos(long totalPedidos) { this.totalPedidos = totalPedidos; }
+
+    public Map<String, Long> getPedidosPorEstado() { return pedidosPorEstado; }
+    public void setPedidosPorEstado(Map<String, Long> pedidosPorEstado) { this.pedidosPorEstado = pedidosPorEstado; }
+
+    public long getPedidosPendientes() { return pedidosPendientes; }
+    public void setPedidosPendientes(long pedidosPendientes) { this.pedidosPendientes = pedidosPendientes; }
+
+    public long getPedidosCompletados() { return pedidosCompletados; }
+    public void setPedidosCompletados(long pedidosCompletados) { this.pedidosCompletados = pedidosCompletados; }
+
+    public long getPedidosCancelados() { return pedidosCancelados; }
+    public void setPedidosCancelados(long pedidosCancelados) { this.pedidosCancelados = pedidosCancelados; }
+
+    public long getPedidosHoy() { return pedidosHoy; }
+    public void setPedidosHoy(long pedidosHoy) { this.pedidosHoy = pedidosHoy; }
+
+    public BigDecimal getVentasUltimaHora() { return ventasUltimaHora; }
+    public void setVentasUltimaHora(BigDecimal ventasUltimaHora) { this.ventasUltimaHora = ventasUltimaHora; }
+
+    public BigDecimal getVentasUltimas24Horas() { return ventasUltimas24Horas; }
+    public void setVentasUltimas24Horas(BigDecimal ventasUltimas24Horas) { this.ventasUltimas24Horas = ventasUltimas24Horas; }
+
+    public BigDecimal getVentasHoy() { return ventasHoy; }
+    public void setVentasHoy(BigDecimal ventasHoy) { this.ventasHoy = ventasHoy; }
+
+    public BigDecimal getVentasMes() { return ventasMes; }
+    public void setVentasMes(BigDecimal ventasMes) { this.ventasMes = ventasMes; }
+
+    public LocalDateTime getUltimaReconciliacion() { return ultimaReconciliacion; }
+    public void setUltimaReconciliacion(LocalDateTime ultimaReconciliacion) { this.ultimaReconciliacion = ultimaReconciliacion; }
+}
@@ -0,0 +1,38 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Schema(description = "Lote de pedidos a pasar a un mismo estado")
+public class PedidoEstadoLoteDTO {
+
+    public static final int TAMANIO_MAXIMO = 1000;
+
+    @NotEmpty(message = "El lote debe incluir al menos un pedido")
+    @Size(max = TAMANIO_MAXIMO, message = "El lote no puede superar " + TAMANIO_MAXIMO + " pedidos")
+    @Schema(description = "IDs de los pedidos", example = "[1, 2, 3]", required = true)
+    private List<@NotNull Long> pedidoIds;
+
+    @NotBlank(message = "El estado es obligatorio")
+    @Schema(description = "Estado nuevo", example = "PROCESANDO", required = true)
+    private String estado;
+
+    // Constructores
+    public PedidoEstadoLoteDTO() {}
+
+    public PedidoEstadoLoteDTO(List<Long> pedidoIds, String estado) {
+        this.pedidoIds = pedidoIds;
+        this.estado = estado;
+    }
+
+    // Getters y Setters
+    public List<Long> getPedidoIds() { return pedidoIds; }
+    public void setPedidoIds(List<Long> pedidoIds) { this.pedidoIds = pedidoIds; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+}
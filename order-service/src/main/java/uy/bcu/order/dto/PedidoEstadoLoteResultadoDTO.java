@@ -0,0 +1,44 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Resultado del cambio de estado de un lote de pedidos")
+public class PedidoEstadoLoteResultadoDTO {
+
+    @Schema(description = "Pedidos que pasaron al estado nuevo")
+    private List<Long> actualizados;
+
+    @Schema(description = "Pedidos inexistentes")
+    private List<Long> noEncontrados;
+
+    @Schema(description = "Pedidos cuyo estado actual no admite la transición")
+    private List<Long> transicionInvalida;
+
+    @Schema(description = "Pedidos que otra operación modificó mientras se procesaba el lote; pueden reenviarse")
+    private List<Long> conflictos;
+
+    // Constructores
+    public PedidoEstadoLoteResultadoDTO() {}
+
+    public PedidoEstadoLoteResultadoDTO(List<Long> actualizados, List<Long> noEncontrados,
+                                        List<Long> transicionInvalida, List<Long> conflictos) {
+        this.actualizados = actualizados;
+        this.noEncontrados = noEncontrados;
+        this.transicionInvalida = transicionInvalida;
+        this.conflictos = conflictos;
+    }
+
+    // Getters y Setters
+    public List<Long> getActualizados() { return actualizados; }
+    public void setActualizados(List<Long> actualizados) { this.actualizados = actualizados; }
+
+    public List<Long> getNoEncontrados() { return noEncontrados; }
+    public void setNoEncontrados(List<Long> noEncontrados) { this.noEncontrados = noEncontrados; }
+
+    public List<Long> getTransicionInvalida() { return transicionInvalida; }
+    public void setTransicionInvalida(List<Long> transicionInvalida) { this.transicionInvalida = transicionInvalida; }
+
+    public List<Long> getConflictos() { return conflictos; }
+    public void setConflictos(List<Long> conflictos) { this.conflictos = conflictos; }
+}
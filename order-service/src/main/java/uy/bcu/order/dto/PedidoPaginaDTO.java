@@ -0,0 +1,36 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Página del historial de pedidos con cursor para continuar el recorrido")
+public class PedidoPaginaDTO {
+
+    @Schema(description = "Pedidos de la página, del más reciente al más antiguo")
+    private List<OrderDTO> pedidos;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente (null si no hay más)")
+    private String siguienteCursor;
+
+    @Schema(description = "Indica si existen más pedidos después de esta página", example = "true")
+    private boolean hayMas;
+
+    // Constructores
+    public PedidoPaginaDTO() {}
+
+    public PedidoPaginaDTO(List<OrderDTO> pedidos, String siguienteCursor, boolean hayMas) {
+        this.pedidos = pedidos;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = hayMas;
+    }
+
+    // Getters y Setters
+    public List<OrderDTO> getPedidos() { return pedidos; }
+    public void setPedidos(List<OrderDTO> pedidos) { this.pedidos = pedidos; }
+
+    public String getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(String siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+}
@@ -0,0 +1,45 @@
+package uy.bcu.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Producto tal como lo devuelve Product Service
+ */
+@Schema(description = "Producto incluido en un pedido")
+public class ProductoDTO {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long id;
+
+    @Schema(description = "Nombre del producto", example = "Laptop Dell")
+    private String nombre;
+
+    @Schema(description = "Precio del producto", example = "999.99")
+    private Double precio;
+
+    @Schema(description = "Stock disponible", example = "50")
+    private Integer stock;
+
+    // Constructores
+    public ProductoDTO() {}
+
+    public ProductoDTO(Long id, String nombre, Double precio, Integer stock) {
+        this.id = id;
+        this.nombre = nombre;
+        this.precio = precio;
+        this.stock = stock;
+    }
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,25 @@
+package uy.bcu.order.dto;
+
+/**
+ * Cuerpo de la reserva de stock en Product Service (POST /api/productos/reservas)
+ */
+public class ReservaCreateDTO {
+
+    private Long productoId;
+    private Integer cantidad;
+
+    // Constructores
+    public ReservaCreateDTO() {}
+
+    public ReservaCreateDTO(Long productoId, Integer cantidad) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+    }
+
+    // Getters y Setters
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+}
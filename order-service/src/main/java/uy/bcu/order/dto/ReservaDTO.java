@@ -0,0 +1,37 @@
+package uy.bcu.order.dto;
+
+import java.time.Instant;
+
+/**
+ * Reserva de stock tal como la devuelve Product Service
+ */
+public class ReservaDTO {
+
+    private String id;
+    private Long productoId;
+    private Integer cantidad;
+    private Instant expiraEn;
+
+    // Constructores
+    public ReservaDTO() {}
+
+    public ReservaDTO(String id, Long productoId, Integer cantidad, Instant expiraEn) {
+        this.id = id;
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.expiraEn = expiraEn;
+    }
+
+    // Getters y Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public Instant getExpiraEn() { return expiraEn; }
+    public void setExpiraEn(Instant expiraEn) { this.expiraEn = expiraEn; }
+}
@@ -0,0 +1,35 @@
+package uy.bcu.order.dto;
+
+/**
+ * Usuario tal como lo devuelve Usuario Service
+ */
+public class UsuarioDTO {
+
+    private Long id;
+    private String nombre;
+    private String email;
+    private Boolean activo;
+
+    // Constructores
+    public UsuarioDTO() {}
+
+    public UsuarioDTO(Long id, String nombre, String email, Boolean activo) {
+        this.id = id;
+        this.nombre = nombre;
+        this.email = email;
+        this.activo = activo;
+    }
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Boolean getActivo() { return activo; }
+    public void setActivo(Boolean activo) { this.activo = activo; }
+}
@@ -0,0 +1,85 @@
+package uy.bcu.order.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aviso al usuario registrado en el outbox de pedidos (appuser.pedidos_outbox)
+ */
+public class AvisoPedido {
+
+    private Long id;
+    private Long pedidoId;
+    private String evento;
+    private String destinatario;
+    private String asunto;
+    private String mensaje;
+    private LocalDateTime fechaCreacion;
+
+    // Constructores
+    public AvisoPedido() {}
+
+    public AvisoPedido(Long pedidoId, String evento, String destinatario, String asunto, String mensaje) {
+        this.pedidoId = pedidoId;
+        this.evento = evento;
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.mensaje = mensaje;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public void setPedidoId(Long pedidoId) {
+        this.pedidoId = pedidoId;
+    }
+
+    public String getEvento() {
+        return evento;
+    }
+
+    public void setEvento(String evento) {
+        this.evento = evento;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public void setDestinatario(String destinatario) {
+        this.destinatario = destinatario;
+    }
+
+    public String getAsunto() {
+        return asunto;
+    }
+
+    public void setAsunto(String asunto) {
+        this.asunto = asunto;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
@@ -0,0 +1,44 @@
+package uy.bcu.order.model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Estados de un pedido: PENDIENTE → PROCESANDO → COMPLETADO, y CANCELADO desde
+ * cualquiera de los dos primeros. COMPLETADO y CANCELADO son finales.
+ */
+public enum EstadoPedido {
+    PENDIENTE,
+    PROCESANDO,
+    COMPLETADO,
+    CANCELADO;
+
+    /**
+     * Estados desde los que se puede pasar a este
+     */
+    public Set<EstadoPedido> origenes() {
+        switch (this) {
+            case PROCESANDO:
+                return EnumSet.of(PENDIENTE);
+            case COMPLETADO:
+                return EnumSet.of(PROCESANDO);
+            case CANCELADO:
+                return EnumSet.of(PENDIENTE, PROCESANDO);
+            default:
+                return EnumSet.noneOf(EstadoPedido.class);
+        }
+    }
+
+    public boolean puedeCambiarA(EstadoPedido nuevo) {
+        return nuevo.origenes().contains(this);
+    }
+
+    public static EstadoPedido desde(String valor) {
+        try {
+            return EstadoPedido.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Estado de pedido no soportado: " + valor);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package uy.bcu.order.model;
+
+import org.hibernate.annotations.BatchSize;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "pedidos", schema = "appuser")
+public class Pedido {
+
+    // allocationSize debe coincidir con el INCREMENT BY de appuser.seq_pedidos
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_pedidos")
+    @SequenceGenerator(
+        name = "seq_pedidos",
+        sequenceName = "appuser.seq_pedidos",
+        allocationSize = 50
+    )
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "total", nullable = false)
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado")
+    private EstadoPedido estado;
+
+    @Column(name = "fecha_pedido")
+    private LocalDateTime fechaPedido;
+
+    // Email del usuario al crear el pedido; destino de los avisos de cambio de estado
+    @Column(name = "email_contacto")
+    private String emailContacto;
+
+    // Al leer una página de pedidos, los items se cargan con un IN por hasta 100 pedidos
+    @OneToMany(mappedBy = "pedido", cascade = CascadeType.PERSIST)
+    @OrderBy("id")
+    @BatchSize(size = 100)
+    private List<PedidoItem> items = new ArrayList<>();
+
+    // Constructores
+    public Pedido() {}
+
+    public Pedido(Long usuarioId, BigDecimal total, EstadoPedido estado) {
+        this.usuarioId = usuarioId;
+        this.total = total;
+        this.estado = estado;
+        this.fechaPedido = LocalDateTime.now();
+    }
+
+    /**
+     * Agregar un item manteniendo ambos lados de la relación
+     */
+    public void agregarItem(PedidoItem item) {
+        item.setPedido(this);
+        items.add(item);
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public EstadoPedido getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoPedido estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getFechaPedido() {
+        return fechaPedido;
+    }
+
+    public void setFechaPedido(LocalDateTime fechaPedido) {
+        this.fechaPedido = fechaPedido;
+    }
+
+    public String getEmailContacto() {
+        return emailContacto;
+    }
+
+    public void setEmailContacto(String emailContacto) {
+        this.emailContacto = emailContacto;
+    }
+
+    public List<PedidoItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PedidoItem> items) {
+        this.items = items;
+    }
+}
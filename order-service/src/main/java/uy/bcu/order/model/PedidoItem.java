@@ -0,0 +1,95 @@
+package uy.bcu.order.model;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "pedido_items", schema = "appuser")
+public class PedidoItem {
+
+    // allocationSize debe coincidir con el INCREMENT BY de appuser.seq_pedido_items
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_pedido_items")
+    @SequenceGenerator(
+        name = "seq_pedido_items",
+        sequenceName = "appuser.seq_pedido_items",
+        allocationSize = 50
+    )
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pedido_id", nullable = false)
+    private Pedido pedido;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    // Copia del nombre y precio al momento del pedido
+    @Column(name = "nombre_producto", nullable = false)
+    private String nombreProducto;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "precio_unitario", nullable = false)
+    private BigDecimal precioUnitario;
+
+    // Constructores
+    public PedidoItem() {}
+
+    public PedidoItem(Long productoId, String nombreProducto, Integer cantidad, BigDecimal precioUnitario) {
+        this.productoId = productoId;
+        this.nombreProducto = nombreProducto;
+        this.cantidad = cantidad;
+        this.precioUnitario = precioUnitario;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Pedido getPedido() {
+        return pedido;
+    }
+
+    public void setPedido(Pedido pedido) {
+        this.pedido = pedido;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getNombreProducto() {
+        return nombreProducto;
+    }
+
+    public void setNombreProducto(String nombreProducto) {
+        this.nombreProducto = nombreProducto;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public BigDecimal getPrecioUnitario() {
+        return precioUnitario;
+    }
+
+    public void setPrecioUnitario(BigDecimal precioUnitario) {
+        this.precioUnitario = precioUnitario;
+    }
+}
@@ -0,0 +1,127 @@
+package uy.bcu.order.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uy.bcu.order.model.AvisoPedido;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso JDBC a appuser.pedidos_outbox.
+ * Las altas participan de la transacción JPA en curso (misma conexión), así el
+ * aviso se confirma o descarta junto con el pedido. La toma de pendientes usa
+ * FOR UPDATE SKIP LOCKED: varias réplicas pueden enviar en paralelo sin tomar
+ * dos veces el mismo aviso ni esperarse entre sí.
+ */
+@Repository
+public class PedidoOutboxRepository {
+
+    private static final String INSERTAR =
+        "INSERT INTO appuser.pedidos_outbox (pedido_id, evento, destinatario, asunto, mensaje) VALUES (?, ?, ?, ?, ?)";
+
+    // La condición y el orden usan la expresión de idx_pedidos_outbox_pendientes (igual al
+    // ID en los pendientes): los avisos salen del más antiguo al más nuevo sin ordenar en memoria
+    private static final String PENDIENTES =
+        "SELECT id, pedido_id, evento, destinatario, asunto, mensaje, fecha_creacion FROM appuser.pedidos_outbox "
+            + "WHERE (CASE WHEN fecha_envio IS NULL AND fecha_descarte IS NULL THEN id END) IS NOT NULL "
+            + "ORDER BY (CASE WHEN fecha_envio IS NULL AND fecha_descarte IS NULL THEN id END) "
+            + "FOR UPDATE SKIP LOCKED";
+
+    private static final int LARGO_ERROR = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public PedidoOutboxRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * Registrar avisos en un solo batch JDBC (debe llamarse dentro de una transacción)
+     */
+    public void registrar(List<AvisoPedido> avisos) {
+        if (avisos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERTAR, avisos, avisos.size(), (ps, aviso) -> {
+            ps.setLong(1, aviso.getPedidoId());
+            ps.setString(2, aviso.getEvento());
+            ps.setString(3, aviso.getDestinatario());
+            ps.setString(4, aviso.getAsunto());
+            ps.setString(5, aviso.getMensaje());
+        });
+    }
+
+    /**
+     * Tomar y bloquear hasta "limite" avisos pendientes, en orden de ID.
+     * Los bloqueos se liberan al terminar la transacción.
+     */
+    public List<AvisoPedido> tomarPendientes(int limite) {
+        return jdbcTemplate.query(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(PENDIENTES);
+            // Con SKIP LOCKED las filas se bloquean a medida que se leen: se deja de leer al completar el lote
+            ps.setMaxRows(limite);
+            ps.setFetchSize(limite);
+            return ps;
+        }, (rs, fila) -> {
+            AvisoPedido aviso = new AvisoPedido(rs.getLong("pedido_id"), rs.getString("evento"),
+                rs.getString("destinatario"), rs.getString("asunto"), rs.getString("mensaje"));
+            aviso.setId(rs.getLong("id"));
+            aviso.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
+            return aviso;
+        });
+    }
+
+    /**
+     * Marcar avisos como entregados (hasta 1000 IDs por llamada en Oracle)
+     */
+    public void marcarEnviados(List<Long> ids) {
+        namedJdbcTemplate.update("UPDATE appuser.pedidos_outbox SET fecha_envio = SYSTIMESTAMP WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Sumar un intento fallido a cada aviso (hasta 1000 IDs por llamada en Oracle); los
+     * que llegan a "maximoIntentos" se descartan
+     *
+     * @return cantidad de avisos descartados
+     */
+    public int registrarFallo(List<Long> ids, int maximoIntentos, String error) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids)
+            .addValue("maximo", maximoIntentos)
+            .addValue("error", recortar(error));
+        namedJdbcTemplate.update("UPDATE appuser.pedidos_outbox SET intentos = intentos + 1, error = :error, "
+            + "fecha_descarte = CASE WHEN intentos + 1 >= :maximo THEN SYSTIMESTAMP END WHERE id IN (:ids)", parametros);
+        return namedJdbcTemplate.queryForObject("SELECT COUNT(*) FROM appuser.pedidos_outbox "
+            + "WHERE id IN (:ids) AND fecha_descarte IS NOT NULL", parametros, Integer.class);
+    }
+
+    /**
+     * Descartar un aviso que Notification Service rechazó: no se vuelve a enviar
+     */
+    public void descartar(Long id, String error) {
+        jdbcTemplate.update("UPDATE appuser.pedidos_outbox SET fecha_descarte = SYSTIMESTAMP, error = ? WHERE id = ?",
+            recortar(error), id);
+    }
+
+    /**
+     * Borrar los avisos enviados o descartados antes de la fecha dada
+     *
+     * @return cantidad de avisos borrados
+     */
+    public int purgarAntesDe(LocalDateTime fecha) {
+        Timestamp limite = Timestamp.valueOf(fecha);
+        return jdbcTemplate.update("DELETE FROM appuser.pedidos_outbox WHERE fecha_envio < ?", limite)
+            + jdbcTemplate.update("DELETE FROM appuser.pedidos_outbox WHERE fecha_descarte < ?", limite);
+    }
+
+    private static String recortar(String error) {
+        return error == null || error.length() <= LARGO_ERROR ? error : error.substring(0, LARGO_ERROR);
+    }
+}
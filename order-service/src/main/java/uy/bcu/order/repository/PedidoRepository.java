@@ -0,0 +1,69 @@
+package uy.bcu.order.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@Repository
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, PedidoRepositoryCustom {
+
+    /**
+     * Obtener un pedido con sus items en una sola consulta
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        // El DISTINCT solo deduplica en memoria; no se envía a Oracle
+        @QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false")
+    })
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.items WHERE p.id = :id")
+    Optional<Pedido> findConItemsPorId(@Param("id") Long id);
+
+    /**
+     * Obtener pedidos sin items para consultar su estado (hasta 1000 IDs por llamada en Oracle)
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("SELECT p FROM Pedido p WHERE p.id IN :ids")
+    List<Pedido> findPorIdsSoloLectura(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cambiar el estado de un pedido con un único UPDATE condicionado al estado
+     * esperado (compare-and-set), sin lock previo de la fila.
+     *
+     * @return 1 si el pedido seguía en el estado esperado, 0 si otra transacción lo cambió o no existe
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = :nuevo WHERE p.id = :id AND p.estado = :esperado")
+    int cambiarEstado(@Param("id") Long id, @Param("esperado") EstadoPedido esperado,
+                      @Param("nuevo") EstadoPedido nuevo);
+
+    /**
+     * Cantidad de pedidos por estado: [estado, cantidad].
+     * Se resuelve recorriendo idx_pedidos_estado_fecha, sin leer la tabla.
+     */
+    @Query(value = "SELECT estado, COUNT(*) FROM appuser.pedidos GROUP BY estado", nativeQuery = true)
+    List<Object[]> contarPorEstado();
+
+    /**
+     * Pedidos no cancelados e importe por período desde una fecha: [inicio del período, cantidad, importe].
+     * formato es el de TRUNC de Oracle ('MI', 'HH' o 'DD'); el rango usa idx_pedidos_fecha.
+     */
+    @Query(value = "SELECT periodo, COUNT(*), SUM(total) FROM ("
+        + " SELECT TRUNC(fecha_pedido, :formato) AS periodo, total FROM appuser.pedidos"
+        + " WHERE fecha_pedido >= :desde AND estado <> 'CANCELADO'"
+        + ") GROUP BY periodo", nativeQuery = true)
+    List<Object[]> ventasPorPeriodo(@Param("formato") String formato, @Param("desde") LocalDateTime desde);
+}
@@ -0,0 +1,35 @@
+package uy.bcu.order.repository;
+
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operaciones sobre pedidos que no se resuelven con una consulta fija: búsquedas
+ * con filtros opcionales, cambios de estado en batch JDBC y lecturas consistentes
+ */
+public interface PedidoRepositoryCustom {
+
+    /**
+     * Página del historial de pedidos, del más reciente al más antiguo (keyset pagination).
+     * Los filtros nulos no se aplican; sin cursor (fecha e ID nulos) se empieza por el más reciente.
+     */
+    List<Pedido> buscarPagina(Long usuarioId, EstadoPedido estado, LocalDateTime fechaCursor, Long idCursor, int limite);
+
+    /**
+     * Pasar varios pedidos al estado nuevo en un solo batch JDBC; cada UPDATE se
+     * condiciona al estado que tenía el pedido al leerlo (compare-and-set).
+     *
+     * @return filas afectadas por pedido, en el mismo orden: 0 si otra transacción cambió el estado
+     */
+    int[] cambiarEstados(List<Pedido> pedidos, EstadoPedido nuevo);
+
+    /**
+     * Fijar la instantánea de lectura de la transacción en curso (SET TRANSACTION READ ONLY):
+     * las consultas siguientes ven la base tal como estaba en este momento. Debe ser la
+     * primera sentencia de la transacción.
+     */
+    void fijarInstantanea();
+}
@@ -0,0 +1,87 @@
+package uy.bcu.order.repository;
+
+import org.hibernate.FlushMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Implementación de PedidoRepositoryCustom.
+ * Cada combinación de filtros corresponde a un índice (usuario_id, fecha_pedido, id),
+ * (estado, fecha_pedido, id) o (fecha_pedido, id): Oracle recorre el índice en
+ * orden descendente desde el cursor y se detiene al completar la página, por lo
+ * que el costo no crece con el tamaño de la tabla ni con la profundidad de la página.
+ */
+public class PedidoRepositoryImpl implements PedidoRepositoryCustom {
+
+    private static final String CAMBIAR_ESTADO =
+        "UPDATE appuser.pedidos SET estado = ? WHERE id = ? AND estado = ?";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PedidoRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Pedido> buscarPagina(Long usuarioId, EstadoPedido estado, LocalDateTime fechaCursor, Long idCursor,
+                                     int limite) {
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Pedido p WHERE 1 = 1");
+        if (usuarioId != null) {
+            jpql.append(" AND p.usuarioId = :usuarioId");
+        }
+        if (estado != null) {
+            jpql.append(" AND p.estado = :estado");
+        }
+        if (fechaCursor != null) {
+            // La condición sobre fecha_pedido sola acota el rango del índice; la segunda desempata por ID
+            jpql.append(" AND p.fechaPedido <= :fechaCursor")
+                .append(" AND (p.fechaPedido < :fechaCursor OR p.id < :idCursor)");
+        }
+        jpql.append(" ORDER BY p.fechaPedido DESC, p.id DESC");
+
+        TypedQuery<Pedido> query = entityManager.createQuery(jpql.toString(), Pedido.class)
+            .setMaxResults(limite)
+            .setHint(HINT_READONLY, true)
+            .setHint(HINT_FLUSH_MODE, FlushMode.COMMIT);
+        if (usuarioId != null) {
+            query.setParameter("usuarioId", usuarioId);
+        }
+        if (estado != null) {
+            query.setParameter("estado", estado);
+        }
+        if (fechaCursor != null) {
+            query.setParameter("fechaCursor", fechaCursor);
+            query.setParameter("idCursor", idCursor);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public int[] cambiarEstados(List<Pedido> pedidos, EstadoPedido nuevo) {
+        if (pedidos.isEmpty()) {
+            return new int[0];
+        }
+        // El driver de Oracle informa las filas afectadas por cada sentencia del batch
+        return jdbcTemplate.batchUpdate(CAMBIAR_ESTADO, pedidos, pedidos.size(), (ps, pedido) -> {
+            ps.setString(1, nuevo.name());
+            ps.setLong(2, pedido.getId());
+            ps.setString(3, pedido.getEstado().name());
+        })[0];
+    }
+
+    @Override
+    public void fijarInstantanea() {
+        jdbcTemplate.execute("SET TRANSACTION READ ONLY");
+    }
+}
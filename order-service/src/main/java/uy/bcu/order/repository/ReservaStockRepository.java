@@ -0,0 +1,39 @@
+package uy.bcu.order.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Acceso JDBC a appuser.stock_reservas, la tabla de reservas de Product Service.
+ * La confirmación participa de la transacción JPA en curso (misma conexión): las
+ * reservas quedan confirmadas si y solo si el pedido se guarda. Product Service
+ * solo vence o libera reservas pendientes, así que una reserva confirmada nunca
+ * devuelve sus unidades.
+ */
+@Repository
+public class ReservaStockRepository {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ReservaStockRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * Confirmar reservas pendientes (debe llamarse dentro de una transacción).
+     * Una reserva que venció o se liberó ya no está pendiente y no se cuenta.
+     *
+     * @return cantidad de reservas confirmadas
+     */
+    public int confirmar(List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(
+            "UPDATE appuser.stock_reservas SET estado = 'CONFIRMADA' WHERE id IN (:ids) AND estado = 'PENDIENTE'",
+            new MapSqlParameterSource("ids", ids));
+    }
+}
@@ -0,0 +1,365 @@
+package uy.bcu.order.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.client.ProductoClient;
+import uy.bcu.order.client.UsuarioClient;
+import uy.bcu.order.concurrent.SingleFlight;
+import uy.bcu.order.dto.ConsultaProductosDTO;
+import uy.bcu.order.dto.OrderCreateDTO;
+import uy.bcu.order.dto.OrderDTO;
+import uy.bcu.order.dto.PedidoPaginaDTO;
+import uy.bcu.order.dto.ProductoDTO;
+import uy.bcu.order.dto.ReservaCreateDTO;
+import uy.bcu.order.dto.ReservaDTO;
+import uy.bcu.order.dto.UsuarioDTO;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+import uy.bcu.order.model.PedidoItem;
+import uy.bcu.order.repository.PedidoRepository;
+import uy.bcu.order.repository.ReservaStockRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+    private static final String SEPARADOR_CURSOR = "|";
+
+    private final PedidoRepository pedidoRepository;
+    private final PedidoOutbox pedidoOutbox;
+    private final ReservaStockRepository reservaStockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductoClient productoClient;
+    private final UsuarioClient usuarioClient;
+    private final ExecutorService executor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration timeoutUsuario;
+    private final Duration timeoutProductos;
+
+    // Pedidos simultáneos del mismo usuario o de los mismos productos comparten la llamada remota
+    private final SingleFlight<Long, UsuarioDTO> usuarios;
+    private final SingleFlight<List<Long>, List<ProductoDTO>> productos;
+
+    public OrderService(PedidoRepository pedidoRepository,
+                        PedidoOutbox pedidoOutbox,
+                        ReservaStockRepository reservaStockRepository,
+                        TransactionTemplate transactionTemplate,
+                        ProductoClient productoClient,
+                        UsuarioClient usuarioClient,
+                        @Qualifier("llamadasRemotasExecutor") ExecutorService executor,
+                        ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${pedidos.timeouts.usuario:2s}") Duration timeoutUsuario,
+                        @Value("${pedidos.timeouts.productos:2s}") Duration timeoutProductos) {
+        this.pedidoRepository = pedidoRepository;
+        this.pedidoOutbox = pedidoOutbox;
+        this.reservaStockRepository = reservaStockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.productoClient = productoClient;
+        this.usuarioClient = usuarioClient;
+        this.executor = executor;
+        this.eventPublisher = eventPublisher;
+        this.timeoutUsuario = timeoutUsuario;
+        this.timeoutProductos = timeoutProductos;
+        this.usuarios = new SingleFlight<>("pedidos.usuario", meterRegistry);
+        this.productos = new SingleFlight<>("pedidos.productos", meterRegistry);
+    }
+
+    /**
+     * Crear un pedido validando usuario y productos y reservando su stock.
+     *
+     * El usuario y los productos (una única llamada por lote a Product Service) se
+     * piden en paralelo, cada uno con su propio timeout, y el pedido falla en cuanto
+     * falla cualquiera de los dos: la latencia es la de la dependencia más lenta y
+     * no la suma. Luego se reserva el stock de cada producto en Product Service
+     * (también en paralelo). El pedido, sus items, el aviso al usuario (outbox) y la
+     * confirmación de las reservas se escriben en una transacción corta, sin retener
+     * una conexión mientras se espera a los otros servicios: una reserva de un pedido
+     * guardado nunca vence, y si alguna reserva venció antes el pedido no se guarda y
+     * las demás se liberan. El aviso lo envía después PedidoNotificador, sin que el
+     * pedido lo espere. Un mismo ID repetido en productoIds cuenta como varias unidades.
+     *
+     * @throws IllegalArgumentException si el usuario o algún producto no existe
+     * @throws IllegalStateException    si no hay stock suficiente de algún producto o
+     *                                  alguna reserva venció antes de guardar el pedido
+     * @throws TiempoAgotadoException   si una dependencia no respondió a tiempo
+     * @throws SobrecargaException      si el pool de llamadas remotas está saturado
+     */
+    public OrderDTO crearPedido(OrderCreateDTO dto) {
+        logger.info("Creando pedido de {} items para el usuario {}", dto.getProductoIds().size(), dto.getUsuarioId());
+
+        // TreeMap: los IDs ordenados forman la misma clave para pedidos con los mismos productos
+        Map<Long, Long> unidades = dto.getProductoIds().stream()
+            .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+
+        CompletableFuture<UsuarioDTO> usuario = llamar("usuario-service",
+            () -> obtenerUsuario(dto.getUsuarioId()), timeoutUsuario);
+        CompletableFuture<List<ProductoDTO>> productosPedido = llamar("product-service",
+            () -> obtenerProductos(new ArrayList<>(unidades.keySet())), timeoutProductos);
+
+        CompletableFuture<Pedido> pedido = usuario.thenCombine(productosPedido,
+            (u, ps) -> armarPedido(dto.getUsuarioId(), unidades, ps));
+        // Si una dependencia falla no se espera a la otra
+        usuario.whenComplete((valor, error) -> fallarSiHayError(pedido, error));
+        productosPedido.whenComplete((valor, error) -> fallarSiHayError(pedido, error));
+
+        Pedido nuevo = esperar(pedido);
+        UsuarioDTO datosUsuario = usuario.join();
+        nuevo.setEmailContacto(datosUsuario.getEmail());
+
+        List<ReservaDTO> reservas = reservarStock(unidades);
+        OrderDTO creado;
+        try {
+            creado = transactionTemplate.execute(estado -> {
+                Pedido guardado = pedidoRepository.save(nuevo);
+                confirmarReservas(reservas);
+                pedidoOutbox.registrarCreacion(guardado);
+                OrderDTO resultado = convertirADTO(guardado, datosUsuario.getNombre());
+                eventPublisher.publishEvent(new PedidoCreadoEvent(resultado));
+                return resultado;
+            });
+        } catch (RuntimeException e) {
+            liberarReservas(reservas);
+            throw e;
+        }
+        logger.info("Pedido {} creado para el usuario {}", creado.getId(), creado.getUsuarioId());
+        return creado;
+    }
+
+    /**
+     * Obtener una página del historial de pedidos, opcionalmente filtrada por usuario
+     * y estado. Usa keyset pagination sobre (fecha_pedido, id): el cursor codifica el
+     * último pedido entregado.
+     *
+     * @throws IllegalArgumentException si el estado, el cursor o el límite no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PedidoPaginaDTO obtenerPedidos(Long usuarioId, String estado, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        EstadoPedido filtroEstado = estado != null ? EstadoPedido.desde(estado) : null;
+        LocalDateTime fechaCursor = null;
+        Long idCursor = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Map.Entry<LocalDateTime, Long> clave = decodificarCursor(cursor);
+            fechaCursor = clave.getKey();
+            idCursor = clave.getValue();
+        }
+
+        // El pedido de más solo indica si existe otra página; no se devuelve
+        List<Pedido> pedidos = pedidoRepository.buscarPagina(usuarioId, filtroEstado, fechaCursor, idCursor, limite + 1);
+        boolean hayMas = pedidos.size() > limite;
+        List<Pedido> pagina = hayMas ? pedidos.subList(0, limite) : pedidos;
+
+        // Los items de toda la página se cargan juntos (@BatchSize en Pedido.items)
+        List<OrderDTO> resultado = pagina.stream()
+            .map(p -> convertirADTO(p, null))
+            .collect(Collectors.toList());
+        String siguienteCursor = hayMas ? codificarCursor(pagina.get(pagina.size() - 1)) : null;
+        return new PedidoPaginaDTO(resultado, siguienteCursor, hayMas);
+    }
+
+    /**
+     * Obtener un pedido con sus items
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderDTO> obtenerPedidoPorId(Long id) {
+        return pedidoRepository.findConItemsPorId(id).map(p -> convertirADTO(p, null));
+    }
+
+    private <T> CompletableFuture<T> llamar(String servicio, Supplier<T> llamada, Duration timeout) {
+        CompletableFuture<T> futuro;
+        try {
+            futuro = CompletableFuture.supplyAsync(llamada, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                new SobrecargaException("Sin capacidad para llamar a " + servicio, e));
+        }
+        return futuro
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                Throwable causa = error instanceof CompletionException ? error.getCause() : error;
+                if (causa instanceof TimeoutException) {
+                    throw new TiempoAgotadoException(servicio + " no respondió en " + timeout.toMillis() + " ms", causa);
+                }
+                throw causa instanceof RuntimeException ? (RuntimeException) causa : new CompletionException(causa);
+            });
+    }
+
+    private static void fallarSiHayError(CompletableFuture<?> pedido, Throwable error) {
+        if (error != null) {
+            pedido.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+        }
+    }
+
+    private Pedido armarPedido(Long usuarioId, Map<Long, Long> unidades, List<ProductoDTO> productosPedido) {
+        Map<Long, ProductoDTO> porId = productosPedido.stream()
+            .collect(Collectors.toMap(ProductoDTO::getId, Function.identity()));
+
+        Pedido pedido = new Pedido(usuarioId, BigDecimal.ZERO, EstadoPedido.PENDIENTE);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Long> item : unidades.entrySet()) {
+            ProductoDTO producto = porId.get(item.getKey());
+            if (producto == null) {
+                throw new IllegalArgumentException("Producto no encontrado: " + item.getKey());
+            }
+            BigDecimal precio = BigDecimal.valueOf(producto.getPrecio()).setScale(2, RoundingMode.HALF_UP);
+            pedido.agregarItem(new PedidoItem(producto.getId(), producto.getNombre(),
+                item.getValue().intValue(), precio));
+            total = total.add(precio.multiply(BigDecimal.valueOf(item.getValue())));
+        }
+        pedido.setTotal(total);
+        return pedido;
+    }
+
+    /**
+     * Reservar en paralelo las unidades de cada producto. Si alguna reserva falla se
+     * liberan las obtenidas; una reserva que llegue a crearse después de su timeout
+     * vence sola en Product Service.
+     */
+    private List<ReservaDTO> reservarStock(Map<Long, Long> unidades) {
+        List<CompletableFuture<ReservaDTO>> pendientes = unidades.entrySet().stream()
+            .map(item -> llamar("product-service",
+                () -> reservar(item.getKey(), item.getValue().intValue()), timeoutProductos))
+            .collect(Collectors.toList());
+        // Se esperan todas, también tras un fallo, para saber cuáles hay que liberar
+        CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0]))
+            .exceptionally(error -> null)
+            .join();
+
+        List<ReservaDTO> reservas = new ArrayList<>(pendientes.size());
+        RuntimeException fallo = null;
+        for (CompletableFuture<ReservaDTO> pendiente : pendientes) {
+            try {
+                reservas.add(esperar(pendiente));
+            } catch (RuntimeException e) {
+                fallo = fallo != null ? fallo : e;
+            }
+        }
+        if (fallo != null) {
+            liberarReservas(reservas);
+            throw fallo;
+        }
+        return reservas;
+    }
+
+    private ReservaDTO reservar(Long productoId, int cantidad) {
+        try {
+            return productoClient.reservar(new ReservaCreateDTO(productoId, cantidad));
+        } catch (FeignException.Conflict e) {
+            throw new IllegalStateException("Stock insuficiente para el producto " + productoId);
+        } catch (FeignException.NotFound e) {
+            throw new IllegalArgumentException("Producto no encontrado: " + productoId);
+        }
+    }
+
+    /**
+     * Confirmar las reservas dentro de la transacción del pedido. Si alguna ya no
+     * está pendiente (venció o se liberó) el pedido se revierte: sus unidades pueden
+     * haberse vendido a otro pedido.
+     */
+    private void confirmarReservas(List<ReservaDTO> reservas) {
+        List<String> ids = reservas.stream().map(ReservaDTO::getId).collect(Collectors.toList());
+        int confirmadas = reservaStockRepository.confirmar(ids);
+        if (confirmadas < ids.size()) {
+            throw new IllegalStateException("Una reserva de stock venció antes de guardar el pedido");
+        }
+    }
+
+    private void liberarReservas(List<ReservaDTO> reservas) {
+        for (ReservaDTO reserva : reservas) {
+            try {
+                productoClient.liberarReserva(reserva.getId());
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo liberar la reserva {}; vence sola: {}", reserva.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private OrderDTO convertirADTO(Pedido pedido, String nombreUsuario) {
+        List<String> productosPedido = pedido.getItems().stream()
+            .map(PedidoItem::getNombreProducto)
+            .collect(Collectors.toList());
+        return new OrderDTO(pedido.getId(), pedido.getUsuarioId(), nombreUsuario, pedido.getTotal(),
+            pedido.getEstado().name(), pedido.getFechaPedido(), productosPedido);
+    }
+
+    /**
+     * Codificar el cursor de la página siguiente a partir del último pedido entregado
+     */
+    private String codificarCursor(Pedido ultimo) {
+        String valor = ultimo.getFechaPedido() + SEPARADOR_CURSOR + ultimo.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map.Entry<LocalDateTime, Long> decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR_CURSOR, 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return Map.entry(LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            // Se relanza la excepción original para que el controlador elija el código HTTP
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private UsuarioDTO obtenerUsuario(Long usuarioId) {
+        try {
+            return usuarios.ejecutar(usuarioId, () -> usuarioClient.obtenerUsuario(usuarioId));
+        } catch (FeignException.NotFound e) {
+            throw new IllegalArgumentException("Usuario no encontrado: " + usuarioId);
+        }
+    }
+
+    private List<ProductoDTO> obtenerProductos(List<Long> ids) {
+        return productos.ejecutar(ids, () -> productoClient.obtenerProductos(new ConsultaProductosDTO(ids)));
+    }
+}
@@ -0,0 +1,17 @@
+package uy.bcu.order.service;
+
+import uy.bcu.order.dto.OrderDTO;
+
+/**
+ * Evento publicado al crear un pedido; las estadísticas lo aplican tras el commit
+ */
+public class PedidoCreadoEvent {
+
+    private final OrderDTO pedido;
+
+    public PedidoCreadoEvent(OrderDTO pedido) {
+        this.pedido = pedido;
+    }
+
+    public OrderDTO getPedido() { return pedido; }
+}
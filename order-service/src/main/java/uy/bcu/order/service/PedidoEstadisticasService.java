@@ -0,0 +1,336 @@
+package uy.bcu.order.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.concurrent.SerieAcumulada;
+import uy.bcu.order.concurrent.SerieAcumulada.Total;
+import uy.bcu.order.dto.OrderDTO;
+import uy.bcu.order.dto.PedidoEstadisticasDTO;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.repository.PedidoRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Estadísticas de pedidos mantenidas de forma incremental en memoria.
+ *
+ * Cada alta y cambio de estado confirmado ajusta un contador por estado y las
+ * ventas acumuladas por minuto (última hora), hora (últimas 24 horas) y día
+ * (último mes). Consultar las estadísticas no toca la base y cuesta lo mismo sin
+ * importar cuántos pedidos haya. Los pedidos cancelados no suman ventas.
+ *
+ * Los contadores se reconstruyen con Oracle al arrancar y se reconcilian por
+ * completo cada hora. Entre tanto, cada minuto solo se reconcilian las ventas por
+ * minuto de los últimos minutos (un range scan de idx_pedidos_fecha), lo que absorbe
+ * los pedidos nuevos de otras réplicas. Los cambios de estado de otras réplicas y los
+ * de pedidos más antiguos se ven en la reconciliación completa.
+ */
+@Service
+public class PedidoEstadisticasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PedidoEstadisticasService.class);
+
+    private static final Total SIN_PEDIDOS = new Total(0, 0);
+
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ventanaReciente;
+
+    private final ConcurrentMap<String, LongAdder> porEstado = new ConcurrentHashMap<>();
+    private final SerieAcumulada porMinuto = new SerieAcumulada(ChronoUnit.MINUTES, 60);
+    private final SerieAcumulada porHora = new SerieAcumulada(ChronoUnit.HOURS, 24);
+    // 31 días alcanzan para cubrir el mes en curso completo
+    private final SerieAcumulada porDia = new SerieAcumulada(ChronoUnit.DAYS, 31);
+
+    // Los pedidos de esta réplica toman el bloqueo de lectura desde antes del commit hasta
+    // aplicarse en memoria; la reconciliación toma el de escritura al fijar su instantánea
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private volatile LocalDateTime ultimaReconciliacion;
+
+    public PedidoEstadisticasService(PedidoRepository pedidoRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${pedidos.estadisticas.ventana-reciente:10m}") Duration ventanaReciente) {
+        if (ventanaReciente.compareTo(Duration.ofMinutes(59)) > 0) {
+            throw new IllegalArgumentException("La ventana reciente no puede superar la serie por minuto (59 minutos)");
+        }
+        this.pedidoRepository = pedidoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ventanaReciente = ventanaReciente;
+
+        Gauge.builder("pedidos.ventas.hoy", this, servicio -> servicio.ventasHoy().doubleValue())
+            .description("Importe de los pedidos no cancelados del día")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Obtener las estadísticas actuales (O(1), sin consultar la base)
+     */
+    public PedidoEstadisticasDTO obtenerEstadisticas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<String, Long> estados = new TreeMap<>();
+        porEstado.forEach((estado, contador) -> estados.put(estado, contador.sum()));
+
+        Total hoy = porDia.totalDesde(ahora.truncatedTo(ChronoUnit.DAYS));
+        Total mes = porDia.totalDesde(ahora.toLocalDate().withDayOfMonth(1).atStartOfDay());
+        Total ultimaHora = porMinuto.totalDesde(ahora.minusMinutes(59));
+        Total ultimoDia = porHora.totalDesde(ahora.minusHours(23));
+
+        return new PedidoEstadisticasDTO(estados, hoy.getPedidos(), importe(ultimaHora.getCentavos()),
+            importe(ultimoDia.getCentavos()), importe(hoy.getCentavos()), importe(mes.getCentavos()),
+            ultimaReconciliacion);
+    }
+
+    @EventListener
+    public void alCrearPedido(PedidoCreadoEvent evento) {
+        alConfirmar(() -> {
+            OrderDTO pedido = evento.getPedido();
+            contador(pedido.getEstado()).increment();
+            if (!EstadoPedido.CANCELADO.name().equals(pedido.getEstado())) {
+                sumarVentas(pedido.getFechaPedido(), 1, centavos(pedido.getTotal()));
+            }
+        });
+    }
+
+    @EventListener
+    public void alCambiarEstado(PedidoEstadoCambiadoEvent evento) {
+        alConfirmar(() -> {
+            contador(evento.getEstadoAnterior().name()).decrement();
+            contador(evento.getEstadoNuevo().name()).increment();
+
+            boolean cancelado = evento.getEstadoNuevo() == EstadoPedido.CANCELADO;
+            if (cancelado != (evento.getEstadoAnterior() == EstadoPedido.CANCELADO)) {
+                int signo = cancelado ? -1 : 1;
+                sumarVentas(evento.getFechaPedido(), signo, signo * centavos(evento.getTotal()));
+            }
+        });
+    }
+
+    /**
+     * Aplicar un evento cuando su transacción confirma (en el acto si no hay transacción).
+     * El bloqueo de lectura se toma antes del commit y se suelta después de aplicar el
+     * evento: cuando la reconciliación fija su instantánea, cada pedido de esta réplica
+     * está a la vez en la base y en memoria, o en ninguna de las dos.
+     */
+    private void alConfirmar(Runnable aplicar) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bloqueo.readLock().lock();
+            try {
+                aplicar.run();
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean bloqueado;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                bloqueo.readLock().lock();
+                bloqueado = true;
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                try {
+                    if (estado == STATUS_COMMITTED) {
+                        aplicar.run();
+                    }
+                } finally {
+                    if (bloqueado) {
+                        bloqueo.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Reconstruir todos los contadores con Oracle; la primera ejecución es al arrancar
+     */
+    @Scheduled(fixedDelayString = "${pedidos.estadisticas.reconciliacion-completa-ms:3600000}")
+    public synchronized void reconciliarTodo() {
+        reconciliar(true);
+    }
+
+    /**
+     * Reconciliar solo las ventas por minuto de la ventana reciente; cada diferencia se
+     * aplica también a la hora y al día que contienen ese minuto
+     */
+    @Scheduled(fixedDelayString = "${pedidos.estadisticas.reconciliacion-ms:60000}",
+        initialDelayString = "${pedidos.estadisticas.reconciliacion-ms:60000}")
+    public synchronized void reconciliarRecientes() {
+        reconciliar(false);
+    }
+
+    /**
+     * Se aplica la diferencia entre la base y la memoria tomadas en el mismo instante:
+     * la instantánea de Oracle (transacción de solo lectura) y la de memoria se fijan bajo
+     * el bloqueo de escritura, así ningún pedido de esta réplica queda en una sola de las
+     * dos. Los pedidos confirmados después ya se aplicaron en memoria y la diferencia no
+     * los vuelve a sumar.
+     */
+    private void reconciliar(boolean completa) {
+        try {
+            transactionTemplate.executeWithoutResult(transaccion -> {
+                Instantanea antes;
+                bloqueo.writeLock().lock();
+                try {
+                    pedidoRepository.fijarInstantanea();
+                    antes = new Instantanea(completa);
+                } finally {
+                    bloqueo.writeLock().unlock();
+                }
+
+                if (completa) {
+                    reconciliarEstados(antes.estados);
+                    reconciliarVentas(porMinuto, "MI", porMinuto.inicioVentana(), antes.minutos, false);
+                    reconciliarVentas(porHora, "HH", porHora.inicioVentana(), antes.horas, false);
+                    reconciliarVentas(porDia, "DD", porDia.inicioVentana(), antes.dias, false);
+                } else {
+                    LocalDateTime desde = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minus(ventanaReciente);
+                    reconciliarVentas(porMinuto, "MI", desde, antes.minutos, true);
+                }
+            });
+            ultimaReconciliacion = LocalDateTime.now();
+            logger.debug("Estadísticas de pedidos reconciliadas ({}): {}", completa ? "completa" : "recientes",
+                porEstado);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("No se pudieron reconciliar las estadísticas de pedidos: {}", e.getMessage());
+        }
+    }
+
+    private void reconciliarEstados(Map<String, Long> antes) {
+        Map<String, Long> enBd = new HashMap<>();
+        for (Object[] fila : pedidoRepository.contarPorEstado()) {
+            enBd.put((String) fila[0], ((Number) fila[1]).longValue());
+        }
+
+        Set<String> estados = new HashSet<>(antes.keySet());
+        estados.addAll(enBd.keySet());
+        for (String estado : estados) {
+            long diferencia = enBd.getOrDefault(estado, 0L) - antes.getOrDefault(estado, 0L);
+            if (diferencia != 0) {
+                contador(estado).add(diferencia);
+            }
+        }
+    }
+
+    /**
+     * Aplicar a la serie la diferencia con la base de los períodos desde "desde".
+     * Con todasLasSeries cada diferencia (por minuto) se suma también a las series por
+     * hora y por día.
+     */
+    private void reconciliarVentas(SerieAcumulada serie, String formato, LocalDateTime desde,
+                                   Map<LocalDateTime, Total> antes, boolean todasLasSeries) {
+        Map<LocalDateTime, Total> enBd = new HashMap<>();
+        for (Object[] fila : pedidoRepository.ventasPorPeriodo(formato, desde)) {
+            enBd.put(fecha(fila[0]), new Total(((Number) fila[1]).longValue(), centavos((BigDecimal) fila[2])));
+        }
+
+        Set<LocalDateTime> periodos = new HashSet<>(enBd.keySet());
+        antes.keySet().stream().filter(periodo -> !periodo.isBefore(desde)).forEach(periodos::add);
+        for (LocalDateTime periodo : periodos) {
+            Total previo = antes.getOrDefault(periodo, SIN_PEDIDOS);
+            Total actual = enBd.getOrDefault(periodo, SIN_PEDIDOS);
+            long pedidos = actual.getPedidos() - previo.getPedidos();
+            long centavos = actual.getCentavos() - previo.getCentavos();
+            if (pedidos == 0 && centavos == 0) {
+                continue;
+            }
+            if (todasLasSeries) {
+                sumarVentas(periodo, pedidos, centavos);
+            } else {
+                serie.sumar(periodo, pedidos, centavos);
+            }
+        }
+    }
+
+    private void sumarVentas(LocalDateTime fechaPedido, long pedidos, long centavos) {
+        porMinuto.sumar(fechaPedido, pedidos, centavos);
+        porHora.sumar(fechaPedido, pedidos, centavos);
+        porDia.sumar(fechaPedido, pedidos, centavos);
+    }
+
+    private LongAdder contador(String estado) {
+        return porEstado.computeIfAbsent(estado, nuevo -> {
+            LongAdder contador = new LongAdder();
+            Gauge.builder("pedidos.estado", contador, LongAdder::sum)
+                .tag("estado", nuevo)
+                .description("Pedidos en cada estado")
+                .register(meterRegistry);
+            return contador;
+        });
+    }
+
+    private BigDecimal ventasHoy() {
+        return importe(porDia.totalDesde(LocalDateTime.now().truncatedTo(ChronoUnit.DAYS)).getCentavos());
+    }
+
+    private static long centavos(BigDecimal importe) {
+        return importe == null ? 0 : importe.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal importe(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    private static LocalDateTime fecha(Object valor) {
+        // Oracle devuelve el TRUNC de un TIMESTAMP como DATE, que el driver entrega como Timestamp
+        if (valor instanceof Timestamp) {
+            return ((Timestamp) valor).toLocalDateTime();
+        }
+        if (valor instanceof java.sql.Date) {
+            return ((java.sql.Date) valor).toLocalDate().atStartOfDay();
+        }
+        return (LocalDateTime) valor;
+    }
+
+    /**
+     * Valores en memoria al fijar la instantánea de Oracle
+     */
+    private final class Instantanea {
+
+        private final Map<String, Long> estados = new HashMap<>();
+        private final Map<LocalDateTime, Total> minutos;
+        private final Map<LocalDateTime, Total> horas;
+        private final Map<LocalDateTime, Total> dias;
+
+        Instantanea(boolean completa) {
+            porEstado.forEach((estado, contador) -> estados.put(estado, contador.sum()));
+            minutos = porMinuto.instantanea();
+            horas = completa ? porHora.instantanea() : Map.of();
+            dias = completa ? porDia.instantanea() : Map.of();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uy.bcu.order.service;
+
+import uy.bcu.order.model.EstadoPedido;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado al cambiar el estado de un pedido; las estadísticas lo aplican tras el commit
+ */
+public class PedidoEstadoCambiadoEvent {
+
+    private final Long pedidoId;
+    private final EstadoPedido estadoAnterior;
+    private final EstadoPedido estadoNuevo;
+    private final BigDecimal total;
+    private final LocalDateTime fechaPedido;
+
+    public PedidoEstadoCambiadoEvent(Long pedidoId, EstadoPedido estadoAnterior, EstadoPedido estadoNuevo,
+                                     BigDecimal total, LocalDateTime fechaPedido) {
+        this.pedidoId = pedidoId;
+        this.estadoAnterior = estadoAnterior;
+        this.estadoNuevo = estadoNuevo;
+        this.total = total;
+        this.fechaPedido = fechaPedido;
+    }
+
+    public Long getPedidoId() { return pedidoId; }
+
+    public EstadoPedido getEstadoAnterior() { return estadoAnterior; }
+
+    public EstadoPedido getEstadoNuevo() { return estadoNuevo; }
+
+    public BigDecimal getTotal() { return total; }
+
+    public LocalDateTime getFechaPedido() { return fechaPedido; }
+}
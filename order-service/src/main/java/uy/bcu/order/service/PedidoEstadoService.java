@@ -0,0 +1,138 @@
+package uy.bcu.order.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uy.bcu.order.dto.CambioEstadoDTO;
+import uy.bcu.order.dto.PedidoEstadoLoteResultadoDTO;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+import uy.bcu.order.repository.PedidoRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transiciones de estado de los pedidos.
+ *
+ * No se toman locks de fila para leer el estado actual: cada cambio es un único
+ * UPDATE condicionado a que el pedido siga en el estado leído (compare-and-set).
+ * Las actualizaciones simultáneas de pedidos distintos no se bloquean entre sí y,
+ * sobre un mismo pedido, la que llega segunda no afecta filas y vuelve a evaluar
+ * la transición con el estado nuevo. Cada cambio aplicado registra en la misma
+ * transacción el aviso al usuario en el outbox.
+ */
+@Service
+public class PedidoEstadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PedidoEstadoService.class);
+
+    private static final int MAXIMO_INTENTOS = 3;
+
+    private final PedidoRepository pedidoRepository;
+    private final PedidoOutbox pedidoOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public PedidoEstadoService(PedidoRepository pedidoRepository, PedidoOutbox pedidoOutbox,
+                               ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.pedidoRepository = pedidoRepository;
+        this.pedidoOutbox = pedidoOutbox;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Cambiar el estado de un pedido
+     *
+     * @return vacío si el pedido no existe
+     * @throws IllegalStateException si el estado actual no admite la transición o
+     *                               el pedido cambió en paralelo en todos los intentos
+     */
+    @Transactional
+    public Optional<CambioEstadoDTO> cambiarEstado(Long id, EstadoPedido nuevo) {
+        for (int intento = 1; intento <= MAXIMO_INTENTOS; intento++) {
+            Optional<Pedido> leido = pedidoRepository.findById(id);
+            if (leido.isEmpty()) {
+                return Optional.empty();
+            }
+            Pedido pedido = leido.get();
+            EstadoPedido anterior = pedido.getEstado();
+            if (!anterior.puedeCambiarA(nuevo)) {
+                throw new IllegalStateException("El pedido " + id + " no puede pasar de " + anterior + " a " + nuevo);
+            }
+            if (pedidoRepository.cambiarEstado(id, anterior, nuevo) == 1) {
+                publicarCambio(pedido, nuevo);
+                pedidoOutbox.registrarCambiosEstado(List.of(pedido), nuevo);
+                logger.info("Pedido {} pasó de {} a {}", id, anterior, nuevo);
+                return Optional.of(new CambioEstadoDTO(id, anterior.name(), nuevo.name(), LocalDateTime.now()));
+            }
+            meterRegistry.counter("pedidos.estado.conflictos").increment();
+            logger.debug("El estado del pedido {} cambió en paralelo (intento {})", id, intento);
+        }
+        throw new IllegalStateException("El pedido " + id + " se modificó en paralelo; reintente la operación");
+    }
+
+    /**
+     * Pasar un lote de pedidos a un mismo estado.
+     * Se leen todos los pedidos con una consulta y los cambios válidos se envían en
+     * un único batch de UPDATE condicionados; los pedidos que cambiaron entre la
+     * lectura y el UPDATE se informan como conflictos en lugar de reintentarse.
+     */
+    @Transactional
+    public PedidoEstadoLoteResultadoDTO cambiarEstados(List<Long> ids, EstadoPedido nuevo) {
+        List<Long> distintos = ids.stream().distinct().collect(Collectors.toList());
+        Map<Long, Pedido> porId = pedidoRepository.findPorIdsSoloLectura(distintos).stream()
+            .collect(Collectors.toMap(Pedido::getId, Function.identity()));
+
+        List<Long> noEncontrados = new ArrayList<>();
+        List<Long> transicionInvalida = new ArrayList<>();
+        List<Pedido> candidatos = new ArrayList<>(porId.size());
+        for (Long id : distintos) {
+            Pedido pedido = porId.get(id);
+            if (pedido == null) {
+                noEncontrados.add(id);
+            } else if (!pedido.getEstado().puedeCambiarA(nuevo)) {
+                transicionInvalida.add(id);
+            } else {
+                candidatos.add(pedido);
+            }
+        }
+
+        int[] filas = pedidoRepository.cambiarEstados(candidatos, nuevo);
+        List<Pedido> cambiados = new ArrayList<>(candidatos.size());
+        List<Long> conflictos = new ArrayList<>();
+        for (int i = 0; i < candidatos.size(); i++) {
+            Pedido pedido = candidatos.get(i);
+            if (filas[i] == 1) {
+                cambiados.add(pedido);
+                publicarCambio(pedido, nuevo);
+            } else {
+                conflictos.add(pedido.getId());
+            }
+        }
+        pedidoOutbox.registrarCambiosEstado(cambiados, nuevo);
+        List<Long> actualizados = cambiados.stream().map(Pedido::getId).collect(Collectors.toList());
+        if (!conflictos.isEmpty()) {
+            meterRegistry.counter("pedidos.estado.conflictos").increment(conflictos.size());
+        }
+
+        logger.info("Lote de {} pedidos a {}: {} actualizados, {} no encontrados, {} inválidos, {} en conflicto",
+            distintos.size(), nuevo, actualizados.size(), noEncontrados.size(), transicionInvalida.size(),
+            conflictos.size());
+        return new PedidoEstadoLoteResultadoDTO(actualizados, noEncontrados, transicionInvalida, conflictos);
+    }
+
+    private void publicarCambio(Pedido pedido, EstadoPedido nuevo) {
+        eventPublisher.publishEvent(new PedidoEstadoCambiadoEvent(pedido.getId(), pedido.getEstado(), nuevo,
+            pedido.getTotal(), pedido.getFechaPedido()));
+    }
+}
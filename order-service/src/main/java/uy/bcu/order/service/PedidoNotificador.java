@@ -0,0 +1,210 @@
+package uy.bcu.order.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.client.NotificacionClient;
+import uy.bcu.order.dto.NotificacionDTO;
+import uy.bcu.order.dto.NotificacionLoteDTO;
+import uy.bcu.order.model.AvisoPedido;
+import uy.bcu.order.repository.PedidoOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Relay del outbox de pedidos: envía a Notification Service, en lotes, los avisos
+ * registrados junto con cada pedido o cambio de estado.
+ *
+ * Cada lote se toma en orden de ID con FOR UPDATE SKIP LOCKED, se envía en una sola
+ * llamada y se marca como enviado en la misma transacción. Si Notification Service no
+ * responde o falla (5xx) los avisos quedan pendientes con un intento más y el relay
+ * espera cada vez más antes de reintentar. Si rechaza el lote (4xx) el problema está en
+ * algún aviso: el lote se reenvía de a un aviso y solo se descartan los rechazados, sin
+ * frenar a los demás. Los avisos que agotan los intentos también se descartan; los
+ * descartados quedan en la tabla con su error hasta la purga.
+ *
+ * La entrega es al menos una vez: si la réplica cae entre el envío y el commit, el
+ * lote se reenvía (con la misma referencia, para que el receptor pueda descartarlo).
+ */
+@Component
+public class PedidoNotificador {
+
+    private static final Logger logger = LoggerFactory.getLogger(PedidoNotificador.class);
+
+    private final PedidoOutboxRepository outboxRepository;
+    private final NotificacionClient notificacionClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer demora;
+    private final int tamanioLote;
+    private final int maximoIntentos;
+    private final Duration intervalo;
+    private final Duration esperaMaxima;
+    private final Duration retencion;
+
+    // Espera antes del próximo envío tras una falla (cero si el último envío funcionó)
+    private Duration espera = Duration.ZERO;
+    private long reanudarEn;
+
+    public PedidoNotificador(PedidoOutboxRepository outboxRepository,
+                             NotificacionClient notificacionClient,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${pedidos.outbox.lote:100}") int tamanioLote,
+                             @Value("${pedidos.outbox.maximo-intentos:10}") int maximoIntentos,
+                             @Value("${pedidos.outbox.intervalo-ms:1000}") long intervaloMs,
+                             @Value("${pedidos.outbox.espera-maxima:60s}") Duration esperaMaxima,
+                             @Value("${pedidos.outbox.retencion:7d}") Duration retencion) {
+        this.outboxRepository = outboxRepository;
+        this.notificacionClient = notificacionClient;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.tamanioLote = tamanioLote;
+        this.maximoIntentos = maximoIntentos;
+        this.intervalo = Duration.ofMillis(intervaloMs);
+        this.esperaMaxima = esperaMaxima;
+        this.retencion = retencion;
+        this.demora = Timer.builder("pedidos.outbox.demora")
+            .description("Tiempo entre el registro de un aviso en el outbox y su entrega")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Enviar los avisos pendientes; mientras salgan lotes completos se sigue sin esperar
+     */
+    @Scheduled(fixedDelayString = "${pedidos.outbox.intervalo-ms:1000}")
+    public void enviarPendientes() {
+        if (System.nanoTime() - reanudarEn < 0) {
+            return;
+        }
+        try {
+            Integer enviados;
+            do {
+                enviados = transactionTemplate.execute(estado -> enviarLote());
+            } while (enviados != null && enviados == tamanioLote);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo leer el outbox de pedidos: {}", e.getMessage());
+        }
+    }
+
+    private int enviarLote() {
+        List<AvisoPedido> avisos = outboxRepository.tomarPendientes(tamanioLote);
+        if (avisos.isEmpty()) {
+            return 0;
+        }
+        try {
+            enviar(avisos);
+        } catch (FeignException e) {
+            if (!rechazado(e)) {
+                registrarFallo(avisos, e);
+                return 0;
+            }
+            logger.info("Notification Service rechazó un lote de {} avisos ({}), se envían de a uno",
+                avisos.size(), e.status());
+            return enviarDeAUno(avisos);
+        }
+
+        registrarEnvio(avisos);
+        return avisos.size();
+    }
+
+    /**
+     * Reenviar un lote rechazado aviso por aviso: se descartan los rechazados y se marcan
+     * los enviados. Ante una falla que no es un rechazo, ese aviso y los que faltan
+     * quedan pendientes con un intento más.
+     */
+    private int enviarDeAUno(List<AvisoPedido> avisos) {
+        List<AvisoPedido> enviados = new ArrayList<>();
+        for (int i = 0; i < avisos.size(); i++) {
+            AvisoPedido aviso = avisos.get(i);
+            try {
+                enviar(List.of(aviso));
+                enviados.add(aviso);
+            } catch (FeignException e) {
+                if (!rechazado(e)) {
+                    registrarEnvio(enviados);
+                    registrarFallo(avisos.subList(i, avisos.size()), e);
+                    return 0;
+                }
+                outboxRepository.descartar(aviso.getId(), e.getMessage());
+                meterRegistry.counter("pedidos.outbox.avisos", "resultado", "descartado").increment();
+                logger.warn("Aviso {} del pedido {} descartado, Notification Service lo rechazó ({}): {}",
+                    aviso.getId(), aviso.getPedidoId(), e.status(), e.getMessage());
+            }
+        }
+        registrarEnvio(enviados);
+        return avisos.size();
+    }
+
+    private void enviar(List<AvisoPedido> avisos) {
+        notificacionClient.enviarEmails(new NotificacionLoteDTO(avisos.stream()
+            .map(aviso -> new NotificacionDTO(aviso.getDestinatario(), aviso.getAsunto(), aviso.getMensaje(),
+                "NORMAL", "pedidos-outbox-" + aviso.getId()))
+            .collect(Collectors.toList())));
+    }
+
+    private void registrarEnvio(List<AvisoPedido> avisos) {
+        espera = Duration.ZERO;
+        if (avisos.isEmpty()) {
+            return;
+        }
+        outboxRepository.marcarEnviados(avisos.stream().map(AvisoPedido::getId).collect(Collectors.toList()));
+        LocalDateTime ahora = LocalDateTime.now();
+        avisos.forEach(aviso -> demora.record(Duration.between(aviso.getFechaCreacion(), ahora)));
+        meterRegistry.counter("pedidos.outbox.avisos", "resultado", "ok").increment(avisos.size());
+        logger.debug("Enviados {} avisos de pedidos", avisos.size());
+    }
+
+    private void registrarFallo(List<AvisoPedido> avisos, FeignException e) {
+        List<Long> ids = avisos.stream().map(AvisoPedido::getId).collect(Collectors.toList());
+        int descartados = outboxRepository.registrarFallo(ids, maximoIntentos, e.getMessage());
+        meterRegistry.counter("pedidos.outbox.avisos", "resultado", "error").increment(avisos.size());
+        if (descartados > 0) {
+            meterRegistry.counter("pedidos.outbox.avisos", "resultado", "descartado").increment(descartados);
+            logger.warn("{} avisos de pedidos descartados tras {} intentos", descartados, maximoIntentos);
+        }
+        espera = espera.isZero() ? intervalo : min(espera.multipliedBy(2), esperaMaxima);
+        reanudarEn = System.nanoTime() + espera.toNanos();
+        logger.warn("No se pudieron enviar {} avisos de pedidos (reintento en {} ms): {}",
+            avisos.size(), espera.toMillis(), e.getMessage());
+    }
+
+    /**
+     * Un 4xx indica que la petición es inválida y reintentarla no cambia el resultado;
+     * 408 y 429 son la excepción. Sin respuesta (status negativo) es una falla de red.
+     */
+    private static boolean rechazado(FeignException e) {
+        int status = e.status();
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    /**
+     * Borrar los avisos enviados o descartados hace más que la retención configurada
+     */
+    @Scheduled(fixedDelayString = "${pedidos.outbox.purga-ms:3600000}")
+    public void purgar() {
+        try {
+            int borrados = outboxRepository.purgarAntesDe(LocalDateTime.now().minus(retencion));
+            if (borrados > 0) {
+                logger.info("Purgados {} avisos enviados o descartados del outbox de pedidos", borrados);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo purgar el outbox de pedidos: {}", e.getMessage());
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,66 @@
+package uy.bcu.order.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uy.bcu.order.model.AvisoPedido;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+import uy.bcu.order.model.PedidoItem;
+import uy.bcu.order.repository.PedidoOutboxRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Registra en el outbox los avisos al usuario sobre sus pedidos.
+ * Se llama siempre dentro de la transacción que crea el pedido o cambia su estado:
+ * el aviso existe si y solo si el cambio se confirmó. PedidoNotificador los envía después.
+ */
+@Component
+public class PedidoOutbox {
+
+    private final PedidoOutboxRepository outboxRepository;
+
+    public PedidoOutbox(PedidoOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCreacion(Pedido pedido) {
+        if (pedido.getEmailContacto() == null) {
+            return;
+        }
+        int unidades = pedido.getItems().stream().mapToInt(PedidoItem::getCantidad).sum();
+        outboxRepository.registrar(List.of(new AvisoPedido(pedido.getId(), "PEDIDO_CREADO",
+            pedido.getEmailContacto(), "Pedido recibido",
+            "Recibimos tu pedido N° " + pedido.getId() + " de " + unidades + " productos por un total de "
+                + pedido.getTotal())));
+    }
+
+    /**
+     * Registrar el aviso de cambio de estado de varios pedidos en un solo batch
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambiosEstado(List<Pedido> pedidos, EstadoPedido nuevo) {
+        outboxRepository.registrar(pedidos.stream()
+            .filter(pedido -> pedido.getEmailContacto() != null)
+            .map(pedido -> new AvisoPedido(pedido.getId(), "PEDIDO_" + nuevo.name(), pedido.getEmailContacto(),
+                "Pedido N° " + pedido.getId() + " " + descripcion(nuevo),
+                "Tu pedido N° " + pedido.getId() + " " + descripcion(nuevo) + "."))
+            .collect(Collectors.toList()));
+    }
+
+    private static String descripcion(EstadoPedido estado) {
+        switch (estado) {
+            case PROCESANDO:
+                return "está en preparación";
+            case COMPLETADO:
+                return "fue completado";
+            case CANCELADO:
+                return "fue cancelado";
+            default:
+                return "está pendiente";
+        }
+    }
+}
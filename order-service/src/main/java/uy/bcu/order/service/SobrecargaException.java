@@ -0,0 +1,11 @@
+package uy.bcu.order.service;
+
+/**
+ * No hay capacidad para hacer las llamadas a otros servicios que requiere el pedido
+ */
+public class SobrecargaException extends RuntimeException {
+
+    public SobrecargaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
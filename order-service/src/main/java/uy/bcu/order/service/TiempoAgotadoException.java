@@ -0,0 +1,11 @@
+package uy.bcu.order.service;
+
+/**
+ * Un servicio del que depende el pedido no respondió dentro del tiempo asignado
+ */
+public class TiempoAgotadoException extends RuntimeException {
+
+    public TiempoAgotadoException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,224 @@
+package uy.bcu.order.concurrent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SerieAcumuladaTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 3, 10, 12, 0, 30);
+
+    private AtomicReference<LocalDateTime> reloj;
+    private SerieAcumulada serie;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicReference<>(INICIO);
+        serie = new SerieAcumulada(ChronoUnit.MINUTES, 10, reloj::get);
+    }
+
+    @Test
+    void totalDesde_debeSumarLosPeriodosDesdeElQueContieneLaFecha() {
+        // Given
+        serie.sumar(ahora(), 3, 300);
+        serie.sumar(ahora().minusMinutes(2), 2, 200);
+        serie.sumar(ahora().minusMinutes(5), 1, 100);
+
+        // Then
+        assertTotal(serie.totalDesde(ahora()), 3, 300);
+        // el período se toma completo aunque la fecha caiga en su mitad
+        assertTotal(serie.totalDesde(ahora().minusMinutes(2).plusSeconds(25)), 5, 500);
+        assertTotal(serie.totalDesde(ahora().minusMinutes(4)), 5, 500);
+        assertTotal(serie.totalDesde(ahora().minusMinutes(5)), 6, 600);
+    }
+
+    @Test
+    void sumar_conValoresNegativosDebeRestar() {
+        // Given
+        serie.sumar(ahora(), 2, 1_000);
+
+        // When: un pedido cancelado descuenta del período en que se creó
+        serie.sumar(ahora(), -1, -400);
+
+        // Then
+        assertTotal(serie.totalDesde(ahora()), 1, 600);
+    }
+
+    @Test
+    void totalDesde_debeLimitarseALaVentana() {
+        // Given: la ventana va del minuto -9 al actual
+        serie.sumar(ahora().minusMinutes(9), 4, 40);
+        serie.sumar(ahora(), 1, 10);
+
+        // Then
+        assertThat(serie.inicioVentana()).isEqualTo(LocalDateTime.of(2024, 3, 10, 11, 51));
+        assertTotal(serie.totalDesde(serie.inicioVentana()), 5, 50);
+        assertTotal(serie.totalDesde(serie.inicioVentana().plusMinutes(1)), 1, 10);
+        assertTotal(serie.totalDesde(ahora().minusDays(1)), 5, 50);
+
+        // When: el minuto -9 sale de la ventana aunque su casillero todavía no se reutilizó
+        avanzar(1);
+
+        // Then
+        assertThat(serie.inicioVentana()).isEqualTo(LocalDateTime.of(2024, 3, 10, 11, 52));
+        assertTotal(serie.totalDesde(ahora().minusDays(1)), 1, 10);
+        assertThat(serie.instantanea()).containsOnlyKeys(LocalDateTime.of(2024, 3, 10, 12, 0));
+    }
+
+    @Test
+    void sumar_debeIgnorarPeriodosFueraDeLaVentana() {
+        // When
+        serie.sumar(ahora().minusMinutes(10), 7, 70);
+
+        // Then
+        assertTotal(serie.totalDesde(ahora().minusDays(1)), 0, 0);
+        assertThat(serie.instantanea()).isEmpty();
+    }
+
+    @Test
+    void sumar_debeReiniciarElCasilleroAlReutilizarlo() {
+        // Given
+        serie.sumar(ahora(), 4, 400);
+
+        // When: la misma posición del buffer corresponde ahora a otro período
+        avanzar(10);
+        serie.sumar(ahora(), 1, 100);
+
+        // Then
+        assertTotal(serie.totalDesde(ahora().minusDays(1)), 1, 100);
+        assertThat(serie.instantanea()).containsOnlyKeys(LocalDateTime.of(2024, 3, 10, 12, 10));
+    }
+
+    @Test
+    void sumar_debeIgnorarRegistrosDeUnPeriodoYaReemplazado() {
+        // Given: un hilo leyó el reloj justo antes de que el casillero pasara a un período nuevo
+        LocalDateTime lecturaAtrasada = ahora();
+        avanzar(10);
+        serie.sumar(ahora(), 1, 100);
+
+        // When
+        LocalDateTime actual = reloj.getAndSet(lecturaAtrasada);
+        serie.sumar(lecturaAtrasada, 5, 500);
+        reloj.set(actual);
+
+        // Then
+        assertTotal(serie.totalDesde(ahora()), 1, 100);
+    }
+
+    @Test
+    void instantanea_debeIndexarPorInicioDePeriodo() {
+        // Given
+        SerieAcumulada porDia = new SerieAcumulada(ChronoUnit.DAYS, 31, reloj::get);
+        porDia.sumar(ahora(), 2, 20);
+        porDia.sumar(ahora().minusDays(1).withHour(23), 1, 10);
+
+        // When
+        Map<LocalDateTime, SerieAcumulada.Total> instantanea = porDia.instantanea();
+
+        // Then
+        assertThat(instantanea).containsOnlyKeys(LocalDateTime.of(2024, 3, 10, 0, 0),
+            LocalDateTime.of(2024, 3, 9, 0, 0));
+        assertTotal(instantanea.get(LocalDateTime.of(2024, 3, 9, 0, 0)), 1, 10);
+        assertThat(porDia.inicioVentana()).isEqualTo(LocalDateTime.of(2024, 2, 9, 0, 0));
+    }
+
+    @Test
+    void constructor_debeRechazarUnidadesNoSoportadas() {
+        assertThatThrownBy(() -> new SerieAcumulada(ChronoUnit.SECONDS, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SerieAcumulada(ChronoUnit.WEEKS, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sumar_noDebePerderRegistrosConcurrentes() throws Exception {
+        // Given
+        int hilos = 8;
+        int porHilo = 10_000;
+
+        // When
+        concurrentemente(hilos, indice -> {
+            for (int j = 0; j < porHilo; j++) {
+                serie.sumar(ahora(), 1, 5);
+            }
+        });
+
+        // Then
+        assertTotal(serie.totalDesde(ahora()), (long) hilos * porHilo, 5L * hilos * porHilo);
+    }
+
+    @Test
+    void sumar_noDebePerderRegistrosAlReutilizarCasillerosConcurrentemente() throws Exception {
+        // Given: todos los casilleros tienen valores de períodos que ya salieron de la ventana
+        for (int minuto = 0; minuto < 10; minuto++) {
+            serie.sumar(ahora().minusMinutes(minuto), 1_000, 1_000);
+        }
+        avanzar(10);
+        int hilos = 8;
+        int porHilo = 5_000;
+
+        // When: cada hilo recorre los diez minutos nuevos, así compiten por reiniciar cada casillero
+        concurrentemente(hilos, indice -> {
+            for (int j = 0; j < porHilo; j++) {
+                serie.sumar(ahora().minusMinutes((indice + j) % 10), 1, 2);
+            }
+        });
+
+        // Then: no queda nada de los períodos viejos ni se pierde ningún registro nuevo
+        assertTotal(serie.totalDesde(ahora().minusDays(1)), (long) hilos * porHilo, 2L * hilos * porHilo);
+        assertThat(serie.instantanea()).hasSize(10);
+    }
+
+    private interface Tarea {
+        void ejecutar(int indice);
+    }
+
+    private static void concurrentemente(int hilos, Tarea tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                int indice = i;
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    tarea.ejecutar(indice);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> futuro : tareas) {
+                futuro.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private LocalDateTime ahora() {
+        return reloj.get();
+    }
+
+    private void avanzar(int minutos) {
+        reloj.updateAndGet(instante -> instante.plusMinutes(minutos));
+    }
+
+    private static void assertTotal(SerieAcumulada.Total total, long pedidos, long centavos) {
+        assertThat(total.getPedidos()).isEqualTo(pedidos);
+        assertThat(total.getCentavos()).isEqualTo(centavos);
+    }
+}
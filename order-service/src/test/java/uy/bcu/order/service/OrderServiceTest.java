@@ -0,0 +1,299 @@
+package uy.bcu.order.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.client.ProductoClient;
+import uy.bcu.order.client.UsuarioClient;
+import uy.bcu.order.dto.OrderCreateDTO;
+import uy.bcu.order.dto.OrderDTO;
+import uy.bcu.order.dto.ProductoDTO;
+import uy.bcu.order.dto.ReservaCreateDTO;
+import uy.bcu.order.dto.ReservaDTO;
+import uy.bcu.order.dto.UsuarioDTO;
+import uy.bcu.order.model.Pedido;
+import uy.bcu.order.repository.PedidoRepository;
+import uy.bcu.order.repository.ReservaStockRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private PedidoOutbox pedidoOutbox;
+
+    @Mock
+    private ReservaStockRepository reservaStockRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProductoClient productoClient;
+
+    @Mock
+    private UsuarioClient usuarioClient;
+
+    // Las tareas se delegan a un pool real; cada prueba puede hacer que rechace
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().doAnswer(invocacion -> {
+            pool.execute(invocacion.getArgument(0));
+            return null;
+        }).when(executor).execute(any());
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocacion -> ((TransactionCallback<OrderDTO>) invocacion.getArgument(0)).doInTransaction(null));
+        lenient().when(pedidoRepository.save(any())).thenAnswer(invocacion -> {
+            Pedido pedido = invocacion.getArgument(0);
+            pedido.setId(100L);
+            return pedido;
+        });
+        lenient().when(reservaStockRepository.confirmar(anyList()))
+            .thenAnswer(invocacion -> invocacion.<List<String>>getArgument(0).size());
+        lenient().when(usuarioClient.obtenerUsuario(10L))
+            .thenReturn(new UsuarioDTO(10L, "Juan Pérez", "juan@bcu.gub.uy", true));
+        lenient().when(productoClient.obtenerProductos(any()))
+            .thenReturn(List.of(producto(1L, 10.0), producto(2L, 25.5)));
+        lenient().when(productoClient.reservar(any()))
+            .thenAnswer(invocacion -> reserva(invocacion.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private OrderService servicio(Duration timeoutUsuario, Duration timeoutProductos) {
+        return new OrderService(pedidoRepository, pedidoOutbox, reservaStockRepository, transactionTemplate,
+            productoClient, usuarioClient, executor, eventPublisher, new SimpleMeterRegistry(),
+            timeoutUsuario, timeoutProductos);
+    }
+
+    private static ProductoDTO producto(Long id, double precio) {
+        return new ProductoDTO(id, "Producto " + id, precio, 50);
+    }
+
+    private static ReservaDTO reserva(ReservaCreateDTO solicitud) {
+        return new ReservaDTO("reserva-" + solicitud.getProductoId(), solicitud.getProductoId(),
+            solicitud.getCantidad(), Instant.now().plusSeconds(60));
+    }
+
+    @Test
+    void crearPedido_debeGuardarElPedidoYConfirmarLasReservasEnLaTransaccion() {
+        // Given: el producto 1 se repite, cuenta como dos unidades
+        OrderCreateDTO dto = new OrderCreateDTO(10L, List.of(1L, 2L, 1L));
+
+        // When
+        OrderDTO creado = servicio(TIMEOUT, TIMEOUT).crearPedido(dto);
+
+        // Then
+        assertThat(creado.getId()).isEqualTo(100L);
+        assertThat(creado.getNombreUsuario()).isEqualTo("Juan Pérez");
+        assertThat(creado.getTotal()).isEqualByComparingTo("45.50");
+        verify(productoClient).reservar(argThat(r -> r.getProductoId() == 1L && r.getCantidad() == 2));
+        verify(productoClient).reservar(argThat(r -> r.getProductoId() == 2L && r.getCantidad() == 1));
+        verify(reservaStockRepository).confirmar(List.of("reserva-1", "reserva-2"));
+        verify(pedidoOutbox).registrarCreacion(any());
+        verify(eventPublisher).publishEvent(any(PedidoCreadoEvent.class));
+        verify(productoClient, never()).liberarReserva(anyString());
+    }
+
+    @Test
+    void crearPedido_debePedirUsuarioYProductosEnParalelo() {
+        // Given: cada llamada espera a que la otra haya empezado
+        CountDownLatch ambas = new CountDownLatch(2);
+        when(usuarioClient.obtenerUsuario(10L)).thenAnswer(invocacion -> {
+            ambas.countDown();
+            assertThat(ambas.await(1, TimeUnit.SECONDS)).isTrue();
+            return new UsuarioDTO(10L, "Juan Pérez", "juan@bcu.gub.uy", true);
+        });
+        when(productoClient.obtenerProductos(any())).thenAnswer(invocacion -> {
+            ambas.countDown();
+            assertThat(ambas.await(1, TimeUnit.SECONDS)).isTrue();
+            return List.of(producto(1L, 10.0));
+        });
+
+        // When
+        OrderDTO creado = servicio(TIMEOUT, TIMEOUT).crearPedido(new OrderCreateDTO(10L, List.of(1L)));
+
+        // Then
+        assertThat(creado.getId()).isEqualTo(100L);
+        assertThat(ambas.getCount()).isZero();
+    }
+
+    @Test
+    void crearPedido_debeFallarSinEsperarALaOtraDependencia() {
+        // Given: el usuario no existe y los productos tardan
+        doThrow(FeignException.NotFound.class).when(usuarioClient).obtenerUsuario(10L);
+        when(productoClient.obtenerProductos(any())).thenAnswer(invocacion -> {
+            Thread.sleep(1500);
+            return List.of(producto(1L, 10.0));
+        });
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When
+        long inicio = System.nanoTime();
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Usuario no encontrado");
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofMillis(1000));
+        verify(productoClient, never()).reservar(any());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void crearPedido_debeAgotarElTiempoDeCadaDependenciaPorSeparado() {
+        // Given: usuario-service tarda más que su timeout
+        when(usuarioClient.obtenerUsuario(10L)).thenAnswer(invocacion -> {
+            Thread.sleep(1000);
+            return new UsuarioDTO(10L, "Juan Pérez", "juan@bcu.gub.uy", true);
+        });
+        OrderService servicio = servicio(Duration.ofMillis(100), TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L))))
+            .isInstanceOf(TiempoAgotadoException.class)
+            .hasMessageContaining("usuario-service");
+        verify(productoClient, never()).reservar(any());
+    }
+
+    @Test
+    void crearPedido_debeRechazarSiElPoolEstaSaturado() {
+        // Given
+        doThrow(new RejectedExecutionException("pool lleno")).when(executor).execute(any());
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L))))
+            .isInstanceOf(SobrecargaException.class);
+        verify(usuarioClient, never()).obtenerUsuario(any());
+        verify(productoClient, never()).reservar(any());
+    }
+
+    @Test
+    void crearPedido_debeLiberarLasReservasObtenidasSiOtraFalla() {
+        // Given: no hay stock del producto 2
+        FeignException.Conflict sinStock = mock(FeignException.Conflict.class);
+        doAnswer(invocacion -> {
+            ReservaCreateDTO solicitud = invocacion.getArgument(0);
+            if (solicitud.getProductoId() == 2L) {
+                throw sinStock;
+            }
+            return reserva(solicitud);
+        }).when(productoClient).reservar(any());
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L, 2L))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Stock insuficiente para el producto 2");
+        verify(productoClient).liberarReserva("reserva-1");
+        verify(productoClient, never()).liberarReserva("reserva-2");
+        verify(pedidoRepository, never()).save(any());
+    }
+
+    @Test
+    void crearPedido_debeLiberarLasReservasSiUnaVencioAntesDeGuardar() {
+        // Given: solo una de las dos reservas sigue pendiente
+        when(reservaStockRepository.confirmar(anyList())).thenReturn(1);
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L, 2L))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("venció");
+        verify(productoClient).liberarReserva("reserva-1");
+        verify(productoClient).liberarReserva("reserva-2");
+        verify(pedidoOutbox, never()).registrarCreacion(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void crearPedido_debeLiberarLasReservasSiFallaLaTransaccion() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("sin conexión")).when(pedidoRepository).save(any());
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L, 2L))))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        ArgumentCaptor<String> liberadas = ArgumentCaptor.forClass(String.class);
+        verify(productoClient, times(2)).liberarReserva(liberadas.capture());
+        assertThat(liberadas.getAllValues()).containsExactlyInAnyOrder("reserva-1", "reserva-2");
+        verify(reservaStockRepository, never()).confirmar(anyList());
+    }
+
+    @Test
+    void crearPedido_debeSeguirAunqueNoSePuedaLiberarUnaReserva() {
+        // Given: falla la transacción y Product Service no responde al liberar
+        when(reservaStockRepository.confirmar(anyList())).thenReturn(0);
+        doThrow(FeignException.class).when(productoClient).liberarReserva("reserva-1");
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then: se intenta liberar la otra y se propaga el error original
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L, 2L))))
+            .isInstanceOf(IllegalStateException.class);
+        verify(productoClient).liberarReserva("reserva-2");
+    }
+
+    @Test
+    void crearPedido_debeRechazarProductosInexistentes() {
+        // Given: Product Service no devuelve el producto 3
+        OrderService servicio = servicio(TIMEOUT, TIMEOUT);
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.crearPedido(new OrderCreateDTO(10L, List.of(1L, 3L))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Producto no encontrado: 3");
+        verify(productoClient, never()).reservar(any());
+    }
+}
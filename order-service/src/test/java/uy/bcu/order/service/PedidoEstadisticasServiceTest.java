@@ -0,0 +1,198 @@
+package uy.bcu.order.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.dto.OrderDTO;
+import uy.bcu.order.dto.PedidoEstadisticasDTO;
+import uy.bcu.order.repository.PedidoRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PedidoEstadisticasServiceTest {
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PedidoEstadisticasService estadisticas;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().doAnswer(invocacion -> {
+            ((Consumer<TransactionStatus>) invocacion.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(pedidoRepository.contarPorEstado()).thenReturn(List.of());
+        lenient().when(pedidoRepository.ventasPorPeriodo(anyString(), any())).thenReturn(List.of());
+
+        estadisticas = new PedidoEstadisticasService(pedidoRepository, transactionTemplate,
+            new SimpleMeterRegistry(), Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static OrderDTO pedido(String estado, String total) {
+        OrderDTO pedido = new OrderDTO();
+        pedido.setEstado(estado);
+        pedido.setTotal(new BigDecimal(total));
+        pedido.setFechaPedido(LocalDateTime.now());
+        return pedido;
+    }
+
+    private static Object[] ventas(LocalDateTime periodo, long pedidos, String importe) {
+        return new Object[]{Timestamp.valueOf(periodo), pedidos, new BigDecimal(importe)};
+    }
+
+    @Test
+    void reconciliarTodo_debeReconstruirLosContadoresDesdeLaBase() {
+        // Given
+        LocalDateTime minuto = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        when(pedidoRepository.contarPorEstado()).thenReturn(List.of(
+            new Object[]{"PENDIENTE", 3L}, new Object[]{"CANCELADO", 1L}));
+        when(pedidoRepository.ventasPorPeriodo(eq("MI"), any()))
+            .thenReturn(List.<Object[]>of(ventas(minuto, 3, "30.00")));
+        when(pedidoRepository.ventasPorPeriodo(eq("DD"), any()))
+            .thenReturn(List.<Object[]>of(ventas(minuto.truncatedTo(ChronoUnit.DAYS), 3, "30.00")));
+
+        // When
+        estadisticas.reconciliarTodo();
+
+        // Then
+        PedidoEstadisticasDTO resultado = estadisticas.obtenerEstadisticas();
+        assertThat(resultado.getPedidosPendientes()).isEqualTo(3);
+        assertThat(resultado.getPedidosCancelados()).isEqualTo(1);
+        assertThat(resultado.getVentasUltimaHora()).isEqualByComparingTo("30.00");
+        assertThat(resultado.getVentasHoy()).isEqualByComparingTo("30.00");
+        assertThat(resultado.getUltimaReconciliacion()).isNotNull();
+        verify(pedidoRepository).fijarInstantanea();
+    }
+
+    @Test
+    void alCrearPedido_debeAplicarseSoloSiLaTransaccionConfirma() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.alCrearPedido(new PedidoCreadoEvent(pedido("PENDIENTE", "10.00")));
+        estadisticas.alCrearPedido(new PedidoCreadoEvent(pedido("PENDIENTE", "20.00")));
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(estadisticas.obtenerEstadisticas().getPedidosPendientes()).isZero();
+
+        // When
+        sincronizaciones.get(0).beforeCommit(false);
+        sincronizaciones.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        sincronizaciones.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        PedidoEstadisticasDTO resultado = estadisticas.obtenerEstadisticas();
+        assertThat(resultado.getPedidosPendientes()).isEqualTo(1);
+        assertThat(resultado.getVentasHoy()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void reconciliarTodo_noDebeDuplicarPedidosConfirmadosDespuesDeLaInstantanea() {
+        // Given: el pedido confirma mientras corren las consultas, así que la instantánea
+        // de la base no lo ve pero la memoria sí
+        when(pedidoRepository.contarPorEstado()).thenAnswer(invocacion -> {
+            estadisticas.alCrearPedido(new PedidoCreadoEvent(pedido("PENDIENTE", "10.00")));
+            return List.of();
+        });
+
+        // When
+        estadisticas.reconciliarTodo();
+
+        // Then
+        PedidoEstadisticasDTO resultado = estadisticas.obtenerEstadisticas();
+        assertThat(resultado.getPedidosPendientes()).isEqualTo(1);
+        assertThat(resultado.getVentasHoy()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void reconciliarTodo_debeEsperarALosCommitsEnCursoAntesDeFijarLaInstantanea() throws Exception {
+        // Given: un pedido de esta réplica pasó beforeCommit pero todavía no se aplicó
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.alCrearPedido(new PedidoCreadoEvent(pedido("PENDIENTE", "10.00")));
+        TransactionSynchronization sincronizacion = TransactionSynchronizationManager.getSynchronizations().get(0);
+        sincronizacion.beforeCommit(false);
+
+        Thread reconciliacion = new Thread(estadisticas::reconciliarTodo);
+        reconciliacion.start();
+        Thread.sleep(200);
+        verify(pedidoRepository, never()).fijarInstantanea();
+
+        // When
+        when(pedidoRepository.contarPorEstado()).thenReturn(List.<Object[]>of(new Object[]{"PENDIENTE", 1L}));
+        sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        reconciliacion.join(5000);
+
+        // Then
+        verify(pedidoRepository).fijarInstantanea();
+        assertThat(estadisticas.obtenerEstadisticas().getPedidosPendientes()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliarRecientes_debeConsultarSoloLaVentanaYAplicarlaATodasLasSeries() {
+        // Given
+        LocalDateTime minuto = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        List<LocalDateTime> desde = new ArrayList<>();
+        when(pedidoRepository.ventasPorPeriodo(eq("MI"), any())).thenAnswer(invocacion -> {
+            desde.add(invocacion.getArgument(1));
+            return List.<Object[]>of(ventas(minuto, 2, "25.50"));
+        });
+
+        // When
+        estadisticas.reconciliarRecientes();
+
+        // Then
+        assertThat(desde).hasSize(1);
+        assertThat(desde.get(0)).isAfterOrEqualTo(minuto.minusMinutes(11));
+        verify(pedidoRepository, never()).contarPorEstado();
+        verify(pedidoRepository, never()).ventasPorPeriodo(eq("HH"), any());
+        PedidoEstadisticasDTO resultado = estadisticas.obtenerEstadisticas();
+        assertThat(resultado.getVentasUltimaHora()).isEqualByComparingTo("25.50");
+        assertThat(resultado.getVentasUltimas24Horas()).isEqualByComparingTo("25.50");
+        assertThat(resultado.getVentasHoy()).isEqualByComparingTo("25.50");
+        assertThat(resultado.getPedidosHoy()).isEqualTo(2);
+    }
+
+    @Test
+    void constructor_debeRechazarUnaVentanaMayorQueLaSeriePorMinuto() {
+        assertThatThrownBy(() -> new PedidoEstadisticasService(pedidoRepository, transactionTemplate,
+            new SimpleMeterRegistry(), Duration.ofHours(2)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
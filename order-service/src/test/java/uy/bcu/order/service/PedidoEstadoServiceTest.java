@@ -0,0 +1,200 @@
+package uy.bcu.order.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uy.bcu.order.dto.CambioEstadoDTO;
+import uy.bcu.order.dto.PedidoEstadoLoteResultadoDTO;
+import uy.bcu.order.model.EstadoPedido;
+import uy.bcu.order.model.Pedido;
+import uy.bcu.order.repository.PedidoRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PedidoEstadoServiceTest {
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private PedidoOutbox pedidoOutbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PedidoEstadoService pedidoEstadoService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pedidoEstadoService = new PedidoEstadoService(pedidoRepository, pedidoOutbox, eventPublisher, meterRegistry);
+    }
+
+    private Pedido pedido(Long id, EstadoPedido estado) {
+        Pedido pedido = new Pedido(10L, new BigDecimal("150.00"), estado);
+        pedido.setId(id);
+        return pedido;
+    }
+
+    private double conflictos() {
+        return meterRegistry.counter("pedidos.estado.conflictos").count();
+    }
+
+    @Test
+    void cambiarEstado_debeAplicarLaTransicionConUnUpdateCondicionado() {
+        // Given
+        Pedido pedido = pedido(1L, EstadoPedido.PENDIENTE);
+        when(pedidoRepository.findById(1L)).thenReturn(Optional.of(pedido));
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PENDIENTE, EstadoPedido.PROCESANDO)).thenReturn(1);
+
+        // When
+        Optional<CambioEstadoDTO> cambio = pedidoEstadoService.cambiarEstado(1L, EstadoPedido.PROCESANDO);
+
+        // Then
+        assertThat(cambio).isPresent();
+        assertThat(cambio.get().getEstadoAnterior()).isEqualTo("PENDIENTE");
+        assertThat(cambio.get().getEstadoNuevo()).isEqualTo("PROCESANDO");
+        verify(pedidoOutbox).registrarCambiosEstado(List.of(pedido), EstadoPedido.PROCESANDO);
+
+        ArgumentCaptor<PedidoEstadoCambiadoEvent> evento = ArgumentCaptor.forClass(PedidoEstadoCambiadoEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().getEstadoAnterior()).isEqualTo(EstadoPedido.PENDIENTE);
+        assertThat(evento.getValue().getEstadoNuevo()).isEqualTo(EstadoPedido.PROCESANDO);
+        assertThat(conflictos()).isZero();
+    }
+
+    @Test
+    void cambiarEstado_debeReintentarConElEstadoNuevoTrasUnConflicto() {
+        // Given: otra solicitud pasó el pedido a PROCESANDO entre la lectura y el UPDATE
+        when(pedidoRepository.findById(1L))
+            .thenReturn(Optional.of(pedido(1L, EstadoPedido.PENDIENTE)))
+            .thenReturn(Optional.of(pedido(1L, EstadoPedido.PROCESANDO)));
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PENDIENTE, EstadoPedido.CANCELADO)).thenReturn(0);
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PROCESANDO, EstadoPedido.CANCELADO)).thenReturn(1);
+
+        // When
+        Optional<CambioEstadoDTO> cambio = pedidoEstadoService.cambiarEstado(1L, EstadoPedido.CANCELADO);
+
+        // Then
+        assertThat(cambio).isPresent();
+        assertThat(cambio.get().getEstadoAnterior()).isEqualTo("PROCESANDO");
+        assertThat(conflictos()).isEqualTo(1.0);
+        verify(eventPublisher, times(1)).publishEvent(any(PedidoEstadoCambiadoEvent.class));
+    }
+
+    @Test
+    void cambiarEstado_debeRechazarLaTransicionSiElEstadoNuevoYaNoLaAdmite() {
+        // Given: el pedido se completó en paralelo y ya no se puede cancelar
+        when(pedidoRepository.findById(1L))
+            .thenReturn(Optional.of(pedido(1L, EstadoPedido.PROCESANDO)))
+            .thenReturn(Optional.of(pedido(1L, EstadoPedido.COMPLETADO)));
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PROCESANDO, EstadoPedido.CANCELADO)).thenReturn(0);
+
+        // When / Then
+        assertThatThrownBy(() -> pedidoEstadoService.cambiarEstado(1L, EstadoPedido.CANCELADO))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("COMPLETADO");
+        verify(pedidoRepository, times(1)).cambiarEstado(any(), any(), any());
+        verify(pedidoOutbox, never()).registrarCambiosEstado(anyList(), any());
+    }
+
+    @Test
+    void cambiarEstado_debeRechazarUnaTransicionInvalidaSinEscribir() {
+        // Given
+        when(pedidoRepository.findById(1L)).thenReturn(Optional.of(pedido(1L, EstadoPedido.CANCELADO)));
+
+        // When / Then
+        assertThatThrownBy(() -> pedidoEstadoService.cambiarEstado(1L, EstadoPedido.PROCESANDO))
+            .isInstanceOf(IllegalStateException.class);
+        verify(pedidoRepository, never()).cambiarEstado(any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void cambiarEstado_debeFallarTrasAgotarLosIntentos() {
+        // Given: el UPDATE nunca afecta filas
+        when(pedidoRepository.findById(1L)).thenReturn(Optional.of(pedido(1L, EstadoPedido.PENDIENTE)));
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PENDIENTE, EstadoPedido.PROCESANDO)).thenReturn(0);
+
+        // When / Then
+        assertThatThrownBy(() -> pedidoEstadoService.cambiarEstado(1L, EstadoPedido.PROCESANDO))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("paralelo");
+        verify(pedidoRepository, times(3)).cambiarEstado(1L, EstadoPedido.PENDIENTE, EstadoPedido.PROCESANDO);
+        assertThat(conflictos()).isEqualTo(3.0);
+        verify(pedidoOutbox, never()).registrarCambiosEstado(anyList(), any());
+    }
+
+    @Test
+    void cambiarEstado_debeRetornarVacioSiElPedidoNoExiste() {
+        // Given
+        when(pedidoRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<CambioEstadoDTO> cambio = pedidoEstadoService.cambiarEstado(99L, EstadoPedido.PROCESANDO);
+
+        // Then
+        assertThat(cambio).isEmpty();
+        verify(pedidoRepository, never()).cambiarEstado(any(), any(), any());
+    }
+
+    @Test
+    void cambiarEstados_debeClasificarCadaPedidoDelLote() {
+        // Given
+        Pedido aplicado = pedido(1L, EstadoPedido.PENDIENTE);
+        Pedido enConflicto = pedido(2L, EstadoPedido.PENDIENTE);
+        Pedido completado = pedido(3L, EstadoPedido.COMPLETADO);
+        when(pedidoRepository.findPorIdsSoloLectura(List.of(1L, 2L, 3L, 4L)))
+            .thenReturn(List.of(aplicado, enConflicto, completado));
+        when(pedidoRepository.cambiarEstados(List.of(aplicado, enConflicto), EstadoPedido.PROCESANDO))
+            .thenReturn(new int[] {1, 0});
+
+        // When: los ids repetidos se procesan una sola vez
+        PedidoEstadoLoteResultadoDTO resultado =
+            pedidoEstadoService.cambiarEstados(List.of(1L, 2L, 3L, 4L, 1L), EstadoPedido.PROCESANDO);
+
+        // Then
+        assertThat(resultado.getActualizados()).containsExactly(1L);
+        assertThat(resultado.getConflictos()).containsExactly(2L);
+        assertThat(resultado.getTransicionInvalida()).containsExactly(3L);
+        assertThat(resultado.getNoEncontrados()).containsExactly(4L);
+        verify(pedidoOutbox).registrarCambiosEstado(List.of(aplicado), EstadoPedido.PROCESANDO);
+        verify(eventPublisher, times(1)).publishEvent(any(PedidoEstadoCambiadoEvent.class));
+        assertThat(conflictos()).isEqualTo(1.0);
+    }
+
+    @Test
+    void cambiarEstados_debeInformarLosNoEncontradosSinPublicarEventos() {
+        // Given
+        when(pedidoRepository.findPorIdsSoloLectura(List.of(5L))).thenReturn(List.of());
+        when(pedidoRepository.cambiarEstados(List.of(), EstadoPedido.CANCELADO)).thenReturn(new int[0]);
+
+        // When
+        PedidoEstadoLoteResultadoDTO resultado = pedidoEstadoService.cambiarEstados(List.of(5L), EstadoPedido.CANCELADO);
+
+        // Then
+        assertThat(resultado.getNoEncontrados()).containsExactly(5L);
+        assertThat(resultado.getActualizados()).isEmpty();
+        verify(pedidoOutbox).registrarCambiosEstado(eq(List.of()), eq(EstadoPedido.CANCELADO));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,301 @@
+package uy.bcu.order.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.order.client.NotificacionClient;
+import uy.bcu.order.dto.NotificacionLoteDTO;
+import uy.bcu.order.model.AvisoPedido;
+import uy.bcu.order.repository.PedidoOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PedidoNotificadorTest {
+
+    private static final int LOTE = 3;
+    private static final int MAXIMO_INTENTOS = 5;
+    private static final long INTERVALO_MS = 100;
+    private static final Duration ESPERA_MAXIMA = Duration.ofMillis(150);
+
+    @Mock
+    private PedidoOutboxRepository outboxRepository;
+
+    @Mock
+    private NotificacionClient notificacionClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PedidoNotificador notificador;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocacion -> ((TransactionCallback<Integer>) invocacion.getArgument(0)).doInTransaction(null));
+        notificador = new PedidoNotificador(outboxRepository, notificacionClient, transactionTemplate, meterRegistry,
+            LOTE, MAXIMO_INTENTOS, INTERVALO_MS, ESPERA_MAXIMA, Duration.ofDays(7));
+    }
+
+    private List<AvisoPedido> avisos(long desde, long hasta) {
+        return LongStream.rangeClosed(desde, hasta).mapToObj(id -> {
+            AvisoPedido aviso = new AvisoPedido(id * 10, "CREADO", "cliente@bcu.gub.uy", "Pedido", "Mensaje");
+            aviso.setId(id);
+            aviso.setFechaCreacion(LocalDateTime.now());
+            return aviso;
+        }).collect(Collectors.toList());
+    }
+
+    private static FeignException respuesta(int status) {
+        FeignException error = mock(FeignException.class);
+        when(error.status()).thenReturn(status);
+        return error;
+    }
+
+    private static List<String> referencias(NotificacionLoteDTO lote) {
+        return lote.getNotificaciones().stream()
+            .map(notificacion -> notificacion.getReferencia())
+            .collect(Collectors.toList());
+    }
+
+    private double avisos(String resultado) {
+        return meterRegistry.counter("pedidos.outbox.avisos", "resultado", resultado).count();
+    }
+
+    @Test
+    void enviarPendientes_debeEnviarElLoteEnUnaLlamadaYMarcarloEnviado() {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 2));
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then
+        ArgumentCaptor<NotificacionLoteDTO> lote = ArgumentCaptor.forClass(NotificacionLoteDTO.class);
+        verify(notificacionClient).enviarEmails(lote.capture());
+        assertThat(lote.getValue().getNotificaciones())
+            .extracting(notificacion -> notificacion.getReferencia())
+            .containsExactly("pedidos-outbox-1", "pedidos-outbox-2");
+        verify(outboxRepository).marcarEnviados(List.of(1L, 2L));
+        verify(outboxRepository, never()).registrarFallo(anyList(), anyInt(), any());
+        assertThat(avisos("ok")).isEqualTo(2.0);
+    }
+
+    @Test
+    void enviarPendientes_debeSeguirMientrasSalganLotesCompletos() {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE))
+            .thenReturn(avisos(1, 3))
+            .thenReturn(avisos(4, 6))
+            .thenReturn(avisos(7, 7));
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then: el lote incompleto corta el ciclo, cada lote en su transacción
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(notificacionClient, times(3)).enviarEmails(any());
+        verify(outboxRepository).marcarEnviados(List.of(7L));
+        assertThat(avisos("ok")).isEqualTo(7.0);
+    }
+
+    @Test
+    void enviarPendientes_noDebeLlamarANotificacionesSinAvisosPendientes() {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(List.of());
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then
+        verify(notificacionClient, never()).enviarEmails(any());
+        verify(outboxRepository, never()).marcarEnviados(anyList());
+    }
+
+    @Test
+    void enviarPendientes_debeRegistrarElFalloYEsperarAntesDeReintentar() throws InterruptedException {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 3));
+        doThrow(FeignException.class).when(notificacionClient).enviarEmails(any());
+
+        // When: tras la falla, la siguiente ejecución programada se saltea
+        notificador.enviarPendientes();
+        notificador.enviarPendientes();
+
+        // Then: no se sigue con otro lote ni se marca como enviado
+        verify(outboxRepository, times(1)).tomarPendientes(LOTE);
+        verify(outboxRepository).registrarFallo(eq(List.of(1L, 2L, 3L)), eq(MAXIMO_INTENTOS), any());
+        verify(outboxRepository, never()).marcarEnviados(anyList());
+        assertThat(avisos("error")).isEqualTo(3.0);
+
+        // When: pasado el intervalo se vuelve a intentar
+        Thread.sleep(INTERVALO_MS + 20);
+        notificador.enviarPendientes();
+
+        // Then
+        verify(outboxRepository, times(2)).tomarPendientes(LOTE);
+    }
+
+    @Test
+    void enviarPendientes_debeDuplicarLaEsperaHastaElMaximo() throws InterruptedException {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 1));
+        doThrow(FeignException.class).when(notificacionClient).enviarEmails(any());
+
+        // When: dos fallas seguidas, la segunda espera el doble acotado a la espera máxima
+        notificador.enviarPendientes();
+        Thread.sleep(INTERVALO_MS + 20);
+        notificador.enviarPendientes();
+        notificador.enviarPendientes();
+        verify(outboxRepository, times(2)).tomarPendientes(LOTE);
+
+        // Then: sin el tope la espera sería de 2 intervalos; con el tope ya se reintenta
+        Thread.sleep(ESPERA_MAXIMA.toMillis() + 20);
+        notificador.enviarPendientes();
+        verify(outboxRepository, times(3)).tomarPendientes(LOTE);
+    }
+
+    @Test
+    void enviarPendientes_debeVolverAlIntervaloTrasUnEnvioExitoso() throws InterruptedException {
+        // Given: falla, envío exitoso y otra falla
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 1));
+        doThrow(FeignException.class)
+            .doNothing()
+            .doThrow(FeignException.class)
+            .when(notificacionClient).enviarEmails(any());
+
+        notificador.enviarPendientes();
+        Thread.sleep(INTERVALO_MS + 20);
+        notificador.enviarPendientes();
+        notificador.enviarPendientes();
+
+        // When: la espera tras la nueva falla vuelve a ser de un intervalo
+        Thread.sleep(INTERVALO_MS + 20);
+        notificador.enviarPendientes();
+
+        // Then
+        verify(notificacionClient, times(4)).enviarEmails(any());
+        verify(outboxRepository, times(1)).marcarEnviados(List.of(1L));
+        verify(outboxRepository, times(3)).registrarFallo(eq(List.of(1L)), eq(MAXIMO_INTENTOS), any());
+    }
+
+    @Test
+    void enviarPendientes_debeDescartarSoloLosAvisosRechazadosDeUnLote() {
+        // Given: Notification Service rechaza el lote por el aviso 2
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 3)).thenReturn(List.of());
+        FeignException rechazo = respuesta(400);
+        doAnswer(invocacion -> {
+            if (referencias(invocacion.getArgument(0)).contains("pedidos-outbox-2")) {
+                throw rechazo;
+            }
+            return null;
+        }).when(notificacionClient).enviarEmails(any());
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then: el lote completo y luego cada aviso por separado; el lote cuenta como
+        // procesado y se sigue con el siguiente
+        verify(notificacionClient, times(4)).enviarEmails(any());
+        verify(outboxRepository, times(2)).tomarPendientes(LOTE);
+        verify(outboxRepository).descartar(eq(2L), any());
+        verify(outboxRepository).marcarEnviados(List.of(1L, 3L));
+        verify(outboxRepository, never()).registrarFallo(anyList(), anyInt(), any());
+        assertThat(avisos("ok")).isEqualTo(2.0);
+        assertThat(avisos("descartado")).isEqualTo(1.0);
+    }
+
+    @Test
+    void enviarPendientes_debeReintentarLosRestantesSiFallaElEnvioDeAUno() {
+        // Given: rechazo del lote y luego Notification Service deja de responder
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 3));
+        FeignException rechazo = respuesta(422);
+        FeignException sinServicio = respuesta(503);
+        doThrow(rechazo)
+            .doNothing()
+            .doThrow(sinServicio)
+            .when(notificacionClient).enviarEmails(any());
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then: el aviso 3 no se llega a enviar y queda pendiente con el 2
+        verify(notificacionClient, times(3)).enviarEmails(any());
+        verify(outboxRepository).marcarEnviados(List.of(1L));
+        verify(outboxRepository).registrarFallo(eq(List.of(2L, 3L)), eq(MAXIMO_INTENTOS), any());
+        verify(outboxRepository, never()).descartar(any(), any());
+        verify(outboxRepository, times(1)).tomarPendientes(LOTE);
+    }
+
+    @Test
+    void enviarPendientes_noDebeSepararElLoteAnteDemasiadasPeticiones() {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 2));
+        FeignException demasiadas = respuesta(429);
+        doThrow(demasiadas).when(notificacionClient).enviarEmails(any());
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then
+        verify(notificacionClient, times(1)).enviarEmails(any());
+        verify(outboxRepository).registrarFallo(eq(List.of(1L, 2L)), eq(MAXIMO_INTENTOS), any());
+        verify(outboxRepository, never()).descartar(any(), any());
+    }
+
+    @Test
+    void enviarPendientes_debeContarLosAvisosQueAgotanLosIntentos() {
+        // Given
+        when(outboxRepository.tomarPendientes(LOTE)).thenReturn(avisos(1, 2));
+        doThrow(FeignException.class).when(notificacionClient).enviarEmails(any());
+        when(outboxRepository.registrarFallo(eq(List.of(1L, 2L)), eq(MAXIMO_INTENTOS), any())).thenReturn(1);
+
+        // When
+        notificador.enviarPendientes();
+
+        // Then
+        assertThat(avisos("error")).isEqualTo(2.0);
+        assertThat(avisos("descartado")).isEqualTo(1.0);
+    }
+
+    @Test
+    void purgar_debeBorrarLosAvisosAnterioresALaRetencion() {
+        // Given
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(outboxRepository.purgarAntesDe(limite.capture())).thenReturn(4);
+
+        // When
+        notificador.purgar();
+
+        // Then
+        assertThat(limite.getValue()).isBefore(LocalDateTime.now().minusDays(7).plusMinutes(1));
+    }
+}
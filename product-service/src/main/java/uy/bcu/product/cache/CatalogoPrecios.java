@@ -0,0 +1,199 @@
+package uy.bcu.product.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Snapshot compacto de precio y stock por ID de producto.
+ *
+ * El índice es una tabla hash de direccionamiento abierto (sondeo lineal) de
+ * long a int sobre arreglos primitivos; el int es la posición del producto en un
+ * ByteBuffer directo (fuera del heap) donde cada registro ocupa 12 bytes: precio
+ * (double) y stock (int). No se crean objetos por producto ni por consulta.
+ *
+ * Las lecturas son optimistas (StampedLock): no bloquean y se reintentan con el
+ * lock de lectura solo si una escritura concurrente las invalidó.
+ */
+public class CatalogoPrecios {
+
+    private static final int BYTES_POR_REGISTRO = Double.BYTES + Integer.BYTES;
+    private static final long VACIO = 0L;
+    private static final int NO_ENCONTRADO = -1;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Tabla tabla;
+
+    public CatalogoPrecios(int capacidadInicial) {
+        this.tabla = new Tabla(Integer.highestOneBit(Math.max(capacidadInicial, 16) - 1) << 1);
+    }
+
+    /**
+     * Consultar varios productos de una vez.
+     * Para cada ID encontrado se completan precios[i] y stocks[i]; para los que no
+     * están en el snapshot precios[i] queda en NaN.
+     *
+     * @return cantidad de IDs encontrados
+     */
+    public int consultar(long[] ids, double[] precios, int[] stocks) {
+        long stamp = lock.tryOptimisticRead();
+        int encontrados = leer(tabla, ids, precios, stocks);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                encontrados = leer(tabla, ids, precios, stocks);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return encontrados;
+    }
+
+    private static int leer(Tabla actual, long[] ids, double[] precios, int[] stocks) {
+        int encontrados = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int posicion = actual.buscar(ids[i]);
+            if (posicion == NO_ENCONTRADO) {
+                precios[i] = Double.NaN;
+                stocks[i] = 0;
+            } else {
+                precios[i] = actual.valores.getDouble(posicion * BYTES_POR_REGISTRO);
+                stocks[i] = actual.valores.getInt(posicion * BYTES_POR_REGISTRO + Double.BYTES);
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Insertar o reemplazar precio y stock de un producto
+     */
+    public void actualizar(long id, double precio, int stock) {
+        validarId(id);
+        long stamp = lock.writeLock();
+        try {
+            int posicion = tabla.buscar(id);
+            if (posicion == NO_ENCONTRADO) {
+                if (tabla.tamanio + 1 > tabla.capacidad / 2) {
+                    tabla = tabla.ampliada();
+                }
+                posicion = tabla.insertar(id);
+            }
+            tabla.valores.putDouble(posicion * BYTES_POR_REGISTRO, precio);
+            tabla.valores.putInt(posicion * BYTES_POR_REGISTRO + Double.BYTES, stock);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sumar una diferencia al stock de un producto ya presente (sin efecto si no está)
+     */
+    public void ajustarStock(long id, int diferencia) {
+        long stamp = lock.writeLock();
+        try {
+            int posicion = tabla.buscar(id);
+            if (posicion != NO_ENCONTRADO) {
+                int offset = posicion * BYTES_POR_REGISTRO + Double.BYTES;
+                tabla.valores.putInt(offset, tabla.valores.getInt(offset) + diferencia);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Cantidad de productos en el snapshot */
+    public int tamanio() {
+        return tabla.tamanio;
+    }
+
+    /** Bytes reservados fuera del heap para los valores */
+    public long bytesFueraDelHeap() {
+        return tabla.valores.capacity();
+    }
+
+    private static void validarId(long id) {
+        if (id == VACIO) {
+            throw new IllegalArgumentException("El ID de producto 0 no es válido");
+        }
+    }
+
+    /**
+     * Índice y valores de una capacidad dada. Al ampliarse se crea una tabla nueva,
+     * así una lectura optimista siempre recorre arreglos y buffer consistentes entre sí.
+     */
+    private static final class Tabla {
+
+        private final int capacidad;
+        private final int mascara;
+        private final long[] claves;
+        private final int[] posiciones;
+        private final ByteBuffer valores;
+        private int tamanio;
+
+        Tabla(int capacidad) {
+            this.capacidad = capacidad;
+            this.mascara = capacidad - 1;
+            this.claves = new long[capacidad];
+            this.posiciones = new int[capacidad];
+            // Con factor de carga 0.5 nunca hay más registros que la mitad de las celdas
+            this.valores = ByteBuffer.allocateDirect(capacidad / 2 * BYTES_POR_REGISTRO);
+        }
+
+        int buscar(long id) {
+            if (id == VACIO) {
+                return NO_ENCONTRADO;
+            }
+            for (int i = indice(id); ; i = (i + 1) & mascara) {
+                long clave = claves[i];
+                if (clave == id) {
+                    return posiciones[i];
+                }
+                if (clave == VACIO) {
+                    return NO_ENCONTRADO;
+                }
+            }
+        }
+
+        int insertar(long id) {
+            int i = indice(id);
+            while (claves[i] != VACIO) {
+                i = (i + 1) & mascara;
+            }
+            int posicion = tamanio++;
+            posiciones[i] = posicion;
+            claves[i] = id;
+            return posicion;
+        }
+
+        Tabla ampliada() {
+            Tabla nueva = new Tabla(capacidad * 2);
+            for (int i = 0; i < capacidad; i++) {
+                if (claves[i] != VACIO) {
+                    int j = nueva.indice(claves[i]);
+                    while (nueva.claves[j] != VACIO) {
+                        j = (j + 1) & nueva.mascara;
+                    }
+                    nueva.claves[j] = claves[i];
+                    nueva.posiciones[j] = posiciones[i];
+                }
+            }
+            ByteBuffer origen = valores.duplicate();
+            origen.clear().limit(tamanio * BYTES_POR_REGISTRO);
+            nueva.valores.put(origen);
+            nueva.valores.clear();
+            nueva.tamanio = tamanio;
+            return nueva;
+        }
+
+        private int indice(long id) {
+            // Mezcla de bits (finalizador de MurmurHash3) para repartir IDs consecutivos
+            long h = id;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return (int) h & mascara;
+        }
+    }
+}
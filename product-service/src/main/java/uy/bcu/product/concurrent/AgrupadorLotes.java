@@ -0,0 +1,122 @@
+package uy.bcu.product.concurrent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Agrupa búsquedas reactivas individuales por clave en cargas por lote (estilo DataLoader).
+ *
+ * Las claves pedidas dentro de una ventana de tiempo se juntan y se resuelven con
+ * una sola consulta (por ejemplo un WHERE id IN (...)); el lote sale antes si
+ * alcanza el tamaño máximo. Las claves que la carga no devuelve terminan vacías.
+ * Cancelar una suscripción no afecta al resto del lote.
+ *
+ * Métrica: lotes.tamanio{nombre}, cantidad de claves por carga.
+ */
+public class AgrupadorLotes<K, V> {
+
+    private final Function<List<K>, Flux<V>> cargaLote;
+    private final Function<V, K> claveDe;
+    private final int maximoLote;
+    private final Duration ventana;
+    private final Scheduler planificador = Schedulers.parallel();
+    private final DistributionSummary tamanioLote;
+
+    private final Object lock = new Object();
+    private Map<K, Sinks.One<V>> pendientes = new LinkedHashMap<>();
+    private Disposable despachoProgramado;
+
+    /**
+     * @param cargaLote resuelve un lote de claves
+     * @param claveDe   clave de cada valor devuelto por la carga
+     */
+    public AgrupadorLotes(String nombre, Function<List<K>, Flux<V>> cargaLote, Function<V, K> claveDe,
+                          Duration ventana, int maximoLote, MeterRegistry meterRegistry) {
+        this.cargaLote = cargaLote;
+        this.claveDe = claveDe;
+        this.ventana = ventana;
+        this.maximoLote = maximoLote;
+        this.tamanioLote = DistributionSummary.builder("lotes.tamanio")
+            .tag("nombre", nombre)
+            .description("Claves resueltas por cada carga de lote")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Pedir una clave; la clave se agrega al lote recién al suscribirse
+     */
+    public Mono<V> cargar(K clave) {
+        return Mono.defer(() -> {
+            Map<K, Sinks.One<V>> lleno = null;
+            Sinks.One<V> resultado;
+            synchronized (lock) {
+                resultado = pendientes.get(clave);
+                if (resultado != null) {
+                    return resultado.asMono();
+                }
+                resultado = Sinks.one();
+                pendientes.put(clave, resultado);
+                if (pendientes.size() >= maximoLote) {
+                    lleno = tomarPendientes();
+                } else if (pendientes.size() == 1) {
+                    despachoProgramado = planificador.schedule(this::despacharVentana,
+                        ventana.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (lleno != null) {
+                despachar(lleno);
+            }
+            return resultado.asMono();
+        });
+    }
+
+    private Map<K, Sinks.One<V>> tomarPendientes() {
+        Map<K, Sinks.One<V>> lote = pendientes;
+        pendientes = new LinkedHashMap<>();
+        if (despachoProgramado != null) {
+            despachoProgramado.dispose();
+            despachoProgramado = null;
+        }
+        return lote;
+    }
+
+    private void despacharVentana() {
+        Map<K, Sinks.One<V>> lote;
+        synchronized (lock) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = tomarPendientes();
+        }
+        despachar(lote);
+    }
+
+    private void despachar(Map<K, Sinks.One<V>> lote) {
+        tamanioLote.record(lote.size());
+        Flux.defer(() -> cargaLote.apply(new ArrayList<>(lote.keySet())))
+            .subscribe(
+                valor -> {
+                    Sinks.One<V> resultado = lote.get(claveDe.apply(valor));
+                    if (resultado != null) {
+                        resultado.tryEmitValue(valor);
+                    }
+                },
+                error -> lote.values().forEach(resultado -> resultado.tryEmitError(error)),
+                // Los que ya recibieron valor ignoran el vacío
+                () -> lote.values().forEach(Sinks.One::tryEmitEmpty));
+    }
+}
@@ -0,0 +1,59 @@
+package uy.bcu.product.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Colapsa consultas reactivas concurrentes con la misma clave en una sola.
+ *
+ * La primera suscripción para una clave dispara la consulta; las que llegan
+ * mientras está en curso reciben el mismo resultado (valor, vacío o error).
+ * Al terminar la clave se libera y la próxima solicitud vuelve a consultar.
+ *
+ * Métricas: singleflight.llamadas{nombre, resultado=ejecutada|colapsada} y
+ * singleflight.en.curso{nombre}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Mono<V>> enCurso = new ConcurrentHashMap<>();
+    private final Counter ejecutadas;
+    private final Counter colapsadas;
+
+    public SingleFlight(String nombre, MeterRegistry meterRegistry) {
+        this.ejecutadas = meterRegistry.counter("singleflight.llamadas", "nombre", nombre, "resultado", "ejecutada");
+        this.colapsadas = meterRegistry.counter("singleflight.llamadas", "nombre", nombre, "resultado", "colapsada");
+        Gauge.builder("singleflight.en.curso", enCurso, Map::size)
+            .tag("nombre", nombre)
+            .description("Claves con una consulta en curso")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Consultar la clave, o sumarse a la consulta que ya está en curso
+     */
+    public Mono<V> ejecutar(K clave, Supplier<Mono<V>> consulta) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<V>> propia = new AtomicReference<>();
+            // La consulta compartida se libera sola al terminar, aunque quien la inició cancele
+            Mono<V> compartida = Mono.defer(consulta)
+                .doFinally(senal -> enCurso.remove(clave, propia.get()))
+                .cache();
+            propia.set(compartida);
+
+            Mono<V> existente = enCurso.putIfAbsent(clave, compartida);
+            if (existente != null) {
+                colapsadas.increment();
+                return existente;
+            }
+            ejecutadas.increment();
+            return compartida;
+        });
+    }
+}
@@ -1,35 +1,93 @@
 package uy.bcu.product.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.dto.ConsultaProductosDTO;
+import uy.bcu.product.dto.PreciosDTO;
 import uy.bcu.product.dto.ProductDTO;
 import uy.bcu.product.dto.ProductCreateDTO;
+import uy.bcu.product.service.CatalogoPreciosService;
+import uy.bcu.product.service.ProductService;
 
 import javax.validation.Valid;
-import java.util.Arrays;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/productos")
 @Tag(name = "Productos", description = "API para gestión de productos")
 public class ProductController {
 
-    @GetMapping
-    @Operation(summary = "Obtener todos los productos")
-    public ResponseEntity<List<ProductDTO>> obtenerTodosLosProductos() {
-        List<ProductDTO> productos = Arrays.asList(
-            new ProductDTO(1L, "Laptop Dell", "Laptop de 15 pulgadas", 999.99, 50),
-            new ProductDTO(2L, "Mouse Logitech", "Mouse inalámbrico", 29.99, 100)
-        );
-        return ResponseEntity.ok(productos);
+    private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+
+    private final ProductService productService;
+    private final CatalogoPreciosService catalogoPreciosService;
+
+    public ProductController(ProductService productService, CatalogoPreciosService catalogoPreciosService) {
+        this.productService = productService;
+        this.catalogoPreciosService = catalogoPreciosService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Obtener todos los productos",
+        description = "Con Accept: application/x-ndjson se envía un producto por línea a medida que llegan de la base")
+    public Flux<ProductDTO> obtenerTodosLosProductos() {
+        logger.info("Solicitud para obtener todos los productos");
+        return productService.obtenerTodosLosProductos();
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener producto por ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    })
+    public Mono<ResponseEntity<ProductDTO>> obtenerProductoPorId(
+            @Parameter(description = "ID del producto")
+            @PathVariable Long id) {
+        logger.info("Solicitud para obtener producto con ID: {}", id);
+        return productService.obtenerProductoPorId(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     @Operation(summary = "Crear nuevo producto")
-    public ResponseEntity<ProductDTO> crearProducto(@Valid @RequestBody ProductCreateDTO dto) {
-        ProductDTO producto = new ProductDTO(999L, dto.getNombre(), dto.getDescripcion(), dto.getPrecio(), dto.getStock());
-        return ResponseEntity.ok(producto);
+    public Mono<ResponseEntity<ProductDTO>> crearProducto(@Valid @RequestBody ProductCreateDTO dto) {
+        logger.info("Solicitud para crear producto: {}", dto.getNombre());
+        return productService.crearProducto(dto)
+            .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/lote")
+    @Operation(summary = "Obtener varios productos por ID",
+        description = "Devuelve en una sola respuesta los productos pedidos; los IDs inexistentes se omiten")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Productos encontrados"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public Flux<ProductDTO> obtenerProductosPorIds(@Valid @RequestBody ConsultaProductosDTO consulta) {
+        logger.debug("Solicitud de {} productos por ID", consulta.getIds().size());
+        return productService.obtenerProductosPorIds(consulta.getIds());
+    }
+
+    @PostMapping("/precios")
+    @Operation(summary = "Consultar precio y stock de varios productos",
+        description = "Se resuelve desde el snapshot en memoria del catálogo; los IDs inexistentes se informan en noEncontrados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consulta realizada"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public Mono<PreciosDTO> consultarPrecios(@Valid @RequestBody ConsultaProductosDTO consulta) {
+        logger.debug("Solicitud de precios para {} productos", consulta.getIds().size());
+        return catalogoPreciosService.consultar(consulta.getIds());
     }
 }
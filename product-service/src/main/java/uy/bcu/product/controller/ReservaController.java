@@ -0,0 +1,90 @@
+package uy.bcu.product.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.dto.ReservaCreateDTO;
+import uy.bcu.product.dto.ReservaDTO;
+import uy.bcu.product.service.ReservaStockService;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/productos/reservas")
+@Tag(name = "Reservas de stock", description = "API para reservar, confirmar y liberar stock de productos")
+public class ReservaController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservaController.class);
+
+    private final ReservaStockService reservaStockService;
+
+    public ReservaController(ReservaStockService reservaStockService) {
+        this.reservaStockService = reservaStockService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Reservar stock de un producto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Reserva creada; vence si no se confirma a tiempo"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Stock insuficiente")
+    })
+    public Mono<ResponseEntity<ReservaDTO>> reservar(@Valid @RequestBody ReservaCreateDTO dto) {
+        logger.info("Solicitud para reservar {} unidades del producto {}", dto.getCantidad(), dto.getProductoId());
+        return reservaStockService.reservar(dto.getProductoId(), dto.getCantidad())
+            .map(reserva -> ResponseEntity.status(HttpStatus.CREATED).body(reserva))
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Error al reservar stock: {}", e.getMessage());
+                return Mono.just(ResponseEntity.notFound().build());
+            })
+            .onErrorResume(IllegalStateException.class, e -> {
+                logger.warn("Error al reservar stock: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+            });
+    }
+
+    @PostMapping("/{id}/confirmacion")
+    @Operation(summary = "Confirmar una reserva")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Reserva confirmada"),
+        @ApiResponse(responseCode = "404", description = "Reserva no encontrada o vencida")
+    })
+    public Mono<ResponseEntity<Void>> confirmar(
+            @Parameter(description = "ID de la reserva")
+            @PathVariable String id) {
+        logger.info("Solicitud para confirmar reserva {}", id);
+        return reservaStockService.confirmar(id)
+            .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Error al confirmar reserva: {}", e.getMessage());
+                return Mono.just(ResponseEntity.notFound().build());
+            });
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Liberar una reserva")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Reserva liberada"),
+        @ApiResponse(responseCode = "404", description = "Reserva no encontrada o vencida")
+    })
+    public Mono<ResponseEntity<Void>> liberar(
+            @Parameter(description = "ID de la reserva")
+            @PathVariable String id) {
+        logger.info("Solicitud para liberar reserva {}", id);
+        return reservaStockService.liberar(id)
+            .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Error al liberar reserva: {}", e.getMessage());
+                return Mono.just(ResponseEntity.notFound().build());
+            });
+    }
+}
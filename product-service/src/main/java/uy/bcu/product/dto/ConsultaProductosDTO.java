@@ -0,0 +1,27 @@
+package uy.bcu.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Schema(description = "IDs de productos a consultar en una sola solicitud")
+public class ConsultaProductosDTO {
+
+    @NotEmpty(message = "Debe indicar al menos un producto")
+    @Size(max = 1000, message = "No se pueden consultar más de 1000 productos por solicitud")
+    @Schema(description = "IDs de los productos", example = "[1, 2, 3]", required = true)
+    private List<@NotNull Long> ids;
+
+    // Constructores
+    public ConsultaProductosDTO() {}
+
+    public ConsultaProductosDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
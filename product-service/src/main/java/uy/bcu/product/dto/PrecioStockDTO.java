@@ -0,0 +1,35 @@
+package uy.bcu.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Precio y stock disponible de un producto")
+public class PrecioStockDTO {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long id;
+
+    @Schema(description = "Precio del producto", example = "1500.00")
+    private Double precio;
+
+    @Schema(description = "Stock disponible en Oracle", example = "10")
+    private Integer stock;
+
+    // Constructores
+    public PrecioStockDTO() {}
+
+    public PrecioStockDTO(Long id, Double precio, Integer stock) {
+        this.id = id;
+        this.precio = precio;
+        this.stock = stock;
+    }
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,29 @@
+package uy.bcu.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Resultado de una consulta de precios y stock")
+public class PreciosDTO {
+
+    @Schema(description = "Productos encontrados")
+    private List<PrecioStockDTO> productos;
+
+    @Schema(description = "IDs consultados que no corresponden a ningún producto", example = "[]")
+    private List<Long> noEncontrados;
+
+    // Constructores
+    public PreciosDTO() {}
+
+    public PreciosDTO(List<PrecioStockDTO> productos, List<Long> noEncontrados) {
+        this.productos = productos;
+        this.noEncontrados = noEncontrados;
+    }
+
+    // Getters y Setters
+    public List<PrecioStockDTO> getProductos() { return productos; }
+    public void setProductos(List<PrecioStockDTO> productos) { this.productos = productos; }
+
+    public List<Long> getNoEncontrados() { return noEncontrados; }
+    public void setNoEncontrados(List<Long> noEncontrados) { this.noEncontrados = noEncontrados; }
+}
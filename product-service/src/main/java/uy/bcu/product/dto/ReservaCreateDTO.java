@@ -0,0 +1,33 @@
+package uy.bcu.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Schema(description = "Datos para reservar stock de un producto")
+public class ReservaCreateDTO {
+
+    @NotNull(message = "El ID del producto es obligatorio")
+    @Schema(description = "ID del producto", example = "1", required = true)
+    private Long productoId;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Schema(description = "Unidades a reservar", example = "2", required = true)
+    private Integer cantidad;
+
+    // Constructores
+    public ReservaCreateDTO() {}
+
+    public ReservaCreateDTO(Long productoId, Integer cantidad) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+    }
+
+    // Getters y Setters
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+}
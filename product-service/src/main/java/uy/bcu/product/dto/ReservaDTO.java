@@ -0,0 +1,43 @@
+package uy.bcu.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+@Schema(description = "Reserva de stock vigente")
+public class ReservaDTO {
+
+    @Schema(description = "ID de la reserva", example = "3f2b8c1e-6a0d-4f3e-9b7a-2d1c5e8f9a01")
+    private String id;
+
+    @Schema(description = "ID del producto reservado", example = "1")
+    private Long productoId;
+
+    @Schema(description = "Unidades reservadas", example = "2")
+    private Integer cantidad;
+
+    @Schema(description = "Momento en que la reserva vence si no se confirma")
+    private Instant expiraEn;
+
+    // Constructores
+    public ReservaDTO() {}
+
+    public ReservaDTO(String id, Long productoId, Integer cantidad, Instant expiraEn) {
+        this.id = id;
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.expiraEn = expiraEn;
+    }
+
+    // Getters y Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public Instant getExpiraEn() { return expiraEn; }
+    public void setExpiraEn(Instant expiraEn) { this.expiraEn = expiraEn; }
+}
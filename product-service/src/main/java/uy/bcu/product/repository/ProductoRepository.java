@@ -0,0 +1,168 @@
+package uy.bcu.product.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.dto.ProductCreateDTO;
+import uy.bcu.product.dto.PrecioStockDTO;
+import uy.bcu.product.dto.ProductDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acceso reactivo a appuser.productos.
+ * Las consultas se escriben en SQL explícito sobre DatabaseClient: la descripción
+ * es un CLOB y se lee como VARCHAR2 con DBMS_LOB.SUBSTR para que cada fila llegue
+ * completa en el mismo viaje, sin abrir un locator de LOB por producto.
+ */
+@Repository
+public class ProductoRepository {
+
+    // Filas que Oracle entrega por viaje de red mientras el cliente siga pidiendo
+    private static final int FETCH_SIZE = 256;
+
+    // Oracle no admite más de 1000 expresiones en una lista IN
+    private static final int MAXIMO_IN = 1000;
+
+    private static final String COLUMNAS_PRECIO = "SELECT id, precio, stock FROM appuser.productos ";
+
+    private static final String COLUMNAS =
+        "SELECT id, nombre, DBMS_LOB.SUBSTR(descripcion, 4000, 1) AS descripcion, precio, stock "
+            + "FROM appuser.productos ";
+
+    private final DatabaseClient databaseClient;
+
+    public ProductoRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Recorrer todos los productos en orden de ID.
+     * El Flux respeta la demanda del suscriptor: si el cliente HTTP lee despacio,
+     * no se piden más filas a Oracle.
+     */
+    public Flux<ProductDTO> findAll() {
+        return databaseClient.sql(COLUMNAS + "ORDER BY id")
+            .filter(statement -> statement.fetchSize(FETCH_SIZE))
+            .map((row, metadata) -> convertirADTO(row))
+            .all();
+    }
+
+    /**
+     * Buscar un producto por ID
+     */
+    public Mono<ProductDTO> findById(Long id) {
+        return databaseClient.sql(COLUMNAS + "WHERE id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> convertirADTO(row))
+            .one();
+    }
+
+    /**
+     * Buscar varios productos por ID, en consultas de a 1000 IDs
+     */
+    public Flux<ProductDTO> findByIds(List<Long> ids) {
+        return Flux.fromIterable(enLotes(ids))
+            .concatMap(lote -> databaseClient.sql(COLUMNAS + "WHERE id IN (:ids)")
+                .bind("ids", lote)
+                .map((row, metadata) -> convertirADTO(row))
+                .all());
+    }
+
+    /**
+     * Insertar un producto; el ID lo asigna la secuencia y se devuelve en el mismo INSERT
+     */
+    public Mono<Long> insertar(ProductCreateDTO dto) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(
+                "INSERT INTO appuser.productos (id, nombre, descripcion, precio, stock) "
+                    + "VALUES (appuser.seq_productos.NEXTVAL, :nombre, :descripcion, :precio, :stock)")
+            .bind("nombre", dto.getNombre())
+            .bind("precio", dto.getPrecio())
+            .bind("stock", dto.getStock() != null ? dto.getStock() : 0);
+        insert = dto.getDescripcion() != null
+            ? insert.bind("descripcion", dto.getDescripcion())
+            : insert.bindNull("descripcion", String.class);
+
+        return insert
+            .filter(statement -> statement.returnGeneratedValues("id"))
+            .map((row, metadata) -> row.get("id", Long.class))
+            .one();
+    }
+
+    /**
+     * Verificar si existe un producto con el ID dado
+     */
+    public Mono<Boolean> existe(Long id) {
+        return databaseClient.sql("SELECT 1 FROM appuser.productos WHERE id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> Boolean.TRUE)
+            .first()
+            .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Hora actual de Oracle, usada como marca para los refrescos incrementales
+     * (la hora de la base y no la de la réplica, para no depender de relojes sincronizados)
+     */
+    public Mono<LocalDateTime> horaActual() {
+        return databaseClient.sql("SELECT CAST(SYSTIMESTAMP AS TIMESTAMP) AS ahora FROM DUAL")
+            .map((row, metadata) -> row.get("ahora", LocalDateTime.class))
+            .one();
+    }
+
+    /**
+     * Precio y stock de los productos modificados desde la marca dada (todos si es null)
+     */
+    public Flux<PrecioStockDTO> preciosModificadosDesde(LocalDateTime desde) {
+        if (desde == null) {
+            return databaseClient.sql(COLUMNAS_PRECIO)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map((row, metadata) -> convertirAPrecio(row))
+                .all();
+        }
+        return databaseClient.sql(COLUMNAS_PRECIO + "WHERE fecha_modificacion >= :desde")
+            .bind("desde", desde)
+            .filter(statement -> statement.fetchSize(FETCH_SIZE))
+            .map((row, metadata) -> convertirAPrecio(row))
+            .all();
+    }
+
+    /**
+     * Precio y stock de varios productos, en consultas de a 1000 IDs
+     */
+    public Flux<PrecioStockDTO> preciosPorIds(List<Long> ids) {
+        return Flux.fromIterable(enLotes(ids))
+            .concatMap(lote -> databaseClient.sql(COLUMNAS_PRECIO + "WHERE id IN (:ids)")
+                .bind("ids", lote)
+                .map((row, metadata) -> convertirAPrecio(row))
+                .all());
+    }
+
+    private static List<List<Long>> enLotes(List<Long> ids) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int desde = 0; desde < ids.size(); desde += MAXIMO_IN) {
+            lotes.add(ids.subList(desde, Math.min(desde + MAXIMO_IN, ids.size())));
+        }
+        return lotes;
+    }
+
+    private PrecioStockDTO convertirAPrecio(Row row) {
+        Integer stock = row.get("stock", Integer.class);
+        return new PrecioStockDTO(row.get("id", Long.class), row.get("precio", Double.class),
+            stock != null ? stock : 0);
+    }
+
+    private ProductDTO convertirADTO(Row row) {
+        return new ProductDTO(
+            row.get("id", Long.class),
+            row.get("nombre", String.class),
+            row.get("descripcion", String.class),
+            row.get("precio", Double.class),
+            row.get("stock", Integer.class)
+        );
+    }
+}
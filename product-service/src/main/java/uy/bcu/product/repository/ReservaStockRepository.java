@@ -0,0 +1,385 @@
+package uy.bcu.product.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Acceso reactivo a appuser.stock_asignaciones y appuser.stock_reservas.
+ *
+ * La asignación de una réplica y un producto registra las unidades que la réplica
+ * descontó de productos.stock y que todavía no devolvió ni se vendieron: su saldo en
+ * memoria, las devoluciones aún no escritas y sus reservas. La réplica la renueva
+ * periódicamente; si deja de hacerlo (caída, kill -9) otra réplica la recupera y
+ * devuelve a productos.stock lo que no está reservado. Una asignación vencida no se
+ * renueva ni se amplía: la réplica que la pierde pasa a usar otro ID.
+ *
+ * Las reservas son filas: cualquier réplica puede confirmarlas, liberarlas o
+ * vencerlas, y Order Service las confirma en la transacción que guarda el pedido.
+ * Reservar es un INSERT que no bloquea la fila del producto; solo tomar un lote,
+ * devolver unidades, liberar, vencer y recuperar actualizan productos.stock.
+ */
+@Repository
+public class ReservaStockRepository {
+
+    public static final String CONFIRMADA = "CONFIRMADA";
+
+    private static final String VIGENCIA = "SYSTIMESTAMP + NUMTODSINTERVAL(:segundos, 'SECOND')";
+
+    private static final String COLUMNAS_RESERVA =
+        "SELECT id, producto_id, cantidad, replica, estado FROM appuser.stock_reservas ";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transaccion;
+
+    public ReservaStockRepository(DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+        this.databaseClient = databaseClient;
+        this.transaccion = TransactionalOperator.create(transactionManager);
+    }
+
+    /**
+     * Descontar un lote de productos.stock (solo si alcanza, sin SELECT ... FOR UPDATE)
+     * y sumarlo a la asignación de la réplica, en una transacción.
+     * Falla con AsignacionVencidaException si la asignación existe pero venció.
+     *
+     * @return 1 si se tomó el lote, 0 si el producto no existe o no tiene stock suficiente
+     */
+    public Mono<Integer> tomarLote(String replica, Long productoId, int cantidad, Duration vigencia) {
+        Mono<Integer> tomado = databaseClient.sql(
+                "UPDATE appuser.productos SET stock = stock - :cantidad, fecha_modificacion = SYSTIMESTAMP "
+                    + "WHERE id = :id AND stock >= :cantidad")
+            .bind("cantidad", cantidad)
+            .bind("id", productoId)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(filas -> filas == 0
+                ? Mono.just(0)
+                : databaseClient.sql(
+                        "MERGE INTO appuser.stock_asignaciones a "
+                            + "USING (SELECT :replica AS replica, :id AS producto_id FROM DUAL) n "
+                            + "ON (a.replica = n.replica AND a.producto_id = n.producto_id) "
+                            + "WHEN MATCHED THEN UPDATE SET a.cantidad = a.cantidad + :cantidad, "
+                            + "a.vence_en = " + VIGENCIA + " WHERE a.vence_en > SYSTIMESTAMP "
+                            + "WHEN NOT MATCHED THEN INSERT (replica, producto_id, cantidad, vence_en) "
+                            + "VALUES (n.replica, n.producto_id, :cantidad, " + VIGENCIA + ")")
+                    .bind("replica", replica)
+                    .bind("id", productoId)
+                    .bind("cantidad", cantidad)
+                    .bind("segundos", vigencia.getSeconds())
+                    .fetch()
+                    .rowsUpdated()
+                    // Sin fila afectada la asignación venció: el error revierte también el descuento
+                    .flatMap(asignadas -> asignadas == 0
+                        ? Mono.<Integer>error(new AsignacionVencidaException(replica, productoId))
+                        : Mono.just(1)));
+        return tomado.as(transaccion::transactional);
+    }
+
+    /**
+     * Registrar una reserva con unidades del saldo de la réplica. Solo se inserta si
+     * la asignación de la réplica para el producto sigue vigente.
+     *
+     * @return 1 si se registró, 0 si la asignación venció
+     */
+    public Mono<Integer> insertar(String replica, String id, Long productoId, int cantidad, Duration ttl) {
+        return databaseClient.sql(
+                "INSERT INTO appuser.stock_reservas (id, producto_id, cantidad, replica, estado, expira_en) "
+                    + "SELECT :id, producto_id, :cantidad, replica, 'PENDIENTE', " + VIGENCIA + " "
+                    + "FROM appuser.stock_asignaciones "
+                    + "WHERE replica = :replica AND producto_id = :productoId AND vence_en > SYSTIMESTAMP")
+            .bind("id", id)
+            .bind("cantidad", cantidad)
+            .bind("segundos", ttl.getSeconds())
+            .bind("replica", replica)
+            .bind("productoId", productoId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Confirmar una reserva pendiente
+     *
+     * @return 1 si se confirmó, 0 si no estaba pendiente
+     */
+    public Mono<Integer> confirmar(String id) {
+        return databaseClient.sql(
+                "UPDATE appuser.stock_reservas SET estado = 'CONFIRMADA' WHERE id = :id AND estado = 'PENDIENTE'")
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Estado de una reserva; vacío si no existe (nunca existió, se liberó o venció)
+     */
+    public Mono<String> estado(String id) {
+        return databaseClient.sql("SELECT estado FROM appuser.stock_reservas WHERE id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> row.get("estado", String.class))
+            .one();
+    }
+
+    /**
+     * Liberar una reserva pendiente, creada por cualquier réplica
+     *
+     * @return producto y unidades devueltas a productos.stock; vacío si la reserva no estaba pendiente
+     */
+    public Mono<Map.Entry<Long, Integer>> liberar(String id) {
+        Mono<Map.Entry<Long, Integer>> liberada = reservas(
+                COLUMNAS_RESERVA + "WHERE id = :id AND estado = 'PENDIENTE' FOR UPDATE",
+                spec -> spec.bind("id", id))
+            .next()
+            .flatMap(reserva -> devolverReservas(List.of(reserva))
+                .thenReturn(Map.entry(reserva.productoId, reserva.cantidad)));
+        return liberada.as(transaccion::transactional);
+    }
+
+    /**
+     * Vencer hasta "limite" reservas pendientes de cualquier réplica; las que otra
+     * réplica está venciendo o liberando se saltean
+     *
+     * @return producto y unidades devueltas a productos.stock por cada reserva vencida
+     */
+    public Mono<List<Map.Entry<Long, Integer>>> vencer(int limite) {
+        Mono<List<Map.Entry<Long, Integer>>> vencidas = reservas(
+                COLUMNAS_RESERVA + "WHERE estado = 'PENDIENTE' AND expira_en < SYSTIMESTAMP AND ROWNUM <= :limite "
+                    + "FOR UPDATE SKIP LOCKED",
+                spec -> spec.bind("limite", limite))
+            .collectList()
+            .flatMap(reservas -> devolverReservas(reservas).thenReturn(reservas.stream()
+                .map(reserva -> Map.entry(reserva.productoId, reserva.cantidad))
+                .collect(Collectors.toList())));
+        return vencidas.as(transaccion::transactional);
+    }
+
+    /**
+     * Devolver a productos.stock unidades del saldo de una réplica, descontándolas de
+     * su asignación en la misma transacción. Si la asignación ya no cubre la cantidad
+     * (otra réplica la recuperó) esas unidades ya volvieron y no se suman de nuevo.
+     *
+     * @return unidades efectivamente devueltas por producto
+     */
+    public Mono<Map<Long, Integer>> devolver(String replica, Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        Mono<Map<Long, Integer>> devueltas = Flux.fromIterable(cantidades.entrySet())
+            .concatMap(entrada -> databaseClient.sql(
+                    "UPDATE appuser.stock_asignaciones SET cantidad = cantidad - :cantidad "
+                        + "WHERE replica = :replica AND producto_id = :id AND cantidad >= :cantidad")
+                .bind("cantidad", entrada.getValue())
+                .bind("replica", replica)
+                .bind("id", entrada.getKey())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(filas -> filas > 0
+                    ? sumarStock(entrada.getKey(), entrada.getValue()).thenReturn(entrada)
+                    : Mono.empty()))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        return devueltas.as(transaccion::transactional);
+    }
+
+    /**
+     * Extender la vigencia de las asignaciones de la réplica que siguen vigentes
+     */
+    public Mono<Integer> renovar(String replica, Duration vigencia) {
+        return databaseClient.sql(
+                "UPDATE appuser.stock_asignaciones SET vence_en = " + VIGENCIA + " "
+                    + "WHERE replica = :replica AND vence_en > SYSTIMESTAMP")
+            .bind("segundos", vigencia.getSeconds())
+            .bind("replica", replica)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Descontar de la asignación de la réplica sus reservas confirmadas (unidades ya
+     * vendidas) y borrarlas. También se borran las confirmadas sin réplica, cuya
+     * asignación ya se recuperó sin devolver sus unidades.
+     *
+     * @return cantidad de reservas liquidadas
+     */
+    public Mono<Integer> liquidarConfirmadas(String replica) {
+        Mono<Integer> liquidadas = reservas(
+                COLUMNAS_RESERVA + "WHERE (replica = :replica OR replica IS NULL) AND estado = 'CONFIRMADA' "
+                    + "FOR UPDATE SKIP LOCKED",
+                spec -> spec.bind("replica", replica))
+            .collectList()
+            .flatMap(reservas -> borrar(reservas)
+                .thenMany(Flux.fromIterable(porProducto(reservas.stream()
+                        .filter(reserva -> reserva.replica != null)
+                        .collect(Collectors.toList())).entrySet())
+                    .concatMap(entrada -> descontarAsignacion(replica, entrada.getKey(), entrada.getValue())))
+                .then(Mono.just(reservas.size())));
+        return liquidadas.as(transaccion::transactional);
+    }
+
+    /**
+     * Réplicas con alguna asignación vencida hace más que el margen
+     */
+    public Flux<String> replicasVencidas(Duration margen) {
+        return databaseClient.sql(
+                "SELECT DISTINCT replica FROM appuser.stock_asignaciones "
+                    + "WHERE vence_en < SYSTIMESTAMP - NUMTODSINTERVAL(:segundos, 'SECOND')")
+            .bind("segundos", margen.getSeconds())
+            .map((row, metadata) -> row.get("replica", String.class))
+            .all();
+    }
+
+    /**
+     * Recuperar las asignaciones vencidas de otra réplica, en una transacción. Por
+     * cada producto: las reservas confirmadas se liquidan, las pendientes quedan sin
+     * réplica (al liberarse o vencer devuelven sus unidades directo a productos.stock)
+     * y el resto de la asignación vuelve a productos.stock.
+     *
+     * Las reservas de la réplica se bloquean antes de leer la asignación, para que una
+     * confirmación en curso no cambie su estado entre el cálculo y la devolución.
+     *
+     * @return unidades devueltas a productos.stock por producto
+     */
+    public Mono<Map<Long, Integer>> recuperar(String replicaVencida, Duration margen) {
+        Mono<Map<Long, Integer>> recuperadas = reservas(
+                COLUMNAS_RESERVA + "WHERE replica = :replica FOR UPDATE",
+                spec -> spec.bind("replica", replicaVencida))
+            .collectList()
+            .flatMap(reservas -> databaseClient.sql(
+                    "SELECT producto_id, cantidad FROM appuser.stock_asignaciones "
+                        + "WHERE replica = :replica "
+                        + "AND vence_en < SYSTIMESTAMP - NUMTODSINTERVAL(:segundos, 'SECOND') "
+                        + "FOR UPDATE SKIP LOCKED")
+                .bind("replica", replicaVencida)
+                .bind("segundos", margen.getSeconds())
+                .map((row, metadata) -> Map.entry(row.get("producto_id", Long.class),
+                    row.get("cantidad", Integer.class)))
+                .all()
+                .concatMap(asignacion -> recuperar(replicaVencida, asignacion.getKey(), asignacion.getValue(),
+                    reservas.stream()
+                        .filter(reserva -> reserva.productoId.equals(asignacion.getKey()))
+                        .collect(Collectors.toList())))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue));
+        return recuperadas.as(transaccion::transactional);
+    }
+
+    private Mono<Map.Entry<Long, Integer>> recuperar(String replicaVencida, Long productoId, int asignadas,
+                                                     List<Reserva> reservas) {
+        List<Reserva> confirmadas = reservas.stream()
+            .filter(reserva -> CONFIRMADA.equals(reserva.estado))
+            .collect(Collectors.toList());
+        int libres = Math.max(asignadas - reservas.stream().mapToInt(reserva -> reserva.cantidad).sum(), 0);
+
+        return borrar(confirmadas)
+            .then(databaseClient.sql(
+                    "UPDATE appuser.stock_reservas SET replica = NULL "
+                        + "WHERE replica = :replica AND producto_id = :id AND estado = 'PENDIENTE'")
+                .bind("replica", replicaVencida)
+                .bind("id", productoId)
+                .fetch()
+                .rowsUpdated())
+            .then(databaseClient.sql(
+                    "DELETE FROM appuser.stock_asignaciones WHERE replica = :replica AND producto_id = :id")
+                .bind("replica", replicaVencida)
+                .bind("id", productoId)
+                .fetch()
+                .rowsUpdated())
+            .then(libres > 0 ? sumarStock(productoId, libres) : Mono.just(0))
+            .thenReturn(Map.entry(productoId, libres));
+    }
+
+    /**
+     * Borrar reservas pendientes y devolver sus unidades: salen de la asignación de
+     * la réplica que las creó (si todavía la tiene) y se suman a productos.stock
+     */
+    private Mono<Void> devolverReservas(List<Reserva> reservas) {
+        return borrar(reservas)
+            .thenMany(Flux.fromIterable(reservas)
+                .filter(reserva -> reserva.replica != null)
+                .concatMap(reserva -> descontarAsignacion(reserva.replica, reserva.productoId, reserva.cantidad)))
+            .thenMany(Flux.fromIterable(porProducto(reservas).entrySet())
+                .concatMap(entrada -> sumarStock(entrada.getKey(), entrada.getValue())))
+            .then();
+    }
+
+    private Mono<Integer> descontarAsignacion(String replica, Long productoId, int cantidad) {
+        return databaseClient.sql(
+                "UPDATE appuser.stock_asignaciones SET cantidad = cantidad - :cantidad "
+                    + "WHERE replica = :replica AND producto_id = :id")
+            .bind("cantidad", cantidad)
+            .bind("replica", replica)
+            .bind("id", productoId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private Mono<Integer> sumarStock(Long productoId, int cantidad) {
+        return databaseClient.sql(
+                "UPDATE appuser.productos SET stock = stock + :cantidad, fecha_modificacion = SYSTIMESTAMP "
+                    + "WHERE id = :id")
+            .bind("cantidad", cantidad)
+            .bind("id", productoId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private Mono<Void> borrar(List<Reserva> reservas) {
+        if (reservas.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("DELETE FROM appuser.stock_reservas WHERE id IN (:ids)")
+            .bind("ids", reservas.stream().map(reserva -> reserva.id).collect(Collectors.toList()))
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    private Flux<Reserva> reservas(String sql, UnaryOperator<DatabaseClient.GenericExecuteSpec> parametros) {
+        return parametros.apply(databaseClient.sql(sql))
+            .map((row, metadata) -> new Reserva(row.get("id", String.class), row.get("producto_id", Long.class),
+                row.get("cantidad", Integer.class), row.get("replica", String.class),
+                row.get("estado", String.class)))
+            .all();
+    }
+
+    private static Map<Long, Integer> porProducto(List<Reserva> reservas) {
+        Map<Long, Integer> total = new HashMap<>();
+        reservas.forEach(reserva -> total.merge(reserva.productoId, reserva.cantidad, Integer::sum));
+        return total;
+    }
+
+    /**
+     * La asignación de la réplica para el producto venció: otra réplica pudo haberla
+     * recuperado, así que las unidades que la réplica tenía del producto ya no son suyas
+     */
+    public static class AsignacionVencidaException extends RuntimeException {
+
+        public AsignacionVencidaException(String replica, Long productoId) {
+            super("Asignación vencida de la réplica " + replica + " para el producto " + productoId);
+        }
+    }
+
+    private static final class Reserva {
+
+        private final String id;
+        private final Long productoId;
+        private final int cantidad;
+        private final String replica;
+        private final String estado;
+
+        Reserva(String id, Long productoId, int cantidad, String replica, String estado) {
+            this.id = id;
+            this.productoId = productoId;
+            this.cantidad = cantidad;
+            this.replica = replica;
+            this.estado = estado;
+        }
+    }
+}
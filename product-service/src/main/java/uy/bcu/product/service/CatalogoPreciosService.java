@@ -0,0 +1,148 @@
+package uy.bcu.product.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.cache.CatalogoPrecios;
+import uy.bcu.product.dto.PrecioStockDTO;
+import uy.bcu.product.dto.PreciosDTO;
+import uy.bcu.product.repository.ProductoRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas de precio y stock servidas desde un snapshot en memoria del catálogo.
+ *
+ * Al arrancar se carga el catálogo completo y luego se aplican solo los productos
+ * con fecha_modificacion posterior al último refresco. Los cambios hechos por esta
+ * réplica (altas, tomas y devoluciones de stock) se aplican al snapshot en el acto;
+ * los de otras réplicas llegan con el siguiente refresco.
+ */
+@Service
+public class CatalogoPreciosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoPreciosService.class);
+
+    private static final Duration TIEMPO_MAXIMO_CARGA = Duration.ofMinutes(5);
+
+    private final ProductoRepository productoRepository;
+    private final CatalogoPrecios catalogo;
+    private final Duration solapamiento;
+    private final MeterRegistry meterRegistry;
+
+    // Hora de Oracle al inicio del último refresco exitoso (null hasta la carga completa)
+    private LocalDateTime ultimaMarca;
+
+    public CatalogoPreciosService(ProductoRepository productoRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${productos.catalogo.capacidad-inicial:1024}") int capacidadInicial,
+                                  @Value("${productos.catalogo.solapamiento:30s}") Duration solapamiento) {
+        this.productoRepository = productoRepository;
+        this.meterRegistry = meterRegistry;
+        this.catalogo = new CatalogoPrecios(capacidadInicial);
+        this.solapamiento = solapamiento;
+
+        Gauge.builder("productos.catalogo.tamanio", catalogo, CatalogoPrecios::tamanio)
+            .description("Productos en el snapshot de precios")
+            .register(meterRegistry);
+        Gauge.builder("productos.catalogo.memoria", catalogo, CatalogoPrecios::bytesFueraDelHeap)
+            .description("Memoria fuera del heap reservada por el snapshot de precios")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Consultar precio y stock de varios productos.
+     * Los IDs que no están en el snapshot se buscan en Oracle y se agregan al snapshot.
+     */
+    public Mono<PreciosDTO> consultar(List<Long> ids) {
+        long[] claves = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+        double[] precios = new double[claves.length];
+        int[] stocks = new int[claves.length];
+        int encontrados = catalogo.consultar(claves, precios, stocks);
+
+        List<PrecioStockDTO> productos = new ArrayList<>(claves.length);
+        List<Long> faltantes = new ArrayList<>(claves.length - encontrados);
+        for (int i = 0; i < claves.length; i++) {
+            if (Double.isNaN(precios[i])) {
+                faltantes.add(claves[i]);
+            } else {
+                productos.add(new PrecioStockDTO(claves[i], precios[i], stocks[i]));
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return Mono.just(new PreciosDTO(productos, List.of()));
+        }
+
+        meterRegistry.counter("productos.catalogo.fallos").increment(faltantes.size());
+        return productoRepository.preciosPorIds(faltantes)
+            .doOnNext(this::actualizar)
+            .collectList()
+            .map(deOracle -> {
+                Set<Long> hallados = new HashSet<>();
+                deOracle.forEach(producto -> hallados.add(producto.getId()));
+                productos.addAll(deOracle);
+                faltantes.removeAll(hallados);
+                return new PreciosDTO(productos, faltantes);
+            });
+    }
+
+    /**
+     * Registrar en el snapshot el precio y stock de un producto
+     */
+    public void actualizar(PrecioStockDTO producto) {
+        catalogo.actualizar(producto.getId(), producto.getPrecio(), producto.getStock());
+    }
+
+    /**
+     * Aplicar al snapshot un movimiento de stock hecho por esta réplica
+     */
+    public void ajustarStock(Long productoId, int diferencia) {
+        catalogo.ajustarStock(productoId, diferencia);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        refrescar();
+    }
+
+    /**
+     * Aplicar los productos modificados desde el último refresco.
+     * La marca se resta con un margen para no perder cambios de transacciones que
+     * tomaron SYSTIMESTAMP antes de la marca pero confirmaron después.
+     */
+    @Scheduled(fixedDelayString = "${productos.catalogo.refresco-ms:5000}",
+        initialDelayString = "${productos.catalogo.refresco-ms:5000}")
+    public synchronized void refrescar() {
+        try {
+            LocalDateTime marca = productoRepository.horaActual().block(TIEMPO_MAXIMO_CARGA);
+            LocalDateTime desde = ultimaMarca != null ? ultimaMarca.minus(solapamiento) : null;
+            Long aplicados = productoRepository.preciosModificadosDesde(desde)
+                .doOnNext(this::actualizar)
+                .count()
+                .block(TIEMPO_MAXIMO_CARGA);
+
+            if (ultimaMarca == null) {
+                logger.info("Catálogo de precios cargado: {} productos, {} bytes fuera del heap",
+                    catalogo.tamanio(), catalogo.bytesFueraDelHeap());
+            } else {
+                logger.debug("Catálogo de precios refrescado: {} productos modificados", aplicados);
+            }
+            ultimaMarca = marca;
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo refrescar el catálogo de precios: {}", e.getMessage());
+        }
+    }
+}
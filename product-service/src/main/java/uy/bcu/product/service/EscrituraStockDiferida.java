@@ -0,0 +1,96 @@
+package uy.bcu.product.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uy.bcu.product.repository.ReservaStockRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro write-behind de stock a devolver a Oracle.
+ * Las devoluciones se acumulan por réplica y producto en memoria y se escriben
+ * periódicamente en una transacción por réplica, de modo que devolver saldo nunca
+ * espera a la base ni toma el lock de la fila del producto.
+ *
+ * Cada devolución descuenta de la asignación de la réplica en Oracle: si la réplica
+ * cae antes de escribirla, las unidades no se pierden, vuelven cuando otra réplica
+ * recupera la asignación.
+ */
+@Component
+public class EscrituraStockDiferida {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscrituraStockDiferida.class);
+
+    private static final Duration TIEMPO_MAXIMO_ESCRITURA = Duration.ofSeconds(30);
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final CatalogoPreciosService catalogoPreciosService;
+
+    // Réplica -> producto -> unidades; el mapa de cada réplica se retira entero al escribir
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Long, Integer>> pendientes = new ConcurrentHashMap<>();
+
+    public EscrituraStockDiferida(ReservaStockRepository reservaStockRepository,
+                                  CatalogoPreciosService catalogoPreciosService,
+                                  MeterRegistry meterRegistry) {
+        this.reservaStockRepository = reservaStockRepository;
+        this.catalogoPreciosService = catalogoPreciosService;
+
+        Gauge.builder("productos.stock.devolucion.pendiente", pendientes,
+                mapa -> mapa.values().stream()
+                    .flatMap(porProducto -> porProducto.values().stream())
+                    .mapToLong(Integer::longValue)
+                    .sum())
+            .description("Unidades de stock pendientes de devolver a Oracle")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registrar unidades de la asignación de una réplica a devolver al stock del producto
+     */
+    public void registrar(String replica, Long productoId, int cantidad) {
+        if (cantidad > 0) {
+            // compute es atómico por réplica: no se suma a un mapa ya retirado por escribir()
+            pendientes.compute(replica, (clave, porProducto) -> {
+                ConcurrentHashMap<Long, Integer> mapa = porProducto != null ? porProducto : new ConcurrentHashMap<>();
+                mapa.merge(productoId, cantidad, Integer::sum);
+                return mapa;
+            });
+        }
+    }
+
+    /**
+     * Escribir en Oracle las devoluciones acumuladas.
+     * Si la escritura falla, las cantidades vuelven al registro para el próximo intento;
+     * las que la asignación ya no cubre se descartan porque volvieron al recuperarla.
+     */
+    @Scheduled(fixedDelayString = "${productos.stock.escritura-ms:1000}")
+    public void escribir() {
+        for (String replica : pendientes.keySet()) {
+            Map<Long, Integer> lote = pendientes.remove(replica);
+            if (lote == null || lote.isEmpty()) {
+                continue;
+            }
+
+            try {
+                Map<Long, Integer> devueltas =
+                    reservaStockRepository.devolver(replica, lote).block(TIEMPO_MAXIMO_ESCRITURA);
+                devueltas.forEach(catalogoPreciosService::ajustarStock);
+                if (devueltas.size() < lote.size()) {
+                    logger.info("Devoluciones descartadas de la réplica {}: su asignación ya fue recuperada "
+                        + "para {} productos", replica, lote.size() - devueltas.size());
+                }
+                logger.debug("Stock devuelto a Oracle para {} productos", devueltas.size());
+            } catch (RuntimeException e) {
+                lote.forEach((productoId, cantidad) -> registrar(replica, productoId, cantidad));
+                logger.warn("No se pudo devolver stock a Oracle ({} productos), se reintentará: {}",
+                    lote.size(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package uy.bcu.product.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.concurrent.AgrupadorLotes;
+import uy.bcu.product.concurrent.SingleFlight;
+import uy.bcu.product.dto.PrecioStockDTO;
+import uy.bcu.product.dto.ProductCreateDTO;
+import uy.bcu.product.dto.ProductDTO;
+import uy.bcu.product.repository.ProductoRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+
+    private final ProductoRepository productoRepository;
+    private final CatalogoPreciosService catalogoPreciosService;
+    private final SingleFlight<Long, ProductDTO> busquedasPorId;
+    private final AgrupadorLotes<Long, ProductDTO> agrupadorPorId;
+
+    public ProductService(ProductoRepository productoRepository,
+                          CatalogoPreciosService catalogoPreciosService,
+                          MeterRegistry meterRegistry,
+                          @Value("${productos.lotes.ventana:2ms}") Duration ventanaLote,
+                          @Value("${productos.lotes.maximo:100}") int maximoLote) {
+        this.productoRepository = productoRepository;
+        this.catalogoPreciosService = catalogoPreciosService;
+        this.busquedasPorId = new SingleFlight<>("productos.por.id", meterRegistry);
+        this.agrupadorPorId = new AgrupadorLotes<>("productos.por.id", productoRepository::findByIds,
+            ProductDTO::getId, ventanaLote, maximoLote, meterRegistry);
+    }
+
+    /**
+     * Obtener el catálogo completo como flujo de productos
+     */
+    public Flux<ProductDTO> obtenerTodosLosProductos() {
+        logger.info("Obteniendo catálogo de productos");
+        return productoRepository.findAll();
+    }
+
+    /**
+     * Obtener producto por ID (vacío si no existe).
+     * Las solicitudes concurrentes por el mismo ID comparten una sola búsqueda, y las
+     * de IDs distintos que llegan dentro de la ventana se resuelven en una consulta por lote.
+     */
+    public Mono<ProductDTO> obtenerProductoPorId(Long id) {
+        logger.info("Buscando producto con ID: {}", id);
+        return busquedasPorId.ejecutar(id, () -> agrupadorPorId.cargar(id));
+    }
+
+    /**
+     * Obtener varios productos por ID en una sola consulta (los inexistentes se omiten)
+     */
+    public Flux<ProductDTO> obtenerProductosPorIds(List<Long> ids) {
+        logger.info("Buscando {} productos por ID", ids.size());
+        return productoRepository.findByIds(ids.stream().distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * Crear nuevo producto
+     */
+    public Mono<ProductDTO> crearProducto(ProductCreateDTO dto) {
+        logger.info("Creando nuevo producto: {}", dto.getNombre());
+        return productoRepository.insertar(dto)
+            .map(id -> new ProductDTO(id, dto.getNombre(), dto.getDescripcion(), dto.getPrecio(),
+                dto.getStock() != null ? dto.getStock() : 0))
+            .doOnNext(producto -> catalogoPreciosService.actualizar(
+                new PrecioStockDTO(producto.getId(), producto.getPrecio(), producto.getStock())))
+            .doOnNext(producto -> logger.info("Producto creado exitosamente con ID: {}", producto.getId()));
+    }
+}
@@ -0,0 +1,418 @@
+package uy.bcu.product.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.dto.ReservaDTO;
+import uy.bcu.product.repository.ProductoRepository;
+import uy.bcu.product.repository.ReservaStockRepository;
+import uy.bcu.product.repository.ReservaStockRepository.AsignacionVencidaException;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reservas de stock sin bloqueos de fila.
+ *
+ * Cada réplica toma de Oracle lotes de unidades con un UPDATE condicional
+ * (stock = stock - n WHERE stock >= n) y las registra en su asignación
+ * (appuser.stock_asignaciones). Las reservas se descuentan de ese saldo local con
+ * compare-and-set y se guardan con un INSERT en appuser.stock_reservas, por lo que
+ * las reservas de un producto muy pedido no se serializan en la fila del producto y
+ * cualquier réplica puede confirmarlas, liberarlas o vencerlas.
+ *
+ * Mientras una réplica tiene saldo tomado, productos.stock refleja solo las
+ * unidades no asignadas a ninguna réplica. Si la réplica cae, otra réplica recupera
+ * su asignación al vencer y devuelve a productos.stock lo que no estaba reservado.
+ */
+@Service
+public class ReservaStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservaStockService.class);
+
+    // Reintentos de toma de stock cuando otra solicitud consume el lote recién obtenido
+    private static final int MAXIMO_INTENTOS = 3;
+
+    // Reservas vencidas que se liberan por ejecución
+    private static final int LIMITE_VENCIMIENTO = 500;
+
+    private static final Duration TIEMPO_MAXIMO_ESCRITURA = Duration.ofSeconds(30);
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final ProductoRepository productoRepository;
+    private final EscrituraStockDiferida escrituraDiferida;
+    private final CatalogoPreciosService catalogoPreciosService;
+    private final int loteReserva;
+    private final Duration reservaTtl;
+    private final Duration inactividad;
+    private final Duration vigenciaAsignacion;
+    private final Duration margenRecuperacion;
+    private final MeterRegistry meterRegistry;
+
+    // ID con el que esta réplica registra sus asignaciones; cambia si pierde una asignación
+    private final AtomicReference<String> replica = new AtomicReference<>(UUID.randomUUID().toString());
+
+    private final ConcurrentHashMap<Long, SaldoLocal> saldos = new ConcurrentHashMap<>();
+
+    public ReservaStockService(ReservaStockRepository reservaStockRepository,
+                               ProductoRepository productoRepository,
+                               EscrituraStockDiferida escrituraDiferida,
+                               CatalogoPreciosService catalogoPreciosService,
+                               MeterRegistry meterRegistry,
+                               @Value("${productos.stock.lote-reserva:20}") int loteReserva,
+                               @Value("${productos.stock.reserva-ttl:10m}") Duration reservaTtl,
+                               @Value("${productos.stock.inactividad:30s}") Duration inactividad,
+                               @Value("${productos.stock.asignacion.vigencia:60s}") Duration vigenciaAsignacion,
+                               @Value("${productos.stock.asignacion.margen:30s}") Duration margenRecuperacion) {
+        this.reservaStockRepository = reservaStockRepository;
+        this.productoRepository = productoRepository;
+        this.escrituraDiferida = escrituraDiferida;
+        this.catalogoPreciosService = catalogoPreciosService;
+        this.meterRegistry = meterRegistry;
+        this.loteReserva = loteReserva;
+        this.reservaTtl = reservaTtl;
+        this.inactividad = inactividad;
+        this.vigenciaAsignacion = vigenciaAsignacion;
+        this.margenRecuperacion = margenRecuperacion;
+
+        Gauge.builder("productos.stock.saldo.local", saldos,
+                mapa -> mapa.values().stream().mapToLong(SaldoLocal::disponible).sum())
+            .description("Unidades tomadas de Oracle y todavía sin reservar en esta réplica")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reservar unidades de un producto.
+     * Falla con IllegalArgumentException si el producto no existe y con
+     * IllegalStateException si no hay stock suficiente.
+     */
+    public Mono<ReservaDTO> reservar(Long productoId, int cantidad) {
+        // Nada se descuenta del saldo hasta la suscripción: un Mono sin suscribir no retiene unidades
+        return Mono.defer(() -> {
+            logger.debug("Reservando {} unidades del producto {}", cantidad, productoId);
+            return reservar(productoId, saldo(productoId), cantidad, MAXIMO_INTENTOS);
+        });
+    }
+
+    private Mono<ReservaDTO> reservar(Long productoId, SaldoLocal saldo, int cantidad, int intentos) {
+        if (saldo.cerrado()) {
+            // El saldo se devolvió por inactividad o se perdió su asignación: se sigue con uno nuevo
+            return Mono.defer(() -> reservar(productoId, saldo(productoId), cantidad, intentos));
+        }
+        if (saldo.tomar(cantidad)) {
+            return registrar(productoId, saldo, cantidad, intentos);
+        }
+        if (intentos == 0) {
+            return sinStock(productoId);
+        }
+
+        // Si otra solicitud ya está tomando stock de Oracle se espera su resultado y se reintenta
+        Mono<Boolean> enCurso = saldo.recarga.get();
+        if (enCurso != null) {
+            return enCurso.then(Mono.defer(() -> reservar(productoId, saldo, cantidad, intentos - 1)));
+        }
+
+        // La recarga se limpia antes de emitir su resultado, para que quien llegue después
+        // no espere una recarga ya terminada; cache() la completa aunque quien la inició cancele
+        Mono<Boolean> recarga = Mono.defer(() -> tomarDeOracle(productoId, saldo, cantidad))
+            .doOnNext(obtenido -> saldo.recarga.set(null))
+            .doOnError(error -> saldo.recarga.set(null))
+            .cache();
+        if (!saldo.recarga.compareAndSet(null, recarga)) {
+            return Mono.defer(() -> reservar(productoId, saldo, cantidad, intentos));
+        }
+        return recarga
+            .flatMap(obtenido -> obtenido
+                ? reservar(productoId, saldo, cantidad, intentos - 1)
+                : sinStock(productoId));
+    }
+
+    /**
+     * Tomar de Oracle lo que le falta al saldo local para cubrir la cantidad pedida:
+     * la reserva usa primero las unidades que la réplica ya tiene. Se intenta con el
+     * lote completo y, si no alcanza, solo con el faltante.
+     */
+    private Mono<Boolean> tomarDeOracle(Long productoId, SaldoLocal saldo, int cantidad) {
+        int faltante = cantidad - saldo.disponible();
+        if (faltante <= 0) {
+            // Otra solicitud devolvió unidades mientras tanto
+            return Mono.just(true);
+        }
+        int lote = Math.max(faltante, loteReserva);
+        Mono<Integer> tomado = reservaStockRepository.tomarLote(saldo.replica, productoId, lote, vigenciaAsignacion)
+            .flatMap(filas -> {
+                if (filas > 0) {
+                    return Mono.just(lote);
+                }
+                if (lote == faltante) {
+                    return Mono.just(0);
+                }
+                return reservaStockRepository.tomarLote(saldo.replica, productoId, faltante, vigenciaAsignacion)
+                    .map(filasExactas -> filasExactas > 0 ? faltante : 0);
+            });
+
+        return tomado
+            .map(unidades -> {
+                if (unidades > 0) {
+                    devolverASaldo(productoId, saldo, unidades);
+                    catalogoPreciosService.ajustarStock(productoId, -unidades);
+                    logger.debug("Tomadas {} unidades de Oracle para el producto {}", unidades, productoId);
+                }
+                return unidades > 0;
+            })
+            .onErrorResume(AsignacionVencidaException.class, e -> {
+                // Nada se tomó; el reintento sigue con un saldo de la réplica nueva
+                asignacionVencida(saldo.replica, productoId);
+                return Mono.just(true);
+            });
+    }
+
+    private Mono<ReservaDTO> sinStock(Long productoId) {
+        meterRegistry.counter("productos.reservas", "resultado", "sin_stock").increment();
+        return productoRepository.existe(productoId)
+            .flatMap(existe -> Mono.<ReservaDTO>error(existe
+                ? new IllegalStateException("Stock insuficiente para el producto " + productoId)
+                : new IllegalArgumentException("Producto no encontrado")));
+    }
+
+    /**
+     * Guardar la reserva con las unidades ya descontadas del saldo. El INSERT solo
+     * prospera si la asignación de la réplica sigue vigente: si venció, las unidades
+     * pueden haber vuelto a productos.stock y la reserva se reintenta con otro saldo.
+     */
+    private Mono<ReservaDTO> registrar(Long productoId, SaldoLocal saldo, int cantidad, int intentos) {
+        String id = UUID.randomUUID().toString();
+        Instant expiraEn = Instant.now().plus(reservaTtl);
+        return reservaStockRepository.insertar(saldo.replica, id, productoId, cantidad, reservaTtl)
+            .onErrorResume(error -> {
+                devolverASaldo(productoId, saldo, cantidad);
+                return Mono.error(error);
+            })
+            .flatMap(filas -> {
+                if (filas > 0) {
+                    meterRegistry.counter("productos.reservas", "resultado", "ok").increment();
+                    return Mono.just(new ReservaDTO(id, productoId, cantidad, expiraEn));
+                }
+                escrituraDiferida.registrar(saldo.replica, productoId, cantidad);
+                asignacionVencida(saldo.replica, productoId);
+                return intentos == 0
+                    ? sinStock(productoId)
+                    : reservar(productoId, saldo(productoId), cantidad, intentos - 1);
+            });
+    }
+
+    /**
+     * Confirmar una reserva: las unidades ya se descontaron de productos.stock al tomar
+     * el lote, por lo que confirmar solo cambia el estado de la reserva. Confirmar una
+     * reserva ya confirmada no falla.
+     */
+    public Mono<Void> confirmar(String reservaId) {
+        return reservaStockRepository.confirmar(reservaId)
+            .flatMap(filas -> filas > 0
+                ? Mono.just(true)
+                : reservaStockRepository.estado(reservaId)
+                    .map(ReservaStockRepository.CONFIRMADA::equals)
+                    .defaultIfEmpty(false))
+            .flatMap(confirmada -> {
+                if (!confirmada) {
+                    return Mono.error(new IllegalArgumentException("Reserva no encontrada o vencida"));
+                }
+                logger.info("Reserva {} confirmada", reservaId);
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Liberar una reserva pendiente: las unidades vuelven a productos.stock
+     */
+    public Mono<Void> liberar(String reservaId) {
+        return reservaStockRepository.liberar(reservaId)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("Reserva no encontrada o vencida")))
+            .doOnNext(liberada -> {
+                catalogoPreciosService.ajustarStock(liberada.getKey(), liberada.getValue());
+                logger.info("Reserva {} liberada", reservaId);
+            })
+            .then();
+    }
+
+    /**
+     * Liberar las reservas vencidas de cualquier réplica
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void vencerReservas() {
+        try {
+            List<Map.Entry<Long, Integer>> vencidas =
+                reservaStockRepository.vencer(LIMITE_VENCIMIENTO).block(TIEMPO_MAXIMO_ESCRITURA);
+            vencidas.forEach(vencida -> catalogoPreciosService.ajustarStock(vencida.getKey(), vencida.getValue()));
+            meterRegistry.counter("productos.reservas.vencidas").increment(vencidas.size());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron vencer las reservas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Devolver a Oracle el saldo local de los productos sin reservas recientes,
+     * para que otras réplicas puedan usarlo. El saldo se quita del mapa.
+     */
+    @Scheduled(fixedDelayString = "${productos.stock.escritura-ms:1000}")
+    public void devolverSaldosInactivos() {
+        long limite = System.nanoTime() - inactividad.toNanos();
+        saldos.forEach((productoId, saldo) -> {
+            if (saldo.ultimaActividad - limite < 0 && saldo.recarga.get() == null
+                    && saldos.remove(productoId, saldo)) {
+                escrituraDiferida.registrar(saldo.replica, productoId, saldo.cerrar());
+            }
+        });
+    }
+
+    /**
+     * Renovar las asignaciones de esta réplica, liquidar sus reservas confirmadas y
+     * recuperar las asignaciones de réplicas que dejaron de renovarlas
+     */
+    @Scheduled(fixedDelayString = "${productos.stock.asignacion.renovacion-ms:10000}")
+    public void mantenerAsignaciones() {
+        String actual = replica.get();
+        try {
+            reservaStockRepository.renovar(actual, vigenciaAsignacion).block(TIEMPO_MAXIMO_ESCRITURA);
+            reservaStockRepository.liquidarConfirmadas(actual).block(TIEMPO_MAXIMO_ESCRITURA);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron renovar las asignaciones de stock: {}", e.getMessage());
+        }
+
+        try {
+            List<String> vencidas = reservaStockRepository.replicasVencidas(margenRecuperacion)
+                .collectList()
+                .block(TIEMPO_MAXIMO_ESCRITURA);
+            for (String vencida : vencidas) {
+                Map<Long, Integer> recuperadas =
+                    reservaStockRepository.recuperar(vencida, margenRecuperacion).block(TIEMPO_MAXIMO_ESCRITURA);
+                recuperadas.forEach(catalogoPreciosService::ajustarStock);
+                logger.info("Recuperada la asignación de stock de la réplica {} ({} productos)",
+                    vencida, recuperadas.size());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron recuperar asignaciones de stock vencidas: {}", e.getMessage());
+        }
+    }
+
+    private SaldoLocal saldo(Long productoId) {
+        return saldos.computeIfAbsent(productoId, id -> new SaldoLocal(replica.get()));
+    }
+
+    private void devolverASaldo(Long productoId, SaldoLocal saldo, int cantidad) {
+        if (!saldo.agregar(cantidad)) {
+            // El saldo ya se cerró: las unidades vuelven a Oracle desde su asignación
+            escrituraDiferida.registrar(saldo.replica, productoId, cantidad);
+        }
+    }
+
+    /**
+     * La asignación de un producto venció sin que esta réplica lo notara (pausa larga,
+     * base inaccesible). La réplica pasa a usar otro ID: así una asignación recuperada
+     * nunca se vuelve a crear con el ID viejo y las devoluciones pendientes del ID viejo
+     * solo descuentan de lo que quede de sus asignaciones. Los saldos del ID viejo se
+     * cierran y devuelven lo que sus asignaciones todavía cubren.
+     */
+    private void asignacionVencida(String vencida, Long productoId) {
+        if (replica.compareAndSet(vencida, UUID.randomUUID().toString())) {
+            logger.warn("Venció la asignación de stock del producto {}; la réplica {} pasa a usar otro ID",
+                productoId, vencida);
+            meterRegistry.counter("productos.stock.asignaciones.vencidas").increment();
+        }
+        saldos.forEach((id, saldo) -> {
+            if (saldo.replica.equals(vencida) && saldos.remove(id, saldo)) {
+                escrituraDiferida.registrar(vencida, id, saldo.cerrar());
+            }
+        });
+    }
+
+    /**
+     * Al detener la réplica se devuelve a Oracle el saldo sin reservar. Las reservas
+     * quedan en Oracle: otra réplica puede confirmarlas, liberarlas o vencerlas.
+     */
+    @PreDestroy
+    void detener() {
+        saldos.forEach((productoId, saldo) -> {
+            if (saldos.remove(productoId, saldo)) {
+                escrituraDiferida.registrar(saldo.replica, productoId, saldo.cerrar());
+            }
+        });
+        escrituraDiferida.escribir();
+    }
+
+    /**
+     * Unidades tomadas de Oracle y todavía sin reservar en esta réplica, bajo la
+     * asignación de un ID de réplica. Un saldo cerrado ya no acepta tomas ni unidades.
+     */
+    private static final class SaldoLocal {
+
+        private static final int CERRADO = Integer.MIN_VALUE;
+
+        private final String replica;
+        private final AtomicInteger disponible = new AtomicInteger();
+        private final AtomicReference<Mono<Boolean>> recarga = new AtomicReference<>();
+        private volatile long ultimaActividad = System.nanoTime();
+
+        SaldoLocal(String replica) {
+            this.replica = replica;
+        }
+
+        /**
+         * Solo una toma exitosa cuenta como actividad: los intentos fallidos no deben
+         * impedir que un saldo insuficiente vuelva a Oracle.
+         */
+        boolean tomar(int cantidad) {
+            int actual;
+            do {
+                actual = disponible.get();
+                if (actual < cantidad) {
+                    return false;
+                }
+            } while (!disponible.compareAndSet(actual, actual - cantidad));
+            ultimaActividad = System.nanoTime();
+            return true;
+        }
+
+        int disponible() {
+            return Math.max(disponible.get(), 0);
+        }
+
+        boolean cerrado() {
+            return disponible.get() == CERRADO;
+        }
+
+        /**
+         * @return false si el saldo está cerrado y las unidades no se agregaron
+         */
+        boolean agregar(int cantidad) {
+            int actual;
+            do {
+                actual = disponible.get();
+                if (actual == CERRADO) {
+                    return false;
+                }
+            } while (!disponible.compareAndSet(actual, actual + cantidad));
+            return true;
+        }
+
+        /**
+         * Cerrar el saldo y retirar sus unidades
+         */
+        int cerrar() {
+            int actual = disponible.getAndSet(CERRADO);
+            return actual == CERRADO ? 0 : actual;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package uy.bcu.product.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CatalogoPreciosTest {
+
+    private static double[] precios(CatalogoPrecios catalogo, long... ids) {
+        double[] precios = new double[ids.length];
+        catalogo.consultar(ids, precios, new int[ids.length]);
+        return precios;
+    }
+
+    private static int[] stocks(CatalogoPrecios catalogo, long... ids) {
+        int[] stocks = new int[ids.length];
+        catalogo.consultar(ids, new double[ids.length], stocks);
+        return stocks;
+    }
+
+    @Test
+    void actualizar_debeInsertarYReemplazarSinDuplicar() {
+        // Given
+        CatalogoPrecios catalogo = new CatalogoPrecios(16);
+        catalogo.actualizar(1L, 10.5, 3);
+        catalogo.actualizar(2L, 20.0, 7);
+
+        // When
+        catalogo.actualizar(1L, 11.0, 4);
+
+        // Then
+        assertThat(catalogo.tamanio()).isEqualTo(2);
+        assertThat(precios(catalogo, 1L, 2L)).containsExactly(11.0, 20.0);
+        assertThat(stocks(catalogo, 1L, 2L)).containsExactly(4, 7);
+    }
+
+    @Test
+    void consultar_debeMarcarLosIdsAusentesConNaN() {
+        // Given
+        CatalogoPrecios catalogo = new CatalogoPrecios(16);
+        catalogo.actualizar(5L, 99.9, 1);
+        long[] ids = {5L, 6L, 0L, -1L};
+        double[] precios = new double[ids.length];
+        int[] stocks = {-1, -1, -1, -1};
+
+        // When
+        int encontrados = catalogo.consultar(ids, precios, stocks);
+
+        // Then
+        assertThat(encontrados).isEqualTo(1);
+        assertThat(precios[0]).isEqualTo(99.9);
+        assertThat(precios[1]).isNaN();
+        assertThat(precios[2]).isNaN();
+        assertThat(precios[3]).isNaN();
+        assertThat(stocks).containsExactly(1, 0, 0, 0);
+    }
+
+    @Test
+    void actualizar_debeRechazarElIdCero() {
+        // Given
+        CatalogoPrecios catalogo = new CatalogoPrecios(16);
+
+        // When / Then: 0 marca las celdas vacías del índice
+        assertThatThrownBy(() -> catalogo.actualizar(0L, 1.0, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catalogo.tamanio()).isZero();
+    }
+
+    @Test
+    void actualizar_debeConservarLosProductosAlAmpliarLaTabla() {
+        // Given: capacidad mínima de 16 celdas, con factor de carga 0.5 se amplía varias veces
+        CatalogoPrecios catalogo = new CatalogoPrecios(1);
+        long bytesIniciales = catalogo.bytesFueraDelHeap();
+
+        // When: IDs consecutivos y dispersos, incluidos negativos
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            ids.add(id);
+            ids.add(id * 1_000_003L);
+            ids.add(-id);
+        }
+        for (long id : ids) {
+            catalogo.actualizar(id, id / 2.0, (int) (id % 1000));
+        }
+
+        // Then
+        assertThat(catalogo.tamanio()).isEqualTo(ids.size());
+        assertThat(bytesIniciales).isEqualTo(8 * 12);
+        assertThat(catalogo.bytesFueraDelHeap()).isEqualTo(2048 * 12);
+        long[] consulta = ids.stream().mapToLong(Long::longValue).toArray();
+        double[] precios = new double[consulta.length];
+        int[] stocks = new int[consulta.length];
+        assertThat(catalogo.consultar(consulta, precios, stocks)).isEqualTo(consulta.length);
+        for (int i = 0; i < consulta.length; i++) {
+            assertThat(precios[i]).isEqualTo(consulta[i] / 2.0);
+            assertThat(stocks[i]).isEqualTo((int) (consulta[i] % 1000));
+        }
+    }
+
+    @Test
+    void constructor_debeRedondearLaCapacidadAPotenciaDeDos() {
+        // 100 celdas pedidas -> 128 celdas, la mitad con registro de 12 bytes
+        assertThat(new CatalogoPrecios(100).bytesFueraDelHeap()).isEqualTo(64 * 12);
+        assertThat(new CatalogoPrecios(128).bytesFueraDelHeap()).isEqualTo(64 * 12);
+        assertThat(new CatalogoPrecios(0).bytesFueraDelHeap()).isEqualTo(8 * 12);
+    }
+
+    @Test
+    void ajustarStock_debeSumarSoloAProductosPresentes() {
+        // Given
+        CatalogoPrecios catalogo = new CatalogoPrecios(16);
+        catalogo.actualizar(1L, 10.0, 5);
+
+        // When
+        catalogo.ajustarStock(1L, -3);
+        catalogo.ajustarStock(1L, 10);
+        catalogo.ajustarStock(2L, 4);
+        catalogo.ajustarStock(0L, 4);
+
+        // Then: el precio no cambia y el ausente no se agrega
+        assertThat(stocks(catalogo, 1L)).containsExactly(12);
+        assertThat(precios(catalogo, 1L)).containsExactly(10.0);
+        assertThat(precios(catalogo, 2L)[0]).isNaN();
+        assertThat(catalogo.tamanio()).isEqualTo(1);
+    }
+
+    @Test
+    void consultar_debeLeerValoresConsistentesMientrasSeAmpliaLaTabla() throws Exception {
+        // Given: un escritor inserta productos (ampliando la tabla muchas veces) y publica
+        // el último ID insertado; cada producto tiene precio = ID y stock = ID
+        CatalogoPrecios catalogo = new CatalogoPrecios(16);
+        int totalProductos = 200_000;
+        AtomicLong ultimoInsertado = new AtomicLong();
+        AtomicBoolean terminado = new AtomicBoolean();
+        ExecutorService hilos = Executors.newFixedThreadPool(5);
+
+        try {
+            List<Future<Long>> lectores = new ArrayList<>();
+            for (int l = 0; l < 4; l++) {
+                lectores.add(hilos.submit(() -> {
+                    long consultas = 0;
+                    long[] ids = new long[8];
+                    double[] precios = new double[8];
+                    int[] stocks = new int[8];
+                    while (!terminado.get()) {
+                        long maximo = ultimoInsertado.get();
+                        if (maximo == 0) {
+                            continue;
+                        }
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = ThreadLocalRandom.current().nextLong(1, maximo + 1);
+                        }
+                        // Then: todo ID ya publicado se encuentra con su precio y stock
+                        assertThat(catalogo.consultar(ids, precios, stocks)).isEqualTo(ids.length);
+                        for (int i = 0; i < ids.length; i++) {
+                            assertThat(precios[i]).isEqualTo((double) ids[i]);
+                            assertThat(stocks[i]).isEqualTo((int) ids[i]);
+                        }
+                        consultas++;
+                    }
+                    return consultas;
+                }));
+            }
+
+            // When
+            Future<?> escritor = hilos.submit(() -> {
+                for (long id = 1; id <= totalProductos; id++) {
+                    catalogo.actualizar(id, id, (int) id);
+                    ultimoInsertado.set(id);
+                }
+                terminado.set(true);
+            });
+            escritor.get(30, TimeUnit.SECONDS);
+
+            long consultas = 0;
+            for (Future<Long> lector : lectores) {
+                consultas += lector.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(consultas).isPositive();
+            assertThat(catalogo.tamanio()).isEqualTo(totalProductos);
+        } finally {
+            terminado.set(true);
+            hilos.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package uy.bcu.product.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uy.bcu.product.dto.ReservaDTO;
+import uy.bcu.product.repository.ProductoRepository;
+import uy.bcu.product.repository.ReservaStockRepository;
+import uy.bcu.product.repository.ReservaStockRepository.AsignacionVencidaException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservaStockServiceTest {
+
+    private static final Long PRODUCTO = 1L;
+    private static final int LOTE = 20;
+
+    @Mock
+    private ReservaStockRepository reservaStockRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private EscrituraStockDiferida escrituraDiferida;
+
+    @Mock
+    private CatalogoPreciosService catalogoPreciosService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // Estado de Oracle simulado: stock del producto, réplicas con asignación vigente,
+    // reservas pendientes y confirmadas, unidades devueltas por el registro write-behind
+    // y réplica de cada lote tomado
+    private AtomicInteger stockOracle;
+    private Set<String> asignacionesVigentes;
+    private Map<String, Integer> pendientes;
+    private Set<String> confirmadas;
+    private AtomicInteger devueltas;
+    private List<String> replicasDeLotes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockOracle = new AtomicInteger();
+        asignacionesVigentes = ConcurrentHashMap.newKeySet();
+        pendientes = new ConcurrentHashMap<>();
+        confirmadas = ConcurrentHashMap.newKeySet();
+        devueltas = new AtomicInteger();
+        replicasDeLotes = new CopyOnWriteArrayList<>();
+
+        // UPDATE productos SET stock = stock - n WHERE stock >= n, y MERGE en la asignación
+        lenient().when(reservaStockRepository.tomarLote(anyString(), anyLong(), anyInt(), any()))
+            .thenAnswer(invocacion -> {
+                String replica = invocacion.getArgument(0);
+                Long productoId = invocacion.getArgument(1);
+                int cantidad = invocacion.getArgument(2);
+                return Mono.fromSupplier(() -> {
+                    if (replicasDeLotes.contains(replica) && !asignacionesVigentes.contains(replica)) {
+                        throw new AsignacionVencidaException(replica, productoId);
+                    }
+                    if (!PRODUCTO.equals(productoId)) {
+                        return 0;
+                    }
+                    int actual;
+                    do {
+                        actual = stockOracle.get();
+                        if (actual < cantidad) {
+                            return 0;
+                        }
+                    } while (!stockOracle.compareAndSet(actual, actual - cantidad));
+                    asignacionesVigentes.add(replica);
+                    replicasDeLotes.add(replica);
+                    return 1;
+                });
+            });
+        lenient().when(reservaStockRepository.insertar(anyString(), anyString(), anyLong(), anyInt(), any()))
+            .thenAnswer(invocacion -> {
+                String replica = invocacion.getArgument(0);
+                String id = invocacion.getArgument(1);
+                int cantidad = invocacion.getArgument(3);
+                return Mono.fromSupplier(() -> {
+                    if (!asignacionesVigentes.contains(replica)) {
+                        return 0;
+                    }
+                    pendientes.put(id, cantidad);
+                    return 1;
+                });
+            });
+        lenient().when(reservaStockRepository.confirmar(anyString())).thenAnswer(invocacion -> {
+            String id = invocacion.getArgument(0);
+            return Mono.fromSupplier(() -> {
+                if (pendientes.remove(id) == null) {
+                    return 0;
+                }
+                confirmadas.add(id);
+                return 1;
+            });
+        });
+        lenient().when(reservaStockRepository.estado(anyString())).thenAnswer(invocacion -> Mono.justOrEmpty(
+            confirmadas.contains(invocacion.<String>getArgument(0)) ? ReservaStockRepository.CONFIRMADA : null));
+        lenient().when(reservaStockRepository.liberar(anyString())).thenAnswer(invocacion -> {
+            String id = invocacion.getArgument(0);
+            return Mono.defer(() -> {
+                Integer cantidad = pendientes.remove(id);
+                if (cantidad == null) {
+                    return Mono.empty();
+                }
+                stockOracle.addAndGet(cantidad);
+                return Mono.just(Map.entry(PRODUCTO, cantidad));
+            });
+        });
+        lenient().when(productoRepository.existe(anyLong()))
+            .thenAnswer(invocacion -> Mono.just(PRODUCTO.equals(invocacion.getArgument(0))));
+        lenient().doAnswer(invocacion -> devueltas.addAndGet(invocacion.getArgument(2)))
+            .when(escrituraDiferida).registrar(anyString(), eq(PRODUCTO), anyInt());
+    }
+
+    private ReservaStockService crear(Duration inactividad) {
+        return new ReservaStockService(reservaStockRepository, productoRepository, escrituraDiferida,
+            catalogoPreciosService, meterRegistry, LOTE, Duration.ofMinutes(10), inactividad,
+            Duration.ofSeconds(60), Duration.ofSeconds(30));
+    }
+
+    private ReservaStockService crear() {
+        return crear(Duration.ofMinutes(10));
+    }
+
+    private int reservadas() {
+        return pendientes.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Test
+    void reservar_debeTomarUnLoteDeOracleYAtenderLasSiguientesDesdeElSaldoLocal() {
+        // Given
+        stockOracle.set(100);
+        ReservaStockService servicio = crear();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            ReservaDTO reserva = servicio.reservar(PRODUCTO, 2).block();
+            assertThat(reserva.getCantidad()).isEqualTo(2);
+        }
+
+        // Then: un solo UPDATE por el lote completo y un INSERT por reserva
+        verify(reservaStockRepository, times(1)).tomarLote(anyString(), anyLong(), anyInt(), any());
+        verify(reservaStockRepository, times(5)).insertar(anyString(), anyString(), eq(PRODUCTO), eq(2), any());
+        assertThat(stockOracle.get()).isEqualTo(100 - LOTE);
+        assertThat(reservadas()).isEqualTo(10);
+        verify(catalogoPreciosService).ajustarStock(PRODUCTO, -LOTE);
+    }
+
+    @Test
+    void reservar_debeTomarSoloLoPedidoSiOracleNoAlcanzaParaUnLote() {
+        // Given
+        stockOracle.set(7);
+        ReservaStockService servicio = crear();
+
+        // When
+        servicio.reservar(PRODUCTO, 5).block();
+
+        // Then
+        verify(reservaStockRepository).tomarLote(anyString(), eq(PRODUCTO), eq(LOTE), any());
+        verify(reservaStockRepository).tomarLote(anyString(), eq(PRODUCTO), eq(5), any());
+        assertThat(stockOracle.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reservar_debeUsarPrimeroElSaldoLocalYPedirAOracleSoloElFaltante() {
+        // Given: la réplica tiene 15 unidades del primer lote y Oracle 5
+        stockOracle.set(25);
+        ReservaStockService servicio = crear();
+        servicio.reservar(PRODUCTO, 5).block();
+
+        // When: se piden 18 de las 20 unidades que existen entre ambos
+        ReservaDTO reserva = servicio.reservar(PRODUCTO, 18).block();
+
+        // Then
+        assertThat(reserva.getCantidad()).isEqualTo(18);
+        verify(reservaStockRepository).tomarLote(anyString(), eq(PRODUCTO), eq(3), any());
+        verify(reservaStockRepository, never()).tomarLote(anyString(), eq(PRODUCTO), eq(18), any());
+        assertThat(stockOracle.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reservar_debeFallarConIllegalStateExceptionSinStock() {
+        // Given
+        stockOracle.set(3);
+        ReservaStockService servicio = crear();
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.reservar(PRODUCTO, 5).block())
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(stockOracle.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("productos.reservas").tag("resultado", "sin_stock").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void reservar_debeFallarConIllegalArgumentExceptionSiElProductoNoExiste() {
+        // Given
+        ReservaStockService servicio = crear();
+
+        // When / Then
+        assertThatThrownBy(() -> servicio.reservar(99L, 1).block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reservar_noDebeDescontarDelSaldoHastaLaSuscripcion() {
+        // Given: 15 unidades en el saldo local
+        stockOracle.set(25);
+        ReservaStockService servicio = crear();
+        servicio.reservar(PRODUCTO, 5).block();
+
+        // When: el Mono se arma pero nadie se suscribe
+        servicio.reservar(PRODUCTO, 15);
+        servicio.detener();
+
+        // Then: al detener se devuelven las 15 unidades; la reserva queda en Oracle
+        assertThat(devueltas.get()).isEqualTo(15);
+        assertThat(reservadas()).isEqualTo(5);
+    }
+
+    @Test
+    void reservar_debeReintentarConOtroIdSiLaAsignacionVencioAlInsertar() {
+        // Given: la asignación de la réplica venció (otra réplica la recuperó) con 19 unidades en el saldo
+        stockOracle.set(100);
+        ReservaStockService servicio = crear();
+        servicio.reservar(PRODUCTO, 1).block();
+        String vencida = replicasDeLotes.get(0);
+        asignacionesVigentes.remove(vencida);
+
+        // When
+        ReservaDTO reserva = servicio.reservar(PRODUCTO, 2).block();
+
+        // Then: el saldo viejo se devuelve desde su asignación y la reserva sale de un lote del ID nuevo
+        assertThat(reserva.getCantidad()).isEqualTo(2);
+        assertThat(replicasDeLotes).hasSize(2).doesNotHaveDuplicates();
+        verify(escrituraDiferida).registrar(vencida, PRODUCTO, 2);
+        verify(escrituraDiferida).registrar(vencida, PRODUCTO, 17);
+        assertThat(meterRegistry.counter("productos.stock.asignaciones.vencidas").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reservar_debeReintentarConOtroIdSiLaAsignacionVencioAlTomarUnLote() {
+        // Given: el saldo se agotó y la asignación venció antes de pedir otro lote
+        stockOracle.set(100);
+        ReservaStockService servicio = crear();
+        servicio.reservar(PRODUCTO, LOTE).block();
+        asignacionesVigentes.remove(replicasDeLotes.get(0));
+
+        // When
+        ReservaDTO reserva = servicio.reservar(PRODUCTO, 1).block();
+
+        // Then: el lote fallido no descontó stock; el siguiente se tomó con el ID nuevo
+        assertThat(reserva.getCantidad()).isEqualTo(1);
+        assertThat(replicasDeLotes).hasSize(2).doesNotHaveDuplicates();
+        assertThat(stockOracle.get()).isEqualTo(100 - 2 * LOTE);
+    }
+
+    @Test
+    void liberar_debeDevolverLasUnidadesAOracle() {
+        // Given
+        stockOracle.set(LOTE);
+        ReservaStockService servicio = crear();
+        ReservaDTO reserva = servicio.reservar(PRODUCTO, 3).block();
+
+        // When
+        servicio.liberar(reserva.getId()).block();
+
+        // Then
+        assertThat(stockOracle.get()).isEqualTo(3);
+        verify(catalogoPreciosService).ajustarStock(PRODUCTO, 3);
+        assertThatThrownBy(() -> servicio.liberar(reserva.getId()).block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void confirmar_debeSerIdempotenteYFallarConReservasInexistentes() {
+        // Given
+        stockOracle.set(LOTE);
+        ReservaStockService servicio = crear();
+        ReservaDTO reserva = servicio.reservar(PRODUCTO, 3).block();
+        ReservaDTO liberada = servicio.reservar(PRODUCTO, 2).block();
+        servicio.liberar(liberada.getId()).block();
+
+        // When
+        servicio.confirmar(reserva.getId()).block();
+        servicio.confirmar(reserva.getId()).block();
+
+        // Then
+        assertThat(confirmadas).containsExactly(reserva.getId());
+        assertThatThrownBy(() -> servicio.confirmar(liberada.getId()).block())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> servicio.confirmar("inexistente").block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void vencerReservas_debeAplicarAlCatalogoLasUnidadesDevueltas() {
+        // Given
+        when(reservaStockRepository.vencer(anyInt()))
+            .thenReturn(Mono.just(List.of(Map.entry(PRODUCTO, 3), Map.entry(2L, 1))));
+        ReservaStockService servicio = crear();
+
+        // When
+        servicio.vencerReservas();
+
+        // Then
+        verify(catalogoPreciosService).ajustarStock(PRODUCTO, 3);
+        verify(catalogoPreciosService).ajustarStock(2L, 1);
+        assertThat(meterRegistry.counter("productos.reservas.vencidas").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void devolverSaldosInactivos_noDebeRetenerElSaldoPorIntentosFallidos() throws InterruptedException {
+        // Given: 15 unidades en el saldo local, sin reservas exitosas recientes
+        stockOracle.set(25);
+        ReservaStockService servicio = crear(Duration.ofMillis(20));
+        servicio.reservar(PRODUCTO, 5).block();
+        Thread.sleep(30);
+
+        // When: llegan pedidos que no se pueden atender
+        assertThatThrownBy(() -> servicio.reservar(PRODUCTO, 100).block())
+            .isInstanceOf(IllegalStateException.class);
+        servicio.devolverSaldosInactivos();
+
+        // Then
+        verify(escrituraDiferida).registrar(replicasDeLotes.get(0), PRODUCTO, 15);
+        assertThat(devueltas.get()).isEqualTo(15);
+    }
+
+    @Test
+    void devolverSaldosInactivos_debeQuitarElSaldoDelMapa() throws InterruptedException {
+        // Given
+        stockOracle.set(100);
+        ReservaStockService servicio = crear(Duration.ofMillis(20));
+        servicio.reservar(PRODUCTO, 5).block();
+        Thread.sleep(30);
+
+        // When
+        servicio.devolverSaldosInactivos();
+        servicio.devolverSaldosInactivos();
+        servicio.reservar(PRODUCTO, 5).block();
+
+        // Then: el saldo se devolvió una vez y la reserva siguiente tomó un lote nuevo
+        verify(escrituraDiferida, times(1)).registrar(anyString(), eq(PRODUCTO), anyInt());
+        verify(reservaStockRepository, times(2)).tomarLote(anyString(), anyLong(), anyInt(), any());
+        assertThat(meterRegistry.get("productos.stock.saldo.local").gauge().value()).isEqualTo(15.0);
+    }
+
+    @Test
+    void mantenerAsignaciones_debeRenovarLiquidarYRecuperarLasReplicasVencidas() {
+        // Given
+        when(reservaStockRepository.renovar(anyString(), any())).thenReturn(Mono.just(1));
+        when(reservaStockRepository.liquidarConfirmadas(anyString())).thenReturn(Mono.just(2));
+        when(reservaStockRepository.replicasVencidas(any())).thenReturn(Flux.just("caida"));
+        when(reservaStockRepository.recuperar(eq("caida"), any())).thenReturn(Mono.just(Map.of(PRODUCTO, 7)));
+        ReservaStockService servicio = crear();
+
+        // When
+        servicio.mantenerAsignaciones();
+
+        // Then: se renueva y liquida con el mismo ID de réplica
+        ArgumentCaptor<String> renovada = ArgumentCaptor.forClass(String.class);
+        verify(reservaStockRepository).renovar(renovada.capture(), eq(Duration.ofSeconds(60)));
+        verify(reservaStockRepository).liquidarConfirmadas(renovada.getValue());
+        verify(catalogoPreciosService).ajustarStock(PRODUCTO, 7);
+    }
+
+    @Test
+    void mantenerAsignaciones_debeRecuperarAunqueFalleLaRenovacion() {
+        // Given
+        when(reservaStockRepository.renovar(anyString(), any())).thenReturn(Mono.error(new RuntimeException("caída")));
+        when(reservaStockRepository.replicasVencidas(any())).thenReturn(Flux.just("caida"));
+        when(reservaStockRepository.recuperar(eq("caida"), any())).thenReturn(Mono.just(Map.of()));
+        ReservaStockService servicio = crear();
+
+        // When
+        servicio.mantenerAsignaciones();
+
+        // Then
+        verify(reservaStockRepository, never()).liquidarConfirmadas(anyString());
+        verify(reservaStockRepository).recuperar(eq("caida"), any());
+    }
+
+    @Test
+    void reservar_noDebeVenderMasDeLoQueHayConReservasConcurrentes() throws Exception {
+        // Given
+        int hilos = 8;
+        int porHilo = 50;
+        stockOracle.set(100);
+        ReservaStockService servicio = crear();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger reservadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+
+        // When
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                for (int j = 0; j < porHilo; j++) {
+                    try {
+                        reservadas.addAndGet(servicio.reservar(PRODUCTO, 1).block().getCantidad());
+                    } catch (IllegalStateException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        servicio.detener();
+
+        // Then: se reservó todo el stock sin excederlo y cada reserva quedó registrada en Oracle
+        assertThat(reservadas.get()).isEqualTo(100);
+        assertThat(rechazadas.get()).isEqualTo(hilos * porHilo - 100);
+        assertThat(reservadas()).isEqualTo(100);
+        assertThat(stockOracle.get() + devueltas.get()).isZero();
+    }
+
+    @Test
+    void reservar_debeConservarLasUnidadesConReservasConcurrentesConStockSuficiente() throws Exception {
+        // Given
+        int hilos = 8;
+        int porHilo = 50;
+        stockOracle.set(1000);
+        ReservaStockService servicio = crear();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger reservadas = new AtomicInteger();
+
+        // When
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                for (int j = 0; j < porHilo; j++) {
+                    reservadas.addAndGet(servicio.reservar(PRODUCTO, 1 + j % 3).block().getCantidad());
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        servicio.detener();
+
+        // Then: ninguna reserva falló y, con el saldo devuelto al detener, no se perdió ninguna unidad
+        assertThat(reservadas.get()).isEqualTo(hilos * (porHilo / 3 * 6 + 3));
+        assertThat(reservadas()).isEqualTo(reservadas.get());
+        assertThat(stockOracle.get() + devueltas.get() + reservadas()).isEqualTo(1000);
+    }
+}
@@ -3,12 +3,14 @@ package uy.bcu.usuario;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Usuario Service - Microservicio para gestión de usuarios
  */
 @SpringBootApplication
 @EnableEurekaClient
+@EnableScheduling
 public class UsuarioServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(UsuarioServiceApplication.class, args);
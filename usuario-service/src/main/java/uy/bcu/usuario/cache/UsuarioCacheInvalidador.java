@@ -0,0 +1,150 @@
+package uy.bcu.usuario.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import uy.bcu.usuario.config.CacheConfig;
+import uy.bcu.usuario.dto.InvalidacionCacheDTO;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalida la cache de usuarios cuando cambian datos.
+ * Tras el commit se desaloja la entrada local y se avisa en segundo plano a las
+ * demás réplicas registradas en Eureka. Si un aviso se pierde, la expiración de
+ * la cache acota el tiempo que una réplica puede servir un dato viejo.
+ */
+@Component
+public class UsuarioCacheInvalidador {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioCacheInvalidador.class);
+
+    static final String RUTA_INVALIDACION = "/internal/cache/usuarios/invalidaciones";
+
+    // Por encima de este tamaño conviene vaciar la cache de las réplicas en vez de enviar los IDs
+    private static final int MAXIMO_IDS_POR_AVISO = 1000;
+
+    private final Cache cache;
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final RestTemplate restTemplate;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final String nombreServicio;
+
+    @Autowired
+    public UsuarioCacheInvalidador(CacheManager cacheManager,
+                                   DiscoveryClient discoveryClient,
+                                   ObjectProvider<Registration> registration,
+                                   RestTemplateBuilder restTemplateBuilder,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${spring.application.name}") String nombreServicio) {
+        this(cacheManager, discoveryClient, registration,
+            restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(500))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build(),
+            crearExecutor(), meterRegistry, nombreServicio);
+    }
+
+    UsuarioCacheInvalidador(CacheManager cacheManager,
+                            DiscoveryClient discoveryClient,
+                            ObjectProvider<Registration> registration,
+                            RestTemplate restTemplate,
+                            Executor executor,
+                            MeterRegistry meterRegistry,
+                            String nombreServicio) {
+        this.cache = cacheManager.getCache(CacheConfig.CACHE_USUARIOS);
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.nombreServicio = nombreServicio;
+    }
+
+    private static ExecutorService crearExecutor() {
+        // Cola acotada: ante una ráfaga se descartan los avisos más viejos y actúa el TTL
+        return new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1000),
+            runnable -> {
+                Thread hilo = new Thread(runnable, "usuarios-cache-invalidacion");
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alModificarUsuarios(UsuariosModificadosEvent evento) {
+        invalidarLocal(evento.getIds(), evento.isTodos());
+
+        boolean todos = evento.isTodos() || evento.getIds().size() > MAXIMO_IDS_POR_AVISO;
+        InvalidacionCacheDTO aviso = new InvalidacionCacheDTO(todos ? List.of() : evento.getIds(), todos);
+        executor.execute(() -> propagar(aviso));
+    }
+
+    /**
+     * Invalidar solo la cache de esta réplica (usado también por los avisos remotos)
+     */
+    public void invalidarLocal(Collection<Long> ids, boolean todos) {
+        if (cache == null) {
+            return;
+        }
+        if (todos) {
+            cache.clear();
+            logger.debug("Cache de usuarios vaciada");
+        } else {
+            ids.forEach(cache::evict);
+            logger.debug("Invalidadas {} entradas de la cache de usuarios", ids.size());
+        }
+    }
+
+    private void propagar(InvalidacionCacheDTO aviso) {
+        String instanciaPropia = registration.getIfAvailable() != null
+            ? registration.getIfAvailable().getInstanceId()
+            : null;
+
+        for (ServiceInstance instancia : discoveryClient.getInstances(nombreServicio)) {
+            if (instancia.getInstanceId() != null && instancia.getInstanceId().equals(instanciaPropia)) {
+                continue;
+            }
+            try {
+                restTemplate.postForLocation(instancia.getUri() + RUTA_INVALIDACION, aviso);
+                meterRegistry.counter("usuarios.cache.invalidaciones.propagadas", "resultado", "ok").increment();
+            } catch (RestClientException e) {
+                meterRegistry.counter("usuarios.cache.invalidaciones.propagadas", "resultado", "error").increment();
+                logger.warn("No se pudo invalidar la cache en {}: {}", instancia.getUri(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
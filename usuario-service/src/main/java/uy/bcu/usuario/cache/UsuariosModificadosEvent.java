@@ -0,0 +1,61 @@
+package uy.bcu.usuario.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Evento publicado cuando se crean o desactivan usuarios.
+ * Se procesa después del commit para invalidar la cache local y la de las
+ * demás réplicas, y para actualizar los contadores de estadísticas.
+ */
+public class UsuariosModificadosEvent {
+
+    private final List<Long> ids;
+    private final boolean todos;
+    private final long creados;
+    private final long desactivados;
+
+    private UsuariosModificadosEvent(List<Long> ids, boolean todos, long creados, long desactivados) {
+        this.ids = ids;
+        this.todos = todos;
+        this.creados = creados;
+        this.desactivados = desactivados;
+    }
+
+    public static UsuariosModificadosEvent usuarioCreado(Long id) {
+        return new UsuariosModificadosEvent(Collections.singletonList(id), false, 1, 0);
+    }
+
+    public static UsuariosModificadosEvent usuariosCreados(Collection<Long> ids) {
+        return new UsuariosModificadosEvent(List.copyOf(ids), false, ids.size(), 0);
+    }
+
+    public static UsuariosModificadosEvent usuarioDesactivado(Long id, boolean estabaActivo) {
+        return new UsuariosModificadosEvent(Collections.singletonList(id), false, 0, estabaActivo ? 1 : 0);
+    }
+
+    public static UsuariosModificadosEvent usuariosDesactivados(Collection<Long> ids, long desactivados) {
+        return new UsuariosModificadosEvent(List.copyOf(ids), false, 0, desactivados);
+    }
+
+    public static UsuariosModificadosEvent desactivacionMasiva(long desactivados) {
+        return new UsuariosModificadosEvent(Collections.emptyList(), true, 0, desactivados);
+    }
+
+    public static UsuariosModificadosEvent todos() {
+        return new UsuariosModificadosEvent(Collections.emptyList(), true, 0, 0);
+    }
+
+    /** IDs cuyas entradas de cache deben invalidarse */
+    public List<Long> getIds() { return ids; }
+
+    /** Si es true debe vaciarse la cache completa */
+    public boolean isTodos() { return todos; }
+
+    /** Cantidad de usuarios nuevos (activos) */
+    public long getCreados() { return creados; }
+
+    /** Cantidad de usuarios que pasaron de activos a inactivos */
+    public long getDesactivados() { return desactivados; }
+}
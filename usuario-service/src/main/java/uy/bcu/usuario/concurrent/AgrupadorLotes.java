@@ -0,0 +1,168 @@
+package uy.bcu.usuario.concurrent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Agrupa búsquedas individuales por clave en cargas por lote (estilo DataLoader).
+ *
+ * Las claves pedidas dentro de una ventana de tiempo se juntan y se resuelven con
+ * una sola llamada a la función de carga (por ejemplo un WHERE id IN (...)); el lote
+ * sale antes si alcanza el tamaño máximo. Cada solicitud espera a lo sumo la
+ * ventana más lo que tarde la consulta del lote.
+ *
+ * Métrica: lotes.tamanio{nombre}, cantidad de claves por carga.
+ */
+public class AgrupadorLotes<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, Map<K, V>> cargaLote;
+    private final int maximoLote;
+    private final long ventanaNanos;
+    private final ScheduledExecutorService planificador;
+    private final ExecutorService ejecutor;
+    private final DistributionSummary tamanioLote;
+
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pendientes = new LinkedHashMap<>();
+    private ScheduledFuture<?> despachoProgramado;
+
+    /**
+     * @param cargaLote resuelve un lote de claves; las claves ausentes en el resultado se informan como null
+     * @param hilos     cargas de lote que pueden ejecutarse a la vez
+     */
+    public AgrupadorLotes(String nombre, Function<List<K>, Map<K, V>> cargaLote, Duration ventana,
+                          int maximoLote, int hilos, MeterRegistry meterRegistry) {
+        this.cargaLote = cargaLote;
+        this.maximoLote = maximoLote;
+        this.ventanaNanos = ventana.toNanos();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(runnable -> crearHilo(runnable, nombre + "-ventana"));
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(hilos,
+            runnable -> crearHilo(runnable, nombre + "-carga-" + numero.incrementAndGet()));
+        this.tamanioLote = DistributionSummary.builder("lotes.tamanio")
+            .tag("nombre", nombre)
+            .description("Claves resueltas por cada carga de lote")
+            .register(meterRegistry);
+    }
+
+    private static Thread crearHilo(Runnable runnable, String nombre) {
+        Thread hilo = new Thread(runnable, nombre);
+        hilo.setDaemon(true);
+        return hilo;
+    }
+
+    /**
+     * Pedir una clave; el futuro se completa cuando se carga el lote que la incluye.
+     * Si la clave ya está pendiente en el lote actual se devuelve el mismo futuro.
+     */
+    public CompletableFuture<V> cargar(K clave) {
+        Map<K, CompletableFuture<V>> lleno = null;
+        CompletableFuture<V> futuro;
+        synchronized (lock) {
+            futuro = pendientes.get(clave);
+            if (futuro != null) {
+                return futuro;
+            }
+            futuro = new CompletableFuture<>();
+            pendientes.put(clave, futuro);
+            if (pendientes.size() >= maximoLote) {
+                lleno = tomarPendientes();
+            } else if (pendientes.size() == 1) {
+                try {
+                    despachoProgramado = planificador.schedule(this::despacharVentana, ventanaNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    pendientes.remove(clave);
+                    futuro.completeExceptionally(new IllegalStateException("El agrupador de lotes está detenido", e));
+                }
+            }
+        }
+        if (lleno != null) {
+            despachar(lleno);
+        }
+        return futuro;
+    }
+
+    /**
+     * Pedir una clave y esperar el resultado (null si la carga no la encontró)
+     */
+    public V obtener(K clave) {
+        try {
+            return cargar(clave).join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+
+    private Map<K, CompletableFuture<V>> tomarPendientes() {
+        Map<K, CompletableFuture<V>> lote = pendientes;
+        pendientes = new LinkedHashMap<>();
+        if (despachoProgramado != null) {
+            despachoProgramado.cancel(false);
+            despachoProgramado = null;
+        }
+        return lote;
+    }
+
+    private void despacharVentana() {
+        Map<K, CompletableFuture<V>> lote;
+        synchronized (lock) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = tomarPendientes();
+        }
+        despachar(lote);
+    }
+
+    private void despachar(Map<K, CompletableFuture<V>> lote) {
+        tamanioLote.record(lote.size());
+        try {
+            ejecutor.execute(() -> ejecutarCarga(lote));
+        } catch (RejectedExecutionException e) {
+            lote.values().forEach(futuro -> futuro.completeExceptionally(
+                new IllegalStateException("El agrupador de lotes está detenido", e)));
+        }
+    }
+
+    private void ejecutarCarga(Map<K, CompletableFuture<V>> lote) {
+        try {
+            Map<K, V> resultado = cargaLote.apply(new ArrayList<>(lote.keySet()));
+            lote.forEach((clave, futuro) -> futuro.complete(resultado.get(clave)));
+        } catch (RuntimeException | Error e) {
+            lote.values().forEach(futuro -> futuro.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Cargar lo pendiente y detener los hilos
+     */
+    @Override
+    public void close() {
+        planificador.shutdownNow();
+        despacharVentana();
+        ejecutor.shutdown();
+    }
+}
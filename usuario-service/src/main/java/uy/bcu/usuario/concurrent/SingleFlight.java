@@ -0,0 +1,78 @@
+package uy.bcu.usuario.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Colapsa llamadas concurrentes con la misma clave en una sola ejecución.
+ *
+ * El primer hilo que pide una clave ejecuta la llamada; los que llegan mientras
+ * está en curso esperan ese mismo resultado (o excepción) en vez de repetirla.
+ * Terminada la llamada la clave se libera, por lo que no se guardan resultados:
+ * para eso está la cache.
+ *
+ * Métricas: singleflight.llamadas{nombre, resultado=ejecutada|colapsada} y
+ * singleflight.en.curso{nombre}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final Counter ejecutadas;
+    private final Counter colapsadas;
+
+    public SingleFlight(String nombre, MeterRegistry meterRegistry) {
+        this.ejecutadas = meterRegistry.counter("singleflight.llamadas", "nombre", nombre, "resultado", "ejecutada");
+        this.colapsadas = meterRegistry.counter("singleflight.llamadas", "nombre", nombre, "resultado", "colapsada");
+        Gauge.builder("singleflight.en.curso", enCurso, Map::size)
+            .tag("nombre", nombre)
+            .description("Claves con una llamada en curso")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ejecutar la llamada para la clave, o esperar la que ya está en curso
+     */
+    public V ejecutar(K clave, Supplier<V> llamada) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            colapsadas.increment();
+            return esperar(existente);
+        }
+
+        ejecutadas.increment();
+        try {
+            V valor = llamada.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    private static <V> V esperar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            // Se relanza la excepción original de la llamada, no el envoltorio
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+}
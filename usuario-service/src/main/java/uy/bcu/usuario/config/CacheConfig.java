@@ -0,0 +1,16 @@
+package uy.bcu.usuario.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache en memoria de usuario-service.
+ * El tamaño, la expiración y las estadísticas de Caffeine se definen en
+ * spring.cache.caffeine.spec; Spring Boot publica las métricas cache.* en Prometheus.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CACHE_USUARIOS = "usuarios";
+}
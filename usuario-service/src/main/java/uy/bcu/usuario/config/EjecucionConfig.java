@@ -0,0 +1,54 @@
+package uy.bcu.usuario.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de ejecución de las solicitudes HTTP (propiedad ejecucion.modo).
+ *
+ * - plataforma (por defecto): pool fijo de hilos de Tomcat (server.tomcat.threads.max).
+ * - virtual: un hilo virtual por solicitud; la concurrencia hacia Oracle queda
+ *   acotada por el pool de conexiones y no por la cantidad de hilos.
+ *
+ * Los hilos virtuales requieren Java 21; en una JVM anterior se registra una
+ * advertencia y se siguen usando hilos de plataforma.
+ */
+@Configuration
+public class EjecucionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EjecucionConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "ejecucion.modo", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> hilosVirtualesTomcat() {
+        ExecutorService executor = crearExecutorVirtual();
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+                logger.info("Solicitudes HTTP atendidas con hilos virtuales");
+            }
+        };
+    }
+
+    /**
+     * Obtener Executors.newVirtualThreadPerTaskExecutor() por reflexión, para
+     * compilar con Java 11 y activarlo solo si la JVM lo soporta.
+     */
+    private static ExecutorService crearExecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            logger.warn("La JVM {} no soporta hilos virtuales; se usan hilos de plataforma",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uy.bcu.usuario.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uy.bcu.usuario.concurrent.AgrupadorLotes;
+import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.repository.UsuarioRepository;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupación de búsquedas por ID en consultas por lote.
+ * Las búsquedas que no se resuelven en la cache y llegan dentro de la misma
+ * ventana (usuarios.lotes.ventana) se resuelven con un único WHERE id IN (...).
+ */
+@Configuration
+public class LotesConfig {
+
+    @Bean(destroyMethod = "close")
+    public AgrupadorLotes<Long, UsuarioDTO> agrupadorUsuariosPorId(
+            UsuarioRepository usuarioRepository,
+            MeterRegistry meterRegistry,
+            @Value("${usuarios.lotes.ventana:2ms}") Duration ventana,
+            // No más de 1000: es el límite de Oracle para una lista IN
+            @Value("${usuarios.lotes.maximo:100}") int maximo,
+            @Value("${usuarios.lotes.hilos:4}") int hilos) {
+        return new AgrupadorLotes<>("usuarios.por.id",
+            ids -> usuarioRepository.findActivosPorIds(ids).stream()
+                .collect(Collectors.toMap(UsuarioDTO::getId, Function.identity())),
+            ventana, Math.min(maximo, 1000), hilos, meterRegistry);
+    }
+}
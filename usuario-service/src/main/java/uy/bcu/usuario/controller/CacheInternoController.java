@@ -0,0 +1,38 @@
+package uy.bcu.usuario.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import uy.bcu.usuario.cache.UsuarioCacheInvalidador;
+import uy.bcu.usuario.dto.InvalidacionCacheDTO;
+
+import java.util.Collections;
+
+/**
+ * Endpoint interno que reciben las réplicas de usuario-service para invalidar su cache.
+ * No forma parte de la API pública.
+ */
+@Hidden
+@RestController
+@RequestMapping("/internal/cache/usuarios")
+public class CacheInternoController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInternoController.class);
+
+    private final UsuarioCacheInvalidador usuarioCacheInvalidador;
+
+    public CacheInternoController(UsuarioCacheInvalidador usuarioCacheInvalidador) {
+        this.usuarioCacheInvalidador = usuarioCacheInvalidador;
+    }
+
+    @PostMapping("/invalidaciones")
+    public ResponseEntity<Void> invalidar(@RequestBody InvalidacionCacheDTO invalidacion) {
+        logger.debug("Invalidación de cache recibida (todos: {})", invalidacion.isTodos());
+        usuarioCacheInvalidador.invalidarLocal(
+            invalidacion.getIds() != null ? invalidacion.getIds() : Collections.emptyList(),
+            invalidacion.isTodos());
+        return ResponseEntity.noContent().build();
+    }
+}
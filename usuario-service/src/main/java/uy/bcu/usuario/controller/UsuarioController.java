@@ -7,11 +7,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uy.bcu.usuario.dto.UsuarioDTO;
 import uy.bcu.usuario.dto.UsuarioCreateDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioEstadisticasDTO;
+import uy.bcu.usuario.dto.UsuarioLoteCreateDTO;
+import uy.bcu.usuario.dto.UsuarioLoteResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioPaginaDTO;
+import uy.bcu.usuario.service.UsuarioEstadisticasService;
+import uy.bcu.usuario.service.UsuarioExportService;
 import uy.bcu.usuario.service.UsuarioService;
 
 import javax.validation.Valid;
@@ -25,20 +37,36 @@ public class UsuarioController {
     private static final Logger logger = LoggerFactory.getLogger(UsuarioController.class);
 
     private final UsuarioService usuarioService;
+    private final UsuarioExportService usuarioExportService;
+    private final UsuarioEstadisticasService usuarioEstadisticasService;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService,
+                             UsuarioExportService usuarioExportService,
+                             UsuarioEstadisticasService usuarioEstadisticasService) {
         this.usuarioService = usuarioService;
+        this.usuarioExportService = usuarioExportService;
+        this.usuarioEstadisticasService = usuarioEstadisticasService;
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todos los usuarios activos")
+    @Operation(summary = "Obtener usuarios activos paginados por cursor")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente")
+        @ApiResponse(responseCode = "200", description = "Página de usuarios obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido")
     })
-    public ResponseEntity<List<UsuarioDTO>> obtenerTodosLosUsuarios() {
-        logger.info("Solicitud para obtener todos los usuarios");
-        List<UsuarioDTO> usuarios = usuarioService.obtenerTodosLosUsuarios();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<UsuarioPaginaDTO> obtenerTodosLosUsuarios(
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad máxima de usuarios por página (máx. " + UsuarioService.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + UsuarioService.LIMITE_POR_DEFECTO) int limite) {
+        logger.info("Solicitud para obtener usuarios (cursor: {}, límite: {})", cursor, limite);
+        try {
+            UsuarioPaginaDTO pagina = usuarioService.obtenerTodosLosUsuarios(cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Error al obtener usuarios: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -74,17 +102,72 @@ public class UsuarioController {
         }
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Crear usuarios en lote")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Lote procesado; incluye los emails rechazados"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "409", description = "Un email se registró en paralelo; el lote no se aplicó")
+    })
+    public ResponseEntity<UsuarioLoteResultadoDTO> crearUsuariosEnLote(@Valid @RequestBody UsuarioLoteCreateDTO dto) {
+        logger.info("Solicitud para crear lote de {} usuarios", dto.getUsuarios().size());
+        try {
+            UsuarioLoteResultadoDTO resultado = usuarioService.crearUsuariosEnLote(dto.getUsuarios());
+            return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Conflicto al crear lote de usuarios: {}", e.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar todos los usuarios en streaming (NDJSON o CSV)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarUsuarios(
+            @Parameter(description = "Formato de salida: ndjson o csv")
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        logger.info("Solicitud de exportación de usuarios en formato: {}", formato);
+        UsuarioExportService.Formato formatoSalida;
+        try {
+            formatoSalida = UsuarioExportService.Formato.desde(formato);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Error al exportar usuarios: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody cuerpo = salida -> usuarioExportService.exportar(formatoSalida, salida);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(formatoSalida.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=usuarios." + formatoSalida.getExtension())
+            .body(cuerpo);
+    }
+
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar usuarios por nombre")
+    @Operation(summary = "Buscar usuarios activos por nombre")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente")
+        @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Modo de búsqueda no soportado")
     })
     public ResponseEntity<List<UsuarioDTO>> buscarPorNombre(
             @Parameter(description = "Nombre a buscar")
-            @RequestParam String nombre) {
-        logger.info("Solicitud de búsqueda por nombre: {}", nombre);
-        List<UsuarioDTO> usuarios = usuarioService.buscarPorNombre(nombre);
-        return ResponseEntity.ok(usuarios);
+            @RequestParam String nombre,
+            @Parameter(description = "Modo de búsqueda: prefijo o contiene")
+            @RequestParam(defaultValue = "contiene") String modo,
+            @Parameter(description = "Cantidad máxima de resultados (máx. " + UsuarioService.LIMITE_BUSQUEDA_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + UsuarioService.LIMITE_BUSQUEDA_POR_DEFECTO) int limite) {
+        logger.info("Solicitud de búsqueda por nombre: {} (modo: {})", nombre, modo);
+        try {
+            UsuarioService.ModoBusqueda modoBusqueda = UsuarioService.ModoBusqueda.desde(modo);
+            List<UsuarioDTO> usuarios = usuarioService.buscarPorNombre(nombre, modoBusqueda, limite);
+            return ResponseEntity.ok(usuarios);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Error en la búsqueda de usuarios: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -106,14 +189,30 @@ public class UsuarioController {
         }
     }
 
+    @PostMapping("/desactivaciones")
+    @Operation(summary = "Desactivar usuarios en forma masiva por IDs o por fecha de creación")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Desactivación aplicada; incluye la cantidad de usuarios afectados"),
+        @ApiResponse(responseCode = "400", description = "Criterio de desactivación inválido")
+    })
+    public ResponseEntity<UsuarioDesactivacionResultadoDTO> desactivarUsuarios(
+            @Valid @RequestBody UsuarioDesactivacionDTO dto) {
+        logger.info("Solicitud de desactivación masiva de usuarios");
+        try {
+            return ResponseEntity.ok(usuarioService.desactivarUsuarios(dto));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Error en la desactivación masiva: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/estadisticas")
     @Operation(summary = "Obtener estadísticas de usuarios")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
     })
-    public ResponseEntity<Long> obtenerEstadisticas() {
+    public ResponseEntity<UsuarioEstadisticasDTO> obtenerEstadisticas() {
         logger.info("Solicitud de estadísticas de usuarios");
-        long totalActivos = usuarioService.contarUsuariosActivos();
-        return ResponseEntity.ok(totalActivos);
+        return ResponseEntity.ok(usuarioEstadisticasService.obtenerEstadisticas());
     }
 }
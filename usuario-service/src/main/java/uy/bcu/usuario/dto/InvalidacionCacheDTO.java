@@ -0,0 +1,29 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Invalidación de cache enviada entre réplicas de usuario-service")
+public class InvalidacionCacheDTO {
+
+    @Schema(description = "IDs de usuario a invalidar")
+    private List<Long> ids;
+
+    @Schema(description = "Si es true se vacía la cache completa", example = "false")
+    private boolean todos;
+
+    // Constructores
+    public InvalidacionCacheDTO() {}
+
+    public InvalidacionCacheDTO(List<Long> ids, boolean todos) {
+        this.ids = ids;
+        this.todos = todos;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public boolean isTodos() { return todos; }
+    public void setTodos(boolean todos) { this.todos = todos; }
+}
@@ -0,0 +1,34 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "Criterio de desactivación masiva: una lista de IDs o una fecha de corte")
+public class UsuarioDesactivacionDTO {
+
+    public static final int TAMANIO_MAXIMO = 500_000;
+
+    @Size(max = TAMANIO_MAXIMO, message = "No se pueden desactivar más de " + TAMANIO_MAXIMO + " IDs por solicitud")
+    @Schema(description = "IDs de los usuarios a desactivar", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "Desactivar los usuarios activos creados antes de esta fecha", example = "2023-01-01T00:00:00")
+    private LocalDateTime creadosAntesDe;
+
+    // Constructores
+    public UsuarioDesactivacionDTO() {}
+
+    public UsuarioDesactivacionDTO(List<Long> ids, LocalDateTime creadosAntesDe) {
+        this.ids = ids;
+        this.creadosAntesDe = creadosAntesDe;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public LocalDateTime getCreadosAntesDe() { return creadosAntesDe; }
+    public void setCreadosAntesDe(LocalDateTime creadosAntesDe) { this.creadosAntesDe = creadosAntesDe; }
+}
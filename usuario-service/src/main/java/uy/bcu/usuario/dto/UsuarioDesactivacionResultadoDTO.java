@@ -0,0 +1,28 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de una desactivación masiva de usuarios")
+public class UsuarioDesactivacionResultadoDTO {
+
+    @Schema(description = "Cantidad de IDs distintos recibidos (null si se usó una fecha de corte)", example = "3")
+    private Integer solicitados;
+
+    @Schema(description = "Cantidad de usuarios que pasaron de activos a inactivos", example = "2")
+    private long desactivados;
+
+    // Constructores
+    public UsuarioDesactivacionResultadoDTO() {}
+
+    public UsuarioDesactivacionResultadoDTO(Integer solicitados, long desactivados) {
+        this.solicitados = solicitados;
+        this.desactivados = desactivados;
+    }
+
+    // Getters y Setters
+    public Integer getSolicitados() { return solicitados; }
+    public void setSolicitados(Integer solicitados) { this.solicitados = solicitados; }
+
+    public long getDesactivados() { return desactivados; }
+    public void setDesactivados(long desactivados) { this.desactivados = desactivados; }
+}
@@ -0,0 +1,43 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+@Schema(description = "Estadísticas de usuarios mantenidas en memoria")
+public class UsuarioEstadisticasDTO {
+
+    @Schema(description = "Usuarios activos", example = "1520")
+    private long activos;
+
+    @Schema(description = "Usuarios registrados (activos e inactivos)", example = "1634")
+    private long total;
+
+    @Schema(description = "Usuarios creados en el día", example = "12")
+    private long creadosHoy;
+
+    @Schema(description = "Momento de la última reconciliación con la base de datos")
+    private LocalDateTime ultimaReconciliacion;
+
+    // Constructores
+    public UsuarioEstadisticasDTO() {}
+
+    public UsuarioEstadisticasDTO(long activos, long total, long creadosHoy, LocalDateTime ultimaReconciliacion) {
+        this.activos = activos;
+        this.total = total;
+        this.creadosHoy = creadosHoy;
+        this.ultimaReconciliacion = ultimaReconciliacion;
+    }
+
+    // Getters y Setters
+    public long getActivos() { return activos; }
+    public void setActivos(long activos) { this.activos = activos; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getCreadosHoy() { return creadosHoy; }
+    public void setCreadosHoy(long creadosHoy) { this.creadosHoy = creadosHoy; }
+
+    public LocalDateTime getUltimaReconciliacion() { return ultimaReconciliacion; }
+    public void setUltimaReconciliacion(LocalDateTime ultimaReconciliacion) { this.ultimaReconciliacion = ultimaReconciliacion; }
+}
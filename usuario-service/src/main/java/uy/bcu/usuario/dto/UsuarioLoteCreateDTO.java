@@ -0,0 +1,30 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Schema(description = "Lote de usuarios a crear en una sola operación")
+public class UsuarioLoteCreateDTO {
+
+    public static final int TAMANIO_MAXIMO = 5000;
+
+    @Valid
+    @NotEmpty(message = "El lote debe incluir al menos un usuario")
+    @Size(max = TAMANIO_MAXIMO, message = "El lote no puede superar " + TAMANIO_MAXIMO + " usuarios")
+    @Schema(description = "Usuarios a crear", required = true)
+    private List<UsuarioCreateDTO> usuarios;
+
+    // Constructores
+    public UsuarioLoteCreateDTO() {}
+
+    public UsuarioLoteCreateDTO(List<UsuarioCreateDTO> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    // Getters y Setters
+    public List<UsuarioCreateDTO> getUsuarios() { return usuarios; }
+    public void setUsuarios(List<UsuarioCreateDTO> usuarios) { this.usuarios = usuarios; }
+}
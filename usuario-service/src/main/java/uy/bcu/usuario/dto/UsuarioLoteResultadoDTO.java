@@ -0,0 +1,29 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Resultado de la creación de un lote de usuarios")
+public class UsuarioLoteResultadoDTO {
+
+    @Schema(description = "Usuarios creados")
+    private List<UsuarioDTO> creados;
+
+    @Schema(description = "Emails rechazados por estar repetidos en el lote o ya registrados")
+    private List<String> emailsRechazados;
+
+    // Constructores
+    public UsuarioLoteResultadoDTO() {}
+
+    public UsuarioLoteResultadoDTO(List<UsuarioDTO> creados, List<String> emailsRechazados) {
+        this.creados = creados;
+        this.emailsRechazados = emailsRechazados;
+    }
+
+    // Getters y Setters
+    public List<UsuarioDTO> getCreados() { return creados; }
+    public void setCreados(List<UsuarioDTO> creados) { this.creados = creados; }
+
+    public List<String> getEmailsRechazados() { return emailsRechazados; }
+    public void setEmailsRechazados(List<String> emailsRechazados) { this.emailsRechazados = emailsRechazados; }
+}
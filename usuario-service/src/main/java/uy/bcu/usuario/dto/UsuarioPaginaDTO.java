@@ -0,0 +1,36 @@
+package uy.bcu.usuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Página de usuarios activos con cursor para continuar el recorrido")
+public class UsuarioPaginaDTO {
+
+    @Schema(description = "Usuarios de la página, ordenados por ID")
+    private List<UsuarioDTO> usuarios;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente (null si no hay más)", example = "MTI4")
+    private String siguienteCursor;
+
+    @Schema(description = "Indica si existen más usuarios después de esta página", example = "true")
+    private boolean hayMas;
+
+    // Constructores
+    public UsuarioPaginaDTO() {}
+
+    public UsuarioPaginaDTO(List<UsuarioDTO> usuarios, String siguienteCursor, boolean hayMas) {
+        this.usuarios = usuarios;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = hayMas;
+    }
+
+    // Getters y Setters
+    public List<UsuarioDTO> getUsuarios() { return usuarios; }
+    public void setUsuarios(List<UsuarioDTO> usuarios) { this.usuarios = usuarios; }
+
+    public String getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(String siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+}
@@ -1,5 +1,7 @@
 package uy.bcu.usuario.model;
 
+import uy.bcu.usuario.dto.UsuarioDTO;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -8,14 +10,32 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "usuarios", schema = "appuser")
+@SqlResultSetMapping(
+    name = Usuario.MAPEO_DTO,
+    classes = @ConstructorResult(
+        targetClass = UsuarioDTO.class,
+        columns = {
+            @ColumnResult(name = "id", type = Long.class),
+            @ColumnResult(name = "nombre", type = String.class),
+            @ColumnResult(name = "email", type = String.class),
+            @ColumnResult(name = "fecha_creacion", type = LocalDateTime.class),
+            @ColumnResult(name = "activo", type = Boolean.class)
+        }
+    )
+)
 public class Usuario {
 
+    // Mapeo de las columnas de usuarios a UsuarioDTO para consultas nativas
+    public static final String MAPEO_DTO = "Usuario.dto";
+
+    // allocationSize debe coincidir con el INCREMENT BY de appuser.seq_usuarios:
+    // cada NEXTVAL reserva un bloque de IDs (optimizador pooled-lo)
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_usuarios")
     @SequenceGenerator(
         name = "seq_usuarios",
         sequenceName = "appuser.seq_usuarios",
-        allocationSize = 1
+        allocationSize = 50
     )
     private Long id;
 
@@ -1,16 +1,28 @@
 package uy.bcu.usuario.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import uy.bcu.usuario.dto.UsuarioDTO;
 import uy.bcu.usuario.model.Usuario;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
 
     /**
      * Buscar usuario por email
@@ -18,18 +30,116 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
 
     /**
-     * Buscar usuarios por nombre (búsqueda insensible a mayúsculas)
+     * Proyección de las columnas de Usuario directo a UsuarioDTO. Las consultas de
+     * lectura la usan para no cargar entidades administradas (sin snapshots de dirty
+     * checking ni copia posterior a DTO).
+     */
+    String SELECT_DTO = "SELECT new uy.bcu.usuario.dto.UsuarioDTO("
+        + "u.id, u.nombre, u.email, u.fechaCreacion, u.activo) FROM Usuario u ";
+
+    /**
+     * Página de usuarios activos posteriores al último ID visto (keyset pagination).
+     * El filtro y el orden se resuelven en Oracle sobre el índice (activo, id),
+     * por lo que el costo no depende de la posición de la página.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")
+    })
+    @Query(SELECT_DTO + "WHERE u.activo = true AND u.id > :ultimoId ORDER BY u.id")
+    List<UsuarioDTO> findActivosDespuesDe(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Obtener un usuario activo por ID como DTO
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")
+    })
+    @Query(SELECT_DTO + "WHERE u.id = :id AND u.activo = true")
+    Optional<UsuarioDTO> findActivoPorId(@Param("id") Long id);
+
+    /**
+     * Obtener varios usuarios activos por ID en una sola consulta (hasta 1000 IDs)
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")
+    })
+    @Query(SELECT_DTO + "WHERE u.id IN :ids AND u.activo = true")
+    List<UsuarioDTO> findActivosPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recorrer todos los usuarios en orden de ID directamente desde el cursor JDBC.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar; el fetch size
+     * define cuántas filas trae Oracle por viaje de red.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT u FROM Usuario u ORDER BY u.id")
+    Stream<Usuario> streamTodosOrdenadosPorId();
+
+    /**
+     * Buscar usuarios activos cuyo nombre empieza con el prefijo dado.
+     * El prefijo debe llegar en minúsculas y con los comodines escapados; la
+     * condición coincide con el índice por función LOWER(nombre), por lo que
+     * Oracle resuelve la búsqueda con un range scan y se detiene en el límite.
      */
-    @Query("SELECT u FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
-    List<Usuario> findByNombreContainingIgnoreCase(@Param("nombre") String nombre);
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")
+    })
+    @Query(SELECT_DTO + "WHERE LOWER(u.nombre) LIKE CONCAT(:prefijo, '%') ESCAPE '\\' "
+        + "AND u.activo = true ORDER BY LOWER(u.nombre), u.id")
+    List<UsuarioDTO> buscarActivosPorPrefijo(@Param("prefijo") String prefijo, Pageable pageable);
 
     /**
      * Contar usuarios activos
      */
     long countByActivoTrue();
 
+    /**
+     * Contar usuarios creados desde la fecha dada
+     */
+    long countByFechaCreacionGreaterThanEqual(LocalDateTime desde);
+
     /**
      * Verificar si existe un usuario con el email dado
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Obtener cuáles de los emails dados ya están registrados (una sola consulta por bloque)
+     */
+    @Query("SELECT u.email FROM Usuario u WHERE u.email IN :emails")
+    List<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
+
+    /**
+     * Desactivar un usuario con un único UPDATE, sin cargar la entidad.
+     *
+     * @return 1 si el usuario estaba activo, 0 si ya estaba inactivo o no existe
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.activo = false WHERE u.id = :id AND u.activo = true")
+    int desactivarPorId(@Param("id") Long id);
+
+    /**
+     * Desactivar los usuarios activos de la lista dada (hasta 1000 IDs por llamada en Oracle)
+     *
+     * @return cantidad de usuarios que pasaron a inactivos
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.activo = false WHERE u.id IN :ids AND u.activo = true")
+    int desactivarPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Desactivar los usuarios activos creados antes de la fecha dada
+     *
+     * @return cantidad de usuarios que pasaron a inactivos
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.activo = false WHERE u.activo = true AND u.fechaCreacion < :fecha")
+    int desactivarCreadosAntesDe(@Param("fecha") LocalDateTime fecha);
 }
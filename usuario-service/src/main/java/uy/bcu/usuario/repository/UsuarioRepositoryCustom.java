@@ -0,0 +1,25 @@
+package uy.bcu.usuario.repository;
+
+import uy.bcu.usuario.dto.UsuarioDTO;
+
+import java.util.List;
+
+/**
+ * Consultas nativas de usuarios que se proyectan directamente a DTO y lecturas consistentes
+ */
+public interface UsuarioRepositoryCustom {
+
+    /**
+     * Buscar usuarios activos cuyo nombre contiene los términos dados.
+     * Usa el índice Oracle Text (CONTEXT con substring index) sobre nombre; la
+     * consulta debe estar en sintaxis CONTAINS, p.ej. "%jua% AND %per%".
+     */
+    List<UsuarioDTO> buscarActivosPorTexto(String consulta, int limite);
+
+    /**
+     * Fijar la instantánea de lectura de la transacción en curso (SET TRANSACTION READ ONLY):
+     * las consultas siguientes ven la base tal como estaba en este momento. Debe ser la
+     * primera sentencia de la transacción.
+     */
+    void fijarInstantanea();
+}
@@ -0,0 +1,43 @@
+package uy.bcu.usuario.repository;
+
+import org.hibernate.FlushMode;
+import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.model.Usuario;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+
+/**
+ * Implementación de las consultas nativas de UsuarioRepositoryCustom.
+ * Spring Data no puede proyectar una consulta nativa a una clase DTO, por lo
+ * que se ejecuta con el mapeo de constructor declarado en la entidad Usuario.
+ */
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    private static final String SQL_BUSQUEDA_TEXTO =
+        "SELECT u.id, u.nombre, u.email, u.fecha_creacion, u.activo FROM appuser.usuarios u "
+            + "WHERE CONTAINS(u.nombre, :consulta) > 0 AND u.activo = 1 FETCH FIRST :limite ROWS ONLY";
+
+    private final EntityManager entityManager;
+
+    public UsuarioRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UsuarioDTO> buscarActivosPorTexto(String consulta, int limite) {
+        return entityManager.createNativeQuery(SQL_BUSQUEDA_TEXTO, Usuario.MAPEO_DTO)
+            .setParameter("consulta", consulta)
+            .setParameter("limite", limite)
+            .setHint(HINT_FLUSH_MODE, FlushMode.COMMIT)
+            .getResultList();
+    }
+
+    @Override
+    public void fijarInstantanea() {
+        entityManager.createNativeQuery("SET TRANSACTION READ ONLY").executeUpdate();
+    }
+}
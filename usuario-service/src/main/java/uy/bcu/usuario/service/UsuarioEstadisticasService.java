@@ -0,0 +1,189 @@
+package uy.bcu.usuario.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.usuario.cache.UsuariosModificadosEvent;
+import uy.bcu.usuario.dto.UsuarioEstadisticasDTO;
+import uy.bcu.usuario.repository.UsuarioRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Estadísticas de usuarios mantenidas con contadores en memoria.
+ * Los contadores se actualizan con cada alta y desactivación confirmada, y se
+ * reconcilian periódicamente con Oracle para absorber los cambios hechos por
+ * otras réplicas o fuera de la aplicación. Consultar las estadísticas no toca la base.
+ */
+@Service
+public class UsuarioEstadisticasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioEstadisticasService.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong activos = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong creadosHoy = new AtomicLong();
+
+    // Los cambios de esta réplica toman el bloqueo de lectura desde antes del commit hasta
+    // aplicarse en memoria; la reconciliación toma el de escritura al fijar su instantánea
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private volatile LocalDate dia = LocalDate.now();
+    private volatile LocalDateTime ultimaReconciliacion;
+
+    public UsuarioEstadisticasService(UsuarioRepository usuarioRepository, TransactionTemplate transactionTemplate,
+                                      MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("usuarios.activos", activos, AtomicLong::get)
+            .description("Usuarios activos")
+            .register(meterRegistry);
+        Gauge.builder("usuarios.total", total, AtomicLong::get)
+            .description("Usuarios registrados")
+            .register(meterRegistry);
+        Gauge.builder("usuarios.creados.hoy", this, UsuarioEstadisticasService::creadosHoyActual)
+            .description("Usuarios creados en el día")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Obtener las estadísticas actuales (O(1), sin consultar la base)
+     */
+    public UsuarioEstadisticasDTO obtenerEstadisticas() {
+        return new UsuarioEstadisticasDTO(activos.get(), total.get(), creadosHoyActual(), ultimaReconciliacion);
+    }
+
+    @EventListener
+    public void alModificarUsuarios(UsuariosModificadosEvent evento) {
+        alConfirmar(() -> {
+            if (evento.getCreados() > 0) {
+                rotarDia();
+                activos.addAndGet(evento.getCreados());
+                total.addAndGet(evento.getCreados());
+                creadosHoy.addAndGet(evento.getCreados());
+            }
+            if (evento.getDesactivados() > 0) {
+                activos.addAndGet(-evento.getDesactivados());
+            }
+        });
+    }
+
+    /**
+     * Aplicar un cambio cuando su transacción confirma (en el acto si no hay transacción).
+     * El bloqueo de lectura se toma antes del commit y se suelta después de aplicar el
+     * cambio: al fijar la instantánea de la reconciliación, cada cambio de esta réplica
+     * está a la vez en la base y en memoria, o en ninguna de las dos.
+     */
+    private void alConfirmar(Runnable aplicar) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bloqueo.readLock().lock();
+            try {
+                aplicar.run();
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean bloqueado;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                bloqueo.readLock().lock();
+                bloqueado = true;
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                try {
+                    if (estado == STATUS_COMMITTED) {
+                        aplicar.run();
+                    }
+                } finally {
+                    if (bloqueado) {
+                        bloqueo.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Reconciliar los contadores con la base de datos.
+     * Se aplica la diferencia entre la base y la memoria tomadas en el mismo instante:
+     * la instantánea de Oracle (transacción de solo lectura) y la de los contadores se
+     * fijan bajo el bloqueo de escritura. Los cambios confirmados después ya están en
+     * memoria y la diferencia no los vuelve a sumar.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.estadisticas.reconciliacion-ms:60000}")
+    public void reconciliar() {
+        try {
+            transactionTemplate.executeWithoutResult(transaccion -> {
+                long activosAntes;
+                long totalAntes;
+                long creadosHoyAntes;
+                LocalDate hoy;
+                bloqueo.writeLock().lock();
+                try {
+                    usuarioRepository.fijarInstantanea();
+                    rotarDia();
+                    hoy = dia;
+                    activosAntes = activos.get();
+                    totalAntes = total.get();
+                    creadosHoyAntes = creadosHoy.get();
+                } finally {
+                    bloqueo.writeLock().unlock();
+                }
+
+                long activosBd = usuarioRepository.countByActivoTrue();
+                long totalBd = usuarioRepository.count();
+                long creadosHoyBd = usuarioRepository.countByFechaCreacionGreaterThanEqual(hoy.atStartOfDay());
+
+                activos.addAndGet(activosBd - activosAntes);
+                total.addAndGet(totalBd - totalAntes);
+                synchronized (this) {
+                    // Si el día cambió durante las consultas el contador ya volvió a cero
+                    if (hoy.equals(dia)) {
+                        creadosHoy.addAndGet(creadosHoyBd - creadosHoyAntes);
+                    }
+                }
+
+                logger.debug("Estadísticas reconciliadas: activos={}, total={}, creadosHoy={}",
+                    activosBd, totalBd, creadosHoyBd);
+            });
+            ultimaReconciliacion = LocalDateTime.now();
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("No se pudieron reconciliar las estadísticas de usuarios: {}", e.getMessage());
+        }
+    }
+
+    private long creadosHoyActual() {
+        rotarDia();
+        return creadosHoy.get();
+    }
+
+    private synchronized void rotarDia() {
+        LocalDate hoy = LocalDate.now();
+        if (!hoy.equals(dia)) {
+            dia = hoy;
+            creadosHoy.set(0);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package uy.bcu.usuario.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.model.Usuario;
+import uy.bcu.usuario.repository.UsuarioRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Exportación masiva de usuarios en streaming.
+ * Las filas se leen del cursor JDBC y se escriben en la respuesta una a una,
+ * sin acumular la tabla en memoria.
+ */
+@Service
+public class UsuarioExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioExportService.class);
+
+    private static final int FILAS_POR_FLUSH = 1000;
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Formato desde(String valor) {
+            try {
+                return Formato.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + valor);
+            }
+        }
+    }
+
+    private final UsuarioRepository usuarioRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter escritorJson;
+
+    public UsuarioExportService(UsuarioRepository usuarioRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.usuarioRepository = usuarioRepository;
+        this.entityManager = entityManager;
+        // El writer no debe cerrar la salida después de cada línea
+        this.escritorJson = objectMapper.writerFor(UsuarioDTO.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Escribir todos los usuarios en la salida con el formato indicado.
+     * Cada entidad se desacopla del contexto de persistencia apenas se escribe,
+     * así el consumo de memoria es constante sin importar el tamaño de la tabla.
+     *
+     * @return cantidad de usuarios exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Formato formato, OutputStream salida) throws IOException {
+        logger.info("Iniciando exportación de usuarios en formato {}", formato);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            writer.write("id,nombre,email,fechaCreacion,activo\n");
+        }
+
+        long filas = 0;
+        try (Stream<Usuario> usuarios = usuarioRepository.streamTodosOrdenadosPorId()) {
+            Iterator<Usuario> iterador = usuarios.iterator();
+            while (iterador.hasNext()) {
+                Usuario usuario = iterador.next();
+                if (formato == Formato.CSV) {
+                    escribirCsv(writer, usuario);
+                } else {
+                    escribirNdjson(writer, usuario);
+                }
+                entityManager.detach(usuario);
+
+                filas++;
+                // La primera fila se envía de inmediato para que el cliente reciba datos enseguida
+                if (filas == 1 || filas % FILAS_POR_FLUSH == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        logger.info("Exportación finalizada: {} usuarios", filas);
+        return filas;
+    }
+
+    private void escribirNdjson(Writer writer, Usuario usuario) throws IOException {
+        escritorJson.writeValue(writer, new UsuarioDTO(
+            usuario.getId(),
+            usuario.getNombre(),
+            usuario.getEmail(),
+            usuario.getFechaCreacion(),
+            usuario.getActivo()
+        ));
+        writer.write('\n');
+    }
+
+    private void escribirCsv(Writer writer, Usuario usuario) throws IOException {
+        writer.write(String.valueOf(usuario.getId()));
+        writer.write(',');
+        writer.write(escaparCsv(usuario.getNombre()));
+        writer.write(',');
+        writer.write(escaparCsv(usuario.getEmail()));
+        writer.write(',');
+        writer.write(usuario.getFechaCreacion() != null ? usuario.getFechaCreacion().toString() : "");
+        writer.write(',');
+        writer.write(String.valueOf(Boolean.TRUE.equals(usuario.getActivo())));
+        writer.write('\n');
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
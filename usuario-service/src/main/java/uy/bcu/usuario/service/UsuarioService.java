@@ -1,15 +1,40 @@
 package uy.bcu.usuario.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import uy.bcu.usuario.cache.UsuariosModificadosEvent;
+import uy.bcu.usuario.concurrent.AgrupadorLotes;
+import uy.bcu.usuario.concurrent.SingleFlight;
+import uy.bcu.usuario.config.CacheConfig;
 import uy.bcu.usuario.dto.UsuarioCreateDTO;
 import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioLoteResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioPaginaDTO;
 import uy.bcu.usuario.model.Usuario;
 import uy.bcu.usuario.repository.UsuarioRepository;
 
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,40 +44,87 @@ public class UsuarioService {
 
     private static final Logger logger = LoggerFactory.getLogger(UsuarioService.class);
 
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+    public static final int LIMITE_BUSQUEDA_POR_DEFECTO = 20;
+    public static final int LIMITE_BUSQUEDA_MAXIMO = 100;
+    private static final int LONGITUD_MINIMA_TERMINO = 2;
+    // Oracle admite hasta 1000 elementos en una lista IN
+    private static final int TAMANIO_BLOQUE_IN = 1000;
+    // Debe coincidir con hibernate.jdbc.batch_size
+    private static final int TAMANIO_BATCH_INSERT = 50;
+
+    public enum ModoBusqueda {
+        PREFIJO,
+        CONTIENE;
+
+        public static ModoBusqueda desde(String valor) {
+            try {
+                return ModoBusqueda.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Modo de búsqueda no soportado: " + valor);
+            }
+        }
+    }
+
     private final UsuarioRepository usuarioRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AgrupadorLotes<Long, UsuarioDTO> agrupadorPorId;
+    private final SingleFlight<Long, Optional<UsuarioDTO>> busquedasPorId;
 
-    public UsuarioService(UsuarioRepository usuarioRepository) {
+    public UsuarioService(UsuarioRepository usuarioRepository,
+                          EntityManager entityManager,
+                          ApplicationEventPublisher eventPublisher,
+                          AgrupadorLotes<Long, UsuarioDTO> agrupadorPorId,
+                          MeterRegistry meterRegistry) {
         this.usuarioRepository = usuarioRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.agrupadorPorId = agrupadorPorId;
+        this.busquedasPorId = new SingleFlight<>("usuarios.por.id", meterRegistry);
     }
 
     /**
-     * Obtener todos los usuarios activos
+     * Obtener una página de usuarios activos a partir de un cursor.
+     * Usa keyset pagination: el cursor codifica el último ID entregado y la
+     * consulta sigue desde ahí, por lo que nunca se recorren filas ya vistas.
+     * Las filas se proyectan directamente a DTO, sin pasar por entidades.
      */
     @Transactional(readOnly = true)
-    public List<UsuarioDTO> obtenerTodosLosUsuarios() {
-        logger.info("Obteniendo todos los usuarios activos");
+    public UsuarioPaginaDTO obtenerTodosLosUsuarios(String cursor, int limite) {
+        int tamanioPagina = Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+        long ultimoId = decodificarCursor(cursor);
+        logger.info("Obteniendo usuarios activos después del ID {} (límite {})", ultimoId, tamanioPagina);
+
+        // Se pide una fila extra para saber si hay otra página sin hacer un COUNT
+        List<UsuarioDTO> usuarios = usuarioRepository.findActivosDespuesDe(
+            ultimoId, PageRequest.of(0, tamanioPagina + 1));
 
-        List<Usuario> usuarios = usuarioRepository.findAll().stream()
-            .filter(Usuario::getActivo)
-            .collect(Collectors.toList());
+        boolean hayMas = usuarios.size() > tamanioPagina;
+        List<UsuarioDTO> pagina = hayMas ? usuarios.subList(0, tamanioPagina) : usuarios;
 
-        logger.debug("Encontrados {} usuarios activos", usuarios.size());
+        logger.debug("Página con {} usuarios activos, hayMas={}", pagina.size(), hayMas);
 
-        return usuarios.stream()
-            .map(this::convertirADTO)
-            .collect(Collectors.toList());
+        String siguienteCursor = hayMas ? codificarCursor(pagina.get(pagina.size() - 1).getId()) : null;
+        return new UsuarioPaginaDTO(pagina, siguienteCursor, hayMas);
     }
 
     /**
-     * Obtener usuario por ID
+     * Obtener usuario por ID.
+     * Se sirve desde la cache de usuarios; también se cachea la ausencia del
+     * usuario, que se invalida al crearlo o desactivarlo.
+     * Ante un fallo de cache, las solicitudes concurrentes por el mismo ID comparten
+     * una sola búsqueda, y las de IDs distintos se agrupan en una consulta por lote.
+     * Sin transacción propia: quien espera el resultado de otra solicitud no
+     * retiene una conexión del pool.
      */
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CACHE_USUARIOS, key = "#id")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<UsuarioDTO> obtenerUsuarioPorId(Long id) {
         logger.info("Buscando usuario con ID: {}", id);
 
-        return usuarioRepository.findById(id)
-            .filter(Usuario::getActivo)
-            .map(this::convertirADTO);
+        return busquedasPorId.ejecutar(id, () -> Optional.ofNullable(agrupadorPorId.obtener(id)));
     }
 
     /**
@@ -69,6 +141,7 @@ public class UsuarioService {
 
         Usuario usuario = new Usuario(dto.getNombre(), dto.getEmail());
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(UsuariosModificadosEvent.usuarioCreado(usuarioGuardado.getId()));
 
         logger.info("Usuario creado exitosamente con ID: {}", usuarioGuardado.getId());
 
@@ -76,40 +149,192 @@ public class UsuarioService {
     }
 
     /**
-     * Buscar usuarios por nombre
+     * Crear un lote de usuarios.
+     * Los emails duplicados se detectan con una consulta IN por bloque en lugar de
+     * un existsByEmail por fila, y los inserts viajan en batches JDBC usando IDs
+     * reservados por bloques de la secuencia.
+     */
+    public UsuarioLoteResultadoDTO crearUsuariosEnLote(List<UsuarioCreateDTO> dtos) {
+        logger.info("Creando lote de {} usuarios", dtos.size());
+
+        // Dentro del lote se acepta solo la primera aparición de cada email
+        Map<String, UsuarioCreateDTO> porEmail = new LinkedHashMap<>();
+        List<String> emailsRechazados = new ArrayList<>();
+        for (UsuarioCreateDTO dto : dtos) {
+            if (porEmail.putIfAbsent(dto.getEmail(), dto) != null) {
+                emailsRechazados.add(dto.getEmail());
+            }
+        }
+
+        Set<String> existentes = new HashSet<>();
+        for (List<String> bloque : particionar(new ArrayList<>(porEmail.keySet()), TAMANIO_BLOQUE_IN)) {
+            existentes.addAll(usuarioRepository.findEmailsExistentes(bloque));
+        }
+
+        List<Usuario> nuevos = new ArrayList<>(porEmail.size());
+        for (UsuarioCreateDTO dto : porEmail.values()) {
+            if (existentes.contains(dto.getEmail())) {
+                emailsRechazados.add(dto.getEmail());
+            } else {
+                nuevos.add(new Usuario(dto.getNombre(), dto.getEmail()));
+            }
+        }
+
+        List<UsuarioDTO> creados = new ArrayList<>(nuevos.size());
+        for (List<Usuario> bloque : particionar(nuevos, TAMANIO_BATCH_INSERT)) {
+            for (Usuario guardado : usuarioRepository.saveAll(bloque)) {
+                creados.add(convertirADTO(guardado));
+            }
+            // Enviar el batch y vaciar el contexto de persistencia para no acumular entidades
+            usuarioRepository.flush();
+            entityManager.clear();
+        }
+        eventPublisher.publishEvent(UsuariosModificadosEvent.usuariosCreados(
+            creados.stream().map(UsuarioDTO::getId).collect(Collectors.toList())));
+
+        logger.info("Lote procesado: {} creados, {} rechazados", creados.size(), emailsRechazados.size());
+        return new UsuarioLoteResultadoDTO(creados, emailsRechazados);
+    }
+
+    /**
+     * Buscar usuarios activos por nombre.
+     * PREFIJO usa el índice LOWER(nombre) y devuelve resultados ordenados por nombre;
+     * CONTIENE usa el índice Oracle Text y exige que aparezcan todos los términos.
      */
     @Transactional(readOnly = true)
-    public List<UsuarioDTO> buscarPorNombre(String nombre) {
-        logger.info("Buscando usuarios por nombre: {}", nombre);
-
-        return usuarioRepository.findByNombreContainingIgnoreCase(nombre)
-            .stream()
-            .filter(Usuario::getActivo)
-            .map(this::convertirADTO)
-            .collect(Collectors.toList());
+    public List<UsuarioDTO> buscarPorNombre(String nombre, ModoBusqueda modo, int limite) {
+        int maximo = Math.min(Math.max(limite, 1), LIMITE_BUSQUEDA_MAXIMO);
+        logger.info("Buscando usuarios por nombre: {} (modo {}, límite {})", nombre, modo, maximo);
+
+        if (nombre == null || nombre.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        if (modo == ModoBusqueda.PREFIJO) {
+            String prefijo = escaparLike(nombre.trim().toLowerCase(Locale.ROOT));
+            return usuarioRepository.buscarActivosPorPrefijo(prefijo, PageRequest.of(0, maximo));
+        }
+
+        String consulta = construirConsultaTexto(nombre);
+        if (consulta.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return usuarioRepository.buscarActivosPorTexto(consulta, maximo);
     }
 
     /**
-     * Desactivar usuario (soft delete)
+     * Desactivar usuario (soft delete).
+     * Se resuelve con un único UPDATE; solo si no afecta filas se consulta si el
+     * usuario existe, para distinguir "no encontrado" de "ya estaba inactivo".
      */
     public void desactivarUsuario(Long id) {
         logger.info("Desactivando usuario con ID: {}", id);
 
-        Usuario usuario = usuarioRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-
-        usuario.setActivo(false);
-        usuarioRepository.save(usuario);
+        int filas = usuarioRepository.desactivarPorId(id);
+        if (filas == 0 && !usuarioRepository.existsById(id)) {
+            throw new IllegalArgumentException("Usuario no encontrado");
+        }
+        eventPublisher.publishEvent(UsuariosModificadosEvent.usuarioDesactivado(id, filas > 0));
 
         logger.info("Usuario desactivado exitosamente");
     }
 
     /**
-     * Contar usuarios activos
+     * Desactivar usuarios en forma masiva, por lista de IDs o por fecha de creación.
+     * Cada bloque de hasta 1000 IDs es un solo UPDATE; los IDs inexistentes o ya
+     * inactivos simplemente no cuentan como desactivados.
      */
-    @Transactional(readOnly = true)
-    public long contarUsuariosActivos() {
-        return usuarioRepository.countByActivoTrue();
+    public UsuarioDesactivacionResultadoDTO desactivarUsuarios(UsuarioDesactivacionDTO dto) {
+        boolean porIds = dto.getIds() != null && !dto.getIds().isEmpty();
+        boolean porFecha = dto.getCreadosAntesDe() != null;
+        if (porIds == porFecha) {
+            throw new IllegalArgumentException("Debe indicarse una lista de IDs o una fecha de corte, no ambas");
+        }
+
+        if (porFecha) {
+            logger.info("Desactivando usuarios creados antes de {}", dto.getCreadosAntesDe());
+            int desactivados = usuarioRepository.desactivarCreadosAntesDe(dto.getCreadosAntesDe());
+            eventPublisher.publishEvent(UsuariosModificadosEvent.desactivacionMasiva(desactivados));
+
+            logger.info("Desactivación masiva finalizada: {} usuarios", desactivados);
+            return new UsuarioDesactivacionResultadoDTO(null, desactivados);
+        }
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(dto.getIds()));
+        ids.removeIf(Objects::isNull);
+        logger.info("Desactivando lote de {} usuarios", ids.size());
+
+        long desactivados = 0;
+        for (List<Long> bloque : particionar(ids, TAMANIO_BLOQUE_IN)) {
+            desactivados += usuarioRepository.desactivarPorIds(bloque);
+        }
+        eventPublisher.publishEvent(UsuariosModificadosEvent.usuariosDesactivados(ids, desactivados));
+
+        logger.info("Lote de desactivación procesado: {} de {} usuarios desactivados", desactivados, ids.size());
+        return new UsuarioDesactivacionResultadoDTO(ids.size(), desactivados);
+    }
+
+    /**
+     * Escapar los comodines de LIKE para que el texto se busque literalmente
+     */
+    private String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+
+    /**
+     * Construir la consulta CONTAINS a partir del texto ingresado.
+     * Solo se conservan letras y dígitos de cada término para no inyectar
+     * operadores de Oracle Text; los términos muy cortos se descartan porque
+     * coincidirían con casi toda la tabla.
+     */
+    private String construirConsultaTexto(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String palabra : texto.trim().split("\\s+")) {
+            StringBuilder termino = new StringBuilder();
+            palabra.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .forEach(termino::appendCodePoint);
+            if (termino.length() >= LONGITUD_MINIMA_TERMINO) {
+                terminos.add("%" + termino.toString().toLowerCase(Locale.ROOT) + "%");
+            }
+        }
+        return String.join(" AND ", terminos);
+    }
+
+    /**
+     * Dividir una lista en bloques consecutivos de tamaño máximo dado
+     */
+    private static <T> List<List<T>> particionar(List<T> elementos, int tamanio) {
+        List<List<T>> bloques = new ArrayList<>();
+        for (int i = 0; i < elementos.size(); i += tamanio) {
+            bloques.add(elementos.subList(i, Math.min(i + tamanio, elementos.size())));
+        }
+        return bloques;
+    }
+
+    /**
+     * Codificar el último ID de una página como cursor opaco
+     */
+    private String codificarCursor(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(String.valueOf(ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodificar un cursor recibido; sin cursor se empieza desde el principio
+     */
+    private long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(valor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
     }
 
     /**
@@ -0,0 +1,103 @@
+package uy.bcu.usuario.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import uy.bcu.usuario.config.CacheConfig;
+import uy.bcu.usuario.dto.InvalidacionCacheDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsuarioCacheInvalidadorTest {
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    @Mock
+    private ObjectProvider<Registration> registrationProvider;
+
+    @Mock
+    private Registration registration;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Cache cache;
+    private UsuarioCacheInvalidador invalidador;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CACHE_USUARIOS);
+        cache = cacheManager.getCache(CacheConfig.CACHE_USUARIOS);
+        cache.put(1L, "usuario 1");
+        cache.put(2L, "usuario 2");
+
+        meterRegistry = new SimpleMeterRegistry();
+        // Executor sincrónico para que el aviso a las réplicas ocurra dentro del test
+        invalidador = new UsuarioCacheInvalidador(cacheManager, discoveryClient, registrationProvider,
+            restTemplate, Runnable::run, meterRegistry, "usuario-service");
+    }
+
+    @Test
+    void alModificarUsuarios_debeInvalidarLocalYAvisarALasOtrasReplicas() {
+        // Given
+        when(registrationProvider.getIfAvailable()).thenReturn(registration);
+        when(registration.getInstanceId()).thenReturn("usuario-service:propia");
+        when(discoveryClient.getInstances("usuario-service")).thenReturn(Arrays.asList(
+            new DefaultServiceInstance("usuario-service:propia", "usuario-service", "10.0.0.1", 8081, false),
+            new DefaultServiceInstance("usuario-service:otra", "usuario-service", "10.0.0.2", 8081, false)
+        ));
+
+        // When
+        invalidador.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(1L));
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+
+        ArgumentCaptor<InvalidacionCacheDTO> aviso = ArgumentCaptor.forClass(InvalidacionCacheDTO.class);
+        verify(restTemplate).postForLocation(
+            eq("http://10.0.0.2:8081" + UsuarioCacheInvalidador.RUTA_INVALIDACION), aviso.capture());
+        verifyNoMoreInteractions(restTemplate);
+        assertThat(aviso.getValue().getIds()).containsExactly(1L);
+        assertThat(aviso.getValue().isTodos()).isFalse();
+    }
+
+    @Test
+    void alModificarUsuarios_debeContarAvisosFallidosSinPropagarError() {
+        // Given
+        when(discoveryClient.getInstances("usuario-service")).thenReturn(Collections.singletonList(
+            new DefaultServiceInstance("usuario-service:otra", "usuario-service", "10.0.0.2", 8081, false)));
+        when(restTemplate.postForLocation(any(String.class), any()))
+            .thenThrow(new ResourceAccessException("timeout"));
+
+        // When
+        invalidador.alModificarUsuarios(UsuariosModificadosEvent.todos());
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+        assertThat(meterRegistry.counter("usuarios.cache.invalidaciones.propagadas", "resultado", "error").count())
+            .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,99 @@
+package uy.bcu.usuario.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AgrupadorLotesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<List<Long>> lotesCargados;
+    private AgrupadorLotes<Long, String> agrupador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lotesCargados = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        agrupador.close();
+    }
+
+    @Test
+    void cargar_debeAgruparLasClavesDeLaMismaVentanaEnUnaCarga() throws Exception {
+        // Given
+        agrupador = crear(Duration.ofMillis(50), 100);
+
+        // When
+        CompletableFuture<String> uno = agrupador.cargar(1L);
+        CompletableFuture<String> dos = agrupador.cargar(2L);
+        CompletableFuture<String> otraVezUno = agrupador.cargar(1L);
+
+        // Then
+        assertThat(uno.get(5, TimeUnit.SECONDS)).isEqualTo("usuario-1");
+        assertThat(dos.get(5, TimeUnit.SECONDS)).isEqualTo("usuario-2");
+        assertThat(otraVezUno).isSameAs(uno);
+        assertThat(lotesCargados).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void cargar_debeDespacharAlAlcanzarElMaximoSinEsperarLaVentana() throws Exception {
+        // Given: una ventana que la prueba nunca llega a esperar
+        agrupador = crear(Duration.ofMinutes(1), 3);
+
+        // When
+        agrupador.cargar(1L);
+        agrupador.cargar(2L);
+        CompletableFuture<String> tres = agrupador.cargar(3L);
+
+        // Then
+        assertThat(tres.get(5, TimeUnit.SECONDS)).isEqualTo("usuario-3");
+        assertThat(lotesCargados).containsExactly(List.of(1L, 2L, 3L));
+        assertThat(meterRegistry.get("lotes.tamanio").summary().max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void obtener_debeDevolverNullParaClavesNoEncontradas() {
+        // Given
+        agrupador = crear(Duration.ofMillis(1), 100);
+
+        // When / Then
+        assertThat(agrupador.obtener(-1L)).isNull();
+    }
+
+    @Test
+    void obtener_debePropagarElErrorDeLaCargaATodoElLote() {
+        // Given
+        agrupador = new AgrupadorLotes<>("prueba", ids -> {
+            throw new IllegalStateException("Oracle no disponible");
+        }, Duration.ofMillis(1), 100, 1, meterRegistry);
+
+        // When / Then
+        assertThatThrownBy(() -> agrupador.obtener(1L))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Oracle no disponible");
+    }
+
+    private AgrupadorLotes<Long, String> crear(Duration ventana, int maximo) {
+        return new AgrupadorLotes<>("prueba", ids -> {
+            lotesCargados.add(ids);
+            return ids.stream()
+                .filter(id -> id > 0)
+                .collect(Collectors.toMap(Function.identity(), id -> "usuario-" + id));
+        }, ventana, maximo, 1, meterRegistry);
+    }
+}
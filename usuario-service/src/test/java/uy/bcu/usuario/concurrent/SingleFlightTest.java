@@ -0,0 +1,105 @@
+package uy.bcu.usuario.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int HILOS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("prueba", meterRegistry);
+        executor = Executors.newFixedThreadPool(HILOS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void ejecutar_debeCompartirUnaLlamadaEntreSolicitudesConcurrentes() throws Exception {
+        // Given
+        AtomicInteger llamadas = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // When
+        List<Future<String>> resultados = new ArrayList<>();
+        resultados.add(executor.submit(() -> singleFlight.ejecutar(1L, () -> {
+            llamadas.incrementAndGet();
+            enCurso.countDown();
+            esperar(liberar);
+            return "usuario-1";
+        })));
+        assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < HILOS; i++) {
+            resultados.add(executor.submit(() -> singleFlight.ejecutar(1L, () -> {
+                llamadas.incrementAndGet();
+                return "repetida";
+            })));
+        }
+        // Los seguidores quedan esperando el resultado de la primera llamada
+        while (meterRegistry.get("singleflight.llamadas").tag("resultado", "colapsada").counter().count() < HILOS - 1) {
+            Thread.sleep(1);
+        }
+        liberar.countDown();
+
+        // Then
+        for (Future<String> resultado : resultados) {
+            assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("usuario-1");
+        }
+        assertThat(llamadas.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("singleflight.llamadas").tag("resultado", "ejecutada").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void ejecutar_debeLiberarLaClaveAlTerminar() {
+        // When
+        singleFlight.ejecutar(1L, () -> "primera");
+        String segunda = singleFlight.ejecutar(1L, () -> "segunda");
+
+        // Then
+        assertThat(segunda).isEqualTo("segunda");
+        assertThat(meterRegistry.get("singleflight.en.curso").gauge().value()).isZero();
+    }
+
+    @Test
+    void ejecutar_debePropagarLaExcepcionYPermitirReintentar() {
+        // When / Then
+        assertThatThrownBy(() -> singleFlight.ejecutar(1L, () -> {
+            throw new IllegalStateException("Oracle no disponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.ejecutar(1L, () -> "reintento")).isEqualTo("reintento");
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,16 +7,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import uy.bcu.usuario.dto.UsuarioCreateDTO;
 import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioEstadisticasDTO;
+import uy.bcu.usuario.dto.UsuarioLoteCreateDTO;
+import uy.bcu.usuario.dto.UsuarioLoteResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioPaginaDTO;
+import uy.bcu.usuario.service.UsuarioEstadisticasService;
+import uy.bcu.usuario.service.UsuarioExportService;
 import uy.bcu.usuario.service.UsuarioService;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,25 +49,62 @@ public class UsuarioControllerTest {
     @MockBean
     private UsuarioService usuarioService;
 
+    @MockBean
+    private UsuarioExportService usuarioExportService;
+
+    @MockBean
+    private UsuarioEstadisticasService usuarioEstadisticasService;
+
     @Test
-    void obtenerTodosLosUsuarios_debeRetornarListaDeUsuarios() throws Exception {
+    void obtenerTodosLosUsuarios_debeRetornarPaginaDeUsuarios() throws Exception {
         // Given
         LocalDateTime now = LocalDateTime.now();
         List<UsuarioDTO> usuarios = Arrays.asList(
             new UsuarioDTO(1L, "Juan Pérez", "juan@email.com", now, true),
             new UsuarioDTO(2L, "María García", "maria@email.com", now, true)
         );
-        when(usuarioService.obtenerTodosLosUsuarios()).thenReturn(usuarios);
+        when(usuarioService.obtenerTodosLosUsuarios(null, 50))
+            .thenReturn(new UsuarioPaginaDTO(usuarios, "Mg", true));
 
         // When & Then
         mockMvc.perform(get("/api/usuarios"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-            .andExpect(jsonPath("$.length()").value(2))
-            .andExpect(jsonPath("$[0].nombre").value("Juan Pérez"))
-            .andExpect(jsonPath("$[1].nombre").value("María García"));
+            .andExpect(jsonPath("$.usuarios.length()").value(2))
+            .andExpect(jsonPath("$.usuarios[0].nombre").value("Juan Pérez"))
+            .andExpect(jsonPath("$.usuarios[1].nombre").value("María García"))
+            .andExpect(jsonPath("$.siguienteCursor").value("Mg"))
+            .andExpect(jsonPath("$.hayMas").value(true));
+
+        verify(usuarioService).obtenerTodosLosUsuarios(null, 50);
+    }
+
+    @Test
+    void obtenerTodosLosUsuarios_debePasarCursorYLimite() throws Exception {
+        // Given
+        when(usuarioService.obtenerTodosLosUsuarios("Mg", 10))
+            .thenReturn(new UsuarioPaginaDTO(Collections.emptyList(), null, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/usuarios")
+            .param("cursor", "Mg")
+            .param("limite", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.usuarios.length()").value(0))
+            .andExpect(jsonPath("$.hayMas").value(false));
+
+        verify(usuarioService).obtenerTodosLosUsuarios("Mg", 10);
+    }
+
+    @Test
+    void obtenerTodosLosUsuarios_debeRetornar400ConCursorInvalido() throws Exception {
+        // Given
+        when(usuarioService.obtenerTodosLosUsuarios(eq("???"), anyInt()))
+            .thenThrow(new IllegalArgumentException("Cursor de paginación inválido"));
 
-        verify(usuarioService).obtenerTodosLosUsuarios();
+        // When & Then
+        mockMvc.perform(get("/api/usuarios").param("cursor", "???"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -137,6 +189,78 @@ public class UsuarioControllerTest {
         verify(usuarioService).crearUsuario(any(UsuarioCreateDTO.class));
     }
 
+    @Test
+    void crearUsuariosEnLote_debeRetornar201ConResultado() throws Exception {
+        // Given
+        UsuarioLoteCreateDTO lote = new UsuarioLoteCreateDTO(Arrays.asList(
+            new UsuarioCreateDTO("Ana López", "ana@email.com"),
+            new UsuarioCreateDTO("Juan Pérez", "juan@email.com")
+        ));
+        UsuarioLoteResultadoDTO resultado = new UsuarioLoteResultadoDTO(
+            Collections.singletonList(new UsuarioDTO(3L, "Ana López", "ana@email.com", LocalDateTime.now(), true)),
+            Collections.singletonList("juan@email.com"));
+        when(usuarioService.crearUsuariosEnLote(anyList())).thenReturn(resultado);
+
+        // When & Then
+        mockMvc.perform(post("/api/usuarios/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lote)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.creados.length()").value(1))
+            .andExpect(jsonPath("$.creados[0].id").value(3))
+            .andExpect(jsonPath("$.emailsRechazados[0]").value("juan@email.com"));
+
+        verify(usuarioService).crearUsuariosEnLote(anyList());
+    }
+
+    @Test
+    void crearUsuariosEnLote_debeRetornar400CuandoUnUsuarioEsInvalido() throws Exception {
+        // Given
+        UsuarioLoteCreateDTO lote = new UsuarioLoteCreateDTO(Arrays.asList(
+            new UsuarioCreateDTO("Ana López", "ana@email.com"),
+            new UsuarioCreateDTO("", "invalid-email")
+        ));
+
+        // When & Then
+        mockMvc.perform(post("/api/usuarios/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lote)))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).crearUsuariosEnLote(anyList());
+    }
+
+    @Test
+    void exportarUsuarios_debeEnviarNdjsonEnStreaming() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream salida = invocation.getArgument(1);
+            salida.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(usuarioExportService).exportar(eq(UsuarioExportService.Formato.NDJSON), any(OutputStream.class));
+
+        // When
+        MvcResult resultado = mockMvc.perform(get("/api/usuarios/exportar"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=usuarios.ndjson"))
+            .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void exportarUsuarios_debeRetornar400ConFormatoNoSoportado() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/usuarios/exportar").param("formato", "xml"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(usuarioExportService);
+    }
+
     @Test
     void buscarPorNombre_debeRetornarResultadosDeBusqueda() throws Exception {
         // Given
@@ -144,7 +268,8 @@ public class UsuarioControllerTest {
         List<UsuarioDTO> resultados = Arrays.asList(
             new UsuarioDTO(1L, "Juan Pérez", "juan@email.com", now, true)
         );
-        when(usuarioService.buscarPorNombre("Juan")).thenReturn(resultados);
+        when(usuarioService.buscarPorNombre("Juan", UsuarioService.ModoBusqueda.CONTIENE, 20))
+            .thenReturn(resultados);
 
         // When & Then
         mockMvc.perform(get("/api/usuarios/buscar")
@@ -154,7 +279,35 @@ public class UsuarioControllerTest {
             .andExpect(jsonPath("$.length()").value(1))
             .andExpect(jsonPath("$[0].nombre").value("Juan Pérez"));
 
-        verify(usuarioService).buscarPorNombre("Juan");
+        verify(usuarioService).buscarPorNombre("Juan", UsuarioService.ModoBusqueda.CONTIENE, 20);
+    }
+
+    @Test
+    void buscarPorNombre_debeAceptarModoPrefijoYLimite() throws Exception {
+        // Given
+        when(usuarioService.buscarPorNombre("Ju", UsuarioService.ModoBusqueda.PREFIJO, 5))
+            .thenReturn(Collections.emptyList());
+
+        // When & Then
+        mockMvc.perform(get("/api/usuarios/buscar")
+            .param("nombre", "Ju")
+            .param("modo", "prefijo")
+            .param("limite", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+
+        verify(usuarioService).buscarPorNombre("Ju", UsuarioService.ModoBusqueda.PREFIJO, 5);
+    }
+
+    @Test
+    void buscarPorNombre_debeRetornar400ConModoNoSoportado() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/usuarios/buscar")
+            .param("nombre", "Juan")
+            .param("modo", "regex"))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).buscarPorNombre(anyString(), any(), anyInt());
     }
 
     @Test
@@ -183,16 +336,48 @@ public class UsuarioControllerTest {
     }
 
     @Test
-    void obtenerEstadisticas_debeRetornarConteoDeUsuariosActivos() throws Exception {
+    void desactivarUsuarios_debeRetornarCantidadDesactivada() throws Exception {
+        // Given
+        UsuarioDesactivacionDTO dto = new UsuarioDesactivacionDTO(Arrays.asList(1L, 2L, 3L), null);
+        when(usuarioService.desactivarUsuarios(any(UsuarioDesactivacionDTO.class)))
+            .thenReturn(new UsuarioDesactivacionResultadoDTO(3, 2));
+
+        // When & Then
+        mockMvc.perform(post("/api/usuarios/desactivaciones")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.solicitados").value(3))
+            .andExpect(jsonPath("$.desactivados").value(2));
+    }
+
+    @Test
+    void desactivarUsuarios_debeRetornar400SinCriterio() throws Exception {
+        // Given
+        when(usuarioService.desactivarUsuarios(any(UsuarioDesactivacionDTO.class)))
+            .thenThrow(new IllegalArgumentException("Debe indicarse una lista de IDs o una fecha de corte, no ambas"));
+
+        // When & Then
+        mockMvc.perform(post("/api/usuarios/desactivaciones")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void obtenerEstadisticas_debeRetornarContadoresDeUsuarios() throws Exception {
         // Given
-        when(usuarioService.contarUsuariosActivos()).thenReturn(5L);
+        when(usuarioEstadisticasService.obtenerEstadisticas())
+            .thenReturn(new UsuarioEstadisticasDTO(5L, 7L, 2L, LocalDateTime.now()));
 
         // When & Then
         mockMvc.perform(get("/api/usuarios/estadisticas"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-            .andExpect(content().string("5"));
+            .andExpect(jsonPath("$.activos").value(5))
+            .andExpect(jsonPath("$.total").value(7))
+            .andExpect(jsonPath("$.creadosHoy").value(2));
 
-        verify(usuarioService).contarUsuariosActivos();
+        verify(usuarioEstadisticasService).obtenerEstadisticas();
     }
 }
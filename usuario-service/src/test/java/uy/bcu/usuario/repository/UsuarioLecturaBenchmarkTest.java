@@ -0,0 +1,117 @@
+package uy.bcu.usuario.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.model.Usuario;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de asignación de memoria por solicitud en la lectura paginada de usuarios.
+ *
+ * Compara la carga de entidades administradas + conversión a DTO (implementación
+ * anterior) con la proyección directa a UsuarioDTO. Mide los bytes asignados por el
+ * hilo en cada "solicitud" (una transacción de solo lectura con una página de 500).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Tag("benchmark")
+public class UsuarioLecturaBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioLecturaBenchmarkTest.class);
+
+    private static final int USUARIOS = 5_000;
+    private static final int TAMANIO_PAGINA = 500;
+    private static final int CALENTAMIENTO = 200;
+    private static final int MEDICIONES = 500;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate lectura;
+
+    @BeforeEach
+    void setUp() {
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        List<Usuario> usuarios = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios.add(new Usuario("Usuario " + i, "usuario" + i + "@email.com"));
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> usuarioRepository.saveAll(usuarios));
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> usuarioRepository.deleteAllInBatch());
+    }
+
+    @Test
+    void proyeccionDTO_debeAsignarMenosMemoriaQueCargarEntidades() {
+        // When
+        long antes = medirBytesPorSolicitud(() -> lectura.execute(estado -> paginaConEntidades()));
+        long despues = medirBytesPorSolicitud(() -> lectura.execute(estado ->
+            usuarioRepository.findActivosDespuesDe(0L, PageRequest.of(0, TAMANIO_PAGINA))));
+
+        // Then
+        logger.info("Bytes asignados por solicitud (página de {}): entidades={}, proyección DTO={} ({}%)",
+            TAMANIO_PAGINA, antes, despues, Math.round(100.0 * despues / antes));
+        assertThat(despues).isLessThan(antes);
+    }
+
+    /**
+     * Lectura tal como se hacía antes: entidades administradas copiadas luego a DTO
+     */
+    private List<UsuarioDTO> paginaConEntidades() {
+        return entityManager.createQuery(
+                "SELECT u FROM Usuario u WHERE u.activo = true AND u.id > :ultimoId ORDER BY u.id", Usuario.class)
+            .setParameter("ultimoId", 0L)
+            .setMaxResults(TAMANIO_PAGINA)
+            .getResultStream()
+            .map(u -> new UsuarioDTO(u.getId(), u.getNombre(), u.getEmail(), u.getFechaCreacion(), u.getActivo()))
+            .collect(Collectors.toList());
+    }
+
+    private long medirBytesPorSolicitud(Supplier<List<UsuarioDTO>> solicitud) {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long idHilo = Thread.currentThread().getId();
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            assertThat(solicitud.get()).hasSize(TAMANIO_PAGINA);
+        }
+
+        long inicio = hilos.getThreadAllocatedBytes(idHilo);
+        for (int i = 0; i < MEDICIONES; i++) {
+            solicitud.get();
+        }
+        return (hilos.getThreadAllocatedBytes(idHilo) - inicio) / MEDICIONES;
+    }
+}
@@ -0,0 +1,170 @@
+package uy.bcu.usuario.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uy.bcu.usuario.cache.UsuariosModificadosEvent;
+import uy.bcu.usuario.dto.UsuarioEstadisticasDTO;
+import uy.bcu.usuario.repository.UsuarioRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsuarioEstadisticasServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UsuarioEstadisticasService estadisticasService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().doAnswer(invocacion -> {
+            ((Consumer<TransactionStatus>) invocacion.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        meterRegistry = new SimpleMeterRegistry();
+        estadisticasService = new UsuarioEstadisticasService(usuarioRepository, transactionTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reconciliar_debeCargarContadoresDesdeLaBase() {
+        // Given
+        when(usuarioRepository.countByActivoTrue()).thenReturn(5L);
+        when(usuarioRepository.count()).thenReturn(7L);
+        when(usuarioRepository.countByFechaCreacionGreaterThanEqual(any(LocalDateTime.class))).thenReturn(2L);
+
+        // When
+        estadisticasService.reconciliar();
+
+        // Then
+        UsuarioEstadisticasDTO estadisticas = estadisticasService.obtenerEstadisticas();
+        assertThat(estadisticas.getActivos()).isEqualTo(5L);
+        assertThat(estadisticas.getTotal()).isEqualTo(7L);
+        assertThat(estadisticas.getCreadosHoy()).isEqualTo(2L);
+        assertThat(estadisticas.getUltimaReconciliacion()).isNotNull();
+        assertThat(meterRegistry.get("usuarios.activos").gauge().value()).isEqualTo(5.0);
+    }
+
+    @Test
+    void alModificarUsuarios_debeActualizarContadoresSinConsultarLaBase() {
+        // When
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuariosCreados(Arrays.asList(1L, 2L, 3L)));
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioDesactivado(1L, true));
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioDesactivado(2L, false));
+
+        // Then
+        UsuarioEstadisticasDTO estadisticas = estadisticasService.obtenerEstadisticas();
+        assertThat(estadisticas.getActivos()).isEqualTo(2L);
+        assertThat(estadisticas.getTotal()).isEqualTo(3L);
+        assertThat(estadisticas.getCreadosHoy()).isEqualTo(3L);
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void reconciliar_debeConservarContadoresSiLaBaseNoResponde() {
+        // Given
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(1L));
+        when(usuarioRepository.countByActivoTrue()).thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        // When
+        estadisticasService.reconciliar();
+
+        // Then
+        assertThat(estadisticasService.obtenerEstadisticas().getActivos()).isEqualTo(1L);
+        assertThat(estadisticasService.obtenerEstadisticas().getUltimaReconciliacion()).isNull();
+    }
+
+    @Test
+    void alModificarUsuarios_debeAplicarseSoloSiLaTransaccionConfirma() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(1L));
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(2L));
+        assertThat(estadisticasService.obtenerEstadisticas().getTotal()).isZero();
+
+        // When
+        TransactionSynchronization confirmada = TransactionSynchronizationManager.getSynchronizations().get(0);
+        TransactionSynchronization revertida = TransactionSynchronizationManager.getSynchronizations().get(1);
+        confirmada.beforeCommit(false);
+        confirmada.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        revertida.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        assertThat(estadisticasService.obtenerEstadisticas().getTotal()).isEqualTo(1L);
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void reconciliar_noDebeDuplicarAltasConfirmadasDespuesDeLaInstantanea() {
+        // Given: el alta confirma mientras corren los COUNT, así que la instantánea de
+        // la base no la ve pero la memoria sí
+        when(usuarioRepository.countByActivoTrue()).thenAnswer(invocacion -> {
+            estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(1L));
+            return 0L;
+        });
+
+        // When
+        estadisticasService.reconciliar();
+
+        // Then
+        UsuarioEstadisticasDTO estadisticas = estadisticasService.obtenerEstadisticas();
+        assertThat(estadisticas.getActivos()).isEqualTo(1L);
+        assertThat(estadisticas.getTotal()).isEqualTo(1L);
+        assertThat(estadisticas.getCreadosHoy()).isEqualTo(1L);
+        verify(usuarioRepository).fijarInstantanea();
+    }
+
+    @Test
+    void reconciliar_debeEsperarALosCommitsEnCursoAntesDeFijarLaInstantanea() throws Exception {
+        // Given: un alta de esta réplica pasó beforeCommit pero todavía no se aplicó
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticasService.alModificarUsuarios(UsuariosModificadosEvent.usuarioCreado(1L));
+        TransactionSynchronization sincronizacion = TransactionSynchronizationManager.getSynchronizations().get(0);
+        sincronizacion.beforeCommit(false);
+
+        Thread reconciliacion = new Thread(estadisticasService::reconciliar);
+        reconciliacion.start();
+        Thread.sleep(200);
+        verify(usuarioRepository, never()).fijarInstantanea();
+
+        // When
+        when(usuarioRepository.countByActivoTrue()).thenReturn(1L);
+        when(usuarioRepository.count()).thenReturn(1L);
+        when(usuarioRepository.countByFechaCreacionGreaterThanEqual(any(LocalDateTime.class))).thenReturn(1L);
+        sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        reconciliacion.join(5000);
+
+        // Then
+        verify(usuarioRepository).fijarInstantanea();
+        assertThat(estadisticasService.obtenerEstadisticas().getActivos()).isEqualTo(1L);
+        assertThat(estadisticasService.obtenerEstadisticas().getTotal()).isEqualTo(1L);
+    }
+}
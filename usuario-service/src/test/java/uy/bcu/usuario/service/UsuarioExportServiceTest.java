@@ -0,0 +1,99 @@
+package uy.bcu.usuario.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uy.bcu.usuario.model.Usuario;
+import uy.bcu.usuario.repository.UsuarioRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsuarioExportServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private UsuarioExportService usuarioExportService;
+
+    private Usuario usuario1;
+    private Usuario usuario2;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        usuarioExportService = new UsuarioExportService(usuarioRepository, entityManager, objectMapper);
+
+        LocalDateTime fecha = LocalDateTime.of(2023, 10, 15, 10, 30);
+
+        usuario1 = new Usuario("Juan Pérez", "juan@email.com");
+        usuario1.setId(1L);
+        usuario1.setFechaCreacion(fecha);
+        usuario1.setActivo(true);
+
+        usuario2 = new Usuario("García, María \"Mary\"", "maria@email.com");
+        usuario2.setId(2L);
+        usuario2.setFechaCreacion(fecha);
+        usuario2.setActivo(false);
+    }
+
+    @Test
+    void exportar_debeEscribirUnaLineaJsonPorUsuario() throws Exception {
+        // Given
+        when(usuarioRepository.streamTodosOrdenadosPorId()).thenReturn(Stream.of(usuario1, usuario2));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        long filas = usuarioExportService.exportar(UsuarioExportService.Formato.NDJSON, salida);
+
+        // Then
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(filas).isEqualTo(2);
+        assertThat(lineas).hasSize(2);
+        assertThat(lineas[0]).contains("\"id\":1", "\"nombre\":\"Juan Pérez\"", "\"fechaCreacion\":\"2023-10-15T10:30:00\"");
+        assertThat(lineas[1]).contains("\"id\":2", "\"activo\":false");
+        verify(entityManager).detach(usuario1);
+        verify(entityManager).detach(usuario2);
+    }
+
+    @Test
+    void exportar_debeEscribirCsvConCabeceraYCamposEscapados() throws Exception {
+        // Given
+        when(usuarioRepository.streamTodosOrdenadosPorId()).thenReturn(Stream.of(usuario1, usuario2));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        usuarioExportService.exportar(UsuarioExportService.Formato.CSV, salida);
+
+        // Then
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "id,nombre,email,fechaCreacion,activo\n"
+                + "1,Juan Pérez,juan@email.com,2023-10-15T10:30,true\n"
+                + "2,\"García, María \"\"Mary\"\"\",maria@email.com,2023-10-15T10:30,false\n");
+    }
+
+    @Test
+    void formato_debeAceptarMinusculasYRechazarDesconocidos() {
+        assertThat(UsuarioExportService.Formato.desde("csv")).isEqualTo(UsuarioExportService.Formato.CSV);
+        assertThatThrownBy(() -> UsuarioExportService.Formato.desde("xml"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Formato de exportación no soportado: xml");
+    }
+}
@@ -1,25 +1,44 @@
 package uy.bcu.usuario.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import uy.bcu.usuario.cache.UsuariosModificadosEvent;
+import uy.bcu.usuario.concurrent.AgrupadorLotes;
 import uy.bcu.usuario.dto.UsuarioCreateDTO;
 import uy.bcu.usuario.dto.UsuarioDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionDTO;
+import uy.bcu.usuario.dto.UsuarioDesactivacionResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioLoteResultadoDTO;
+import uy.bcu.usuario.dto.UsuarioPaginaDTO;
 import uy.bcu.usuario.model.Usuario;
 import uy.bcu.usuario.repository.UsuarioRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,15 +47,28 @@ public class UsuarioServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AgrupadorLotes<Long, UsuarioDTO> agrupadorPorId;
+
+    private SimpleMeterRegistry meterRegistry;
     private UsuarioService usuarioService;
 
     private Usuario usuario1;
-    private Usuario usuario2;
+    private UsuarioDTO usuarioDTO1;
+    private UsuarioDTO usuarioDTO2;
     private UsuarioCreateDTO createDTO;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        usuarioService = new UsuarioService(usuarioRepository, entityManager, eventPublisher, agrupadorPorId, meterRegistry);
+
         LocalDateTime now = LocalDateTime.now();
 
         usuario1 = new Usuario("Juan Pérez", "juan@email.com");
@@ -44,33 +76,82 @@ public class UsuarioServiceTest {
         usuario1.setFechaCreacion(now);
         usuario1.setActivo(true);
 
-        usuario2 = new Usuario("María García", "maria@email.com");
-        usuario2.setId(2L);
-        usuario2.setFechaCreacion(now);
-        usuario2.setActivo(true);
+        usuarioDTO1 = new UsuarioDTO(1L, "Juan Pérez", "juan@email.com", now, true);
+        usuarioDTO2 = new UsuarioDTO(2L, "María García", "maria@email.com", now, true);
 
         createDTO = new UsuarioCreateDTO("Ana López", "ana@email.com");
     }
 
     @Test
-    void obtenerTodosLosUsuarios_debeRetornarListaDeUsuariosActivos() {
+    void obtenerTodosLosUsuarios_debeRetornarPrimeraPaginaDeUsuariosActivos() {
         // Given
-        when(usuarioRepository.findAll()).thenReturn(Arrays.asList(usuario1, usuario2));
+        when(usuarioRepository.findActivosDespuesDe(eq(0L), any(Pageable.class)))
+            .thenReturn(Arrays.asList(usuarioDTO1, usuarioDTO2));
 
         // When
-        List<UsuarioDTO> result = usuarioService.obtenerTodosLosUsuarios();
+        UsuarioPaginaDTO result = usuarioService.obtenerTodosLosUsuarios(null, 50);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getNombre()).isEqualTo("Juan Pérez");
-        assertThat(result.get(1).getNombre()).isEqualTo("María García");
-        verify(usuarioRepository).findAll();
+        assertThat(result.getUsuarios()).hasSize(2);
+        assertThat(result.getUsuarios().get(0).getNombre()).isEqualTo("Juan Pérez");
+        assertThat(result.getUsuarios().get(1).getNombre()).isEqualTo("María García");
+        assertThat(result.isHayMas()).isFalse();
+        assertThat(result.getSiguienteCursor()).isNull();
+        verify(usuarioRepository).findActivosDespuesDe(0L, PageRequest.of(0, 51));
+    }
+
+    @Test
+    void obtenerTodosLosUsuarios_debeDevolverCursorCuandoHayMasPaginas() {
+        // Given
+        when(usuarioRepository.findActivosDespuesDe(eq(0L), any(Pageable.class)))
+            .thenReturn(Arrays.asList(usuarioDTO1, usuarioDTO2));
+
+        // When
+        UsuarioPaginaDTO primera = usuarioService.obtenerTodosLosUsuarios(null, 1);
+
+        // Then
+        assertThat(primera.getUsuarios()).hasSize(1);
+        assertThat(primera.isHayMas()).isTrue();
+        assertThat(primera.getSiguienteCursor()).isNotNull();
+
+        // When - la siguiente página continúa después del último ID entregado
+        when(usuarioRepository.findActivosDespuesDe(eq(1L), any(Pageable.class)))
+            .thenReturn(Arrays.asList(usuarioDTO2));
+        UsuarioPaginaDTO segunda = usuarioService.obtenerTodosLosUsuarios(primera.getSiguienteCursor(), 1);
+
+        // Then
+        assertThat(segunda.getUsuarios()).extracting(UsuarioDTO::getId).containsExactly(2L);
+        assertThat(segunda.isHayMas()).isFalse();
+        verify(usuarioRepository).findActivosDespuesDe(1L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void obtenerTodosLosUsuarios_debeLimitarTamanioDePagina() {
+        // Given
+        when(usuarioRepository.findActivosDespuesDe(eq(0L), any(Pageable.class)))
+            .thenReturn(Arrays.asList(usuarioDTO1));
+
+        // When
+        usuarioService.obtenerTodosLosUsuarios(null, 100_000);
+
+        // Then
+        verify(usuarioRepository).findActivosDespuesDe(0L, PageRequest.of(0, UsuarioService.LIMITE_MAXIMO + 1));
+    }
+
+    @Test
+    void obtenerTodosLosUsuarios_debeLanzarExcepcionConCursorInvalido() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.obtenerTodosLosUsuarios("no-es-un-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cursor de paginación inválido");
+
+        verify(usuarioRepository, never()).findActivosDespuesDe(anyLong(), any(Pageable.class));
     }
 
     @Test
     void obtenerUsuarioPorId_debeRetornarUsuarioCuandoExisteYEstaActivo() {
         // Given
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario1));
+        when(agrupadorPorId.obtener(1L)).thenReturn(usuarioDTO1);
 
         // When
         Optional<UsuarioDTO> result = usuarioService.obtenerUsuarioPorId(1L);
@@ -78,20 +159,21 @@ public class UsuarioServiceTest {
         // Then
         assertThat(result).isPresent();
         assertThat(result.get().getNombre()).isEqualTo("Juan Pérez");
-        verify(usuarioRepository).findById(1L);
+        verify(agrupadorPorId).obtener(1L);
+        verify(usuarioRepository, never()).findById(anyLong());
     }
 
     @Test
     void obtenerUsuarioPorId_debeRetornarEmptyCuandoUsuarioNoExiste() {
         // Given
-        when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
+        when(agrupadorPorId.obtener(999L)).thenReturn(null);
 
         // When
         Optional<UsuarioDTO> result = usuarioService.obtenerUsuarioPorId(999L);
 
         // Then
         assertThat(result).isEmpty();
-        verify(usuarioRepository).findById(999L);
+        verify(agrupadorPorId).obtener(999L);
     }
 
     @Test
@@ -109,6 +191,7 @@ public class UsuarioServiceTest {
         assertThat(result.getEmail()).isEqualTo("juan@email.com");
         verify(usuarioRepository).existsByEmail("ana@email.com");
         verify(usuarioRepository).save(any(Usuario.class));
+        verify(eventPublisher).publishEvent(any(UsuariosModificadosEvent.class));
     }
 
     @Test
@@ -126,59 +209,182 @@ public class UsuarioServiceTest {
     }
 
     @Test
-    void buscarPorNombre_debeRetornarUsuariosFiltrados() {
+    void crearUsuariosEnLote_debeRechazarDuplicadosConUnaSolaConsulta() {
         // Given
-        when(usuarioRepository.findByNombreContainingIgnoreCase("Juan"))
-            .thenReturn(Arrays.asList(usuario1));
+        List<UsuarioCreateDTO> lote = Arrays.asList(
+            new UsuarioCreateDTO("Ana López", "ana@email.com"),
+            new UsuarioCreateDTO("Juan Pérez", "juan@email.com"),
+            new UsuarioCreateDTO("Ana Repetida", "ana@email.com")
+        );
+        when(usuarioRepository.findEmailsExistentes(anyCollection()))
+            .thenReturn(Collections.singletonList("juan@email.com"));
+        when(usuarioRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Usuario> usuarios = invocation.getArgument(0);
+            usuarios.forEach(u -> u.setId(10L));
+            return usuarios;
+        });
 
         // When
-        List<UsuarioDTO> result = usuarioService.buscarPorNombre("Juan");
+        UsuarioLoteResultadoDTO result = usuarioService.crearUsuariosEnLote(lote);
+
+        // Then
+        assertThat(result.getCreados()).extracting(UsuarioDTO::getEmail).containsExactly("ana@email.com");
+        assertThat(result.getEmailsRechazados()).containsExactly("ana@email.com", "juan@email.com");
+        verify(usuarioRepository, times(1)).findEmailsExistentes(anyCollection());
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+        verify(usuarioRepository).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void buscarPorNombre_debeBuscarPorTextoConTodosLosTerminos() {
+        // Given
+        when(usuarioRepository.buscarActivosPorTexto("%juan% AND %pé%", 20))
+            .thenReturn(Arrays.asList(usuarioDTO1));
+
+        // When
+        List<UsuarioDTO> result = usuarioService.buscarPorNombre(" Juan  Pé-", UsuarioService.ModoBusqueda.CONTIENE, 20);
 
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getNombre()).isEqualTo("Juan Pérez");
-        verify(usuarioRepository).findByNombreContainingIgnoreCase("Juan");
+        verify(usuarioRepository).buscarActivosPorTexto("%juan% AND %pé%", 20);
     }
 
     @Test
-    void desactivarUsuario_debeDesactivarUsuarioExistente() {
+    void buscarPorNombre_debeDescartarOperadoresYTerminosCortos() {
+        // When
+        List<UsuarioDTO> result = usuarioService.buscarPorNombre("a & {", UsuarioService.ModoBusqueda.CONTIENE, 20);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(usuarioRepository, never()).buscarActivosPorTexto(anyString(), anyInt());
+    }
+
+    @Test
+    void buscarPorNombre_debeBuscarPorPrefijoEscapandoComodines() {
         // Given
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario1));
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario1);
+        when(usuarioRepository.buscarActivosPorPrefijo(anyString(), any(Pageable.class)))
+            .thenReturn(Arrays.asList(usuarioDTO1));
+
+        // When
+        List<UsuarioDTO> result = usuarioService.buscarPorNombre("Juan_%", UsuarioService.ModoBusqueda.PREFIJO, 10);
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(usuarioRepository).buscarActivosPorPrefijo("juan\\_\\%", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void buscarPorNombre_debeLimitarCantidadDeResultados() {
+        // Given
+        when(usuarioRepository.buscarActivosPorPrefijo(anyString(), any(Pageable.class)))
+            .thenReturn(Collections.emptyList());
+
+        // When
+        usuarioService.buscarPorNombre("Juan", UsuarioService.ModoBusqueda.PREFIJO, 10_000);
+
+        // Then
+        verify(usuarioRepository).buscarActivosPorPrefijo("juan",
+            PageRequest.of(0, UsuarioService.LIMITE_BUSQUEDA_MAXIMO));
+    }
+
+    @Test
+    void desactivarUsuario_debeDesactivarConUnSoloUpdate() {
+        // Given
+        when(usuarioRepository.desactivarPorId(1L)).thenReturn(1);
 
         // When
         usuarioService.desactivarUsuario(1L);
 
         // Then
-        assertThat(usuario1.getActivo()).isFalse();
-        verify(usuarioRepository).findById(1L);
-        verify(usuarioRepository).save(usuario1);
+        verify(usuarioRepository).desactivarPorId(1L);
+        verify(usuarioRepository, never()).findById(anyLong());
+        verify(usuarioRepository, never()).existsById(anyLong());
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+        ArgumentCaptor<UsuariosModificadosEvent> evento = ArgumentCaptor.forClass(UsuariosModificadosEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().getIds()).containsExactly(1L);
+        assertThat(evento.getValue().getDesactivados()).isEqualTo(1);
+    }
+
+    @Test
+    void desactivarUsuario_noDebeFallarSiYaEstabaInactivo() {
+        // Given
+        when(usuarioRepository.desactivarPorId(2L)).thenReturn(0);
+        when(usuarioRepository.existsById(2L)).thenReturn(true);
+
+        // When
+        usuarioService.desactivarUsuario(2L);
+
+        // Then
+        ArgumentCaptor<UsuariosModificadosEvent> evento = ArgumentCaptor.forClass(UsuariosModificadosEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().getDesactivados()).isZero();
     }
 
     @Test
     void desactivarUsuario_debeLanzarExcepcionCuandoUsuarioNoExiste() {
         // Given
-        when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
+        when(usuarioRepository.desactivarPorId(999L)).thenReturn(0);
+        when(usuarioRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> usuarioService.desactivarUsuario(999L))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessage("Usuario no encontrado");
 
-        verify(usuarioRepository).findById(999L);
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void contarUsuariosActivos_debeRetornarConteoCorrecto() {
+    void desactivarUsuarios_debeEjecutarUnUpdatePorBloqueDeIds() {
         // Given
-        when(usuarioRepository.countByActivoTrue()).thenReturn(5L);
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toList());
+        ids.add(1L);
+        when(usuarioRepository.desactivarPorIds(anyCollection())).thenReturn(1000, 1000, 400);
 
         // When
-        long result = usuarioService.contarUsuariosActivos();
+        UsuarioDesactivacionResultadoDTO result =
+            usuarioService.desactivarUsuarios(new UsuarioDesactivacionDTO(ids, null));
 
         // Then
-        assertThat(result).isEqualTo(5L);
-        verify(usuarioRepository).countByActivoTrue();
+        assertThat(result.getSolicitados()).isEqualTo(2500);
+        assertThat(result.getDesactivados()).isEqualTo(2400);
+        verify(usuarioRepository, times(3)).desactivarPorIds(anyCollection());
+        ArgumentCaptor<UsuariosModificadosEvent> evento = ArgumentCaptor.forClass(UsuariosModificadosEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().getIds()).hasSize(2500);
+        assertThat(evento.getValue().getDesactivados()).isEqualTo(2400);
+    }
+
+    @Test
+    void desactivarUsuarios_debeDesactivarPorFechaDeCreacion() {
+        // Given
+        LocalDateTime corte = LocalDateTime.of(2023, 1, 1, 0, 0);
+        when(usuarioRepository.desactivarCreadosAntesDe(corte)).thenReturn(120);
+
+        // When
+        UsuarioDesactivacionResultadoDTO result =
+            usuarioService.desactivarUsuarios(new UsuarioDesactivacionDTO(null, corte));
+
+        // Then
+        assertThat(result.getSolicitados()).isNull();
+        assertThat(result.getDesactivados()).isEqualTo(120);
+        ArgumentCaptor<UsuariosModificadosEvent> evento = ArgumentCaptor.forClass(UsuariosModificadosEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().isTodos()).isTrue();
+        assertThat(evento.getValue().getDesactivados()).isEqualTo(120);
+    }
+
+    @Test
+    void desactivarUsuarios_debeExigirUnSoloCriterio() {
+        assertThatThrownBy(() -> usuarioService.desactivarUsuarios(new UsuarioDesactivacionDTO(null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> usuarioService.desactivarUsuarios(
+                new UsuarioDesactivacionDTO(Arrays.asList(1L), LocalDateTime.now())))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(usuarioRepository);
     }
 }